@@ -17,13 +17,19 @@
 */
 package org.wso2.siddhi.query.api.definition;
 
+import org.wso2.siddhi.query.api.exception.AttributeAlreadyExistException;
+
 import java.io.Serializable;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class TableDefinition extends AbstractDefinition {
 
+    public enum IndexType {HASH, RANGE}
+
     private ExternalTable externalTable = null;
+    private Map<String, IndexType> indexMap = new LinkedHashMap<String, IndexType>();
 
     public TableDefinition name(String streamId) {
         id = streamId;
@@ -36,6 +42,33 @@ public class TableDefinition extends AbstractDefinition {
         return this;
     }
 
+    /**
+     * Declares a hash index on the attribute, used for equality lookups
+     */
+    public TableDefinition hashIndex(String attributeName) {
+        return index(attributeName, IndexType.HASH);
+    }
+
+    /**
+     * Declares a sorted index on the attribute, used for range and equality lookups
+     */
+    public TableDefinition rangeIndex(String attributeName) {
+        return index(attributeName, IndexType.RANGE);
+    }
+
+    public TableDefinition index(String attributeName, IndexType indexType) {
+        getAttributePosition(attributeName);
+        if (indexMap.containsKey(attributeName)) {
+            throw new AttributeAlreadyExistException("Index is already defined for attribute " + attributeName + " with type " + indexMap.get(attributeName) + " for " + id);
+        }
+        indexMap.put(attributeName, indexType);
+        return this;
+    }
+
+    public Map<String, IndexType> getIndexMap() {
+        return indexMap;
+    }
+
     public String getTableId() {
         return id;
     }
@@ -50,6 +83,7 @@ public class TableDefinition extends AbstractDefinition {
                 "tableId='" + id + '\'' +
                 ", attributeList=" + attributeList + '\'' +
                 ", externalTable=" + externalTable + '\'' +
+                ", indexMap=" + indexMap + '\'' +
                 "} ";
     }
 
@@ -26,8 +26,10 @@ import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.exception.DifferentDefinitionAlreadyExistException;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.exception.QueryNotExistException;
+import org.wso2.siddhi.core.executor.compiler.ExecutorCompiler;
 import org.wso2.siddhi.core.extension.EternalReferencedHolder;
 import org.wso2.siddhi.core.extension.holder.EventTableExtensionHolder;
+import org.wso2.siddhi.core.partition.PartitionWorkerPool;
 import org.wso2.siddhi.core.persistence.PersistenceService;
 import org.wso2.siddhi.core.persistence.PersistenceStore;
 import org.wso2.siddhi.core.query.QueryManager;
@@ -47,6 +49,8 @@ import org.wso2.siddhi.core.tracer.EventMonitorService;
 import org.wso2.siddhi.core.util.ExecutionPlanReference;
 import org.wso2.siddhi.core.util.SiddhiThreadFactory;
 import org.wso2.siddhi.core.util.generator.GlobalIndexGenerator;
+import org.wso2.siddhi.core.util.timer.EventTimeClock;
+import org.wso2.siddhi.core.util.timer.TimingWheel;
 import org.wso2.siddhi.query.api.ExecutionPlan;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
@@ -93,15 +97,33 @@ public class SiddhiManager {
                 this.siddhiContext = new SiddhiContext(siddhiConfiguration.getQueryPlanIdentifier(), SiddhiContext.ProcessingState.ENABLE_EXTERNAL);
             }
             siddhiContext.setHazelcastInstance(hazelcastInstance);
-            siddhiContext.setGlobalIndexGenerator(new GlobalIndexGenerator(siddhiContext));
+            siddhiContext.setGlobalIndexGenerator(new GlobalIndexGenerator(siddhiContext, siddhiConfiguration.getGlobalIndexBlockSize()));
+            siddhiContext.setGridNearCache(siddhiConfiguration.isGridNearCache());
+            siddhiContext.setGridPartitionAware(siddhiConfiguration.isGridPartitionAware());
         } else {
             this.siddhiContext = new SiddhiContext(siddhiConfiguration.getQueryPlanIdentifier(), SiddhiContext.ProcessingState.DISABLED);
         }
 
         this.siddhiContext.setEventBatchSize(siddhiConfiguration.getEventBatchSize());
+        this.siddhiContext.setFullSnapshotInterval(siddhiConfiguration.getFullSnapshotInterval());
+        this.siddhiContext.setSnapshotCompression(siddhiConfiguration.isSnapshotCompression());
+        if (siddhiConfiguration.isExecutorCompilation()) {
+            this.siddhiContext.setExecutorCompiler(new ExecutorCompiler());
+        }
         this.siddhiContext.setAsyncProcessing(siddhiConfiguration.isAsyncProcessing());
+        this.siddhiContext.setRingBufferProcessing(siddhiConfiguration.isRingBufferProcessing());
+        this.siddhiContext.setRingBufferSize(siddhiConfiguration.getRingBufferSize());
+        this.siddhiContext.setRingBufferWaitStrategy(siddhiConfiguration.getRingBufferWaitStrategy());
         this.siddhiContext.setSiddhiExtensions(siddhiConfiguration.getSiddhiExtensions());
         this.siddhiContext.setThreadBarrier(new ThreadBarrier());
+        if (siddhiConfiguration.getPartitionWorkers() > 0) {
+            this.siddhiContext.setPartitionWorkerPool(new PartitionWorkerPool(siddhiConfiguration.getPartitionWorkers(),
+                                                                              siddhiConfiguration.getPartitionWorkerQueueSize(),
+                                                                              siddhiContext.getThreadBarrier()));
+        }
+        this.siddhiContext.setPartitionIdleTimeout(siddhiConfiguration.getPartitionIdleTimeout());
+        this.siddhiContext.setMaxPartitions(siddhiConfiguration.getMaxPartitions());
+        this.siddhiContext.setPartitionSpilling(siddhiConfiguration.isPartitionSpilling());
         this.siddhiContext.setThreadPoolExecutor(new ThreadPoolExecutor(siddhiConfiguration.getThreadExecutorCorePoolSize(),
                 siddhiConfiguration.getThreadExecutorMaxPoolSize(),
                 50,
@@ -109,7 +131,15 @@ public class SiddhiManager {
                 new LinkedBlockingQueue<Runnable>(),
                 new SiddhiThreadFactory("Executor")));
         this.siddhiContext.setScheduledExecutorService(Executors.newScheduledThreadPool(siddhiConfiguration.getThreadSchedulerCorePoolSize(), new SiddhiThreadFactory("Scheduler")));
+        this.siddhiContext.setEventTimeProcessing(siddhiConfiguration.isEventTimeProcessing());
+        if (siddhiConfiguration.isEventTimeProcessing()) {
+            this.siddhiContext.setClock(new EventTimeClock());
+        } else {
+            this.siddhiContext.setClock(new TimingWheel(siddhiConfiguration.getTimerTickDuration(), siddhiConfiguration.getTimerWheelSize(),
+                                                        siddhiConfiguration.getTimerWorkerCount()));
+        }
         this.siddhiContext.setSnapshotService(new SnapshotService(siddhiContext));
+        this.siddhiContext.getSnapshotService().getCodec().setDefinitionMap(streamTableDefinitionMap);
         this.siddhiContext.setPersistenceService(new PersistenceService(siddhiContext));
         this.siddhiContext.setEventMonitorService(new EventMonitorService(siddhiContext));
 
@@ -122,10 +152,10 @@ public class SiddhiManager {
             streamTableDefinitionMap.put(streamDefinition.getStreamId(), streamDefinition);
             StreamJunction streamJunction = streamJunctionMap.get(streamDefinition.getStreamId());
             if (streamJunction == null) {
-                streamJunction = new StreamJunction(streamDefinition.getStreamId(), siddhiContext.getEventMonitorService());
+                streamJunction = new StreamJunction(streamDefinition.getStreamId(), siddhiContext);
                 streamJunctionMap.put(streamDefinition.getStreamId(), streamJunction);
             }
-            InputHandler inputHandler = new InputHandler(streamDefinition.getStreamId(), streamJunction, siddhiContext);
+            InputHandler inputHandler = new InputHandler(streamDefinition, streamJunction, siddhiContext);
             inputHandlerMap.put(streamDefinition.getStreamId(), inputHandler);
             return inputHandler;
         } else {
@@ -225,6 +255,10 @@ public class SiddhiManager {
 
     }
 
+    public EventTable getEventTable(String tableId) {
+        return eventTableMap.get(tableId);
+    }
+
     public void removeTable(String tableId) {
         AbstractDefinition abstractDefinition = streamTableDefinitionMap.get(tableId);
         if (abstractDefinition != null && abstractDefinition instanceof TableDefinition) {
@@ -357,7 +391,7 @@ public class SiddhiManager {
         streamCallback.setSiddhiContext(siddhiContext);
         StreamJunction streamJunction = streamJunctionMap.get(streamId);
         if (streamJunction == null) {
-            streamJunction = new StreamJunction(streamId, siddhiContext.getEventMonitorService());
+            streamJunction = new StreamJunction(streamId, siddhiContext);
             streamJunctionMap.put(streamId, streamJunction);
         }
         streamJunction.addEventFlow(streamCallback);
@@ -375,7 +409,16 @@ public class SiddhiManager {
 
 
     public void shutdown() {
+        for (StreamJunction streamJunction : streamJunctionMap.values()) {
+            streamJunction.shutdown();
+        }
         siddhiContext.getThreadPoolExecutor().shutdown();
+        if (siddhiContext.getPartitionWorkerPool() != null) {
+            // waits for the queued partition events before the holders they use are destroyed
+            siddhiContext.getPartitionWorkerPool().shutdown();
+        }
+        siddhiContext.getPersistenceService().shutdown();
+        siddhiContext.getClock().shutdown();
         siddhiContext.getScheduledExecutorService().shutdownNow();
         for (EternalReferencedHolder eternalReferencedHolder : siddhiContext.getEternalReferencedHolders()) {
             eternalReferencedHolder.destroy();
@@ -17,6 +17,8 @@
 */
 package org.wso2.siddhi.core.config;
 
+import org.wso2.siddhi.core.util.collection.ringbuffer.WaitStrategy;
+
 import java.util.List;
 import java.util.UUID;
 
@@ -37,12 +39,92 @@ public class SiddhiConfiguration {
      */
     private int threadSchedulerCorePoolSize;
 
+    /**
+     * Tick duration in milliseconds of the timing wheel scheduling time windows and output rates
+     */
+    private long timerTickDuration;
+
+    /**
+     * Number of buckets of the timing wheel, rounded up to a power of 2
+     */
+    private int timerWheelSize;
+
+    /**
+     * Number of threads running the expired timeouts of the timing wheel, so that a slow time window
+     * or output rate callback does not hold up the expiry of the others
+     */
+    private int timerWorkerCount;
+
+    /**
+     * To advance time by the event timestamps and the watermarks sent through the InputHandlers
+     * instead of the wall clock
+     */
+    private boolean eventTimeProcessing;
+
+    /**
+     * Number of revisions persisted in a chain, after which a full snapshot is persisted instead of an increment
+     */
+    private int fullSnapshotInterval;
+
+    /**
+     * To compress the persisted snapshots with Deflate
+     */
+    private boolean snapshotCompression;
+
+    /**
+     * To compile the conditions and select lists of the queries into generated classes
+     */
+    private boolean executorCompilation;
+
+    /**
+     * Number of worker threads the partitions of partitioned queries are sharded over by their keys,
+     * 0 to process the partitions on the thread the events arrive
+     */
+    private int partitionWorkers;
+
+    /**
+     * Number of events queued per partition worker before the producers wait
+     */
+    private int partitionWorkerQueueSize;
+
+    /**
+     * Time in milliseconds after which a partition instance that received no events is evicted, 0 to keep them
+     */
+    private long partitionIdleTimeout;
+
+    /**
+     * Maximum number of partition instances kept per partitioned query, 0 for no limit
+     */
+    private int maxPartitions;
+
+    /**
+     * To save the state of evicted partition instances to the persistence store and restore it on the next
+     * event of their partition keys, when it is deleted from a RevisionDeletingPersistenceStore. This only
+     * frees the heap with a store keeping the states outside it. The snapshots refer to the spilled states by
+     * their store revisions, which are then kept in the store.
+     */
+    private boolean partitionSpilling;
 
     /**
      * To enable Async Processing that uses intermediate queues
      */
     private boolean asyncProcessing;
 
+    /**
+     * To enable ring buffer based stream junctions, where each receiver reads the stream on its own thread
+     */
+    private boolean ringBufferProcessing;
+
+    /**
+     * Number of slots of each stream junction ring buffer, should be a power of 2
+     */
+    private int ringBufferSize;
+
+    /**
+     * Strategy used by the ring buffer receivers when waiting for events
+     */
+    private WaitStrategy.Type ringBufferWaitStrategy;
+
     /**
      * Number of max events bundled when event rates are high
      */
@@ -63,6 +145,24 @@ public class SiddhiConfiguration {
      */
     private String queryPlanIdentifier;
 
+    /**
+     * Number of global indexes a node leases from the cluster at once for distributed processing
+     */
+    private int globalIndexBlockSize;
+
+    /**
+     * To serve the reads of the grid windows from a local copy of their entries for distributed processing.
+     * With gridPartitionAware the copy of a window holds all its entries, so that iterations over it such as
+     * the ones of joins are served locally as well, otherwise they read the grid.
+     */
+    private boolean gridNearCache;
+
+    /**
+     * To keep the entries of each grid window in a partition owned by the member creating it for
+     * distributed processing
+     */
+    private boolean gridPartitionAware;
+
     private List<Class> siddhiExtensions;
 
     public SiddhiConfiguration() {
@@ -73,12 +173,48 @@ public class SiddhiConfiguration {
 
         threadSchedulerCorePoolSize = 20;
 
+        timerTickDuration = 10;
+
+        timerWheelSize = 512;
+
+        timerWorkerCount = 2;
+
+        eventTimeProcessing = false;
+
+        fullSnapshotInterval = 10;
+
+        snapshotCompression = false;
+
+        executorCompilation = false;
+
+        partitionWorkers = 0;
+
+        partitionWorkerQueueSize = 1024;
+
+        partitionIdleTimeout = 0;
+
+        maxPartitions = 0;
+
+        partitionSpilling = false;
+
         asyncProcessing = false;
 
+        ringBufferProcessing = false;
+
+        ringBufferSize = 1024;
+
+        ringBufferWaitStrategy = WaitStrategy.Type.BLOCKING;
+
         distributedProcessing = false;
 
         eventBatchSize = 50;
 
+        globalIndexBlockSize = 1000;
+
+        gridNearCache = false;
+
+        gridPartitionAware = false;
+
         instanceIdentifier = UUID.randomUUID().toString();
 
         queryPlanIdentifier = UUID.randomUUID().toString();
@@ -111,6 +247,114 @@ public class SiddhiConfiguration {
         return this;
     }
 
+    public long getTimerTickDuration() {
+        return timerTickDuration;
+    }
+
+    public SiddhiConfiguration setTimerTickDuration(long timerTickDuration) {
+        this.timerTickDuration = timerTickDuration;
+        return this;
+    }
+
+    public int getTimerWheelSize() {
+        return timerWheelSize;
+    }
+
+    public SiddhiConfiguration setTimerWheelSize(int timerWheelSize) {
+        this.timerWheelSize = timerWheelSize;
+        return this;
+    }
+
+    public int getTimerWorkerCount() {
+        return timerWorkerCount;
+    }
+
+    public SiddhiConfiguration setTimerWorkerCount(int timerWorkerCount) {
+        this.timerWorkerCount = timerWorkerCount;
+        return this;
+    }
+
+    public boolean isEventTimeProcessing() {
+        return eventTimeProcessing;
+    }
+
+    public SiddhiConfiguration setEventTimeProcessing(boolean eventTimeProcessing) {
+        this.eventTimeProcessing = eventTimeProcessing;
+        return this;
+    }
+
+    public int getFullSnapshotInterval() {
+        return fullSnapshotInterval;
+    }
+
+    public SiddhiConfiguration setFullSnapshotInterval(int fullSnapshotInterval) {
+        this.fullSnapshotInterval = fullSnapshotInterval;
+        return this;
+    }
+
+    public boolean isSnapshotCompression() {
+        return snapshotCompression;
+    }
+
+    public SiddhiConfiguration setSnapshotCompression(boolean snapshotCompression) {
+        this.snapshotCompression = snapshotCompression;
+        return this;
+    }
+
+    public boolean isExecutorCompilation() {
+        return executorCompilation;
+    }
+
+    public SiddhiConfiguration setExecutorCompilation(boolean executorCompilation) {
+        this.executorCompilation = executorCompilation;
+        return this;
+    }
+
+    public int getPartitionWorkers() {
+        return partitionWorkers;
+    }
+
+    public SiddhiConfiguration setPartitionWorkers(int partitionWorkers) {
+        this.partitionWorkers = partitionWorkers;
+        return this;
+    }
+
+    public int getPartitionWorkerQueueSize() {
+        return partitionWorkerQueueSize;
+    }
+
+    public SiddhiConfiguration setPartitionWorkerQueueSize(int partitionWorkerQueueSize) {
+        this.partitionWorkerQueueSize = partitionWorkerQueueSize;
+        return this;
+    }
+
+    public long getPartitionIdleTimeout() {
+        return partitionIdleTimeout;
+    }
+
+    public SiddhiConfiguration setPartitionIdleTimeout(long partitionIdleTimeout) {
+        this.partitionIdleTimeout = partitionIdleTimeout;
+        return this;
+    }
+
+    public int getMaxPartitions() {
+        return maxPartitions;
+    }
+
+    public SiddhiConfiguration setMaxPartitions(int maxPartitions) {
+        this.maxPartitions = maxPartitions;
+        return this;
+    }
+
+    public boolean isPartitionSpilling() {
+        return partitionSpilling;
+    }
+
+    public SiddhiConfiguration setPartitionSpilling(boolean partitionSpilling) {
+        this.partitionSpilling = partitionSpilling;
+        return this;
+    }
+
     public boolean isAsyncProcessing() {
         return asyncProcessing;
     }
@@ -120,6 +364,33 @@ public class SiddhiConfiguration {
         return this;
     }
 
+    public boolean isRingBufferProcessing() {
+        return ringBufferProcessing;
+    }
+
+    public SiddhiConfiguration setRingBufferProcessing(boolean ringBufferProcessing) {
+        this.ringBufferProcessing = ringBufferProcessing;
+        return this;
+    }
+
+    public int getRingBufferSize() {
+        return ringBufferSize;
+    }
+
+    public SiddhiConfiguration setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+        return this;
+    }
+
+    public WaitStrategy.Type getRingBufferWaitStrategy() {
+        return ringBufferWaitStrategy;
+    }
+
+    public SiddhiConfiguration setRingBufferWaitStrategy(WaitStrategy.Type ringBufferWaitStrategy) {
+        this.ringBufferWaitStrategy = ringBufferWaitStrategy;
+        return this;
+    }
+
     public int getEventBatchSize() {
         return eventBatchSize;
     }
@@ -129,6 +400,33 @@ public class SiddhiConfiguration {
         return this;
     }
 
+    public int getGlobalIndexBlockSize() {
+        return globalIndexBlockSize;
+    }
+
+    public SiddhiConfiguration setGlobalIndexBlockSize(int globalIndexBlockSize) {
+        this.globalIndexBlockSize = globalIndexBlockSize;
+        return this;
+    }
+
+    public boolean isGridNearCache() {
+        return gridNearCache;
+    }
+
+    public SiddhiConfiguration setGridNearCache(boolean gridNearCache) {
+        this.gridNearCache = gridNearCache;
+        return this;
+    }
+
+    public boolean isGridPartitionAware() {
+        return gridPartitionAware;
+    }
+
+    public SiddhiConfiguration setGridPartitionAware(boolean gridPartitionAware) {
+        this.gridPartitionAware = gridPartitionAware;
+        return this;
+    }
+
     public String getInstanceIdentifier() {
         return instanceIdentifier;
     }
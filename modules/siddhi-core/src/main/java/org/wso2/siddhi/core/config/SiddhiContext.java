@@ -18,17 +18,26 @@
 package org.wso2.siddhi.core.config;
 
 import com.hazelcast.core.HazelcastInstance;
+import org.wso2.siddhi.core.executor.compiler.ExecutorCompiler;
 import org.wso2.siddhi.core.extension.EternalReferencedHolder;
+import org.wso2.siddhi.core.partition.PartitionInstance;
+import org.wso2.siddhi.core.partition.PartitionWorkerPool;
 import org.wso2.siddhi.core.persistence.PersistenceService;
 import org.wso2.siddhi.core.snapshot.SnapshotService;
 import org.wso2.siddhi.core.snapshot.ThreadBarrier;
 import org.wso2.siddhi.core.tracer.EventMonitorService;
+import org.wso2.siddhi.core.util.collection.ringbuffer.WaitStrategy;
 import org.wso2.siddhi.core.util.generator.ElementIdGenerator;
 import org.wso2.siddhi.core.util.generator.GlobalIndexGenerator;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import javax.sql.DataSource;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -36,19 +45,34 @@ import java.util.concurrent.ThreadPoolExecutor;
 public class SiddhiContext {
 
     private boolean asyncProcessing;
+    private boolean ringBufferProcessing;
+    private boolean eventTimeProcessing;
+    private int ringBufferSize;
+    private WaitStrategy.Type ringBufferWaitStrategy;
     private int eventBatchSize;
+    private boolean gridNearCache;
+    private boolean gridPartitionAware;
+    private int fullSnapshotInterval;
+    private boolean snapshotCompression;
+    private ExecutorCompiler executorCompiler;
+    private PartitionWorkerPool partitionWorkerPool;
+    private long partitionIdleTimeout;
+    private int maxPartitions;
+    private boolean partitionSpilling;
+    private final ThreadLocal<PartitionInstance> constructingPartition = new ThreadLocal<PartitionInstance>();
     private SnapshotService snapshotService;
     private PersistenceService persistenceService;
     private ThreadBarrier threadBarrier;
     private ThreadPoolExecutor threadPoolExecutor;
     private ScheduledExecutorService scheduledExecutorService;
+    private SiddhiClock clock;
     private ProcessingState distributedProcessingState;
     private ElementIdGenerator elementIdGenerator;
     private GlobalIndexGenerator globalIndexGenerator;
     private HazelcastInstance hazelcastInstance;
     private String queryPlanIdentifier;
     private List<Class> siddhiExtensions;
-    private List<EternalReferencedHolder> eternalReferencedHolders;
+    private Set<EternalReferencedHolder> eternalReferencedHolders;
     private ConcurrentHashMap<String, DataSource> siddhiDataSources;
     private EventMonitorService eventMonitorService;
 
@@ -59,7 +83,7 @@ public class SiddhiContext {
         this.distributedProcessingState = distributedProcessingState;
         this.elementIdGenerator = new ElementIdGenerator(queryPlanIdentifier);
         this.siddhiDataSources = new ConcurrentHashMap<String, DataSource>();
-        this.eternalReferencedHolders = new ArrayList<EternalReferencedHolder>();
+        this.eternalReferencedHolders = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<EternalReferencedHolder, Boolean>()));
     }
 
     public boolean isAsyncProcessing() {
@@ -70,6 +94,113 @@ public class SiddhiContext {
         this.asyncProcessing = asyncProcessing;
     }
 
+    public boolean isEventTimeProcessing() {
+        return eventTimeProcessing;
+    }
+
+    public void setEventTimeProcessing(boolean eventTimeProcessing) {
+        this.eventTimeProcessing = eventTimeProcessing;
+    }
+
+    public boolean isRingBufferProcessing() {
+        return ringBufferProcessing;
+    }
+
+    public void setRingBufferProcessing(boolean ringBufferProcessing) {
+        this.ringBufferProcessing = ringBufferProcessing;
+    }
+
+    public int getRingBufferSize() {
+        return ringBufferSize;
+    }
+
+    public void setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+    }
+
+    public WaitStrategy.Type getRingBufferWaitStrategy() {
+        return ringBufferWaitStrategy;
+    }
+
+    public void setRingBufferWaitStrategy(WaitStrategy.Type ringBufferWaitStrategy) {
+        this.ringBufferWaitStrategy = ringBufferWaitStrategy;
+    }
+
+    public int getFullSnapshotInterval() {
+        return fullSnapshotInterval;
+    }
+
+    public void setFullSnapshotInterval(int fullSnapshotInterval) {
+        this.fullSnapshotInterval = fullSnapshotInterval;
+    }
+
+    public boolean isSnapshotCompression() {
+        return snapshotCompression;
+    }
+
+    public void setSnapshotCompression(boolean snapshotCompression) {
+        this.snapshotCompression = snapshotCompression;
+    }
+
+    /**
+     * @return null unless executor compilation is enabled
+     */
+    public ExecutorCompiler getExecutorCompiler() {
+        return executorCompiler;
+    }
+
+    public void setExecutorCompiler(ExecutorCompiler executorCompiler) {
+        this.executorCompiler = executorCompiler;
+    }
+
+    public PartitionWorkerPool getPartitionWorkerPool() {
+        return partitionWorkerPool;
+    }
+
+    public void setPartitionWorkerPool(PartitionWorkerPool partitionWorkerPool) {
+        this.partitionWorkerPool = partitionWorkerPool;
+    }
+
+    public long getPartitionIdleTimeout() {
+        return partitionIdleTimeout;
+    }
+
+    public void setPartitionIdleTimeout(long partitionIdleTimeout) {
+        this.partitionIdleTimeout = partitionIdleTimeout;
+    }
+
+    public int getMaxPartitions() {
+        return maxPartitions;
+    }
+
+    public void setMaxPartitions(int maxPartitions) {
+        this.maxPartitions = maxPartitions;
+    }
+
+    public boolean isPartitionSpilling() {
+        return partitionSpilling;
+    }
+
+    public void setPartitionSpilling(boolean partitionSpilling) {
+        this.partitionSpilling = partitionSpilling;
+    }
+
+    /**
+     * @return partition instance being constructed on the current thread, that the Snapshotables and
+     *         EternalReferencedHolders registered meanwhile belong to, or null
+     */
+    public PartitionInstance getConstructingPartition() {
+        return constructingPartition.get();
+    }
+
+    public void setConstructingPartition(PartitionInstance partitionInstance) {
+        if (partitionInstance == null) {
+            constructingPartition.remove();
+        } else {
+            constructingPartition.set(partitionInstance);
+        }
+    }
+
     public int getEventBatchSize() {
         return eventBatchSize;
     }
@@ -78,6 +209,22 @@ public class SiddhiContext {
         this.eventBatchSize = eventBatchSize;
     }
 
+    public boolean isGridNearCache() {
+        return gridNearCache;
+    }
+
+    public void setGridNearCache(boolean gridNearCache) {
+        this.gridNearCache = gridNearCache;
+    }
+
+    public boolean isGridPartitionAware() {
+        return gridPartitionAware;
+    }
+
+    public void setGridPartitionAware(boolean gridPartitionAware) {
+        this.gridPartitionAware = gridPartitionAware;
+    }
+
     public void setSnapshotService(SnapshotService snapshotService) {
         this.snapshotService = snapshotService;
     }
@@ -118,6 +265,14 @@ public class SiddhiContext {
         return scheduledExecutorService;
     }
 
+    public void setClock(SiddhiClock clock) {
+        this.clock = clock;
+    }
+
+    public SiddhiClock getClock() {
+        return clock;
+    }
+
     public boolean isDistributedProcessingEnabled() {
         return distributedProcessingState != ProcessingState.DISABLED;
     }
@@ -178,10 +333,20 @@ public class SiddhiContext {
 
     public void addEternalReferencedHolder(EternalReferencedHolder eternalReferencedHolder) {
         eternalReferencedHolders.add(eternalReferencedHolder);
+        PartitionInstance partitionInstance = constructingPartition.get();
+        if (partitionInstance != null) {
+            partitionInstance.addEternalReferencedHolder(eternalReferencedHolder);
+        }
+    }
+
+    public void removeEternalReferencedHolders(Collection<EternalReferencedHolder> eternalReferencedHolderList) {
+        eternalReferencedHolders.removeAll(eternalReferencedHolderList);
     }
 
     public List<EternalReferencedHolder> getEternalReferencedHolders() {
-        return eternalReferencedHolders;
+        synchronized (eternalReferencedHolders) {
+            return new ArrayList<EternalReferencedHolder>(eternalReferencedHolders);
+        }
     }
 
 }
@@ -55,7 +55,7 @@ public abstract class Event implements StreamEvent, AtomicEvent {
         return "Event{" +
                 "streamId='" + streamId + '\'' +
                 ", timeStamp=" + timeStamp +
-                ", data=" + (data == null ? null : Arrays.asList(data)) +
+                ", data=" + (getData() == null ? null : Arrays.asList(getData())) +
                 ", type=" + ((this instanceof InStream) ? "new" : ((this instanceof RemoveEvent) ? "remove" : "other"))+
                 '}';
     }
@@ -66,42 +66,42 @@ public abstract class Event implements StreamEvent, AtomicEvent {
     }
 
     public Object getData0() {
-        return data[0];
+        return getData(0);
     }
 
     public Object getData1() {
-        return data[1];
+        return getData(1);
     }
 
     public Object getData2() {
-        return data[2];
+        return getData(2);
     }
 
     public Object getData3() {
-        return data[3];
+        return getData(3);
     }
 
     public Object getData4() {
-        return data[4];
+        return getData(4);
     }
 
     public Object getData5() {
-        return data[5];
+        return getData(5);
     }
 
     public Object getData6() {
-        return data[6];
+        return getData(6);
     }
 
     public Object getData7() {
-        return data[7];
+        return getData(7);
     }
 
     public Object getData8() {
-        return data[8];
+        return getData(8);
     }
 
     public Object getData9() {
-        return data[9];
+        return getData(9);
     }
 }
@@ -0,0 +1,146 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.event;
+
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.List;
+
+/**
+ * Layout of the primitive slots of the events of a stream. int, long and bool attributes are kept
+ * in long slots, float and double attributes in double slots and the rest in object slots.
+ */
+public class EventLayout {
+
+    public enum SlotType {
+        LONG, DOUBLE, OBJECT
+    }
+
+    private final String streamId;
+    private final Attribute.Type[] attributeTypes;
+    private final SlotType[] slotTypes;
+    private final int[] slots;
+    private int longSlotCount;
+    private int doubleSlotCount;
+    private int objectSlotCount;
+
+    public EventLayout(AbstractDefinition definition) {
+        this(definition.getId(), attributeTypes(definition.getAttributeList()));
+    }
+
+    public EventLayout(String streamId, Attribute.Type[] attributeTypes) {
+        this.streamId = streamId;
+        this.attributeTypes = attributeTypes;
+        int size = attributeTypes.length;
+        slotTypes = new SlotType[size];
+        slots = new int[size];
+        for (int i = 0; i < size; i++) {
+            switch (attributeTypes[i]) {
+                case INT:
+                case LONG:
+                case BOOL:
+                    slotTypes[i] = SlotType.LONG;
+                    slots[i] = longSlotCount++;
+                    break;
+                case FLOAT:
+                case DOUBLE:
+                    slotTypes[i] = SlotType.DOUBLE;
+                    slots[i] = doubleSlotCount++;
+                    break;
+                default:
+                    slotTypes[i] = SlotType.OBJECT;
+                    slots[i] = objectSlotCount++;
+            }
+        }
+    }
+
+    private static Attribute.Type[] attributeTypes(List<Attribute> attributeList) {
+        Attribute.Type[] attributeTypes = new Attribute.Type[attributeList.size()];
+        for (int i = 0; i < attributeTypes.length; i++) {
+            attributeTypes[i] = attributeList.get(i).getType();
+        }
+        return attributeTypes;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public int getAttributeCount() {
+        return attributeTypes.length;
+    }
+
+    public Attribute.Type getAttributeType(int attributePosition) {
+        return attributeTypes[attributePosition];
+    }
+
+    public SlotType getSlotType(int attributePosition) {
+        return slotTypes[attributePosition];
+    }
+
+    /**
+     * @return index of the attribute within the slots of its slot type
+     */
+    public int getSlot(int attributePosition) {
+        return slots[attributePosition];
+    }
+
+    public int getLongSlotCount() {
+        return longSlotCount;
+    }
+
+    public int getDoubleSlotCount() {
+        return doubleSlotCount;
+    }
+
+    public int getObjectSlotCount() {
+        return objectSlotCount;
+    }
+
+    /**
+     * Boxes an attribute of the event, used when the event is accessed through Event.getData()
+     */
+    public Object box(PrimitiveEvent event, int attributePosition) {
+        if (event.isNull(attributePosition)) {
+            return null;
+        }
+        switch (attributeTypes[attributePosition]) {
+            case INT:
+                return event.getInt(attributePosition);
+            case LONG:
+                return event.getLong(attributePosition);
+            case BOOL:
+                return event.getBool(attributePosition);
+            case FLOAT:
+                return event.getFloat(attributePosition);
+            case DOUBLE:
+                return event.getDouble(attributePosition);
+            default:
+                return event.getObject(attributePosition);
+        }
+    }
+
+    public Object[] toData(PrimitiveEvent event) {
+        Object[] data = new Object[attributeTypes.length];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = box(event, i);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.event;
+
+/**
+ * Event keeping its attributes in primitive slots as given by its EventLayout,
+ * the attributes are only boxed when accessed through Event.getData().
+ */
+public interface PrimitiveEvent {
+
+    public EventLayout getEventLayout();
+
+    public boolean isNull(int attributePosition);
+
+    public int getInt(int attributePosition);
+
+    public long getLong(int attributePosition);
+
+    public boolean getBool(int attributePosition);
+
+    public float getFloat(int attributePosition);
+
+    public double getDouble(int attributePosition);
+
+    public Object getObject(int attributePosition);
+
+}
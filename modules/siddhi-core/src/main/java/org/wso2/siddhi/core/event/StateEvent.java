@@ -24,20 +24,25 @@ import java.util.Arrays;
  */
 public abstract class StateEvent implements ComplexEvent, AtomicEvent {
 
+    /**
+     * Event id of the events not kept in a distributed state list
+     */
+    public static final long NO_EVENT_ID = -1;
+
     private int eventState = -1;
-    private String eventId=null;
+    private long eventId = NO_EVENT_ID;
     protected StreamEvent[] streamEvents;
 
     public StateEvent(StreamEvent[] streamEvents) {
         this.streamEvents = streamEvents;
     }
 
-    public StateEvent(StreamEvent[] streamEvents, String eventId) {
+    public StateEvent(StreamEvent[] streamEvents, long eventId) {
         this.streamEvents = streamEvents;
         this.eventId=eventId;
     }
 
-    protected StateEvent(int eventState, StreamEvent[] streamEvents,String eventId) {
+    protected StateEvent(int eventState, StreamEvent[] streamEvents,long eventId) {
         this.eventState = eventState;
         this.streamEvents = streamEvents;
         this.eventId=eventId;
@@ -88,9 +93,9 @@ public abstract class StateEvent implements ComplexEvent, AtomicEvent {
 
     protected abstract StateEvent createCloneEvent(StreamEvent[] inEventstream,
                                           int eventState,
-                                          String eventId);
+                                          long eventId);
 
-    public StateEvent cloneEvent(int stateNumber,String newEventId) {
+    public StateEvent cloneEvent(int stateNumber,long newEventId) {
         int length = streamEvents.length;
         StreamEvent[] inEventstream = new StreamEvent[length];
         for (int i = 0; i < stateNumber; i++) {
@@ -115,11 +120,11 @@ public abstract class StateEvent implements ComplexEvent, AtomicEvent {
         this.eventState = eventState;
     }
 
-    public String getEventId() {
+    public long getEventId() {
         return eventId;
     }
 
-    public void setEventId(String eventId) {
+    public void setEventId(long eventId) {
         this.eventId = eventId;
     }
 
@@ -0,0 +1,195 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.event.in;
+
+import org.wso2.siddhi.core.event.EventLayout;
+import org.wso2.siddhi.core.event.PrimitiveEvent;
+
+/**
+ * InEvent holding its attributes in primitive slots, created through InputHandler.createEvent().
+ * The attributes are set by their position in the stream definition.
+ */
+public class InPrimitiveEvent extends InEvent implements PrimitiveEvent {
+
+    private final EventLayout eventLayout;
+    private final long[] longs;
+    private final double[] doubles;
+    private final Object[] objects;
+    private boolean[] nulls;
+    private volatile Object[] data;
+
+    public InPrimitiveEvent(EventLayout eventLayout, long timeStamp) {
+        super(eventLayout.getStreamId(), timeStamp, null);
+        this.eventLayout = eventLayout;
+        this.longs = new long[eventLayout.getLongSlotCount()];
+        this.doubles = new double[eventLayout.getDoubleSlotCount()];
+        this.objects = new Object[eventLayout.getObjectSlotCount()];
+    }
+
+    /**
+     * Creates the event with the attributes of boxed data matching the layout, the data is kept as the
+     * array returned by getData().
+     */
+    public InPrimitiveEvent(EventLayout eventLayout, long timeStamp, Object[] data) {
+        this(eventLayout, timeStamp);
+        for (int i = 0; i < data.length; i++) {
+            Object value = data[i];
+            if (value == null) {
+                setNull(i);
+                continue;
+            }
+            switch (eventLayout.getAttributeType(i)) {
+                case INT:
+                    setInt(i, (Integer) value);
+                    break;
+                case LONG:
+                    setLong(i, (Long) value);
+                    break;
+                case BOOL:
+                    setBool(i, (Boolean) value);
+                    break;
+                case FLOAT:
+                    setFloat(i, (Float) value);
+                    break;
+                case DOUBLE:
+                    setDouble(i, (Double) value);
+                    break;
+                default:
+                    setObject(i, value);
+            }
+        }
+        this.data = data;
+    }
+
+    public InPrimitiveEvent setInt(int attributePosition, int value) {
+        longs[eventLayout.getSlot(attributePosition)] = value;
+        return set(attributePosition);
+    }
+
+    public InPrimitiveEvent setLong(int attributePosition, long value) {
+        longs[eventLayout.getSlot(attributePosition)] = value;
+        return set(attributePosition);
+    }
+
+    public InPrimitiveEvent setBool(int attributePosition, boolean value) {
+        longs[eventLayout.getSlot(attributePosition)] = value ? 1 : 0;
+        return set(attributePosition);
+    }
+
+    public InPrimitiveEvent setFloat(int attributePosition, float value) {
+        doubles[eventLayout.getSlot(attributePosition)] = value;
+        return set(attributePosition);
+    }
+
+    public InPrimitiveEvent setDouble(int attributePosition, double value) {
+        doubles[eventLayout.getSlot(attributePosition)] = value;
+        return set(attributePosition);
+    }
+
+    public InPrimitiveEvent setObject(int attributePosition, Object value) {
+        objects[eventLayout.getSlot(attributePosition)] = value;
+        if (value == null) {
+            return setNull(attributePosition);
+        }
+        return set(attributePosition);
+    }
+
+    public InPrimitiveEvent setNull(int attributePosition) {
+        if (nulls == null) {
+            nulls = new boolean[eventLayout.getAttributeCount()];
+        }
+        nulls[attributePosition] = true;
+        data = null;
+        return this;
+    }
+
+    private InPrimitiveEvent set(int attributePosition) {
+        if (nulls != null) {
+            nulls[attributePosition] = false;
+        }
+        data = null;
+        return this;
+    }
+
+    @Override
+    public EventLayout getEventLayout() {
+        return eventLayout;
+    }
+
+    @Override
+    public boolean isNull(int attributePosition) {
+        return nulls != null && nulls[attributePosition];
+    }
+
+    @Override
+    public int getInt(int attributePosition) {
+        return (int) longs[eventLayout.getSlot(attributePosition)];
+    }
+
+    @Override
+    public long getLong(int attributePosition) {
+        return longs[eventLayout.getSlot(attributePosition)];
+    }
+
+    @Override
+    public boolean getBool(int attributePosition) {
+        return longs[eventLayout.getSlot(attributePosition)] != 0;
+    }
+
+    @Override
+    public float getFloat(int attributePosition) {
+        return (float) doubles[eventLayout.getSlot(attributePosition)];
+    }
+
+    @Override
+    public double getDouble(int attributePosition) {
+        return doubles[eventLayout.getSlot(attributePosition)];
+    }
+
+    @Override
+    public Object getObject(int attributePosition) {
+        return objects[eventLayout.getSlot(attributePosition)];
+    }
+
+    /**
+     * Boxes all attributes once, the same array is returned afterwards as windows identify events by it.
+     */
+    @Override
+    public Object[] getData() {
+        Object[] boxedData = data;
+        if (boxedData == null) {
+            synchronized (this) {
+                boxedData = data;
+                if (boxedData == null) {
+                    boxedData = eventLayout.toData(this);
+                    data = boxedData;
+                }
+            }
+        }
+        return boxedData;
+    }
+
+    @Override
+    public Object getData(int i) {
+        Object[] boxedData = data;
+        if (boxedData != null) {
+            return boxedData[i];
+        }
+        return eventLayout.box(this, i);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.event.in;
+
+import org.wso2.siddhi.core.event.EventLayout;
+import org.wso2.siddhi.core.event.PrimitiveEvent;
+
+import java.util.Arrays;
+
+/**
+ * InListEvent storing the attributes of its events column wise in primitive arrays, created through
+ * InputHandler.createListEvent(). Rows are added with addRow() and their attributes set by the row
+ * index and the attribute position in the stream definition. The events of the list are views over
+ * the columns.
+ */
+public class InPrimitiveListEvent extends InListEvent {
+
+    private final EventLayout eventLayout;
+    private int capacity;
+    private long[][] longColumns;
+    private double[][] doubleColumns;
+    private Object[][] objectColumns;
+    private boolean[][] nullColumns;
+
+    public InPrimitiveListEvent(EventLayout eventLayout, int initialSize) {
+        super(initialSize);
+        this.eventLayout = eventLayout;
+        this.capacity = initialSize;
+        longColumns = new long[eventLayout.getLongSlotCount()][initialSize];
+        doubleColumns = new double[eventLayout.getDoubleSlotCount()][initialSize];
+        objectColumns = new Object[eventLayout.getObjectSlotCount()][initialSize];
+        nullColumns = new boolean[eventLayout.getAttributeCount()][];
+    }
+
+    /**
+     * @return index of the new row
+     */
+    public int addRow(long timeStamp) {
+        int row = activeEvents;
+        if (row == capacity) {
+            capacity = capacity * 2 + 1;
+            for (int i = 0; i < longColumns.length; i++) {
+                longColumns[i] = Arrays.copyOf(longColumns[i], capacity);
+            }
+            for (int i = 0; i < doubleColumns.length; i++) {
+                doubleColumns[i] = Arrays.copyOf(doubleColumns[i], capacity);
+            }
+            for (int i = 0; i < objectColumns.length; i++) {
+                objectColumns[i] = Arrays.copyOf(objectColumns[i], capacity);
+            }
+            for (int i = 0; i < nullColumns.length; i++) {
+                if (nullColumns[i] != null) {
+                    nullColumns[i] = Arrays.copyOf(nullColumns[i], capacity);
+                }
+            }
+        }
+        addEvent(new Row(timeStamp, row));
+        return row;
+    }
+
+    /**
+     * Adds a row with the attributes of boxed data matching the layout, the data is kept as the array
+     * returned by getData() of its event.
+     *
+     * @return index of the new row
+     */
+    public int addRow(long timeStamp, Object[] data) {
+        int row = addRow(timeStamp);
+        for (int i = 0; i < data.length; i++) {
+            Object value = data[i];
+            if (value == null) {
+                setNull(row, i);
+                continue;
+            }
+            switch (eventLayout.getAttributeType(i)) {
+                case INT:
+                    setInt(row, i, (Integer) value);
+                    break;
+                case LONG:
+                    setLong(row, i, (Long) value);
+                    break;
+                case BOOL:
+                    setBool(row, i, (Boolean) value);
+                    break;
+                case FLOAT:
+                    setFloat(row, i, (Float) value);
+                    break;
+                case DOUBLE:
+                    setDouble(row, i, (Double) value);
+                    break;
+                default:
+                    setObject(row, i, value);
+            }
+        }
+        ((Row) events[row]).data = data;
+        return row;
+    }
+
+    public InPrimitiveListEvent setInt(int row, int attributePosition, int value) {
+        longColumns[eventLayout.getSlot(attributePosition)][row] = value;
+        return set(row, attributePosition);
+    }
+
+    public InPrimitiveListEvent setLong(int row, int attributePosition, long value) {
+        longColumns[eventLayout.getSlot(attributePosition)][row] = value;
+        return set(row, attributePosition);
+    }
+
+    public InPrimitiveListEvent setBool(int row, int attributePosition, boolean value) {
+        longColumns[eventLayout.getSlot(attributePosition)][row] = value ? 1 : 0;
+        return set(row, attributePosition);
+    }
+
+    public InPrimitiveListEvent setFloat(int row, int attributePosition, float value) {
+        doubleColumns[eventLayout.getSlot(attributePosition)][row] = value;
+        return set(row, attributePosition);
+    }
+
+    public InPrimitiveListEvent setDouble(int row, int attributePosition, double value) {
+        doubleColumns[eventLayout.getSlot(attributePosition)][row] = value;
+        return set(row, attributePosition);
+    }
+
+    public InPrimitiveListEvent setObject(int row, int attributePosition, Object value) {
+        objectColumns[eventLayout.getSlot(attributePosition)][row] = value;
+        if (value == null) {
+            return setNull(row, attributePosition);
+        }
+        return set(row, attributePosition);
+    }
+
+    public InPrimitiveListEvent setNull(int row, int attributePosition) {
+        if (nullColumns[attributePosition] == null) {
+            nullColumns[attributePosition] = new boolean[capacity];
+        }
+        nullColumns[attributePosition][row] = true;
+        ((Row) events[row]).data = null;
+        return this;
+    }
+
+    private InPrimitiveListEvent set(int row, int attributePosition) {
+        if (nullColumns[attributePosition] != null) {
+            nullColumns[attributePosition][row] = false;
+        }
+        ((Row) events[row]).data = null;
+        return this;
+    }
+
+    public EventLayout getEventLayout() {
+        return eventLayout;
+    }
+
+    /**
+     * @return the column of an int, long or bool attribute, only the first getActiveEvents() values are valid
+     */
+    public long[] getLongColumn(int attributePosition) {
+        return longColumns[eventLayout.getSlot(attributePosition)];
+    }
+
+    /**
+     * @return the column of a float or double attribute, only the first getActiveEvents() values are valid
+     */
+    public double[] getDoubleColumn(int attributePosition) {
+        return doubleColumns[eventLayout.getSlot(attributePosition)];
+    }
+
+    public Object[] getObjectColumn(int attributePosition) {
+        return objectColumns[eventLayout.getSlot(attributePosition)];
+    }
+
+    private class Row extends InEvent implements PrimitiveEvent {
+
+        private final int row;
+        private volatile Object[] data;
+
+        private Row(long timeStamp, int row) {
+            super(eventLayout.getStreamId(), timeStamp, null);
+            this.row = row;
+        }
+
+        @Override
+        public EventLayout getEventLayout() {
+            return eventLayout;
+        }
+
+        @Override
+        public boolean isNull(int attributePosition) {
+            return nullColumns[attributePosition] != null && nullColumns[attributePosition][row];
+        }
+
+        @Override
+        public int getInt(int attributePosition) {
+            return (int) longColumns[eventLayout.getSlot(attributePosition)][row];
+        }
+
+        @Override
+        public long getLong(int attributePosition) {
+            return longColumns[eventLayout.getSlot(attributePosition)][row];
+        }
+
+        @Override
+        public boolean getBool(int attributePosition) {
+            return longColumns[eventLayout.getSlot(attributePosition)][row] != 0;
+        }
+
+        @Override
+        public float getFloat(int attributePosition) {
+            return (float) doubleColumns[eventLayout.getSlot(attributePosition)][row];
+        }
+
+        @Override
+        public double getDouble(int attributePosition) {
+            return doubleColumns[eventLayout.getSlot(attributePosition)][row];
+        }
+
+        @Override
+        public Object getObject(int attributePosition) {
+            return objectColumns[eventLayout.getSlot(attributePosition)][row];
+        }
+
+        @Override
+        public Object[] getData() {
+            Object[] boxedData = data;
+            if (boxedData == null) {
+                synchronized (this) {
+                    boxedData = data;
+                    if (boxedData == null) {
+                        boxedData = eventLayout.toData(this);
+                        data = boxedData;
+                    }
+                }
+            }
+            return boxedData;
+        }
+
+        @Override
+        public Object getData(int i) {
+            Object[] boxedData = data;
+            if (boxedData != null) {
+                return boxedData[i];
+            }
+            return eventLayout.box(this, i);
+        }
+    }
+}
@@ -30,16 +30,16 @@ public class InStateEvent extends StateEvent implements InStream {
         super(inEventstream);
     }
 
-    public InStateEvent(StreamEvent[] inEventstream,String eventId) {
+    public InStateEvent(StreamEvent[] inEventstream,long eventId) {
         super(inEventstream, eventId);
     }
 
-    private InStateEvent(StreamEvent[] inEventstream, int eventState, String eventId) {
+    private InStateEvent(StreamEvent[] inEventstream, int eventState, long eventId) {
         super(eventState,inEventstream,eventId);
     }
 
     @Override
-    protected StateEvent createCloneEvent(StreamEvent[] inEventstream, int eventState,String eventId) {
+    protected StateEvent createCloneEvent(StreamEvent[] inEventstream, int eventState,long eventId) {
         return new InStateEvent(inEventstream,eventState,eventId);
     }
 }
@@ -33,14 +33,14 @@ public class RemoveStateEvent extends StateEvent implements RemoveStream {
     }
 
     private RemoveStateEvent(int eventState, StreamEvent[] inEventstream,
-                             long expiryTime,String eventId) {
+                             long expiryTime,long eventId) {
         super(eventState, inEventstream, eventId);
         this.expiryTime = expiryTime;
     }
 
 
     @Override
-    protected StateEvent createCloneEvent(StreamEvent[] inEventstream, int eventState,String eventId) {
+    protected StateEvent createCloneEvent(StreamEvent[] inEventstream, int eventState,long eventId) {
 
         return new RemoveStateEvent(eventState, inEventstream, expiryTime, eventId);
 
@@ -0,0 +1,279 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a class file of version 49 (Java 5), which is verified by type inference and so needs no
+ * stack map frames. Only what the ExecutorCompiler generates is supported: a public final class with
+ * methods, no fields, no exception handlers and no debug attributes.
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final String className;
+    private final String superName;
+    private final String[] interfaces;
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndex = new HashMap<String, Integer>();
+    private int poolCount = 1;
+    private final List<MethodWriter> methods = new ArrayList<MethodWriter>();
+
+    /**
+     * @param className  internal name of the class, e.g. org/wso2/siddhi/Foo
+     * @param superName  internal name of the super class
+     * @param interfaces internal names of the implemented interfaces
+     */
+    ClassFileWriter(String className, String superName, String... interfaces) {
+        this.className = className;
+        this.superName = superName;
+        this.interfaces = interfaces;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    MethodWriter addMethod(int access, String name, String descriptor) {
+        MethodWriter methodWriter = new MethodWriter(this, access, name, descriptor);
+        methods.add(methodWriter);
+        return methodWriter;
+    }
+
+    byte[] toByteArray() {
+        int thisIndex = classRef(className);
+        int superIndex = classRef(superName);
+        int[] interfaceIndexes = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndexes[i] = classRef(interfaces[i]);
+        }
+        int[][] methodIndexes = new int[methods.size()][];
+        for (int i = 0; i < methods.size(); i++) {
+            MethodWriter method = methods.get(i);
+            methodIndexes[i] = new int[]{utf8(method.getName()), utf8(method.getDescriptor()), utf8("Code")};
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            pool.flush();
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(interfaceIndexes.length);
+            for (int interfaceIndex : interfaceIndexes) {
+                out.writeShort(interfaceIndex);
+            }
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (int i = 0; i < methods.size(); i++) {
+                MethodWriter method = methods.get(i);
+                byte[] code = method.getCode();
+                out.writeShort(method.getAccess());
+                out.writeShort(methodIndexes[i][0]);
+                out.writeShort(methodIndexes[i][1]);
+                out.writeShort(1);
+                out.writeShort(methodIndexes[i][2]);
+                out.writeInt(12 + code.length);
+                out.writeShort(method.getMaxStack());
+                out.writeShort(method.getMaxLocals());
+                out.writeInt(code.length);
+                out.write(code);
+                out.writeShort(0);
+                out.writeShort(0);
+            }
+            out.writeShort(0);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int utf8(String value) {
+        String key = "U" + value;
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(CONSTANT_UTF8);
+                pool.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = addEntry(key, 1);
+        }
+        return index;
+    }
+
+    int classRef(String internalName) {
+        return reference("C" + internalName, CONSTANT_CLASS, utf8(internalName));
+    }
+
+    int string(String value) {
+        return reference("S" + value, CONSTANT_STRING, utf8(value));
+    }
+
+    int integer(int value) {
+        String key = "I" + value;
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(CONSTANT_INTEGER);
+                pool.writeInt(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = addEntry(key, 1);
+        }
+        return index;
+    }
+
+    int floatConstant(float value) {
+        String key = "F" + Float.floatToRawIntBits(value);
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(CONSTANT_FLOAT);
+                pool.writeFloat(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = addEntry(key, 1);
+        }
+        return index;
+    }
+
+    int longConstant(long value) {
+        String key = "J" + value;
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(CONSTANT_LONG);
+                pool.writeLong(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = addEntry(key, 2);
+        }
+        return index;
+    }
+
+    int doubleConstant(double value) {
+        String key = "D" + Double.doubleToRawLongBits(value);
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(CONSTANT_DOUBLE);
+                pool.writeDouble(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = addEntry(key, 2);
+        }
+        return index;
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_FIELD_REF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHOD_REF, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_INTERFACE_METHOD_REF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + "." + name + descriptor;
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            int classIndex = classRef(owner);
+            String nameAndTypeKey = "N" + name + descriptor;
+            Integer nameAndTypeIndex = poolIndex.get(nameAndTypeKey);
+            if (nameAndTypeIndex == null) {
+                int nameIndex = utf8(name);
+                int descriptorIndex = utf8(descriptor);
+                write(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+                nameAndTypeIndex = addEntry(nameAndTypeKey, 1);
+            }
+            write(tag, classIndex, nameAndTypeIndex);
+            index = addEntry(key, 1);
+        }
+        return index;
+    }
+
+    private int reference(String key, int tag, int utf8Index) {
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(tag);
+                pool.writeShort(utf8Index);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = addEntry(key, 1);
+        }
+        return index;
+    }
+
+    private void write(int tag, int first, int second) {
+        try {
+            pool.writeByte(tag);
+            pool.writeShort(first);
+            pool.writeShort(second);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int addEntry(String key, int size) {
+        int index = poolCount;
+        poolIndex.put(key, index);
+        poolCount += size;
+        return index;
+    }
+}
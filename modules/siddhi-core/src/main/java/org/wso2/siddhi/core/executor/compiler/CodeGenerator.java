@@ -0,0 +1,565 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.executor.conditon.AndConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.BooleanConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.NotConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.OrConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.equal.EqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.greater_than.GreaterThenCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.greater_than_equal.GreaterThenEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.less_than.LessThenCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.less_than_equal.LessThenEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.not_equal.NotEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ArithmeticExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.add.AddExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.expression.add.AddExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.expression.add.AddExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.expression.add.AddExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.expression.divide.DivideExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.expression.minus.MinusExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.expression.minus.MinusExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.expression.minus.MinusExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.expression.minus.MinusExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.expression.mod.ModExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.expression.mod.ModExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.expression.mod.ModExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.expression.mod.ModExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.expression.multiply.MultiplyExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.expression.multiply.MultiplyExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.expression.multiply.MultiplyExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.expression.multiply.MultiplyExpressionExecutorLong;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.wso2.siddhi.core.executor.compiler.MethodWriter.*;
+
+/**
+ * Generates the byte code evaluating a tree of executors. Conditions are compiled into jumps so that
+ * and, or and not short-circuit, and numeric values are kept unboxed, read straight from the primitive
+ * slots of PrimitiveEvents. Executors the generator does not know, such as functions and extensions,
+ * are called through the nodes array of the generated class.
+ * <p/>
+ * The generated code never branches with operands on the stack, intermediate values are kept in locals,
+ * and a null operand makes a comparison false and an arithmetic expression null.
+ */
+final class CodeGenerator {
+
+    private static final String ATOMIC_EVENT = "org/wso2/siddhi/core/event/AtomicEvent";
+    private static final String EVENT = "org/wso2/siddhi/core/event/Event";
+    private static final String PRIMITIVE_EVENT = "org/wso2/siddhi/core/event/PrimitiveEvent";
+    private static final String EXPRESSION_EXECUTOR = "org/wso2/siddhi/core/executor/expression/ExpressionExecutor";
+    private static final String CONDITION_EXECUTOR = "org/wso2/siddhi/core/executor/conditon/ConditionExecutor";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String NUMBER = "java/lang/Number";
+
+    private enum Kind {
+        INT("I", "Integer"), LONG("J", "Long"), FLOAT("F", "Float"), DOUBLE("D", "Double");
+
+        private final String descriptor;
+        private final String boxType;
+
+        Kind(String descriptor, String boxType) {
+            this.descriptor = descriptor;
+            this.boxType = "java/lang/" + boxType;
+        }
+
+        private int size() {
+            return this == LONG || this == DOUBLE ? 2 : 1;
+        }
+    }
+
+    private enum Operator {
+        ADD(IADD), SUBTRACT(ISUB), MULTIPLY(IMUL), DIVIDE(IDIV), MOD(IREM);
+
+        private final int intOpcode;
+
+        Operator(int intOpcode) {
+            this.intOpcode = intOpcode;
+        }
+    }
+
+    private enum Comparison {
+        EQUAL(IFEQ, IFNE), NOT_EQUAL(IFNE, IFEQ), GREATER_THAN(IFGT, IFLE), GREATER_THAN_EQUAL(IFGE, IFLT),
+        LESS_THAN(IFLT, IFGE), LESS_THAN_EQUAL(IFLE, IFGT);
+
+        private final int jumpIfTrue;
+        private final int jumpIfFalse;
+
+        Comparison(int jumpIfTrue, int jumpIfFalse) {
+            this.jumpIfTrue = jumpIfTrue;
+            this.jumpIfFalse = jumpIfFalse;
+        }
+    }
+
+    /**
+     * Divide executors of the other types divide as doubles but box the quotient as a Double for any
+     * return type, they are left to the interpreter to keep that behaviour.
+     */
+    private static final Map<Class<?>, Operator> OPERATORS = new HashMap<Class<?>, Operator>();
+
+    static {
+        OPERATORS.put(AddExpressionExecutorInt.class, Operator.ADD);
+        OPERATORS.put(AddExpressionExecutorLong.class, Operator.ADD);
+        OPERATORS.put(AddExpressionExecutorFloat.class, Operator.ADD);
+        OPERATORS.put(AddExpressionExecutorDouble.class, Operator.ADD);
+        OPERATORS.put(MinusExpressionExecutorInt.class, Operator.SUBTRACT);
+        OPERATORS.put(MinusExpressionExecutorLong.class, Operator.SUBTRACT);
+        OPERATORS.put(MinusExpressionExecutorFloat.class, Operator.SUBTRACT);
+        OPERATORS.put(MinusExpressionExecutorDouble.class, Operator.SUBTRACT);
+        OPERATORS.put(MultiplyExpressionExecutorInt.class, Operator.MULTIPLY);
+        OPERATORS.put(MultiplyExpressionExecutorLong.class, Operator.MULTIPLY);
+        OPERATORS.put(MultiplyExpressionExecutorFloat.class, Operator.MULTIPLY);
+        OPERATORS.put(MultiplyExpressionExecutorDouble.class, Operator.MULTIPLY);
+        OPERATORS.put(DivideExpressionExecutorDouble.class, Operator.DIVIDE);
+        OPERATORS.put(ModExpressionExecutorInt.class, Operator.MOD);
+        OPERATORS.put(ModExpressionExecutorLong.class, Operator.MOD);
+        OPERATORS.put(ModExpressionExecutorFloat.class, Operator.MOD);
+        OPERATORS.put(ModExpressionExecutorDouble.class, Operator.MOD);
+    }
+
+    private final MethodWriter method;
+    private final String owner;
+    private final List<Object> nodes;
+    private int eventLocal;
+    private int primitiveEventLocal;
+    private int compiledCount;
+
+    /**
+     * @param method the method to generate, taking the AtomicEvent as its first parameter
+     * @param owner  internal name of the class declaring the protected Object[] nodes field
+     * @param nodes  collects the executors and values the generated code refers to
+     */
+    CodeGenerator(MethodWriter method, String owner, List<Object> nodes) {
+        this.method = method;
+        this.owner = owner;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return the number of executors compiled, those called through the nodes array are not counted
+     */
+    int getCompiledCount() {
+        return compiledCount;
+    }
+
+    /**
+     * Generates boolean execute(AtomicEvent)
+     */
+    void generateCondition(ConditionExecutor conditionExecutor) {
+        method.reserveLocals(2);
+        begin();
+        MethodWriter.Label fail = new MethodWriter.Label();
+        jump(conditionExecutor, false, fail);
+        method.pushInt(1);
+        method.op(IRETURN);
+        method.mark(fail);
+        method.pushInt(0);
+        method.op(IRETURN);
+    }
+
+    /**
+     * Generates Object[] select(AtomicEvent)
+     */
+    void generateSelection(List<ExpressionExecutor> expressionExecutors) {
+        method.reserveLocals(2);
+        begin();
+        int output = method.newLocal(1);
+        method.pushInt(expressionExecutors.size());
+        method.type(ANEWARRAY, OBJECT);
+        method.local(ASTORE, output);
+        for (int i = 0; i < expressionExecutors.size(); i++) {
+            object(expressionExecutors.get(i));
+            int value = store(ASTORE, 1);
+            method.local(ALOAD, output);
+            method.pushInt(i);
+            method.local(ALOAD, value);
+            method.op(AASTORE);
+        }
+        method.local(ALOAD, output);
+        method.op(ARETURN);
+    }
+
+    /**
+     * Keeps the event as an Event and as a PrimitiveEvent in locals, each null if it is not one
+     */
+    private void begin() {
+        eventLocal = method.newLocal(1);
+        primitiveEventLocal = method.newLocal(1);
+        MethodWriter.Label notEvent = new MethodWriter.Label();
+        MethodWriter.Label notPrimitive = new MethodWriter.Label();
+        MethodWriter.Label start = new MethodWriter.Label();
+        method.local(ALOAD, 1);
+        method.type(INSTANCEOF, EVENT);
+        method.jump(IFEQ, notEvent);
+        method.local(ALOAD, 1);
+        method.type(CHECKCAST, EVENT);
+        method.local(ASTORE, eventLocal);
+        method.local(ALOAD, 1);
+        method.type(INSTANCEOF, PRIMITIVE_EVENT);
+        method.jump(IFEQ, notPrimitive);
+        method.local(ALOAD, 1);
+        method.type(CHECKCAST, PRIMITIVE_EVENT);
+        method.local(ASTORE, primitiveEventLocal);
+        method.jump(GOTO, start);
+        method.mark(notPrimitive);
+        method.op(ACONST_NULL);
+        method.local(ASTORE, primitiveEventLocal);
+        method.jump(GOTO, start);
+        method.mark(notEvent);
+        method.op(ACONST_NULL);
+        method.local(ASTORE, eventLocal);
+        method.op(ACONST_NULL);
+        method.local(ASTORE, primitiveEventLocal);
+        method.mark(start);
+    }
+
+    /**
+     * Jumps to the target when the condition evaluates to jumpWhen, falls through otherwise
+     */
+    private void jump(ConditionExecutor conditionExecutor, boolean jumpWhen, MethodWriter.Label target) {
+        if (conditionExecutor instanceof AndConditionExecutor) {
+            AndConditionExecutor and = (AndConditionExecutor) conditionExecutor;
+            if (jumpWhen) {
+                MethodWriter.Label skip = new MethodWriter.Label();
+                jump(and.leftConditionExecutor, false, skip);
+                jump(and.rightConditionExecutor, true, target);
+                method.mark(skip);
+            } else {
+                jump(and.leftConditionExecutor, false, target);
+                jump(and.rightConditionExecutor, false, target);
+            }
+            compiledCount++;
+        } else if (conditionExecutor instanceof OrConditionExecutor) {
+            OrConditionExecutor or = (OrConditionExecutor) conditionExecutor;
+            if (jumpWhen) {
+                jump(or.leftConditionExecutor, true, target);
+                jump(or.rightConditionExecutor, true, target);
+            } else {
+                MethodWriter.Label skip = new MethodWriter.Label();
+                jump(or.leftConditionExecutor, true, skip);
+                jump(or.rightConditionExecutor, false, target);
+                method.mark(skip);
+            }
+            compiledCount++;
+        } else if (conditionExecutor instanceof NotConditionExecutor) {
+            jump(((NotConditionExecutor) conditionExecutor).conditionExecutor, !jumpWhen, target);
+            compiledCount++;
+        } else if (conditionExecutor instanceof CompareConditionExecutor && compare((CompareConditionExecutor) conditionExecutor, jumpWhen, target)) {
+            compiledCount++;
+        } else if (conditionExecutor instanceof BooleanConditionExecutor) {
+            MethodWriter.Label skip = new MethodWriter.Label();
+            object(((BooleanConditionExecutor) conditionExecutor).expressionExecutor);
+            int value = store(ASTORE, 1);
+            method.local(ALOAD, value);
+            method.jump(IFNULL, jumpWhen ? skip : target);
+            method.local(ALOAD, value);
+            method.type(CHECKCAST, "java/lang/Boolean");
+            method.invoke(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z");
+            method.jump(jumpWhen ? IFNE : IFEQ, target);
+            method.mark(skip);
+            compiledCount++;
+        } else {
+            loadNode(conditionExecutor, CONDITION_EXECUTOR);
+            method.local(ALOAD, 1);
+            method.invoke(INVOKEINTERFACE, CONDITION_EXECUTOR, "execute", "(L" + ATOMIC_EVENT + ";)Z");
+            method.jump(jumpWhen ? IFNE : IFEQ, target);
+        }
+    }
+
+    /**
+     * @return false if the comparison is left to the interpreter
+     */
+    private boolean compare(CompareConditionExecutor compareExecutor, boolean jumpWhen, MethodWriter.Label target) {
+        Comparison comparison = comparisonOf(compareExecutor);
+        ExpressionExecutor left = compareExecutor.leftExpressionExecutor;
+        ExpressionExecutor right = compareExecutor.rightExpressionExecutor;
+        Attribute.Type leftType = left.getReturnType();
+        Attribute.Type rightType = right.getReturnType();
+        MethodWriter.Label skip = new MethodWriter.Label();
+        MethodWriter.Label nullLabel = jumpWhen ? skip : target;
+        if (comparison == null) {
+            return false;
+        } else if (isNumeric(leftType) && isNumeric(rightType)) {
+            Kind kind;
+            if (leftType == Attribute.Type.DOUBLE || rightType == Attribute.Type.DOUBLE) {
+                kind = Kind.DOUBLE;
+            } else if (leftType == Attribute.Type.FLOAT || rightType == Attribute.Type.FLOAT) {
+                kind = Kind.FLOAT;
+            } else {
+                kind = Kind.LONG;
+            }
+            number(left, kind, nullLabel);
+            int leftValue = store(ISTORE + kind.ordinal(), kind.size());
+            number(right, kind, nullLabel);
+            int rightValue = store(ISTORE + kind.ordinal(), kind.size());
+            method.local(ILOAD + kind.ordinal(), leftValue);
+            method.local(ILOAD + kind.ordinal(), rightValue);
+            // NaN compares as false except for not equal, hence cmpg for less than and cmpl otherwise
+            boolean lessThan = comparison == Comparison.LESS_THAN || comparison == Comparison.LESS_THAN_EQUAL;
+            switch (kind) {
+                case LONG:
+                    method.op(LCMP);
+                    break;
+                case FLOAT:
+                    method.op(lessThan ? FCMPG : FCMPL);
+                    break;
+                default:
+                    method.op(lessThan ? DCMPG : DCMPL);
+            }
+            method.jump(jumpWhen ? comparison.jumpIfTrue : comparison.jumpIfFalse, target);
+        } else if (leftType == Attribute.Type.STRING && rightType == Attribute.Type.STRING &&
+                   (comparison == Comparison.EQUAL || comparison == Comparison.NOT_EQUAL)) {
+            object(left);
+            int leftValue = store(ASTORE, 1);
+            object(right);
+            int rightValue = store(ASTORE, 1);
+            method.local(ALOAD, leftValue);
+            method.jump(IFNULL, nullLabel);
+            method.local(ALOAD, rightValue);
+            method.jump(IFNULL, nullLabel);
+            method.local(ALOAD, leftValue);
+            method.local(ALOAD, rightValue);
+            method.invoke(INVOKEVIRTUAL, OBJECT, "equals", "(L" + OBJECT + ";)Z");
+            method.jump((comparison == Comparison.EQUAL) == jumpWhen ? IFNE : IFEQ, target);
+        } else {
+            return false;
+        }
+        method.mark(skip);
+        return true;
+    }
+
+    /**
+     * Pushes the value of a numeric expression as the given kind, jumps to nullLabel if it is null
+     */
+    private void number(ExpressionExecutor expressionExecutor, Kind kind, MethodWriter.Label nullLabel) {
+        if (expressionExecutor instanceof ConstantExpressionExecutor && constantNumber(expressionExecutor, kind, nullLabel)) {
+            compiledCount++;
+        } else if (expressionExecutor instanceof VariableExpressionExecutor) {
+            VariableExpressionExecutor variable = (VariableExpressionExecutor) expressionExecutor;
+            MethodWriter.Label objectPath = new MethodWriter.Label();
+            MethodWriter.Label done = new MethodWriter.Label();
+            Kind slotKind = variable.getReturnType() == Attribute.Type.FLOAT || variable.getReturnType() == Attribute.Type.DOUBLE ? Kind.DOUBLE : Kind.LONG;
+            method.local(ALOAD, primitiveEventLocal);
+            method.jump(IFNULL, objectPath);
+            method.local(ALOAD, primitiveEventLocal);
+            method.pushInt(variable.getAttributePosition());
+            method.invoke(INVOKEINTERFACE, PRIMITIVE_EVENT, "isNull", "(I)Z");
+            method.jump(IFNE, nullLabel);
+            method.local(ALOAD, primitiveEventLocal);
+            method.pushInt(variable.getAttributePosition());
+            method.invoke(INVOKEINTERFACE, PRIMITIVE_EVENT, slotKind == Kind.LONG ? "getLong" : "getDouble", "(I)" + slotKind.descriptor);
+            convert(slotKind, kind);
+            method.jump(GOTO, done);
+            method.mark(objectPath);
+            variable(variable);
+            unbox(kind, nullLabel);
+            method.mark(done);
+            compiledCount++;
+        } else if (isCompilable(expressionExecutor)) {
+            arithmetic((ArithmeticExpressionExecutor) expressionExecutor, kind, nullLabel);
+        } else {
+            execute(expressionExecutor);
+            unbox(kind, nullLabel);
+        }
+    }
+
+    private boolean constantNumber(ExpressionExecutor expressionExecutor, Kind kind, MethodWriter.Label nullLabel) {
+        Object value = expressionExecutor.execute(null);
+        if (value == null) {
+            method.jump(GOTO, nullLabel);
+            return true;
+        } else if (!(value instanceof Number)) {
+            return false;
+        }
+        Number number = (Number) value;
+        switch (kind) {
+            case INT:
+                method.pushInt(number.intValue());
+                break;
+            case LONG:
+                method.pushLong(number.longValue());
+                break;
+            case FLOAT:
+                method.pushFloat(number.floatValue());
+                break;
+            default:
+                method.pushDouble(number.doubleValue());
+        }
+        return true;
+    }
+
+    private void arithmetic(ArithmeticExpressionExecutor arithmeticExecutor, Kind kind, MethodWriter.Label nullLabel) {
+        Kind operandKind = kindOf(arithmeticExecutor.getReturnType());
+        number(arithmeticExecutor.getLeftExpressionExecutor(), operandKind, nullLabel);
+        int left = store(ISTORE + operandKind.ordinal(), operandKind.size());
+        number(arithmeticExecutor.getRightExpressionExecutor(), operandKind, nullLabel);
+        int right = store(ISTORE + operandKind.ordinal(), operandKind.size());
+        method.local(ILOAD + operandKind.ordinal(), left);
+        method.local(ILOAD + operandKind.ordinal(), right);
+        method.op(OPERATORS.get(arithmeticExecutor.getClass()).intOpcode + operandKind.ordinal());
+        convert(operandKind, kind);
+        compiledCount++;
+    }
+
+    /**
+     * Pushes the value of an expression as an Object
+     */
+    private void object(ExpressionExecutor expressionExecutor) {
+        if (expressionExecutor instanceof ConstantExpressionExecutor) {
+            loadNode(expressionExecutor.execute(null), null);
+            compiledCount++;
+        } else if (expressionExecutor instanceof VariableExpressionExecutor) {
+            variable((VariableExpressionExecutor) expressionExecutor);
+            compiledCount++;
+        } else if (isCompilable(expressionExecutor)) {
+            Kind kind = kindOf(expressionExecutor.getReturnType());
+            MethodWriter.Label nullLabel = new MethodWriter.Label();
+            MethodWriter.Label done = new MethodWriter.Label();
+            arithmetic((ArithmeticExpressionExecutor) expressionExecutor, kind, nullLabel);
+            method.invoke(INVOKESTATIC, kind.boxType, "valueOf", "(" + kind.descriptor + ")L" + kind.boxType + ";");
+            method.jump(GOTO, done);
+            method.mark(nullLabel);
+            method.op(ACONST_NULL);
+            method.mark(done);
+        } else {
+            execute(expressionExecutor);
+        }
+    }
+
+    /**
+     * Pushes the value of a variable, read from the Event or else through the interpreted executor
+     */
+    private void variable(VariableExpressionExecutor variable) {
+        MethodWriter.Label notEvent = new MethodWriter.Label();
+        MethodWriter.Label done = new MethodWriter.Label();
+        method.local(ALOAD, eventLocal);
+        method.jump(IFNULL, notEvent);
+        method.local(ALOAD, eventLocal);
+        method.pushInt(variable.getAttributePosition());
+        method.invoke(INVOKEVIRTUAL, EVENT, "getData", "(I)L" + OBJECT + ";");
+        method.jump(GOTO, done);
+        method.mark(notEvent);
+        execute(variable);
+        method.mark(done);
+    }
+
+    private void execute(ExpressionExecutor expressionExecutor) {
+        loadNode(expressionExecutor, EXPRESSION_EXECUTOR);
+        method.local(ALOAD, 1);
+        method.invoke(INVOKEINTERFACE, EXPRESSION_EXECUTOR, "execute", "(L" + ATOMIC_EVENT + ";)L" + OBJECT + ";");
+    }
+
+    /**
+     * Unboxes the Number on the stack as the given kind, jumps to nullLabel if it is null
+     */
+    private void unbox(Kind kind, MethodWriter.Label nullLabel) {
+        int value = store(ASTORE, 1);
+        method.local(ALOAD, value);
+        method.jump(IFNULL, nullLabel);
+        method.local(ALOAD, value);
+        method.type(CHECKCAST, NUMBER);
+        method.invoke(INVOKEVIRTUAL, NUMBER, kind.name().toLowerCase() + "Value", "()" + kind.descriptor);
+    }
+
+    private void convert(Kind from, Kind to) {
+        if (from == to) {
+            return;
+        }
+        switch (from) {
+            case INT:
+                method.op(to == Kind.LONG ? I2L : to == Kind.FLOAT ? I2F : I2D);
+                break;
+            case LONG:
+                method.op(to == Kind.INT ? L2I : to == Kind.FLOAT ? L2F : L2D);
+                break;
+            case FLOAT:
+                method.op(to == Kind.INT ? F2I : to == Kind.LONG ? F2L : F2D);
+                break;
+            default:
+                method.op(to == Kind.INT ? D2I : to == Kind.LONG ? D2L : D2F);
+        }
+    }
+
+    /**
+     * Pushes an element of the nodes array, cast to the given type unless it is null
+     */
+    private void loadNode(Object node, String type) {
+        nodes.add(node);
+        method.local(ALOAD, 0);
+        method.field(GETFIELD, owner, "nodes", "[L" + OBJECT + ";");
+        method.pushInt(nodes.size() - 1);
+        method.op(AALOAD);
+        if (type != null) {
+            method.type(CHECKCAST, type);
+        }
+    }
+
+    private int store(int opcode, int size) {
+        int local = method.newLocal(size);
+        method.local(opcode, local);
+        return local;
+    }
+
+    private static boolean isCompilable(ExpressionExecutor expressionExecutor) {
+        return expressionExecutor instanceof ArithmeticExpressionExecutor && OPERATORS.containsKey(expressionExecutor.getClass());
+    }
+
+    private static boolean isNumeric(Attribute.Type type) {
+        return type == Attribute.Type.INT || type == Attribute.Type.LONG || type == Attribute.Type.FLOAT || type == Attribute.Type.DOUBLE;
+    }
+
+    private static Kind kindOf(Attribute.Type type) {
+        switch (type) {
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case FLOAT:
+                return Kind.FLOAT;
+            default:
+                return Kind.DOUBLE;
+        }
+    }
+
+    private static Comparison comparisonOf(CompareConditionExecutor compareExecutor) {
+        if (compareExecutor instanceof EqualCompareConditionExecutor) {
+            return Comparison.EQUAL;
+        } else if (compareExecutor instanceof NotEqualCompareConditionExecutor) {
+            return Comparison.NOT_EQUAL;
+        } else if (compareExecutor instanceof GreaterThenCompareConditionExecutor) {
+            return Comparison.GREATER_THAN;
+        } else if (compareExecutor instanceof GreaterThenEqualCompareConditionExecutor) {
+            return Comparison.GREATER_THAN_EQUAL;
+        } else if (compareExecutor instanceof LessThenCompareConditionExecutor) {
+            return Comparison.LESS_THAN;
+        } else if (compareExecutor instanceof LessThenEqualCompareConditionExecutor) {
+            return Comparison.LESS_THAN_EQUAL;
+        }
+        return null;
+    }
+}
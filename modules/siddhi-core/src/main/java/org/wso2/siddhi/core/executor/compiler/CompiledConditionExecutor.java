@@ -0,0 +1,59 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.table.predicate.PredicateBuilder;
+import org.wso2.siddhi.core.table.predicate.PredicateTreeNode;
+import org.wso2.siddhi.query.api.definition.TableDefinition;
+
+/**
+ * Super class of the condition executors generated by the ExecutorCompiler, execute() is generated
+ * while the filter queries and predicates are still built by the interpreted condition executor.
+ */
+public abstract class CompiledConditionExecutor implements ConditionExecutor {
+
+    private final ConditionExecutor conditionExecutor;
+
+    /**
+     * Executors and constant values the generated code falls back to, indexed as compiled
+     */
+    protected final Object[] nodes;
+
+    protected CompiledConditionExecutor(ConditionExecutor conditionExecutor, Object[] nodes) {
+        this.conditionExecutor = conditionExecutor;
+        this.nodes = nodes;
+    }
+
+    public abstract boolean execute(AtomicEvent event);
+
+    public ConditionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
+
+    @Override
+    public String constructFilterQuery(AtomicEvent newEvent, int level) {
+        return conditionExecutor.constructFilterQuery(newEvent, level);
+    }
+
+    @Override
+    public PredicateTreeNode constructPredicate(AtomicEvent newEvent, TableDefinition tableDefinition, PredicateBuilder predicateBuilder) {
+        return conditionExecutor.constructPredicate(newEvent, tableDefinition, predicateBuilder);
+    }
+}
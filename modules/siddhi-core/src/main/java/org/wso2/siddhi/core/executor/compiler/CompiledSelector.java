@@ -0,0 +1,42 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.event.AtomicEvent;
+
+/**
+ * Super class of the selectors generated by the ExecutorCompiler, evaluating all the expressions of a
+ * select list that has no aggregations in one call.
+ */
+public abstract class CompiledSelector {
+
+    /**
+     * Executors and constant values the generated code falls back to, indexed as compiled
+     */
+    protected final Object[] nodes;
+
+    protected CompiledSelector(Object[] nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return a new array with the values of the selected expressions
+     */
+    public abstract Object[] select(AtomicEvent event);
+
+}
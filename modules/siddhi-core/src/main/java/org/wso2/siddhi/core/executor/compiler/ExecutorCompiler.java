@@ -0,0 +1,161 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles executor trees into generated classes, enabled by SiddhiConfiguration.setExecutorCompilation().
+ * The interpreted executors are used when a tree has nothing to compile or its compilation fails.
+ * A class is generated once for each distinct code, trees of the same shape such as the ones built for
+ * each key of a partitioned query share it with their own nodes.
+ */
+public class ExecutorCompiler {
+
+    static final Logger log = Logger.getLogger(ExecutorCompiler.class);
+
+    private static final String PACKAGE = "org/wso2/siddhi/core/executor/compiler/";
+    private static final String COMPILED_CONDITION_EXECUTOR = PACKAGE + "CompiledConditionExecutor";
+    private static final String COMPILED_SELECTOR = PACKAGE + "CompiledSelector";
+
+    private final GeneratedClassLoader classLoader = new GeneratedClassLoader(ExecutorCompiler.class.getClassLoader());
+    private final AtomicInteger classCount = new AtomicInteger();
+    // generated classes by their code, written under a fixed class name
+    private final Map<ByteBuffer, Class<?>> compiledClasses = new HashMap<ByteBuffer, Class<?>>();
+
+    /**
+     * @return the compiled condition executor, or the given one if it is not compiled
+     */
+    public ConditionExecutor compile(ConditionExecutor conditionExecutor) {
+        if (conditionExecutor == null) {
+            return null;
+        }
+        try {
+            List<Object> nodes = new ArrayList<Object>();
+            ClassFileWriter classFileWriter = writeCondition(PACKAGE + "GeneratedConditionExecutor", conditionExecutor, nodes);
+            if (classFileWriter == null) {
+                return conditionExecutor;
+            }
+            Class<?> compiledClass;
+            synchronized (compiledClasses) {
+                ByteBuffer code = ByteBuffer.wrap(classFileWriter.toByteArray());
+                compiledClass = compiledClasses.get(code);
+                if (compiledClass == null) {
+                    classFileWriter = writeCondition(PACKAGE + "GeneratedConditionExecutor" + classCount.incrementAndGet(), conditionExecutor,
+                                                     new ArrayList<Object>());
+                    compiledClass = classLoader.define(classFileWriter.getClassName(), classFileWriter.toByteArray());
+                    compiledClasses.put(code, compiledClass);
+                }
+            }
+            return (ConditionExecutor) compiledClass.getConstructor(ConditionExecutor.class, Object[].class).newInstance(conditionExecutor, nodes.toArray());
+        } catch (Exception e) {
+            log.warn("Cannot compile condition, it will be interpreted", e);
+        } catch (LinkageError e) {
+            log.warn("Cannot compile condition, it will be interpreted", e);
+        }
+        return conditionExecutor;
+    }
+
+    /**
+     * @return the compiled selector, or null if the expressions are not compiled
+     */
+    public CompiledSelector compile(List<ExpressionExecutor> expressionExecutors) {
+        try {
+            List<Object> nodes = new ArrayList<Object>();
+            ClassFileWriter classFileWriter = writeSelector(PACKAGE + "GeneratedSelector", expressionExecutors, nodes);
+            if (classFileWriter == null) {
+                return null;
+            }
+            Class<?> compiledClass;
+            synchronized (compiledClasses) {
+                ByteBuffer code = ByteBuffer.wrap(classFileWriter.toByteArray());
+                compiledClass = compiledClasses.get(code);
+                if (compiledClass == null) {
+                    classFileWriter = writeSelector(PACKAGE + "GeneratedSelector" + classCount.incrementAndGet(), expressionExecutors,
+                                                    new ArrayList<Object>());
+                    compiledClass = classLoader.define(classFileWriter.getClassName(), classFileWriter.toByteArray());
+                    compiledClasses.put(code, compiledClass);
+                }
+            }
+            return (CompiledSelector) compiledClass.getConstructor(Object[].class).newInstance(new Object[]{nodes.toArray()});
+        } catch (Exception e) {
+            log.warn("Cannot compile selection, it will be interpreted", e);
+        } catch (LinkageError e) {
+            log.warn("Cannot compile selection, it will be interpreted", e);
+        }
+        return null;
+    }
+
+    /**
+     * @return number of classes generated
+     */
+    public int getClassCount() {
+        return classCount.get();
+    }
+
+    /**
+     * Writes the class of a condition, the executors it refers to are added to the nodes in a fixed order,
+     * hence the trees of a query built for each partition share one class
+     *
+     * @return the class, or null if nothing of the condition is compiled
+     */
+    private ClassFileWriter writeCondition(String className, ConditionExecutor conditionExecutor, List<Object> nodes) {
+        ClassFileWriter classFileWriter = new ClassFileWriter(className, COMPILED_CONDITION_EXECUTOR);
+        String constructorDescriptor = "(Lorg/wso2/siddhi/core/executor/conditon/ConditionExecutor;[Ljava/lang/Object;)V";
+        addConstructor(classFileWriter, COMPILED_CONDITION_EXECUTOR, constructorDescriptor, 2);
+        CodeGenerator codeGenerator = new CodeGenerator(classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "execute", "(Lorg/wso2/siddhi/core/event/AtomicEvent;)Z"),
+                                                        COMPILED_CONDITION_EXECUTOR, nodes);
+        codeGenerator.generateCondition(conditionExecutor);
+        return codeGenerator.getCompiledCount() == 0 ? null : classFileWriter;
+    }
+
+    /**
+     * @return the class of a selection, or null if nothing of the selection is compiled
+     */
+    private ClassFileWriter writeSelector(String className, List<ExpressionExecutor> expressionExecutors, List<Object> nodes) {
+        ClassFileWriter classFileWriter = new ClassFileWriter(className, COMPILED_SELECTOR);
+        addConstructor(classFileWriter, COMPILED_SELECTOR, "([Ljava/lang/Object;)V", 1);
+        CodeGenerator codeGenerator = new CodeGenerator(classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "select", "(Lorg/wso2/siddhi/core/event/AtomicEvent;)[Ljava/lang/Object;"),
+                                                        COMPILED_SELECTOR, nodes);
+        codeGenerator.generateSelection(expressionExecutors);
+        return codeGenerator.getCompiledCount() == 0 ? null : classFileWriter;
+    }
+
+    /**
+     * Adds a constructor passing its parameters to the super constructor with the same descriptor
+     */
+    private static void addConstructor(ClassFileWriter classFileWriter, String superName, String descriptor,
+                                       int parameterCount) {
+        MethodWriter constructor = classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", descriptor);
+        constructor.reserveLocals(parameterCount + 1);
+        for (int i = 0; i <= parameterCount; i++) {
+            constructor.local(MethodWriter.ALOAD, i);
+        }
+        constructor.invoke(MethodWriter.INVOKESPECIAL, superName, "<init>", descriptor);
+        constructor.op(MethodWriter.RETURN);
+    }
+}
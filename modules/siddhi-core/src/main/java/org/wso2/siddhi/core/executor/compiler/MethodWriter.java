@@ -0,0 +1,294 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the byte code of a method of a ClassFileWriter. The generated code only keeps a few operands on
+ * the stack as every intermediate value is stored in a local, hence the fixed max stack.
+ */
+final class MethodWriter {
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int FLOAD = 0x17;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int FSTORE = 0x38;
+    static final int DSTORE = 0x39;
+    static final int ASTORE = 0x3a;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IDIV = 0x6c;
+    static final int IREM = 0x70;
+    static final int I2L = 0x85;
+    static final int I2F = 0x86;
+    static final int I2D = 0x87;
+    static final int L2I = 0x88;
+    static final int L2F = 0x89;
+    static final int L2D = 0x8a;
+    static final int F2I = 0x8b;
+    static final int F2L = 0x8c;
+    static final int F2D = 0x8d;
+    static final int D2I = 0x8e;
+    static final int D2L = 0x8f;
+    static final int D2F = 0x90;
+    static final int LCMP = 0x94;
+    static final int FCMPL = 0x95;
+    static final int FCMPG = 0x96;
+    static final int DCMPL = 0x97;
+    static final int DCMPG = 0x98;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int GOTO = 0xa7;
+    static final int IRETURN = 0xac;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int ANEWARRAY = 0xbd;
+    static final int CHECKCAST = 0xc0;
+    static final int INSTANCEOF = 0xc1;
+    static final int IFNULL = 0xc6;
+    static final int IFNONNULL = 0xc7;
+
+    private static final int MAX_STACK = 8;
+
+    /**
+     * Position in the code, branches to a label not yet marked are patched when it is marked
+     */
+    static final class Label {
+        private int position = -1;
+        private final List<int[]> branches = new ArrayList<int[]>(2);
+    }
+
+    private final ClassFileWriter classFileWriter;
+    private final int access;
+    private final String name;
+    private final String descriptor;
+    private byte[] code = new byte[256];
+    private int length;
+    private int maxLocals;
+
+    MethodWriter(ClassFileWriter classFileWriter, int access, String name, String descriptor) {
+        this.classFileWriter = classFileWriter;
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    int getAccess() {
+        return access;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getDescriptor() {
+        return descriptor;
+    }
+
+    int getMaxStack() {
+        return MAX_STACK;
+    }
+
+    int getMaxLocals() {
+        return maxLocals;
+    }
+
+    byte[] getCode() {
+        if (length > Short.MAX_VALUE) {
+            throw new IllegalStateException("Method " + name + " exceeds the branch range with " + length + " bytes");
+        }
+        return Arrays.copyOf(code, length);
+    }
+
+    /**
+     * Reserves the locals of the parameters, this being local 0
+     */
+    void reserveLocals(int count) {
+        maxLocals = Math.max(maxLocals, count);
+    }
+
+    /**
+     * @param size 2 for long and double locals, 1 otherwise
+     * @return index of a new local
+     */
+    int newLocal(int size) {
+        int local = maxLocals;
+        maxLocals += size;
+        if (maxLocals > 256) {
+            throw new IllegalStateException("Method " + name + " needs more than 256 locals");
+        }
+        return local;
+    }
+
+    void op(int opcode) {
+        put(opcode);
+    }
+
+    void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            put(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            put(BIPUSH);
+            put(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            put(SIPUSH);
+            putShort(value);
+        } else {
+            ldc(classFileWriter.integer(value));
+        }
+    }
+
+    void pushLong(long value) {
+        put(LDC2_W);
+        putShort(classFileWriter.longConstant(value));
+    }
+
+    void pushFloat(float value) {
+        ldc(classFileWriter.floatConstant(value));
+    }
+
+    void pushDouble(double value) {
+        put(LDC2_W);
+        putShort(classFileWriter.doubleConstant(value));
+    }
+
+    void pushString(String value) {
+        ldc(classFileWriter.string(value));
+    }
+
+    private void ldc(int index) {
+        if (index < 256) {
+            put(LDC);
+            put(index);
+        } else {
+            put(LDC_W);
+            putShort(index);
+        }
+    }
+
+    /**
+     * @param opcode one of the load or store instructions
+     */
+    void local(int opcode, int local) {
+        put(opcode);
+        put(local);
+    }
+
+    void type(int opcode, String internalName) {
+        put(opcode);
+        putShort(classFileWriter.classRef(internalName));
+    }
+
+    void field(int opcode, String owner, String name, String descriptor) {
+        put(opcode);
+        putShort(classFileWriter.fieldRef(owner, name, descriptor));
+    }
+
+    void invoke(int opcode, String owner, String name, String descriptor) {
+        put(opcode);
+        if (opcode == INVOKEINTERFACE) {
+            putShort(classFileWriter.interfaceMethodRef(owner, name, descriptor));
+            put(argumentSlots(descriptor) + 1);
+            put(0);
+        } else {
+            putShort(classFileWriter.methodRef(owner, name, descriptor));
+        }
+    }
+
+    void jump(int opcode, Label label) {
+        int position = length;
+        put(opcode);
+        if (label.position >= 0) {
+            putShort(label.position - position);
+        } else {
+            label.branches.add(new int[]{position, length});
+            putShort(0);
+        }
+    }
+
+    void mark(Label label) {
+        label.position = length;
+        for (int[] branch : label.branches) {
+            int offset = length - branch[0];
+            code[branch[1]] = (byte) (offset >> 8);
+            code[branch[1] + 1] = (byte) offset;
+        }
+        label.branches.clear();
+    }
+
+    private static int argumentSlots(String descriptor) {
+        int slots = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+                i++;
+            } else {
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (descriptor.charAt(i) == 'L') {
+                    i = descriptor.indexOf(';', i);
+                }
+                slots++;
+                i++;
+            }
+        }
+        return slots;
+    }
+
+    private void putShort(int value) {
+        put(value >> 8);
+        put(value);
+    }
+
+    private void put(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = (byte) value;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+*  Copyright (c) 2005-2010, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.conditon.compare;
+
+import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Comparison of numeric operands, compared without boxing them when both operands are primitive
+ */
+public abstract class NumericCompareConditionExecutor extends CompareConditionExecutor {
+
+    /**
+     * The type both numeric operands are promoted to when compared without boxing them
+     */
+    protected enum PrimitiveType {
+        NONE, LONG, FLOAT, DOUBLE
+    }
+
+    private final PrimitiveType primitiveType;
+
+    public NumericCompareConditionExecutor(ExpressionExecutor leftExpressionExecutor,
+                                           ExpressionExecutor rightExpressionExecutor) {
+        super(leftExpressionExecutor, rightExpressionExecutor);
+        this.primitiveType = resolvePrimitiveType();
+    }
+
+    @Override
+    public boolean execute(AtomicEvent event) {
+        if (primitiveType != PrimitiveType.NONE) {
+            PrimitiveExpressionExecutor left = (PrimitiveExpressionExecutor) leftExpressionExecutor;
+            PrimitiveExpressionExecutor right = (PrimitiveExpressionExecutor) rightExpressionExecutor;
+            if (left.isPrimitive(event) && right.isPrimitive(event)) {
+                if (left.isNull(event) || right.isNull(event)) {
+                    return false;
+                }
+                switch (primitiveType) {
+                    case LONG:
+                        return processLong(left.executeLong(event), right.executeLong(event));
+                    case FLOAT:
+                        return processFloat(executeFloat(left, event), executeFloat(right, event));
+                    default:
+                        return processDouble(executeDouble(left, event), executeDouble(right, event));
+                }
+            }
+        }
+        return super.execute(event);
+    }
+
+    protected abstract boolean processLong(long left, long right);
+
+    protected abstract boolean processFloat(float left, float right);
+
+    protected abstract boolean processDouble(double left, double right);
+
+    private PrimitiveType resolvePrimitiveType() {
+        if (!(leftExpressionExecutor instanceof PrimitiveExpressionExecutor) ||
+            !(rightExpressionExecutor instanceof PrimitiveExpressionExecutor)) {
+            return PrimitiveType.NONE;
+        }
+        Attribute.Type leftType = leftExpressionExecutor.getReturnType();
+        Attribute.Type rightType = rightExpressionExecutor.getReturnType();
+        if (!isNumeric(leftType) || !isNumeric(rightType)) {
+            return PrimitiveType.NONE;
+        } else if (leftType == Attribute.Type.DOUBLE || rightType == Attribute.Type.DOUBLE) {
+            return PrimitiveType.DOUBLE;
+        } else if (leftType == Attribute.Type.FLOAT || rightType == Attribute.Type.FLOAT) {
+            return PrimitiveType.FLOAT;
+        } else {
+            return PrimitiveType.LONG;
+        }
+    }
+
+    private static boolean isNumeric(Attribute.Type type) {
+        return type == Attribute.Type.INT || type == Attribute.Type.LONG || type == Attribute.Type.FLOAT || type == Attribute.Type.DOUBLE;
+    }
+
+    private static float executeFloat(PrimitiveExpressionExecutor executor, AtomicEvent event) {
+        if (executor.getReturnType() == Attribute.Type.FLOAT) {
+            return (float) executor.executeDouble(event);
+        }
+        return (float) executor.executeLong(event);
+    }
+
+    private static double executeDouble(PrimitiveExpressionExecutor executor, AtomicEvent event) {
+        if (executor.getReturnType() == Attribute.Type.FLOAT || executor.getReturnType() == Attribute.Type.DOUBLE) {
+            return executor.executeDouble(event);
+        }
+        return (double) executor.executeLong(event);
+    }
+}
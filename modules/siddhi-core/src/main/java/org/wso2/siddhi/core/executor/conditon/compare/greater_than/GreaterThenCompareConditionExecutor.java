@@ -17,13 +17,28 @@
 */
 package org.wso2.siddhi.core.executor.conditon.compare.greater_than;
 
-import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.NumericCompareConditionExecutor;
 import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
 
-public abstract class GreaterThenCompareConditionExecutor extends CompareConditionExecutor {
+public abstract class GreaterThenCompareConditionExecutor extends NumericCompareConditionExecutor {
 
     public GreaterThenCompareConditionExecutor(ExpressionExecutor leftExpressionExecutor,
                                                ExpressionExecutor rightExpressionExecutor) {
         super(leftExpressionExecutor,rightExpressionExecutor);
     }
+
+    @Override
+    protected boolean processLong(long left, long right) {
+        return left > right;
+    }
+
+    @Override
+    protected boolean processFloat(float left, float right) {
+        return left > right;
+    }
+
+    @Override
+    protected boolean processDouble(double left, double right) {
+        return left > right;
+    }
 }
@@ -17,13 +17,28 @@
 */
 package org.wso2.siddhi.core.executor.conditon.compare.not_equal;
 
-import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.NumericCompareConditionExecutor;
 import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
 
-public abstract class NotEqualCompareConditionExecutor extends CompareConditionExecutor {
+public abstract class NotEqualCompareConditionExecutor extends NumericCompareConditionExecutor {
 
     public NotEqualCompareConditionExecutor(ExpressionExecutor leftExpressionExecutor,
                                             ExpressionExecutor rightExpressionExecutor) {
         super(leftExpressionExecutor,rightExpressionExecutor);
     }
+
+    @Override
+    protected boolean processLong(long left, long right) {
+        return left != right;
+    }
+
+    @Override
+    protected boolean processFloat(float left, float right) {
+        return left != right;
+    }
+
+    @Override
+    protected boolean processDouble(double left, double right) {
+        return left != right;
+    }
 }
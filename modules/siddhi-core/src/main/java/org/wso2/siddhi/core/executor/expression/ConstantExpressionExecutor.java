@@ -23,13 +23,19 @@ import org.wso2.siddhi.query.api.definition.Attribute;
 import java.util.HashSet;
 import java.util.Set;
 
-public class ConstantExpressionExecutor implements ExpressionExecutor {
+public class ConstantExpressionExecutor implements PrimitiveExpressionExecutor {
     private Object value;
     private Attribute.Type type;
+    private long longValue;
+    private double doubleValue;
 
     public ConstantExpressionExecutor(Object value, Attribute.Type type) {
         this.value = value;
         this.type = type;
+        if (value instanceof Number) {
+            longValue = ((Number) value).longValue();
+            doubleValue = ((Number) value).doubleValue();
+        }
     }
 
     @Override
@@ -37,6 +43,26 @@ public class ConstantExpressionExecutor implements ExpressionExecutor {
         return value;
     }
 
+    @Override
+    public boolean isPrimitive(AtomicEvent event) {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(AtomicEvent event) {
+        return value == null;
+    }
+
+    @Override
+    public long executeLong(AtomicEvent event) {
+        return longValue;
+    }
+
+    @Override
+    public double executeDouble(AtomicEvent event) {
+        return doubleValue;
+    }
+
     public Attribute.Type getReturnType() {
         return type;
     }
@@ -0,0 +1,38 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.executor.expression;
+
+import org.wso2.siddhi.core.event.AtomicEvent;
+
+/**
+ * Expression executor of a numeric type that can return its value without boxing it.
+ * executeLong() is used for int and long return types and executeDouble() for float and double,
+ * both are only called when isNull() is false. Events for which isPrimitive() is false are evaluated
+ * once through execute() instead, as isNull() and the primitive value would each evaluate them.
+ */
+public interface PrimitiveExpressionExecutor extends ExpressionExecutor {
+
+    public boolean isPrimitive(AtomicEvent event);
+
+    public boolean isNull(AtomicEvent event);
+
+    public long executeLong(AtomicEvent event);
+
+    public double executeDouble(AtomicEvent event);
+
+}
@@ -29,7 +29,7 @@ import org.wso2.siddhi.query.api.utils.SiddhiConstants;
 
 import java.util.List;
 
-public class VariableExpressionExecutor implements ExpressionExecutor {
+public class VariableExpressionExecutor implements PrimitiveExpressionExecutor {
     Attribute.Type type;
     int streamPosition = -1;
     int attributePosition = -1;
@@ -105,7 +105,7 @@ public class VariableExpressionExecutor implements ExpressionExecutor {
     public Object execute(AtomicEvent event) {
         try {
             if (event instanceof Event) {
-                return ((Event) event).getData()[attributePosition];
+                return ((Event) event).getData(attributePosition);
             } else if (innerStreamPosition == SiddhiConstants.PREV) {
                 StreamEvent streamEvent = ((StateEvent) event).getStreamEvent(streamPosition);
                 if (streamEvent instanceof ListEvent) {
@@ -174,10 +174,51 @@ public class VariableExpressionExecutor implements ExpressionExecutor {
         }
     }
 
+    @Override
+    public boolean isPrimitive(AtomicEvent event) {
+        return event instanceof PrimitiveEvent;
+    }
+
+    @Override
+    public boolean isNull(AtomicEvent event) {
+        if (event instanceof PrimitiveEvent) {
+            return ((PrimitiveEvent) event).isNull(attributePosition);
+        }
+        return execute(event) == null;
+    }
+
+    @Override
+    public long executeLong(AtomicEvent event) {
+        if (event instanceof PrimitiveEvent && ((PrimitiveEvent) event).getEventLayout().getSlotType(attributePosition) == EventLayout.SlotType.LONG) {
+            return ((PrimitiveEvent) event).getLong(attributePosition);
+        }
+        return ((Number) execute(event)).longValue();
+    }
+
+    @Override
+    public double executeDouble(AtomicEvent event) {
+        if (event instanceof PrimitiveEvent && ((PrimitiveEvent) event).getEventLayout().getSlotType(attributePosition) == EventLayout.SlotType.DOUBLE) {
+            return ((PrimitiveEvent) event).getDouble(attributePosition);
+        }
+        return ((Number) execute(event)).doubleValue();
+    }
+
     public Attribute.Type getReturnType() {
         return type;
     }
 
+    public int getStreamPosition() {
+        return streamPosition;
+    }
+
+    public int getAttributePosition() {
+        return attributePosition;
+    }
+
+    public int getInnerStreamPosition() {
+        return innerStreamPosition;
+    }
+
 
     public String constructFilterQuery(AtomicEvent newEvent, int level) {
         Object obj = execute(newEvent);
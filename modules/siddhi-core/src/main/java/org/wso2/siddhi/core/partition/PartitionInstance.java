@@ -0,0 +1,107 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.partition;
+
+import org.wso2.siddhi.core.extension.EternalReferencedHolder;
+import org.wso2.siddhi.core.query.processor.handler.HandlerProcessor;
+import org.wso2.siddhi.core.query.selector.QuerySelector;
+import org.wso2.siddhi.core.snapshot.Snapshotable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instance of a partitioned query for one partition key, holding the elements registered while it was
+ * constructed so that they can be unregistered when the instance is evicted. Events are processed and the
+ * instance is evicted while holding its monitor.
+ */
+public class PartitionInstance {
+
+    private final String partitionKey;
+    private List<HandlerProcessor> handlerProcessorList;
+    private QuerySelector querySelector;
+    private final List<Snapshotable> snapshotableList = new ArrayList<Snapshotable>();
+    private final List<EternalReferencedHolder> eternalReferencedHolderList = new ArrayList<EternalReferencedHolder>();
+    private volatile long lastAccessTime;
+    private boolean evicted = false;
+
+    public PartitionInstance(String partitionKey, long lastAccessTime) {
+        this.partitionKey = partitionKey;
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public HandlerProcessor getHandlerProcessor(int handlerId) {
+        return handlerProcessorList.get(handlerId);
+    }
+
+    public List<HandlerProcessor> getHandlerProcessorList() {
+        return handlerProcessorList;
+    }
+
+    public void setHandlerProcessorList(List<HandlerProcessor> handlerProcessorList) {
+        this.handlerProcessorList = handlerProcessorList;
+    }
+
+    public QuerySelector getQuerySelector() {
+        return querySelector;
+    }
+
+    public void setQuerySelector(QuerySelector querySelector) {
+        this.querySelector = querySelector;
+    }
+
+    /**
+     * @return Snapshotables of the instance in the order they were registered, which is the same for every
+     *         instance of the query
+     */
+    public List<Snapshotable> getSnapshotableList() {
+        return snapshotableList;
+    }
+
+    public void addSnapshotable(Snapshotable snapshotable) {
+        snapshotableList.add(snapshotable);
+    }
+
+    public List<EternalReferencedHolder> getEternalReferencedHolderList() {
+        return eternalReferencedHolderList;
+    }
+
+    public void addEternalReferencedHolder(EternalReferencedHolder eternalReferencedHolder) {
+        eternalReferencedHolderList.add(eternalReferencedHolder);
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    public void setEvicted(boolean evicted) {
+        this.evicted = evicted;
+    }
+}
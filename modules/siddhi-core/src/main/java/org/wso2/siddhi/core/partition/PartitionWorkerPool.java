@@ -0,0 +1,210 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.partition;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.snapshot.ThreadBarrier;
+import org.wso2.siddhi.core.util.SiddhiThreadFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed set of worker threads the partitions of partitioned queries are sharded over by their keys. Each worker
+ * has its own queue, so the events of a partition key are processed in their arrival order by a single thread
+ * and the state of a partition is never accessed concurrently.
+ * <p/>
+ * Tasks run inside the thread barrier, so a snapshot waits for the running tasks and holds back the queued ones.
+ * The SnapshotService waits till the queued tasks are done before it closes the barrier, as they are in no
+ * snapshot. Each queue takes up to the given number of tasks from other threads, a producer waits for a free
+ * slot out of flight of the barrier so that a snapshot is not held up by it. Tasks a worker gives to its own
+ * queue are always taken, as the worker can't wait on itself.
+ */
+public class PartitionWorkerPool {
+
+    static final Logger log = Logger.getLogger(PartitionWorkerPool.class);
+
+    private static final long SHUTDOWN_TIMEOUT = 60000;
+    private static final long POLL_TIMEOUT = 100;
+
+    private final ThreadBarrier threadBarrier;
+    private final BlockingQueue<Task>[] queues;
+    private final Semaphore[] slots;
+    private final Thread[] workers;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private volatile boolean stopped = false;
+
+    public PartitionWorkerPool(int workerCount, int queueSize, ThreadBarrier threadBarrier) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("Partition worker queue size must be positive, but found " + queueSize);
+        }
+        this.threadBarrier = threadBarrier;
+        this.queues = new BlockingQueue[workerCount];
+        this.slots = new Semaphore[workerCount];
+        this.workers = new Thread[workerCount];
+        SiddhiThreadFactory threadFactory = new SiddhiThreadFactory("PartitionWorker");
+        for (int i = 0; i < workerCount; i++) {
+            queues[i] = new LinkedBlockingQueue<Task>();
+            slots[i] = new Semaphore(queueSize);
+            workers[i] = threadFactory.newThread(new Worker(queues[i], slots[i]));
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Runs the task on the worker of the partition key, after the tasks given earlier for the same key
+     */
+    public void execute(String partitionKey, Runnable task) {
+        int hash = partitionKey.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        int index = (hash & Integer.MAX_VALUE) % queues.length;
+        boolean slotTaken = false;
+        if (workers[index] != Thread.currentThread()) {
+            if (!slots[index].tryAcquire() && !acquireOutOfFlight(slots[index])) {
+                log.error("Interrupted while waiting to queue an event of partition " + partitionKey + ", the event is dropped");
+                return;
+            }
+            slotTaken = true;
+        }
+        submitted.incrementAndGet();
+        queues[index].add(new Task(task, slotTaken));
+    }
+
+    private boolean acquireOutOfFlight(Semaphore slot) {
+        int depth = threadBarrier.suspend();
+        try {
+            slot.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            threadBarrier.resume(depth);
+        }
+    }
+
+    /**
+     * Waits till the tasks given before this call are done.
+     *
+     * @return false if interrupted while waiting
+     */
+    public boolean awaitDrained() {
+        long target = submitted.get();
+        while (completed.get() < target) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(1000);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if there is no queued or running task
+     */
+    public boolean isDrained() {
+        return completed.get() == submitted.get();
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stops the workers after the tasks already given to them are done, waiting up to a minute for them to finish
+     * so that no task runs once the tables and windows they use are destroyed
+     */
+    public void shutdown() {
+        stopped = true;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+        try {
+            for (Thread worker : workers) {
+                long remaining = deadline - System.currentTimeMillis();
+                // a task shutting down the manager can't wait for its own worker
+                if (worker != Thread.currentThread() && remaining > 0) {
+                    worker.join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive() && worker != Thread.currentThread()) {
+                log.warn("Partition worker " + worker.getName() + " did not finish its queued tasks within " + SHUTDOWN_TIMEOUT + " ms");
+            }
+        }
+    }
+
+    private static class Task {
+        private final Runnable runnable;
+        private final boolean slotTaken;
+
+        private Task(Runnable runnable, boolean slotTaken) {
+            this.runnable = runnable;
+            this.slotTaken = slotTaken;
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final BlockingQueue<Task> queue;
+        private final Semaphore slot;
+
+        private Worker(BlockingQueue<Task> queue, Semaphore slot) {
+            this.queue = queue;
+            this.slot = slot;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task task;
+                try {
+                    task = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == null) {
+                    if (stopped) {
+                        return;
+                    }
+                    continue;
+                }
+                if (task.slotTaken) {
+                    slot.release();
+                }
+                threadBarrier.enter();
+                try {
+                    task.runnable.run();
+                } catch (Throwable t) {
+                    log.error(t.getMessage(), t);
+                } finally {
+                    // counted before leaving the barrier, so a closed barrier sees every task either done or queued
+                    completed.incrementAndGet();
+                    threadBarrier.exit();
+                }
+            }
+        }
+    }
+}
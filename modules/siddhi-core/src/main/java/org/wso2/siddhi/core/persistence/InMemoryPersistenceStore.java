@@ -23,66 +23,51 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import org.apache.log4j.Logger;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
-public class InMemoryPersistenceStore implements PersistenceStore {
+/**
+ * Keeps the revisions in the heap, each revision as its own entry so that saving and deleting one does not
+ * copy the others.
+ */
+public class InMemoryPersistenceStore implements RevisionDeletingPersistenceStore {
 
     private static final Logger log = Logger.getLogger(InMemoryPersistenceStore.class);
     HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(new Config().setInstanceName(UUID.randomUUID().toString()));
-    IMap<String, Map<String, byte[]>> persistenceMap = hazelcastInstance.getMap("persistenceMap");
-    IMap<String, List<String>> revisionMap = hazelcastInstance.getMap("revisionMap");
+    IMap<String, byte[]> persistenceMap = hazelcastInstance.getMap("persistenceMap");
+    IMap<String, String> revisionMap = hazelcastInstance.getMap("revisionMap");
 
 
     @Override
     public void save(String queryPlanIdentifier, String revision, byte[] data) {
-        Map<String, byte[]> executionPersistenceMap = persistenceMap.get(queryPlanIdentifier);
-        if (executionPersistenceMap == null) {
-            executionPersistenceMap = new HashMap<String, byte[]>();
-        }
-
-        executionPersistenceMap.put(revision, data);
-
-
-        List<String> revisionList = revisionMap.get(queryPlanIdentifier);
-        if (revisionList == null) {
-            revisionList = new ArrayList<String>();
-            revisionMap.put(queryPlanIdentifier, revisionList);
-        }
-        if (revisionList.size() == 0 || (revisionList.size() > 0 && !revision.equals(revisionList.get(revisionList.size() - 1)))) {
-            revisionList.add(revision);
-            revisionMap.put(queryPlanIdentifier, revisionList);
-        }
-        persistenceMap.put(queryPlanIdentifier, executionPersistenceMap);
-
-
+        persistenceMap.set(getKey(queryPlanIdentifier, revision), data);
+        revisionMap.set(queryPlanIdentifier, revision);
     }
 
     @Override
     public byte[] load(String queryPlanIdentifier, String revision) {
-
-
-        Map<String, byte[]> executionPersistenceMap = persistenceMap.get(queryPlanIdentifier);
-        if (executionPersistenceMap == null) {
-            log.warn("Data not found for the execution plan " + queryPlanIdentifier);
-            return null;
+        byte[] data = persistenceMap.get(getKey(queryPlanIdentifier, revision));
+        if (data == null) {
+            log.warn("Data not found for the revision " + revision + " of execution plan " + queryPlanIdentifier);
         }
-        return executionPersistenceMap.get(revision);
+        return data;
     }
 
     @Override
     public String getLastRevision(String executionPlanIdentifier) {
-        List<String> revisionList = revisionMap.get(executionPlanIdentifier);
-        if (revisionList == null) {
-            return null;
-        }
-        if (revisionList.size() > 0) {
-            return revisionList.get(revisionList.size() - 1);
-        }
-        return null;
+        return revisionMap.get(executionPlanIdentifier);
+    }
+
+    @Override
+    public void delete(String queryPlanIdentifier, String revision) {
+        persistenceMap.delete(getKey(queryPlanIdentifier, revision));
+        revisionMap.remove(queryPlanIdentifier, revision);
+    }
+
+    /**
+     * Prefixed with the length of the execution plan identifier, so that the keys of different plans never clash
+     */
+    private String getKey(String queryPlanIdentifier, String revision) {
+        return queryPlanIdentifier.length() + ":" + queryPlanIdentifier + revision;
     }
 
     public void shutdown() {
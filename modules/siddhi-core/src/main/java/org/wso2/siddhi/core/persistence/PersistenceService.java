@@ -20,16 +20,34 @@ package org.wso2.siddhi.core.persistence;
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.exception.NoPersistenceStoreAssignedException;
-
-import java.util.ArrayList;
-import java.util.List;
-
+import org.wso2.siddhi.core.snapshot.IncrementalSnapshot;
+import org.wso2.siddhi.core.util.SiddhiThreadFactory;
+
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the revisions of the execution plan. Only the increments since the previous revision are
+ * taken while the event processing is held back, and they are serialized and saved on a background
+ * thread. Every fullSnapshotInterval revisions a full snapshot compacts the chain of increments, and a full
+ * snapshot is also taken while the save of the previous revision is not confirmed.
+ */
 public class PersistenceService {
 
     static final Logger log = Logger.getLogger(PersistenceService.class);
     private String queryPlanIdentifier;
     private PersistenceStore persistenceStore;
     private SiddhiContext siddhiContext;
+    private final ExecutorService persistenceExecutor = Executors.newSingleThreadExecutor(new SiddhiThreadFactory("Persistence"));
+    private Future<?> lastSave;
+    private String lastRevision;
+    private long lastRevisionTime;
+    private int chainLength;
+    private volatile String savedRevision;
 
     public PersistenceService(
             SiddhiContext siddhiContext) {
@@ -38,18 +56,36 @@ public class PersistenceService {
     }
 
 
-    public String persist() {
+    public synchronized String persist() {
 
         if (persistenceStore != null) {
             if (log.isDebugEnabled()) {
                 log.debug("Persisting...");
             }
-            byte[] snapshot = siddhiContext.getSnapshotService().snapshot();
-            String revision = System.currentTimeMillis() + "_" + queryPlanIdentifier;
-            persistenceStore.save(queryPlanIdentifier, revision, snapshot);
-            if (log.isDebugEnabled()) {
-                log.debug("Persisted.");
+            String baseRevision = lastRevision;
+            // an increment is only built on a base whose save has succeeded
+            if (baseRevision == null || !baseRevision.equals(savedRevision) || chainLength >= siddhiContext.getFullSnapshotInterval()) {
+                baseRevision = null;
             }
+            final IncrementalSnapshot snapshot = siddhiContext.getSnapshotService().incrementalSnapshot(baseRevision);
+            final String revision = createRevision();
+            final PersistenceStore store = persistenceStore;
+            lastSave = persistenceExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        store.save(queryPlanIdentifier, revision, siddhiContext.getSnapshotService().getCodec().encode(snapshot));
+                        savedRevision = revision;
+                        if (log.isDebugEnabled()) {
+                            log.debug("Persisted revision: " + revision);
+                        }
+                    } catch (Throwable t) {
+                        log.error("Error in persisting revision: " + revision, t);
+                    }
+                }
+            });
+            lastRevision = revision;
+            chainLength = snapshot.isFull() ? 1 : chainLength + 1;
             return revision;
         } else {
             throw new NoPersistenceStoreAssignedException("No persistence store assigned for execution plan " + queryPlanIdentifier);
@@ -57,14 +93,46 @@ public class PersistenceService {
 
     }
 
-    public void restoreRevision(String revision) {
+    /**
+     * Revisions are ordered by their creation time, which is kept unique for the chains of revisions
+     */
+    private String createRevision() {
+        long revisionTime = System.currentTimeMillis();
+        if (revisionTime <= lastRevisionTime) {
+            revisionTime = lastRevisionTime + 1;
+        }
+        lastRevisionTime = revisionTime;
+        return revisionTime + "_" + queryPlanIdentifier;
+    }
+
+    public synchronized void restoreRevision(String revision) {
 
         if (persistenceStore != null) {
             if (log.isDebugEnabled()) {
                 log.debug("Restoring revision: " + revision + " ...");
             }
-            byte[] snapshot = persistenceStore.load(queryPlanIdentifier, revision);
-            siddhiContext.getSnapshotService().restore(snapshot);
+            awaitPersisted();
+            LinkedList<IncrementalSnapshot> snapshots = new LinkedList<IncrementalSnapshot>();
+            String currentRevision = revision;
+            while (currentRevision != null) {
+                byte[] snapshot = persistenceStore.load(queryPlanIdentifier, currentRevision);
+                Object snapshotObject = siddhiContext.getSnapshotService().getCodec().decode(snapshot);
+                if (snapshotObject instanceof IncrementalSnapshot) {
+                    snapshots.addFirst((IncrementalSnapshot) snapshotObject);
+                    currentRevision = ((IncrementalSnapshot) snapshotObject).getBaseRevision();
+                } else if (snapshots.isEmpty()) {
+                    // revisions persisted as whole snapshots
+                    siddhiContext.getSnapshotService().restore(snapshot);
+                    break;
+                } else {
+                    throw new IllegalStateException("Revision " + currentRevision + " is not an incremental snapshot to restore " + revision);
+                }
+            }
+            if (!snapshots.isEmpty()) {
+                siddhiContext.getSnapshotService().restore(snapshots);
+            }
+            // increments taken from now on are relative to the restored state
+            lastRevision = null;
             if (log.isDebugEnabled()) {
                 log.debug("Restored revision: " + revision);
             }
@@ -74,19 +142,33 @@ public class PersistenceService {
 
     }
 
-//    public PersistenceStore getPersistenceStore() {
-//        return persistenceStore;
-//    }
+    private void awaitPersisted() {
+        Future<?> save = lastSave;
+        if (save != null) {
+            try {
+                save.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    public PersistenceStore getPersistenceStore() {
+        return persistenceStore;
+    }
 
     public void setPersistenceStore(PersistenceStore persistenceStore) {
         this.persistenceStore = persistenceStore;
     }
 
 
-    public void restoreLastRevision() {
+    public synchronized void restoreLastRevision() {
         try {
             this.siddhiContext.getThreadBarrier().close();
             if (persistenceStore != null) {
+                awaitPersisted();
                 String revision = persistenceStore.getLastRevision(queryPlanIdentifier);
                 if (revision != null) {
                     restoreRevision(revision);
@@ -98,4 +180,16 @@ public class PersistenceService {
             siddhiContext.getThreadBarrier().open();
         }
     }
+
+    /**
+     * Waits till the revisions already taken are saved
+     */
+    public void shutdown() {
+        persistenceExecutor.shutdown();
+        try {
+            persistenceExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
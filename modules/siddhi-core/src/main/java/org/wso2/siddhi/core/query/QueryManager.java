@@ -53,6 +53,7 @@ public class QueryManager {
     private List<QueryCallback> queryCallbackList = new ArrayList<QueryCallback>();
     private OutputCallback outputCallback = null;
     private final OutputRateManager outputRateManager;
+    private final QueryPartitioner queryPartitioner;
 
 
     public QueryManager(Query query, ConcurrentMap<String, AbstractDefinition> streamTableDefinitionMap,
@@ -65,7 +66,7 @@ public class QueryManager {
         }
         this.query = query;
 
-        outputRateManager = QueryOutputParser.constructOutputRateManager(query.getOutputRate(), siddhiContext.getScheduledExecutorService(),
+        outputRateManager = QueryOutputParser.constructOutputRateManager(query.getOutputRate(), siddhiContext.getClock(),
                                                                          query.getSelector().getGroupByList().size() != 0,
                                                                          query.getInputStream() instanceof WindowStream||query.getInputStream() instanceof JoinStream);
 
@@ -79,7 +80,7 @@ public class QueryManager {
             }
         }
 
-        QueryPartitioner queryPartitioner = new QueryPartitioner(query.getPartitionId(), queryCreator, queryCallbackList, outputCallback, querySelectorList, partitionDefinitionMap,siddhiContext);
+        queryPartitioner = new QueryPartitioner(queryId, query.getPartitionId(), queryCreator, queryCallbackList, outputCallback, querySelectorList, partitionDefinitionMap,siddhiContext);
 
         List<HandlerProcessor> handlerProcessorList = queryPartitioner.constructPartition();
         if (query.getPartitionId() == null) {
@@ -89,7 +90,8 @@ public class QueryManager {
             for (int i = 0; i < handlerProcessorList.size(); i++) {
                 HandlerProcessor queryStreamProcessor = handlerProcessorList.get(i);
                 if ((!(queryStreamProcessor instanceof TableHandlerProcessor))) {
-                    handlerProcessors.add(new PartitionHandlerProcessor(queryStreamProcessor.getStreamId(), queryPartitioner, i,partitionExecutors.get(i)));
+                    handlerProcessors.add(new PartitionHandlerProcessor(queryStreamProcessor.getStreamId(), queryPartitioner, i,partitionExecutors.get(i),
+                                                                           siddhiContext.getPartitionWorkerPool()));
                 }
             }
         }
@@ -145,6 +147,7 @@ public class QueryManager {
                 junction.removeEventFlow(queryStreamProcessor);
             }
         }
+        queryPartitioner.shutdown();
         streamTableDefinitionMap.remove(query.getOutputStream().getStreamId());
     }
 
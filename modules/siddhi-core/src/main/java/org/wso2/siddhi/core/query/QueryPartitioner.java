@@ -17,20 +17,29 @@
 */
 package org.wso2.siddhi.core.query;
 
+import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.exception.QueryCreationException;
+import org.wso2.siddhi.core.extension.EternalReferencedHolder;
+import org.wso2.siddhi.core.partition.PartitionInstance;
 import org.wso2.siddhi.core.partition.executor.PartitionExecutor;
 import org.wso2.siddhi.core.partition.executor.RangePartitionExecutor;
 import org.wso2.siddhi.core.partition.executor.VariablePartitionExecutor;
+import org.wso2.siddhi.core.persistence.PersistenceStore;
+import org.wso2.siddhi.core.persistence.RevisionDeletingPersistenceStore;
 import org.wso2.siddhi.core.query.creator.QueryCreator;
 import org.wso2.siddhi.core.query.output.callback.OutputCallback;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.query.processor.PreSelectProcessingElement;
 import org.wso2.siddhi.core.query.processor.handler.HandlerProcessor;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
+import org.wso2.siddhi.core.snapshot.SnapshotObject;
+import org.wso2.siddhi.core.snapshot.Snapshotable;
 import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.core.util.QueryPartComposite;
 import org.wso2.siddhi.core.util.parser.ExecutorParser;
+import org.wso2.siddhi.core.util.timer.Timeout;
 import org.wso2.siddhi.query.api.condition.ConditionValidator;
 import org.wso2.siddhi.query.api.definition.partition.PartitionDefinition;
 import org.wso2.siddhi.query.api.definition.partition.PartitionType;
@@ -40,30 +49,65 @@ import org.wso2.siddhi.query.api.expression.ExpressionValidator;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
-public class QueryPartitioner {
+/**
+ * Creates and evicts the instances of a partitioned query per partition key. The partitioner is the
+ * Snapshotable of its partitions: its snapshot holds the states of the partition instances by their keys,
+ * and the store revisions of the spilled ones.
+ */
+public class QueryPartitioner implements Snapshotable {
+    static final Logger log = Logger.getLogger(QueryPartitioner.class);
+
+    private final String queryId;
     private final QueryCreator queryCreator;
+    private final SiddhiContext siddhiContext;
     private List<QueryCallback> queryCallbackList;
     private List<QuerySelector> querySelectorList;
-    private ConcurrentHashMap<String, List<HandlerProcessor>> partitionMap = new ConcurrentHashMap<String, List<HandlerProcessor>>();
+    private ConcurrentHashMap<String, PartitionInstance> partitionMap = new ConcurrentHashMap<String, PartitionInstance>();
     private List<List<PartitionExecutor>> partitionExecutors = new ArrayList<List<PartitionExecutor>>();
     private OutputCallback outputCallback = null;
+    private Object outputLock = null;
+    private boolean evicting = false;
+    private String elementId;
+    // revisions of the spilled partition states by their partition keys
+    private ConcurrentHashMap<String, String> spilledPartitions = new ConcurrentHashMap<String, String>();
+    // states of a restored snapshot, till the partitions are created again
+    private ConcurrentHashMap<String, List<SnapshotObject>> restoredPartitions = new ConcurrentHashMap<String, List<SnapshotObject>>();
+    // spill revisions a snapshot refers to, which are hence not deleted from the store
+    private Set<String> snapshotSpillRevisions = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private long lastSpillTime;
+    private Timeout idleEvictionTimeout;
 
 
-    public QueryPartitioner(String partitionId, QueryCreator queryCreator, List<QueryCallback> queryCallbackList, OutputCallback outputCallback, List<QuerySelector> querySelectorList,
+    public QueryPartitioner(String queryId, String partitionId, QueryCreator queryCreator, List<QueryCallback> queryCallbackList, OutputCallback outputCallback, List<QuerySelector> querySelectorList,
                             ConcurrentMap<String, PartitionDefinition> partitionDefinitionMap, SiddhiContext siddhiContext) {
+        this.queryId = queryId;
         this.queryCreator = queryCreator;
+        this.siddhiContext = siddhiContext;
         this.queryCallbackList = queryCallbackList;
         this.outputCallback = outputCallback;
         this.querySelectorList = querySelectorList;
 
         if (partitionId != null) {
+            if (siddhiContext.getPartitionWorkerPool() != null) {
+                outputLock = new Object();
+            }
+            elementId = siddhiContext.getElementIdGenerator().createNewId();
+            siddhiContext.getSnapshotService().addSnapshotable(this);
+            evicting = siddhiContext.getPartitionIdleTimeout() > 0 || siddhiContext.getMaxPartitions() > 0;
+            if (siddhiContext.getPartitionIdleTimeout() > 0) {
+                long idleTimeout = siddhiContext.getPartitionIdleTimeout();
+                idleEvictionTimeout = siddhiContext.getClock().scheduleAtFixedRate(new IdlePartitionEvictor(), idleTimeout, Math.max(idleTimeout / 2, 1));
+            }
             PartitionDefinition partitionDefinition = partitionDefinitionMap.get(partitionId);
             if (partitionDefinition == null) {
                 throw new QueryCreationException("Partition ID " + partitionId + " was not defined!");
@@ -97,29 +141,305 @@ public class QueryPartitioner {
     }
 
 
-    public HandlerProcessor newPartition(int handlerId, String partitionKey) {
+    /**
+     * Processes the event on the partition instance of the key. When partitions are evicted the event is
+     * processed holding the monitor of the instance, and an instance evicted meanwhile is replaced.
+     */
+    public void process(int handlerId, String partitionKey, StreamEvent streamEvent) {
+        if (!evicting) {
+            getPartition(partitionKey).getHandlerProcessor(handlerId).receive(streamEvent);
+            return;
+        }
+        while (true) {
+            PartitionInstance partitionInstance = getPartition(partitionKey);
+            synchronized (partitionInstance) {
+                if (!partitionInstance.isEvicted()) {
+                    partitionInstance.setLastAccessTime(siddhiContext.getClock().currentTime());
+                    partitionInstance.getHandlerProcessor(handlerId).receive(streamEvent);
+                    return;
+                }
+            }
+        }
+    }
 
-        List<HandlerProcessor> handlerProcessorList = partitionMap.get(partitionKey);
-        if (handlerProcessorList == null) {
-            handlerProcessorList = constructPartition();
-            partitionMap.put(partitionKey, handlerProcessorList);
+    private PartitionInstance getPartition(String partitionKey) {
+        PartitionInstance partitionInstance = partitionMap.get(partitionKey);
+        if (partitionInstance == null) {
+            partitionInstance = newPartition(partitionKey);
         }
-        return handlerProcessorList.get(handlerId);
+        return partitionInstance;
+    }
 
+    private PartitionInstance newPartition(String partitionKey) {
+        PartitionInstance partitionInstance;
+        List<PartitionInstance> evictedList = null;
+        synchronized (this) {
+            partitionInstance = partitionMap.get(partitionKey);
+            if (partitionInstance != null) {
+                return partitionInstance;
+            }
+            partitionInstance = new PartitionInstance(partitionKey, siddhiContext.getClock().currentTime());
+            siddhiContext.setConstructingPartition(partitionInstance);
+            try {
+                QueryPartComposite queryPartComposite = constructQueryPart();
+                partitionInstance.setQuerySelector(queryPartComposite.getQuerySelector());
+                partitionInstance.setHandlerProcessorList(queryPartComposite.getHandlerProcessorList());
+            } finally {
+                siddhiContext.setConstructingPartition(null);
+            }
+            List<SnapshotObject> restoredStates = restoredPartitions.remove(partitionKey);
+            String spillRevision = spilledPartitions.remove(partitionKey);
+            if (restoredStates != null) {
+                restoreStates(partitionInstance, restoredStates);
+            } else if (spillRevision != null) {
+                restoreSpilled(partitionInstance, spillRevision);
+            }
+            partitionMap.put(partitionKey, partitionInstance);
+            int maxPartitions = siddhiContext.getMaxPartitions();
+            if (maxPartitions > 0 && partitionMap.size() > maxPartitions) {
+                evictedList = getLeastRecentlyUsed(partitionInstance, partitionMap.size() - maxPartitions * 9 / 10);
+            }
+        }
+        if (evictedList != null) {
+            evict(evictedList, false, siddhiContext.isPartitionSpilling());
+        }
+        return partitionInstance;
     }
 
-    public List<HandlerProcessor> constructPartition() {
+    public synchronized List<HandlerProcessor> constructPartition() {
+        return constructQueryPart().getHandlerProcessorList();
+    }
 
+    /**
+     * Partitions processed on the partition workers share a lock for sending their output, so that the output
+     * rate manager and the output stream only get the output of one partition at a time
+     */
+    private QueryPartComposite constructQueryPart() {
         QueryPartComposite queryPartComposite = queryCreator.constructQuery();
+        queryPartComposite.getQuerySelector().setOutputLock(outputLock);
         querySelectorList.add(queryPartComposite.getQuerySelector());
         for (PreSelectProcessingElement preSelectProcessingElement : queryPartComposite.getPreSelectProcessingElementList()) {
             preSelectProcessingElement.setNext(queryPartComposite.getQuerySelector());
         }
+        return queryPartComposite;
+    }
+
+    /**
+     * Evicting down to 90% of the maximum at once, so that the instances are not sorted for every new partition
+     */
+    private List<PartitionInstance> getLeastRecentlyUsed(PartitionInstance newPartitionInstance, int count) {
+        List<PartitionInstance> partitionInstanceList = new ArrayList<PartitionInstance>(partitionMap.values());
+        partitionInstanceList.remove(newPartitionInstance);
+        Collections.sort(partitionInstanceList, new Comparator<PartitionInstance>() {
+            @Override
+            public int compare(PartitionInstance instance1, PartitionInstance instance2) {
+                long lastAccessTime1 = instance1.getLastAccessTime();
+                long lastAccessTime2 = instance2.getLastAccessTime();
+                return lastAccessTime1 < lastAccessTime2 ? -1 : (lastAccessTime1 == lastAccessTime2 ? 0 : 1);
+            }
+        });
+        return partitionInstanceList.subList(0, Math.min(count, partitionInstanceList.size()));
+    }
+
+    /**
+     * Removes the instances and unregisters their EternalReferencedHolders and selectors
+     *
+     * @param idle  whether only the instances still idle for the idle timeout are evicted
+     * @param spill whether the states of the instances are saved to the persistence store
+     */
+    private void evict(List<PartitionInstance> partitionInstanceList, boolean idle, boolean spill) {
+        List<EternalReferencedHolder> eternalReferencedHolderList = new ArrayList<EternalReferencedHolder>();
+        Set<QuerySelector> querySelectorSet = Collections.newSetFromMap(new IdentityHashMap<QuerySelector, Boolean>());
+        long idleTime = siddhiContext.getClock().currentTime() - siddhiContext.getPartitionIdleTimeout();
+        for (PartitionInstance partitionInstance : partitionInstanceList) {
+            synchronized (partitionInstance) {
+                if (partitionInstance.isEvicted() || (idle && partitionInstance.getLastAccessTime() > idleTime)) {
+                    continue;
+                }
+                // stops the timers of the windows before their states are taken
+                for (EternalReferencedHolder eternalReferencedHolder : partitionInstance.getEternalReferencedHolderList()) {
+                    eternalReferencedHolder.destroy();
+                }
+                if (spill) {
+                    spill(partitionInstance);
+                }
+                partitionInstance.setEvicted(true);
+                partitionMap.remove(partitionInstance.getPartitionKey(), partitionInstance);
+            }
+            eternalReferencedHolderList.addAll(partitionInstance.getEternalReferencedHolderList());
+            querySelectorSet.add(partitionInstance.getQuerySelector());
+        }
+        siddhiContext.removeEternalReferencedHolders(eternalReferencedHolderList);
+        synchronized (this) {
+            querySelectorList.removeAll(querySelectorSet);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Evicted " + querySelectorSet.size() + " partitions of query " + queryId);
+        }
+    }
+
+    private void spill(PartitionInstance partitionInstance) {
+        PersistenceStore persistenceStore = siddhiContext.getPersistenceService().getPersistenceStore();
+        if (persistenceStore == null) {
+            log.warn("No persistence store assigned to spill partition " + partitionInstance.getPartitionKey() + " of query " + queryId);
+            return;
+        }
+        try {
+            String spillIdentifier = getSpillIdentifier(partitionInstance.getPartitionKey());
+            String revision = createSpillRevision(spillIdentifier);
+            persistenceStore.save(spillIdentifier, revision, siddhiContext.getSnapshotService().getCodec().encode(getStates(partitionInstance)));
+            spilledPartitions.put(partitionInstance.getPartitionKey(), revision);
+        } catch (Throwable t) {
+            log.error("Error spilling partition " + partitionInstance.getPartitionKey() + " of query " + queryId, t);
+        }
+    }
+
+    private void restoreSpilled(PartitionInstance partitionInstance, String revision) {
+        PersistenceStore persistenceStore = siddhiContext.getPersistenceService().getPersistenceStore();
+        if (persistenceStore == null) {
+            return;
+        }
+        String spillIdentifier = getSpillIdentifier(partitionInstance.getPartitionKey());
+        byte[] spilledState = persistenceStore.load(spillIdentifier, revision);
+        if (spilledState == null) {
+            return;
+        }
+        restoreStates(partitionInstance, (List<SnapshotObject>) siddhiContext.getSnapshotService().getCodec().decode(spilledState));
+        deleteSpilled(spillIdentifier, revision);
+    }
+
+    /**
+     * Deletes the spilled state from stores supporting it, unless a snapshot refers to it
+     */
+    private void deleteSpilled(String spillIdentifier, String revision) {
+        PersistenceStore persistenceStore = siddhiContext.getPersistenceService().getPersistenceStore();
+        if (persistenceStore instanceof RevisionDeletingPersistenceStore && !snapshotSpillRevisions.remove(revision)) {
+            ((RevisionDeletingPersistenceStore) persistenceStore).delete(spillIdentifier, revision);
+        }
+    }
+
+    private ArrayList<SnapshotObject> getStates(PartitionInstance partitionInstance) {
+        ArrayList<SnapshotObject> states = new ArrayList<SnapshotObject>();
+        for (Snapshotable snapshotable : partitionInstance.getSnapshotableList()) {
+            states.add(snapshotable.snapshot());
+        }
+        return states;
+    }
+
+    private void restoreStates(PartitionInstance partitionInstance, List<SnapshotObject> states) {
+        List<Snapshotable> snapshotableList = partitionInstance.getSnapshotableList();
+        for (int i = 0; i < snapshotableList.size(); i++) {
+            snapshotableList.get(i).restore(states.get(i));
+        }
+    }
+
+    /**
+     * Spilled states are kept per partition key under the element id of the partitioner, which is the same
+     * for the query after a restart
+     */
+    private String getSpillIdentifier(String partitionKey) {
+        return elementId + "-partition-" + partitionKey;
+    }
+
+    /**
+     * Spill revisions are ordered by their creation time like the revisions of the execution plan
+     */
+    private synchronized String createSpillRevision(String spillIdentifier) {
+        long spillTime = System.currentTimeMillis();
+        if (spillTime <= lastSpillTime) {
+            spillTime = lastSpillTime + 1;
+        }
+        lastSpillTime = spillTime;
+        return spillTime + "_" + spillIdentifier;
+    }
+
+    /**
+     * Taken while the ThreadBarrier is closed, hence no partition is processed or evicted meanwhile
+     */
+    @Override
+    public SnapshotObject snapshot() {
+        HashMap<String, ArrayList<SnapshotObject>> partitionStates = new HashMap<String, ArrayList<SnapshotObject>>();
+        for (Map.Entry<String, List<SnapshotObject>> entry : restoredPartitions.entrySet()) {
+            partitionStates.put(entry.getKey(), new ArrayList<SnapshotObject>(entry.getValue()));
+        }
+        for (PartitionInstance partitionInstance : partitionMap.values()) {
+            partitionStates.put(partitionInstance.getPartitionKey(), getStates(partitionInstance));
+        }
+        HashMap<String, String> spillRevisions = new HashMap<String, String>(spilledPartitions);
+        snapshotSpillRevisions.addAll(spillRevisions.values());
+        return new SnapshotObject(partitionStates, spillRevisions);
+    }
+
+    /**
+     * Discards the current partition instances, the partitions of the snapshot are created again on the
+     * next events of their keys
+     */
+    @Override
+    public void restore(SnapshotObject snapshotObject) {
+        evict(new ArrayList<PartitionInstance>(partitionMap.values()), false, false);
+        restoredPartitions.clear();
+        for (Map.Entry<String, String> entry : spilledPartitions.entrySet()) {
+            deleteSpilled(getSpillIdentifier(entry.getKey()), entry.getValue());
+        }
+        spilledPartitions.clear();
+        if (snapshotObject == null) {
+            return;
+        }
+        restoredPartitions.putAll((Map<String, List<SnapshotObject>>) snapshotObject.getData()[0]);
+        Map<String, String> spillRevisions = (Map<String, String>) snapshotObject.getData()[1];
+        spilledPartitions.putAll(spillRevisions);
+        snapshotSpillRevisions.addAll(spillRevisions.values());
+    }
+
+    @Override
+    public String getElementId() {
+        return elementId;
+    }
+
+    @Override
+    public void setElementId(String elementId) {
+        this.elementId = elementId;
+    }
+
+    public boolean isEvicting() {
+        return evicting;
+    }
 
-        return queryPartComposite.getHandlerProcessorList();
+    public int getPartitionCount() {
+        return partitionMap.size();
+    }
+
+    public void shutdown() {
+        if (idleEvictionTimeout != null) {
+            idleEvictionTimeout.cancel();
+        }
     }
 
     public List<List<PartitionExecutor>> getPartitionExecutors() {
         return partitionExecutors;
     }
+
+    private class IdlePartitionEvictor implements Runnable {
+
+        @Override
+        public void run() {
+            siddhiContext.getThreadBarrier().enter();
+            try {
+                long idleTime = siddhiContext.getClock().currentTime() - siddhiContext.getPartitionIdleTimeout();
+                List<PartitionInstance> idleList = new ArrayList<PartitionInstance>();
+                for (PartitionInstance partitionInstance : partitionMap.values()) {
+                    if (partitionInstance.getLastAccessTime() <= idleTime) {
+                        idleList.add(partitionInstance);
+                    }
+                }
+                if (!idleList.isEmpty()) {
+                    evict(idleList, true, siddhiContext.isPartitionSpilling());
+                }
+            } catch (Throwable t) {
+                log.error(t.getMessage(), t);
+            } finally {
+                siddhiContext.getThreadBarrier().exit();
+            }
+        }
+    }
 }
@@ -30,7 +30,7 @@ public abstract class OutputRateManager {
     protected OutputCallback outputCallback = null;
     private boolean hasCallBack = false;
 
-    public abstract void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey);
+    public abstract void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey);
 
     protected void sendToCallBacks(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent,
                                    StreamEvent allEvent) {
@@ -22,7 +22,7 @@ import org.wso2.siddhi.core.event.StreamEvent;
 public class PassThroughOutputRateManager extends OutputRateManager {
 
     @Override
-    public void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         sendToCallBacks(timeStamp, currentEvent, expiredEvent, currentEvent != null ? currentEvent : expiredEvent);
     }
 
@@ -43,7 +43,7 @@ public class AllPerEventOutputRateManager extends OutputRateManager {
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
@@ -28,14 +28,14 @@ public class FirstGroupByPerEventOutputRateManager extends OutputRateManager {
     private final Integer value;
 
     private volatile int counter = 0;
-    List<String> groupByKeys = new ArrayList<String>();
+    List<Object> groupByKeys = new ArrayList<Object>();
 
     public FirstGroupByPerEventOutputRateManager(Integer value) {
         this.value = value;
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
 
 
         if (currentEvent != null) {
@@ -31,7 +31,7 @@ public class FirstPerEventOutputRateManager extends OutputRateManager {
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
 
 
         if (currentEvent != null) {
@@ -22,6 +22,7 @@ import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
+import org.wso2.siddhi.core.util.collection.Pair;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -30,9 +31,9 @@ public class LastGroupByPerEventOutputRateManager extends OutputRateManager {
     private final Integer value;
 
     private volatile int counter = 0;
-    Map<String, InEvent> currentGroupByKeyEvents = new LinkedHashMap<String, InEvent>();
-    Map<String, InEvent> expiredGroupByKeyEvents = new LinkedHashMap<String, InEvent>();
-    Map<String, InEvent> allGroupByKeyEvents = new LinkedHashMap<String, InEvent>();
+    Map<Object, InEvent> currentGroupByKeyEvents = new LinkedHashMap<Object, InEvent>();
+    Map<Object, InEvent> expiredGroupByKeyEvents = new LinkedHashMap<Object, InEvent>();
+    Map<Object, InEvent> allGroupByKeyEvents = new LinkedHashMap<Object, InEvent>();
 
 
     public LastGroupByPerEventOutputRateManager(Integer value) {
@@ -40,36 +41,38 @@ public class LastGroupByPerEventOutputRateManager extends OutputRateManager {
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         if (currentEvent != null) {
+            Pair<Object, Boolean> currentKey = new Pair<Object, Boolean>(groupByKey, Boolean.TRUE);
             if (currentEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) currentEvent).getActiveEvents(); i < size; i++) {
                     currentGroupByKeyEvents.put(groupByKey, (InEvent) ((ListEvent) currentEvent).getEvent(i));
-                    allGroupByKeyEvents.put(groupByKey + "-current", (InEvent) ((ListEvent) currentEvent).getEvent(i));
+                    allGroupByKeyEvents.put(currentKey, (InEvent) ((ListEvent) currentEvent).getEvent(i));
                     if (++counter == value) {
                         sendEvents(timeStamp);
                     }
                 }
             } else {
                 currentGroupByKeyEvents.put(groupByKey, (InEvent) currentEvent);
-                allGroupByKeyEvents.put(groupByKey + "-current", (InEvent) currentEvent);
+                allGroupByKeyEvents.put(currentKey, (InEvent) currentEvent);
                 if (++counter == value) {
                     sendEvents(timeStamp);
                 }
             }
         }
         if (expiredEvent != null) {
+            Pair<Object, Boolean> expiredKey = new Pair<Object, Boolean>(groupByKey, Boolean.FALSE);
             if (expiredEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) expiredEvent).getActiveEvents(); i < size; i++) {
                     expiredGroupByKeyEvents.put(groupByKey, (InEvent) ((ListEvent) expiredEvent).getEvent(i));
-                    allGroupByKeyEvents.put(groupByKey + "-expired", (InEvent) ((ListEvent) expiredEvent).getEvent(i));
+                    allGroupByKeyEvents.put(expiredKey, (InEvent) ((ListEvent) expiredEvent).getEvent(i));
                     if (++counter == value) {
                         sendEvents(timeStamp);
                     }
                 }
             } else {
                 expiredGroupByKeyEvents.put(groupByKey, (InEvent) expiredEvent);
-                allGroupByKeyEvents.put(groupByKey + "-expired", (InEvent) expiredEvent);
+                allGroupByKeyEvents.put(expiredKey, (InEvent) expiredEvent);
                 if (++counter == value) {
                     sendEvents(timeStamp);
                 }
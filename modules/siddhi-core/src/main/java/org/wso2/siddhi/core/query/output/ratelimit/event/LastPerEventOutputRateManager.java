@@ -32,7 +32,7 @@ public class LastPerEventOutputRateManager extends OutputRateManager {
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) currentEvent).getActiveEvents(); i < size; i++) {
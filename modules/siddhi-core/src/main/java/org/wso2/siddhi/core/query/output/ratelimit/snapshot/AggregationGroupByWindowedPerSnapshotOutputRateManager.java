@@ -20,24 +20,24 @@ package org.wso2.siddhi.core.query.output.ratelimit.snapshot;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 
 public class AggregationGroupByWindowedPerSnapshotOutputRateManager extends AggregationWindowedPerSnapshotOutputRateManager {
 
-    private final Map<String, Map<Integer, Object>> groupByAggregateAttributeValueMap;
+    private final Map<Object, Map<Integer, Object>> groupByAggregateAttributeValueMap;
 
-    public AggregationGroupByWindowedPerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, final List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
-        super(value, scheduledExecutorService, aggregateAttributePositionList,wrappedSnapshotOutputRateManager);
-        groupByAggregateAttributeValueMap = new HashMap<String, Map<Integer, Object>>();
+    public AggregationGroupByWindowedPerSnapshotOutputRateManager(Long value, SiddhiClock clock, final List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+        super(value, clock, aggregateAttributePositionList,wrappedSnapshotOutputRateManager);
+        groupByAggregateAttributeValueMap = new HashMap<Object, Map<Integer, Object>>();
     }
 
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         Map<Integer, Object> aggregateAttributeValueMap = groupByAggregateAttributeValueMap.get(groupByKey);
         if (aggregateAttributeValueMap == null) {
@@ -57,15 +57,15 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateManager extends Aggr
         return ((GroupedEvent) eventObject).event;
     }
 
-    protected void addEventToList(Event event, String groupByKey) {
-        eventList.add(new GroupedEvent(event,groupByKey));
+    protected void addEventToList(Event event, Object groupByKey) {
+        eventBuffer.add(createKey(event), new GroupedEvent(event, groupByKey));
     }
 
 
     private class GroupedEvent {
         Event event;
-        String groupByKey;
-        public GroupedEvent(Event event, String groupByKey) {
+        Object groupByKey;
+        public GroupedEvent(Event event, Object groupByKey) {
             this.event = event;
             this.groupByKey = groupByKey;
         }
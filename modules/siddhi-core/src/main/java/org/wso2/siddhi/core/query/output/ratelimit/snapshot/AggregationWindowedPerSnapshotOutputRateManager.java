@@ -22,74 +22,51 @@ import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.query.selector.GroupKey;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 public class AggregationWindowedPerSnapshotOutputRateManager extends SnapshotOutputRateManager {
 
     protected final Long value;
-    protected final ScheduledExecutorService scheduledExecutorService;
+    protected final SiddhiClock clock;
     protected long timeStamp;
-    protected LinkedList<Object> eventList;
-    protected Comparator comparator;
+    protected SnapshotEventBuffer<Object> eventBuffer;
     protected List<Integer> aggregateAttributePositionList;
+    private boolean[] aggregateAttributePositions;
     private Map<Integer, Object> aggregateAttributeValueMap;
+    // events of the last snapshot, reused until an event arrives
+    private InEvent[] snapshotEvents;
 
 
-    public AggregationWindowedPerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, final List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+    public AggregationWindowedPerSnapshotOutputRateManager(Long value, SiddhiClock clock, final List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
         super(wrappedSnapshotOutputRateManager);
-        this.eventList = new LinkedList<Object>();
+        this.eventBuffer = new SnapshotEventBuffer<Object>();
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.clock = clock;
         this.aggregateAttributePositionList = aggregateAttributePositionList;
         Collections.sort(aggregateAttributePositionList);
         aggregateAttributeValueMap = new HashMap<Integer, Object>(aggregateAttributePositionList.size());
-        this.comparator = new Comparator<Event>() {
-            Integer[] aggregateAttributePositions = aggregateAttributePositionList.toArray(new Integer[aggregateAttributePositionList.size()]);
-            int ignoreIndexLength = aggregateAttributePositions.length;
-
-            @Override
-            public int compare(Event event1, Event event2) {
-                int ignoreIndex = 0;
-                int ignoreIndexPosition = aggregateAttributePositions[0];
-                Object[] data = event1.getData();
-                for (int i = 0; i < data.length; i++) {
-                    if (ignoreIndexPosition == i) {
-                        ignoreIndex++;
-                        if (ignoreIndex == ignoreIndexLength) {
-                            ignoreIndexPosition = -1;
-                        } else {
-                            ignoreIndexPosition = aggregateAttributePositions[i];
-                        }
-                        continue;
-                    }
-                    if (!data[i].equals(event2.getData()[i])) {
-                        return 1;
-                    }
-
-                }
-                return 0;
-            }
-        };
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value, TimeUnit.MILLISECONDS);
+        aggregateAttributePositions = new boolean[aggregateAttributePositionList.get(aggregateAttributePositionList.size() - 1) + 1];
+        for (Integer position : aggregateAttributePositionList) {
+            aggregateAttributePositions[position] = true;
+        }
+        clock.scheduleAtFixedRate(new EventSender(), value, value);
     }
 
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         processSend(timeStamp, currentEvent, expiredEvent, aggregateAttributeValueMap, groupByKey);
     }
 
-    protected void processSend(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Map<Integer, Object> aggregateAttributeValueMap, String groupByKey) {
+    protected void processSend(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Map<Integer, Object> aggregateAttributeValueMap, Object groupByKey) {
         this.timeStamp = timeStamp;
+        snapshotEvents = null;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) currentEvent).getActiveEvents(); i < size; i++) {
@@ -109,43 +86,38 @@ public class AggregationWindowedPerSnapshotOutputRateManager extends SnapshotOut
         if (expiredEvent != null) {
             if (expiredEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) expiredEvent).getActiveEvents(); i < size; i++) {
-                    for (Iterator iterator = eventList.iterator(); iterator.hasNext(); ) {
-                        Event event = getEventFromList(iterator.next());
-                        if (comparator.compare(event, expiredEvent) == 0) {
-                            iterator.remove();
-                            for (Integer position : aggregateAttributePositionList) {
-                                aggregateAttributeValueMap.put(position, event.getData(position));
-                            }
-                            break;
-                        }
-                    }
+                    removeEventFromList(((ListEvent) expiredEvent).getEvent(i), aggregateAttributeValueMap);
                 }
             } else {
-                for (Iterator iterator = eventList.iterator(); iterator.hasNext(); ) {
-                    Event event = getEventFromList(iterator.next());
-                    if (comparator.compare(event, expiredEvent) == 0) {
-                        iterator.remove();
-                        for (Integer position : aggregateAttributePositionList) {
-                            aggregateAttributeValueMap.put(position, event.getData(position));
-                        }
-                        break;
-                    }
-                }
+                removeEventFromList((Event) expiredEvent, aggregateAttributeValueMap);
+            }
+        }
+    }
+
+    private void removeEventFromList(Event expiredEvent, Map<Integer, Object> aggregateAttributeValueMap) {
+        Object eventObject = eventBuffer.remove(createKey(expiredEvent));
+        if (eventObject != null) {
+            Event event = getEventFromList(eventObject);
+            for (Integer position : aggregateAttributePositionList) {
+                aggregateAttributeValueMap.put(position, event.getData(position));
             }
         }
     }
 
     protected synchronized void sendEvents() {
-        if (eventList.size() > 0) {
-            StreamEvent newEvent = null;
-            if (eventList.size() == 1) {
-                newEvent = constructNewSendEvent(eventList.get(0));
-            } else if (eventList.size() >= 1) {
-                InEvent[] events = new InEvent[eventList.size()];
-                for (int i = 0; i < eventList.size(); i++) {
-                    events[i] = constructNewSendEvent(eventList.get(i));
+        if (eventBuffer.size() > 0) {
+            if (snapshotEvents == null) {
+                snapshotEvents = new InEvent[eventBuffer.size()];
+                int i = 0;
+                for (Object eventObject : eventBuffer.getEvents()) {
+                    snapshotEvents[i++] = constructNewSendEvent(eventObject);
                 }
-                newEvent = new InListEvent(events);
+            }
+            StreamEvent newEvent;
+            if (snapshotEvents.length == 1) {
+                newEvent = new InEvent(snapshotEvents[0]);
+            } else {
+                newEvent = new InListEvent(snapshotEvents.clone());
             }
             sendToCallBacks(timeStamp, newEvent, null, newEvent);
         } else {
@@ -153,6 +125,19 @@ public class AggregationWindowedPerSnapshotOutputRateManager extends SnapshotOut
         }
     }
 
+    /**
+     * @return key of the event by its attributes other than the aggregates
+     */
+    protected GroupKey createKey(Event event) {
+        Object[] key = event.getData().clone();
+        for (int i = 0; i < aggregateAttributePositions.length && i < key.length; i++) {
+            if (aggregateAttributePositions[i]) {
+                key[i] = null;
+            }
+        }
+        return new GroupKey(key);
+    }
+
     protected InEvent constructNewSendEvent(Object originalEventObject) {
         Event originalEvent = (Event) originalEventObject;
         return createNewSendEvent(originalEvent, aggregateAttributeValueMap);
@@ -171,8 +156,8 @@ public class AggregationWindowedPerSnapshotOutputRateManager extends SnapshotOut
         return (Event) eventObject;
     }
 
-    protected void addEventToList(Event event, String groupByKey) {
-        eventList.add(event);
+    protected void addEventToList(Event event, Object groupByKey) {
+        eventBuffer.add(createKey(event), event);
     }
 
     private class EventSender implements Runnable {
@@ -22,25 +22,24 @@ import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 public class AllAggregationGroupByWindowedPerSnapshotOutputRateManager extends SnapshotOutputRateManager {
 
     private long timeStamp;
-    Map<String, LastEventHolder> groupByKeyEvents = new LinkedHashMap<String, LastEventHolder>();
+    Map<Object, LastEventHolder> groupByKeyEvents = new LinkedHashMap<Object, LastEventHolder>();
 
 
-    public AllAggregationGroupByWindowedPerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+    public AllAggregationGroupByWindowedPerSnapshotOutputRateManager(Long value, SiddhiClock clock, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
         super(wrappedSnapshotOutputRateManager);
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventSender(), value, value);
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         LastEventHolder lastEventHolder = groupByKeyEvents.get(groupByKey);
         if (lastEventHolder == null) {
@@ -49,14 +48,14 @@ public class AllAggregationGroupByWindowedPerSnapshotOutputRateManager extends S
         }
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
-                lastEventHolder.addLastInEvent((InEvent) ((ListEvent) currentEvent).getEvent(((ListEvent) currentEvent).getActiveEvents()));
+                lastEventHolder.addLastInEvent((InEvent) ((ListEvent) currentEvent).getEvent(((ListEvent) currentEvent).getActiveEvents() - 1));
                 lastEventHolder.count = lastEventHolder.count + ((ListEvent) currentEvent).getActiveEvents() - 1;
             } else {
                 lastEventHolder.addLastInEvent((InEvent) currentEvent);
             }
         } else {
             if (expiredEvent instanceof ListEvent) {
-                lastEventHolder.count = lastEventHolder.count - ((ListEvent) expiredEvent).getActiveEvents() - 1;
+                lastEventHolder.count = lastEventHolder.count - ((ListEvent) expiredEvent).getActiveEvents() + 1;
                 lastEventHolder.removeLastInEvent();
             } else {
                 lastEventHolder.removeLastInEvent();
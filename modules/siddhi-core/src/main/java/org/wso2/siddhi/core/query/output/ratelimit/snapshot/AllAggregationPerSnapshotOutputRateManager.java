@@ -20,9 +20,7 @@ package org.wso2.siddhi.core.query.output.ratelimit.snapshot;
 import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
-
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 public class AllAggregationPerSnapshotOutputRateManager extends SnapshotOutputRateManager {
 
@@ -30,17 +28,17 @@ public class AllAggregationPerSnapshotOutputRateManager extends SnapshotOutputRa
     private InEvent event = null;
     private long count = 0;
 
-    public AllAggregationPerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+    public AllAggregationPerSnapshotOutputRateManager(Long value, SiddhiClock clock, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
         super(wrappedSnapshotOutputRateManager);
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventSender(), value, value);
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
-                event = (InEvent) ((ListEvent) currentEvent).getEvent(((ListEvent) currentEvent).getActiveEvents());
+                event = (InEvent) ((ListEvent) currentEvent).getEvent(((ListEvent) currentEvent).getActiveEvents() - 1);
                 count+=((ListEvent) currentEvent).getActiveEvents();
             } else {
                 event = (InEvent) currentEvent;
@@ -21,25 +21,24 @@ import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 public class GroupByPerSnapshotOutputRateManager extends SnapshotOutputRateManager {
 
     private long timeStamp;
-    Map<String, InEvent> groupByKeyEvents = new LinkedHashMap<String, InEvent>();
+    Map<Object, InEvent> groupByKeyEvents = new LinkedHashMap<Object, InEvent>();
 
 
-    public GroupByPerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+    public GroupByPerSnapshotOutputRateManager(Long value, SiddhiClock clock, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
         super(wrappedSnapshotOutputRateManager);
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventSender(), value, value);
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
@@ -20,22 +20,20 @@ package org.wso2.siddhi.core.query.output.ratelimit.snapshot;
 import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
-
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 public class PerSnapshotOutputRateManager extends SnapshotOutputRateManager {
 
     private long timeStamp;
     private InEvent event = null;
 
-    public PerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+    public PerSnapshotOutputRateManager(Long value, SiddhiClock clock, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
         super(wrappedSnapshotOutputRateManager);
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventSender(), value, value);
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
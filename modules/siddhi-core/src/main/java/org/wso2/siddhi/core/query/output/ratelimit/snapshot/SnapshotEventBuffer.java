@@ -0,0 +1,74 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.output.ratelimit.snapshot;
+
+import org.wso2.siddhi.core.query.selector.GroupKey;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Insertion ordered events of a windowed snapshot, keyed by the attribute values their expired events are
+ * matched on. Adding an event and removing the oldest event of a key are constant time.
+ */
+public class SnapshotEventBuffer<T> {
+
+    private final Map<Long, T> events = new LinkedHashMap<Long, T>();
+    private final Map<GroupKey, LinkedList<Long>> sequenceMap = new HashMap<GroupKey, LinkedList<Long>>();
+    private long sequence = 0;
+
+    public void add(GroupKey key, T event) {
+        Long eventSequence = sequence++;
+        events.put(eventSequence, event);
+        LinkedList<Long> sequences = sequenceMap.get(key);
+        if (sequences == null) {
+            sequences = new LinkedList<Long>();
+            sequenceMap.put(key, sequences);
+        }
+        sequences.add(eventSequence);
+    }
+
+    /**
+     * @return the oldest event added with the key, or null when there is none
+     */
+    public T remove(GroupKey key) {
+        LinkedList<Long> sequences = sequenceMap.get(key);
+        if (sequences == null) {
+            return null;
+        }
+        Long eventSequence = sequences.removeFirst();
+        if (sequences.isEmpty()) {
+            sequenceMap.remove(key);
+        }
+        return events.remove(eventSequence);
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return the events in the order they were added
+     */
+    public Collection<T> getEvents() {
+        return events.values();
+    }
+}
@@ -28,7 +28,7 @@ public abstract class SnapshotOutputRateManager {
         this.wrappedSnapshotOutputRateManager = wrappedSnapshotOutputRateManager;
     }
 
-    public abstract void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey);
+    public abstract void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey);
 
     protected void sendToCallBacks(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent,
                                    StreamEvent allEvent) {
@@ -22,88 +22,67 @@ import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
-
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import org.wso2.siddhi.core.query.selector.GroupKey;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 public class WindowedPerSnapshotOutputRateManager extends SnapshotOutputRateManager {
 
     private final Long value;
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final SiddhiClock clock;
     private long timeStamp;
-    private LinkedList<Event> eventList;
-    private Comparator comparator;
+    private SnapshotEventBuffer<Event> eventBuffer;
+    // events of the last snapshot, reused until the window changes
+    private InEvent[] snapshotEvents;
 
-    public WindowedPerSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
+    public WindowedPerSnapshotOutputRateManager(Long value, SiddhiClock clock, WrappedSnapshotOutputRateManager wrappedSnapshotOutputRateManager) {
         super(wrappedSnapshotOutputRateManager);
         this.value = value;
-        this.eventList = new LinkedList<Event>();
-        this.scheduledExecutorService = scheduledExecutorService;
-        this.comparator = new Comparator<Event>() {
-
-            @Override
-            public int compare(Event event1, Event event2) {
-                if (Arrays.equals(event1.getData(), event2.getData())) {
-                    return 0;
-                } else {
-                    return 1;
-
-                }
-            }
-        };
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value, TimeUnit.MILLISECONDS);
+        this.eventBuffer = new SnapshotEventBuffer<Event>();
+        this.clock = clock;
+        clock.scheduleAtFixedRate(new EventSender(), value, value);
     }
 
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) currentEvent).getActiveEvents(); i < size; i++) {
-                    eventList.add(((ListEvent) currentEvent).getEvent(i));
+                    Event event = ((ListEvent) currentEvent).getEvent(i);
+                    eventBuffer.add(new GroupKey(event.getData()), event);
                 }
             } else {
-                eventList.add((InEvent) currentEvent);
+                eventBuffer.add(new GroupKey(((Event) currentEvent).getData()), (InEvent) currentEvent);
             }
+            snapshotEvents = null;
         }
         if (expiredEvent != null) {
             if (expiredEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) expiredEvent).getActiveEvents(); i < size; i++) {
-                    for (Iterator<Event> iterator = eventList.iterator(); iterator.hasNext(); ) {
-                        Event event = iterator.next();
-                        if (comparator.compare(event, expiredEvent) == 0) {
-                            iterator.remove();
-                            break;
-                        }
-                    }
+                    eventBuffer.remove(new GroupKey(((ListEvent) expiredEvent).getEvent(i).getData()));
                 }
             } else {
-                for (Iterator<Event> iterator = eventList.iterator(); iterator.hasNext(); ) {
-                    Event event = iterator.next();
-                    if (comparator.compare(event, expiredEvent) == 0) {
-                        iterator.remove();
-                        break;
-                    }
-                }
+                eventBuffer.remove(new GroupKey(((Event) expiredEvent).getData()));
             }
+            snapshotEvents = null;
         }
     }
 
     private synchronized void sendEvents() {
-        if (eventList.size() > 0) {
-            StreamEvent currentEvent = null;
-
-            if (eventList.size() == 1) {
-                currentEvent = new InEvent(eventList.get(0));
-            } else if (eventList.size() >= 1) {
-                InEvent[] events = new InEvent[eventList.size()];
-                eventList.toArray(events);
-                currentEvent = new InListEvent(events);
+        if (eventBuffer.size() > 0) {
+            if (snapshotEvents == null) {
+                snapshotEvents = new InEvent[eventBuffer.size()];
+                int i = 0;
+                for (Event event : eventBuffer.getEvents()) {
+                    snapshotEvents[i++] = event instanceof InEvent ? (InEvent) event : new InEvent(event);
+                }
+            }
+            StreamEvent currentEvent;
+            if (snapshotEvents.length == 1) {
+                currentEvent = new InEvent(snapshotEvents[0]);
+            } else {
+                currentEvent = new InListEvent(snapshotEvents.clone());
             }
             sendToCallBacks(timeStamp, currentEvent, null, currentEvent);
         } else {
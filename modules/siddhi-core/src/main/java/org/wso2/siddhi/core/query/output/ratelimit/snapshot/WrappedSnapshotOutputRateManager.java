@@ -20,22 +20,22 @@ package org.wso2.siddhi.core.query.output.ratelimit.snapshot;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.exception.QueryCreationException;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
 
 public class WrappedSnapshotOutputRateManager extends OutputRateManager {
     SnapshotOutputRateManager outputRateManager;
     private final Long value;
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final SiddhiClock clock;
     private final boolean groupBy;
     private final boolean windowed;
     private int attributeSize;
     private List<Integer> aggregateAttributePositionList;
 
-    public WrappedSnapshotOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService, boolean isGroupBy, boolean isWindowed) {
+    public WrappedSnapshotOutputRateManager(Long value, SiddhiClock clock, boolean isGroupBy, boolean isWindowed) {
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.clock = clock;
         groupBy = isGroupBy;
         windowed = isWindowed;
     }
@@ -47,28 +47,28 @@ public class WrappedSnapshotOutputRateManager extends OutputRateManager {
         if (windowed) {
             if (groupBy) {
                 if (attributeSize == aggregateAttributePositionList.size()) {   //All Aggregation
-                    outputRateManager = new AllAggregationGroupByWindowedPerSnapshotOutputRateManager(value, scheduledExecutorService, this);
+                    outputRateManager = new AllAggregationGroupByWindowedPerSnapshotOutputRateManager(value, clock, this);
                 } else if (aggregateAttributePositionList.size() > 0) {   //Some Aggregation
-                    outputRateManager = new AggregationGroupByWindowedPerSnapshotOutputRateManager(value, scheduledExecutorService, aggregateAttributePositionList, this);
+                    outputRateManager = new AggregationGroupByWindowedPerSnapshotOutputRateManager(value, clock, aggregateAttributePositionList, this);
                 } else { // No aggregation
                     //GroupBy is same as Non GroupBy
-                    outputRateManager = new WindowedPerSnapshotOutputRateManager(value, scheduledExecutorService, this);
+                    outputRateManager = new WindowedPerSnapshotOutputRateManager(value, clock, this);
                 }
             } else {
                 if (attributeSize == aggregateAttributePositionList.size()) {   //All Aggregation
-                    outputRateManager = new AllAggregationPerSnapshotOutputRateManager(value, scheduledExecutorService, this);
+                    outputRateManager = new AllAggregationPerSnapshotOutputRateManager(value, clock, this);
                 } else if (aggregateAttributePositionList.size() > 0) {   //Some Aggregation
-                    outputRateManager = new AggregationWindowedPerSnapshotOutputRateManager(value, scheduledExecutorService, aggregateAttributePositionList, this);
+                    outputRateManager = new AggregationWindowedPerSnapshotOutputRateManager(value, clock, aggregateAttributePositionList, this);
                 } else { // No aggregation
-                    outputRateManager = new WindowedPerSnapshotOutputRateManager(value, scheduledExecutorService, this);
+                    outputRateManager = new WindowedPerSnapshotOutputRateManager(value, clock, this);
                 }
             }
 
         } else {
             if (groupBy) {
-                outputRateManager = new GroupByPerSnapshotOutputRateManager(value, scheduledExecutorService, this);
+                outputRateManager = new GroupByPerSnapshotOutputRateManager(value, clock, this);
             } else {
-                outputRateManager = new PerSnapshotOutputRateManager(value, scheduledExecutorService, this);
+                outputRateManager = new PerSnapshotOutputRateManager(value, clock, this);
             }
 
         }
@@ -84,7 +84,7 @@ public class WrappedSnapshotOutputRateManager extends OutputRateManager {
     }
 
     @Override
-    public void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         outputRateManager.send(timeStamp, currentEvent, expiredEvent, groupByKey);
     }
 
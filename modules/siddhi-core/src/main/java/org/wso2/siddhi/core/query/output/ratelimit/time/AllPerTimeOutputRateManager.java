@@ -23,15 +23,14 @@ import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 public class AllPerTimeOutputRateManager extends OutputRateManager {
     private final Long value;
-    private ScheduledExecutorService scheduledExecutorService;
+    private SiddhiClock clock;
     static final Logger log = Logger.getLogger(AllPerTimeOutputRateManager.class);
 
     private long timeStamp;
@@ -39,17 +38,17 @@ public class AllPerTimeOutputRateManager extends OutputRateManager {
     private List<InEvent> expiredEventList;
     private List<InEvent> allEventList;
 
-    public AllPerTimeOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService) {
+    public AllPerTimeOutputRateManager(Long value, SiddhiClock clock) {
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.clock = clock;
         currentEventList = new LinkedList<InEvent>();
         expiredEventList = new LinkedList<InEvent>();
         allEventList = new LinkedList<InEvent>();
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value.longValue(), TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventSender(), value.longValue(), value.longValue());
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         this.timeStamp = timeStamp;
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
@@ -21,26 +21,25 @@ import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 public class FirstGroupByPerTimeOutputRateManager extends OutputRateManager {
     private final Long value;
 
-    List<String> groupByKeys = new ArrayList<String>();
+    List<Object> groupByKeys = new ArrayList<Object>();
     static final Logger log = Logger.getLogger(FirstGroupByPerTimeOutputRateManager.class);
 
 
-    public FirstGroupByPerTimeOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService) {
+    public FirstGroupByPerTimeOutputRateManager(Long value, SiddhiClock clock) {
         this.value = value;
-        scheduledExecutorService.scheduleAtFixedRate(new EventReSeter(), 0, value.longValue(), TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventReSeter(), value.longValue(), value.longValue());
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
 
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
@@ -21,9 +21,7 @@ import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
-
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 public class FirstPerTimeOutputRateManager extends OutputRateManager {
     private final Long value;
@@ -31,13 +29,13 @@ public class FirstPerTimeOutputRateManager extends OutputRateManager {
     static final Logger log = Logger.getLogger(FirstPerTimeOutputRateManager.class);
 
 
-    public FirstPerTimeOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService) {
+    public FirstPerTimeOutputRateManager(Long value, SiddhiClock clock) {
         this.value = value;
-        scheduledExecutorService.scheduleAtFixedRate(new EventReSeter(), 0, value.longValue(), TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventReSeter(), value.longValue(), value.longValue());
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
 
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
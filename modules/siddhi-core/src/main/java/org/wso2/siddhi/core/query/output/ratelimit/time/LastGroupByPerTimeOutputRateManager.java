@@ -23,49 +23,53 @@ import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
+import org.wso2.siddhi.core.util.collection.Pair;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 public class LastGroupByPerTimeOutputRateManager extends OutputRateManager {
     private final Long value;
+    private final SiddhiClock clock;
 
-    private Map<String, InEvent> currentGroupByKeyEvents = new LinkedHashMap<String, InEvent>();
-    private Map<String, InEvent> expiredGroupByKeyEvents = new LinkedHashMap<String, InEvent>();
-    private Map<String, InEvent> allGroupByKeyEvents = new LinkedHashMap<String, InEvent>();
+    private Map<Object, InEvent> currentGroupByKeyEvents = new LinkedHashMap<Object, InEvent>();
+    private Map<Object, InEvent> expiredGroupByKeyEvents = new LinkedHashMap<Object, InEvent>();
+    private Map<Object, InEvent> allGroupByKeyEvents = new LinkedHashMap<Object, InEvent>();
     static final Logger log = Logger.getLogger(LastGroupByPerTimeOutputRateManager.class);
 
 
-    public LastGroupByPerTimeOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService) {
+    public LastGroupByPerTimeOutputRateManager(Long value, SiddhiClock clock) {
         this.value = value;
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value.longValue(), TimeUnit.MILLISECONDS);
+        this.clock = clock;
+        clock.scheduleAtFixedRate(new EventSender(), value.longValue(), value.longValue());
 
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         if (currentEvent != null) {
+            Pair<Object, Boolean> currentKey = new Pair<Object, Boolean>(groupByKey, Boolean.TRUE);
             if (currentEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) currentEvent).getActiveEvents(); i < size; i++) {
                     currentGroupByKeyEvents.put(groupByKey, (InEvent) ((ListEvent) currentEvent).getEvent(i));
-                    allGroupByKeyEvents.put(groupByKey + "-current", (InEvent) ((ListEvent) currentEvent).getEvent(i));
+                    allGroupByKeyEvents.put(currentKey, (InEvent) ((ListEvent) currentEvent).getEvent(i));
                 }
             } else {
                 currentGroupByKeyEvents.put(groupByKey, (InEvent) currentEvent);
-                allGroupByKeyEvents.put(groupByKey + "-current", (InEvent) currentEvent);
+                allGroupByKeyEvents.put(currentKey, (InEvent) currentEvent);
             }
         }
         if (expiredEvent != null) {
+            Pair<Object, Boolean> expiredKey = new Pair<Object, Boolean>(groupByKey, Boolean.FALSE);
             if (expiredEvent instanceof ListEvent) {
                 for (int i = 0, size = ((ListEvent) expiredEvent).getActiveEvents(); i < size; i++) {
                     expiredGroupByKeyEvents.put(groupByKey, (InEvent) ((ListEvent) expiredEvent).getEvent(i));
-                    allGroupByKeyEvents.put(groupByKey + "-expired", (InEvent) ((ListEvent) expiredEvent).getEvent(i));
+                    allGroupByKeyEvents.put(expiredKey, (InEvent) ((ListEvent) expiredEvent).getEvent(i));
                 }
             } else {
                 expiredGroupByKeyEvents.put(groupByKey, (InEvent) expiredEvent);
-                allGroupByKeyEvents.put(groupByKey + "-expired", (InEvent) expiredEvent);
+                allGroupByKeyEvents.put(expiredKey, (InEvent) expiredEvent);
             }
         }
     }
@@ -114,7 +118,7 @@ public class LastGroupByPerTimeOutputRateManager extends OutputRateManager {
         @Override
         public void run() {
             try {
-                sendEvents(System.currentTimeMillis());
+                sendEvents(clock.currentTime());
             }catch (Throwable t){
                 log.error(t.getMessage(), t) ;
             }
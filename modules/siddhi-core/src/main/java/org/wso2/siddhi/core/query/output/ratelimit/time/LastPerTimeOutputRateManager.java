@@ -22,9 +22,7 @@ import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateManager;
-
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 public class LastPerTimeOutputRateManager extends OutputRateManager {
     private final Long value;
@@ -35,13 +33,13 @@ public class LastPerTimeOutputRateManager extends OutputRateManager {
     private volatile InEvent lastExpiredEvent = null;
     private volatile InEvent lastAllEvent = null;
 
-    public LastPerTimeOutputRateManager(Long value, ScheduledExecutorService scheduledExecutorService) {
+    public LastPerTimeOutputRateManager(Long value, SiddhiClock clock) {
         this.value = value;
-        scheduledExecutorService.scheduleAtFixedRate(new EventSender(), 0, value.longValue(), TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(new EventSender(), value.longValue(), value.longValue());
     }
 
     @Override
-    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, String groupByKey) {
+    public synchronized void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
         if (currentEvent != null) {
             if (currentEvent instanceof ListEvent) {
                 int lastEventIndex = ((ListEvent) currentEvent).getActiveEvents() - 1;
@@ -55,4 +55,11 @@ public class FilterProcessor {
         }
         return null;
     }
+
+    /**
+     * @return null if the events are not filtered
+     */
+    public ConditionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
 }
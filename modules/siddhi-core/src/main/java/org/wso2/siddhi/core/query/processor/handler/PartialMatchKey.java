@@ -0,0 +1,112 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.processor.handler;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.executor.compiler.CompiledConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.AndConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.equal.EqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Equality of a pattern or sequence state condition between an attribute of the arriving event and an attribute
+ * of an event matched by an earlier state, such as e2.symbol == e1.symbol. Partial matches waiting at the state
+ * can be keyed by the earlier attribute, as only the ones holding the value of the arriving event can match it.
+ */
+public final class PartialMatchKey {
+
+    private final VariableExpressionExecutor partialMatchKeyExecutor;
+    private final VariableExpressionExecutor eventKeyExecutor;
+
+    private PartialMatchKey(VariableExpressionExecutor partialMatchKeyExecutor, VariableExpressionExecutor eventKeyExecutor) {
+        this.partialMatchKeyExecutor = partialMatchKeyExecutor;
+        this.eventKeyExecutor = eventKeyExecutor;
+    }
+
+    /**
+     * @return the first such equality of the top level and-conditions of the state, or null if there is none
+     */
+    public static PartialMatchKey find(FilterProcessor filterProcessor, int stateNumber) {
+        if (filterProcessor == null) {
+            return null;
+        }
+        return find(filterProcessor.getConditionExecutor(), stateNumber);
+    }
+
+    private static PartialMatchKey find(ConditionExecutor conditionExecutor, int stateNumber) {
+        if (conditionExecutor instanceof CompiledConditionExecutor) {
+            return find(((CompiledConditionExecutor) conditionExecutor).getConditionExecutor(), stateNumber);
+        } else if (conditionExecutor instanceof AndConditionExecutor) {
+            PartialMatchKey partialMatchKey = find(((AndConditionExecutor) conditionExecutor).leftConditionExecutor, stateNumber);
+            if (partialMatchKey == null) {
+                partialMatchKey = find(((AndConditionExecutor) conditionExecutor).rightConditionExecutor, stateNumber);
+            }
+            return partialMatchKey;
+        } else if (conditionExecutor instanceof EqualCompareConditionExecutor) {
+            ExpressionExecutor left = ((CompareConditionExecutor) conditionExecutor).leftExpressionExecutor;
+            ExpressionExecutor right = ((CompareConditionExecutor) conditionExecutor).rightExpressionExecutor;
+            if (left instanceof VariableExpressionExecutor && right instanceof VariableExpressionExecutor) {
+                PartialMatchKey partialMatchKey = create((VariableExpressionExecutor) right, (VariableExpressionExecutor) left, stateNumber);
+                if (partialMatchKey == null) {
+                    partialMatchKey = create((VariableExpressionExecutor) left, (VariableExpressionExecutor) right, stateNumber);
+                }
+                return partialMatchKey;
+            }
+        }
+        return null;
+    }
+
+    private static PartialMatchKey create(VariableExpressionExecutor partialMatchKeyExecutor, VariableExpressionExecutor eventKeyExecutor, int stateNumber) {
+        if (eventKeyExecutor.getStreamPosition() != stateNumber || partialMatchKeyExecutor.getStreamPosition() < 0 ||
+            partialMatchKeyExecutor.getStreamPosition() == stateNumber ||
+            eventKeyExecutor.getInnerStreamPosition() != -1 || partialMatchKeyExecutor.getInnerStreamPosition() != -1) {
+            return null;
+        }
+        Attribute.Type type = eventKeyExecutor.getReturnType();
+        Attribute.Type partialMatchType = partialMatchKeyExecutor.getReturnType();
+        boolean integral = (type == Attribute.Type.INT || type == Attribute.Type.LONG) &&
+                           (partialMatchType == Attribute.Type.INT || partialMatchType == Attribute.Type.LONG);
+        if (!integral && (type != partialMatchType || (type != Attribute.Type.STRING && type != Attribute.Type.BOOL))) {
+            return null;
+        }
+        return new PartialMatchKey(partialMatchKeyExecutor, eventKeyExecutor);
+    }
+
+    /**
+     * @return executor giving the key of a partial match
+     */
+    public ExpressionExecutor getPartialMatchKeyExecutor() {
+        return partialMatchKeyExecutor;
+    }
+
+    /**
+     * @return the key of the arriving event, or null if it cannot be keyed
+     */
+    public Object getEventKey(StreamEvent streamEvent) {
+        if (streamEvent instanceof Event) {
+            return eventKeyExecutor.execute((Event) streamEvent);
+        }
+        return null;
+    }
+}
@@ -21,11 +21,11 @@ import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.event.AtomicEvent;
 import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.partition.PartitionWorkerPool;
 import org.wso2.siddhi.core.partition.executor.PartitionExecutor;
 import org.wso2.siddhi.core.query.QueryPartitioner;
 
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class PartitionHandlerProcessor implements HandlerProcessor {
 
@@ -34,14 +34,19 @@ public class PartitionHandlerProcessor implements HandlerProcessor {
     private QueryPartitioner queryPartitioner;
     private final int handlerId;
     private List<PartitionExecutor> partitionExecutors;
-    private ConcurrentHashMap<String, HandlerProcessor> partitionedHandlerMap = new ConcurrentHashMap<String, HandlerProcessor>();
+    private final PartitionWorkerPool partitionWorkerPool;
 
 
-    public PartitionHandlerProcessor(String streamId, QueryPartitioner queryPartitioner, int handlerId, List<PartitionExecutor> partitionExecutors) {
+    /**
+     * @param partitionWorkerPool workers the partitions are processed on, null to process them on the thread of the arriving event
+     */
+    public PartitionHandlerProcessor(String streamId, QueryPartitioner queryPartitioner, int handlerId, List<PartitionExecutor> partitionExecutors,
+                                     PartitionWorkerPool partitionWorkerPool) {
         this.streamId = streamId;
         this.queryPartitioner = queryPartitioner;
         this.handlerId = handlerId;
         this.partitionExecutors = partitionExecutors;
+        this.partitionWorkerPool = partitionWorkerPool;
     }
 
     @Override
@@ -65,17 +70,35 @@ public class PartitionHandlerProcessor implements HandlerProcessor {
         if (key == null) {
             return;
         }
-        HandlerProcessor handlerProcessor = partitionedHandlerMap.get(key);
-        if (handlerProcessor == null) {
-            handlerProcessor = queryPartitioner.newPartition(handlerId, key);
-            partitionedHandlerMap.put(key, handlerProcessor);
+        if (partitionWorkerPool != null) {
+            partitionWorkerPool.execute(key, new PartitionTask(key, atomicEvent));
+        } else {
+            process(key, atomicEvent);
         }
-        handlerProcessor.receive((StreamEvent) atomicEvent);
+    }
+
+    private void process(String key, AtomicEvent atomicEvent) {
+        queryPartitioner.process(handlerId, key, (StreamEvent) atomicEvent);
     }
 
     public String getStreamId() {
         return streamId;
     }
 
+    private class PartitionTask implements Runnable {
+
+        private final String key;
+        private final AtomicEvent atomicEvent;
+
+        private PartitionTask(String key, AtomicEvent atomicEvent) {
+            this.key = key;
+            this.atomicEvent = atomicEvent;
+        }
+
+        @Override
+        public void run() {
+            process(key, atomicEvent);
+        }
+    }
 
 }
@@ -84,11 +84,12 @@ public class SimpleHandlerProcessor implements HandlerProcessor, PreSelectProces
 
     @Override
     public void run() {
+        // in flight for the whole run, as the batched events are neither in the queue nor processed in between
+        threadBarrier.enter();
         try {
 
             InListEvent listEvent = new InListEvent();
             while (true) {
-                threadBarrier.pass();
                 StreamEvent streamEvent = inputQueue.poll();
                 if (streamEvent == null) {
                     if (listEvent.getActiveEvents() == 1) {
@@ -116,6 +117,8 @@ public class SimpleHandlerProcessor implements HandlerProcessor, PreSelectProces
             }
         } catch (Throwable t) {
             log.error(t.getMessage(), t);
+        } finally {
+            threadBarrier.exit();
         }
     }
 
@@ -155,6 +158,10 @@ public class SimpleHandlerProcessor implements HandlerProcessor, PreSelectProces
         return queryEventSource.getSourceId();
     }
 
+    public FilterProcessor getFilterProcessor() {
+        return filterProcessor;
+    }
+
     @Override
     public void schedule() {
         threadPoolExecutor.execute(this);
@@ -66,6 +66,11 @@ public class AndPatternInnerHandlerProcessor extends PatternInnerHandlerProcesso
         }
     }
 
+    @Override
+    protected boolean isKeepingUnmatchedEvents() {
+        return false;
+    }
+
     protected void setEventState(StateEvent eventBundle) {
         if (eventBundle.getEventState() == lowerState) {
             eventBundle.setEventState(higherState);
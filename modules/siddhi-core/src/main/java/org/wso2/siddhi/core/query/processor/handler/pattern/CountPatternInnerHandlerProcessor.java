@@ -74,6 +74,11 @@ public class CountPatternInnerHandlerProcessor extends PatternInnerHandlerProces
         }
     }
 
+    @Override
+    protected boolean isKeepingUnmatchedEvents() {
+        return false;
+    }
+
     public synchronized void addToNextEvents(StateEvent stateEvent) {
         if (min == 0) {
             stateInnerHandlerProcessor.processSuccessEvent(stateEvent);
@@ -169,7 +174,7 @@ public class CountPatternInnerHandlerProcessor extends PatternInnerHandlerProces
                     if (distributedProcessing) {
                         newStateEvent = stateEvent.cloneEvent(nextEveryState.getStateNumber(), siddhiContext.getGlobalIndexGenerator().getNewIndex());
                     } else {
-                        newStateEvent = stateEvent.cloneEvent(nextEveryState.getStateNumber(), null);
+                        newStateEvent = stateEvent.cloneEvent(nextEveryState.getStateNumber(), StateEvent.NO_EVENT_ID);
                     }
                     newStateEvent.setEventState(nextEveryState.getStateNumber() - 1);
                     if (nextEveryState instanceof LogicPatternState) {
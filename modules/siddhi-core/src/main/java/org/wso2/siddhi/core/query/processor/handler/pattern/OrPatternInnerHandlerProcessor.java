@@ -63,6 +63,11 @@ public class OrPatternInnerHandlerProcessor extends PatternInnerHandlerProcessor
         }
     }
 
+    @Override
+    protected boolean isKeepingUnmatchedEvents() {
+        return false;
+    }
+
     protected void setEventState(StateEvent eventBundle) {
         eventBundle.setEventState(higherState);
     }
@@ -68,16 +68,20 @@ public class PatternHandlerProcessor
         try {
             int eventCounter = 0;
             while (true) {
-                threadBarrier.pass();
-                StreamEvent streamEvent = inputQueue.poll();
-                if (streamEvent == null) {
-                    break;
-                } else if (siddhiContext.getEventBatchSize() > 0 && eventCounter > siddhiContext.getEventBatchSize()) {
-                    threadPoolExecutor.execute(this);
-                    break;
+                threadBarrier.enter();
+                try {
+                    StreamEvent streamEvent = inputQueue.poll();
+                    if (streamEvent == null) {
+                        break;
+                    } else if (siddhiContext.getEventBatchSize() > 0 && eventCounter > siddhiContext.getEventBatchSize()) {
+                        threadPoolExecutor.execute(this);
+                        break;
+                    }
+                    eventCounter++;
+                    process(streamEvent);
+                } finally {
+                    threadBarrier.exit();
                 }
-                eventCounter++;
-                process(streamEvent);
             }
         } catch (Throwable t) {
             log.error(t.getMessage(), t);
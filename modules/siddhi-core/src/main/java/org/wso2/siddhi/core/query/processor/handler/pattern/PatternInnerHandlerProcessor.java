@@ -30,14 +30,17 @@ import org.wso2.siddhi.core.snapshot.Snapshotable;
 import org.wso2.siddhi.core.query.processor.PreSelectProcessingElement;
 import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.query.processor.handler.InnerHandlerProcessor;
+import org.wso2.siddhi.core.query.processor.handler.PartialMatchKey;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.query.statemachine.pattern.LogicPatternState;
 import org.wso2.siddhi.core.query.statemachine.pattern.PatternState;
 import org.wso2.siddhi.core.util.LogHelper;
+import org.wso2.siddhi.core.util.statemachine.statelist.PartialMatchStore;
 import org.wso2.siddhi.core.util.statemachine.statelist.StateList;
 import org.wso2.siddhi.core.util.statemachine.statelist.StateListGrid;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 
 public class PatternInnerHandlerProcessor
@@ -64,6 +67,8 @@ public class PatternInnerHandlerProcessor
     protected PatternInnerHandlerProcessor partnerStateInnerHandlerProcessor;
     protected PatternInnerHandlerProcessor stateInnerHandlerProcessor;
     private long within = -1;
+    private PartialMatchStore partialMatchStore;
+    private PartialMatchKey partialMatchKey;
 
 
     public PatternInnerHandlerProcessor(PatternState state,
@@ -83,8 +88,10 @@ public class PatternInnerHandlerProcessor
             currentEvents = new StateListGrid(this.elementId + "-eventBank", siddhiContext);
             nextEvents = new StateListGrid(this.elementId + "-nextEvents", siddhiContext);
         } else {
-            currentEvents = new StateList<StateEvent>();
-            nextEvents = new StateList<StateEvent>();
+            partialMatchKey = PartialMatchKey.find(filterProcessor, currentState);
+            partialMatchStore = new PartialMatchStore(partialMatchKey == null ? null : partialMatchKey.getPartialMatchKeyExecutor());
+            currentEvents = partialMatchStore;
+            nextEvents = new PartialMatchStore();
         }
     }
 
@@ -121,6 +128,10 @@ public class PatternInnerHandlerProcessor
     public void process(StreamEvent event) {
         try {
             LogHelper.logMethod(log, event);
+            if (isKeepingUnmatchedEvents()) {
+                processPartialMatches(event);
+                return;
+            }
 
             Collection<StateEvent> collection = getCollection();
             if (log.isDebugEnabled()) {
@@ -146,6 +157,46 @@ public class PatternInnerHandlerProcessor
         }
     }
 
+    /**
+     * Processes the partial matches the event can complete, the unmatched ones stay in the current events and
+     * the expired and completed ones are removed from them
+     */
+    private void processPartialMatches(StreamEvent event) {
+        if (within > -1) {
+            partialMatchStore.expire(event.getTimeStamp() - within);
+        }
+        Collection<StateEvent> collection = partialMatchStore.getCollection(partialMatchKey == null ? null : partialMatchKey.getEventKey(event));
+        if (log.isDebugEnabled()) {
+            LogHelper.debugLogMessage(log, event, "current events:" + collection.size());
+        }
+        for (Iterator<StateEvent> iterator = collection.iterator(); iterator.hasNext(); ) {
+            StateEvent currentEvent = iterator.next();
+            if (log.isDebugEnabled()) {
+                LogHelper.debugLogMessage(log, event, "processing with event:" + currentEvent);
+            }
+            if (isEventsWithin(event, currentEvent)) {
+                currentEvent.setStreamEvent(currentState, event);
+                StateEvent newEvent = (StateEvent) filterProcessor.process(currentEvent);
+                if (newEvent != null) {
+                    iterator.remove();
+                    processSuccessEvent(newEvent);
+                } else {
+                    currentEvent.setStreamEvent(currentState, null);
+                }
+            } else {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return true if process() keeps the unmatched partial matches in the current events instead of adding
+     *         them back to the next events
+     */
+    protected boolean isKeepingUnmatchedEvents() {
+        return partialMatchStore != null;
+    }
+
     protected void processSuccessEvent(StateEvent stateEvent) {
         LogHelper.logMethod(log, (AtomicEvent) stateEvent);
         setEventState(stateEvent);
@@ -168,7 +219,7 @@ public class PatternInnerHandlerProcessor
         Collection<StateEvent> collection;
         if (distributedProcessing) {
             if (within > -1) {
-                collection = ((StateListGrid) currentEvents).getCollection("( timeStamp < " + (System.currentTimeMillis() + within) + ")");
+                collection = ((StateListGrid) currentEvents).getCollection("( timeStamp < " + (siddhiContext.getClock().currentTime() + within) + ")");
             } else {
                 collection = currentEvents.getCollection();
             }
@@ -206,15 +257,10 @@ public class PatternInnerHandlerProcessor
     }
 
     public void moveNextEventsToCurrentEvents() {
-        //todo need to check which is faster
-        // 1
-        currentEvents.clear();
-        currentEvents.addAll(nextEvents.getAll());
-        nextEvents.clear();
-
-//        // 2
-//        eventBank = nextEvents;
-//        nextEvents = new LinkedBlockingQueue<StateEvent>();
+        if (!isKeepingUnmatchedEvents()) {
+            currentEvents.clear();
+        }
+        nextEvents.moveTo(currentEvents);
     }
 
     public String getElementId() {
@@ -293,7 +339,7 @@ public class PatternInnerHandlerProcessor
             if (distributedProcessing) {
                 newStateEvent = eventBundle.cloneEvent(nextEveryState.getStateNumber(), siddhiContext.getGlobalIndexGenerator().getNewIndex());
             } else {
-                newStateEvent = eventBundle.cloneEvent(nextEveryState.getStateNumber(), null);
+                newStateEvent = eventBundle.cloneEvent(nextEveryState.getStateNumber(), StateEvent.NO_EVENT_ID);
             }
             newStateEvent.setEventState(nextEveryState.getStateNumber() - 1);
             if (nextEveryState instanceof LogicPatternState) {
@@ -158,7 +158,7 @@ public class CountSequenceInnerHandlerProcessor extends SequenceInnerHandlerProc
                     if (distributedProcessing) {
                         clonedEvent = stateEvent.cloneEvent(nextState.getStateNumber(), siddhiContext.getGlobalIndexGenerator().getNewIndex());
                     } else {
-                        clonedEvent = stateEvent.cloneEvent(nextState.getStateNumber(), null);
+                        clonedEvent = stateEvent.cloneEvent(nextState.getStateNumber(), StateEvent.NO_EVENT_ID);
                     }
                     cleanUpEvent(clonedEvent);
                     if (nextState instanceof OrSequenceState) {
@@ -30,9 +30,11 @@ import org.wso2.siddhi.core.query.QueryElement;
 import org.wso2.siddhi.core.query.processor.PreSelectProcessingElement;
 import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.query.processor.handler.InnerHandlerProcessor;
+import org.wso2.siddhi.core.query.processor.handler.PartialMatchKey;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.query.statemachine.sequence.OrSequenceState;
 import org.wso2.siddhi.core.query.statemachine.sequence.SequenceState;
+import org.wso2.siddhi.core.util.statemachine.statelist.PartialMatchStore;
 import org.wso2.siddhi.core.util.statemachine.statelist.StateList;
 import org.wso2.siddhi.core.util.statemachine.statelist.StateListGrid;
 
@@ -60,6 +62,7 @@ public class SequenceInnerHandlerProcessor
     protected SequenceInnerHandlerProcessor nextStateSequenceInnerHandlerProcessor;
     protected SequenceInnerHandlerProcessor partnerStateSequenceInnerHandlerProcessor;
     protected SequenceInnerHandlerProcessor stateSequenceInnerHandlerProcessor;
+    private PartialMatchKey partialMatchKey;
 
     public SequenceInnerHandlerProcessor(SequenceState state,
                                          FilterProcessor filterProcessor,
@@ -77,8 +80,9 @@ public class SequenceInnerHandlerProcessor
             currentEvents = new StateListGrid(elementId + "-currentState", siddhiContext);
             nextEvents = new StateListGrid(elementId + "-nextEvents", siddhiContext);
         } else {
-            currentEvents = new StateList<StateEvent>();
-            nextEvents = new StateList<StateEvent>();
+            partialMatchKey = PartialMatchKey.find(filterProcessor, currentState);
+            currentEvents = new PartialMatchStore(partialMatchKey == null ? null : partialMatchKey.getPartialMatchKeyExecutor());
+            nextEvents = new PartialMatchStore();
         }
     }
 
@@ -135,7 +139,7 @@ public class SequenceInnerHandlerProcessor
         if (log.isDebugEnabled()) {
             log.debug("sr state=" + currentState + " event=" + event + " ||eventBank=" + currentEvents);
         }
-        for (StateEvent currentEvent : getCollection()) {
+        for (StateEvent currentEvent : getCollection(event)) {
             if (isEventsWithin(event, currentEvent)) {
                 currentEvent.setStreamEvent(currentState, event);
                 StateEvent newEvent = (StateEvent) filterProcessor.process(currentEvent);
@@ -173,7 +177,7 @@ public class SequenceInnerHandlerProcessor
         Collection<StateEvent> collection;
         if (distributedProcessing) {
             if (within > -1) {
-                collection = ((StateListGrid) currentEvents).getCollection("( timeStamp < " + (System.currentTimeMillis() + within) + ")");
+                collection = ((StateListGrid) currentEvents).getCollection("( timeStamp < " + (siddhiContext.getClock().currentTime() + within) + ")");
             } else {
                 collection = currentEvents.getCollection();
             }
@@ -183,6 +187,16 @@ public class SequenceInnerHandlerProcessor
         return collection;
     }
 
+    /**
+     * @return the current events the event can match, only the ones holding its key when they are keyed
+     */
+    protected Collection<StateEvent> getCollection(StreamEvent event) {
+        if (partialMatchKey != null) {
+            return ((PartialMatchStore) currentEvents).getCollection(partialMatchKey.getEventKey(event));
+        }
+        return getCollection();
+    }
+
     protected boolean isEventsWithin(StreamEvent incomingEvent, StateEvent currentEvent) {
         if (log.isDebugEnabled()) {
             log.debug("Time difference for Sequence events " + (incomingEvent.getTimeStamp() - currentEvent.getFirstEventTimeStamp()));
@@ -211,19 +225,8 @@ public class SequenceInnerHandlerProcessor
     }
 
     public void moveNextEventsToCurrentEvents() {
-        //todo need to check which is faster
-        // 1
         currentEvents.clear();
-        currentEvents.addAll(nextEvents.getAll());
-        nextEvents.clear();
-
-//        eventBank.clear();
-//        eventBank.addAll(nextEvents);
-//        nextEvents.clear();
-
-//        // 2
-//        eventBank = nextEvents;
-//        nextEvents = new LinkedBlockingQueue<StateEvent>();
+        nextEvents.moveTo(currentEvents);
     }
 
     @Override
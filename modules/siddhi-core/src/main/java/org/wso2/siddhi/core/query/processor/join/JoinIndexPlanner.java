@@ -0,0 +1,120 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.processor.join;
+
+import org.wso2.siddhi.core.executor.conditon.AndConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.equal.EqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.processor.window.WindowIndex;
+import org.wso2.siddhi.core.query.processor.window.WindowProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detects the equality conjuncts of a join condition that compare an attribute of the left stream
+ * with an attribute of the right stream, and sets hash indexes on those attributes to the windows
+ * supporting them. Only string, int, long and bool attributes are used, as floating point equality
+ * is not consistent with the hash keys.
+ */
+public class JoinIndexPlanner {
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+
+    private JoinIndexPlanner() {
+    }
+
+    public static void plan(ConditionExecutor onConditionExecutor, WindowProcessor leftWindowProcessor, WindowProcessor rightWindowProcessor) {
+        if (!leftWindowProcessor.isIndexable() && !rightWindowProcessor.isIndexable()) {
+            return;
+        }
+        List<ConditionExecutor> conjuncts = new ArrayList<ConditionExecutor>();
+        collectConjuncts(onConditionExecutor, conjuncts);
+
+        List<Integer> leftPositions = new ArrayList<Integer>();
+        List<Integer> rightPositions = new ArrayList<Integer>();
+        for (ConditionExecutor conjunct : conjuncts) {
+            if (conjunct instanceof EqualCompareConditionExecutor) {
+                CompareConditionExecutor compare = (CompareConditionExecutor) conjunct;
+                VariableExpressionExecutor left = getVariable(compare.leftExpressionExecutor);
+                VariableExpressionExecutor right = getVariable(compare.rightExpressionExecutor);
+                if (left == null || right == null || left.getReturnType() != right.getReturnType()) {
+                    continue;
+                }
+                if (left.getStreamPosition() == LEFT && right.getStreamPosition() == RIGHT) {
+                    leftPositions.add(left.getAttributePosition());
+                    rightPositions.add(right.getAttributePosition());
+                } else if (left.getStreamPosition() == RIGHT && right.getStreamPosition() == LEFT) {
+                    leftPositions.add(right.getAttributePosition());
+                    rightPositions.add(left.getAttributePosition());
+                }
+            }
+        }
+        if (leftPositions.isEmpty()) {
+            return;
+        }
+        int[] leftAttributePositions = toArray(leftPositions);
+        int[] rightAttributePositions = toArray(rightPositions);
+        if (leftWindowProcessor.isIndexable()) {
+            leftWindowProcessor.setWindowIndex(new WindowIndex(leftAttributePositions, rightAttributePositions));
+        }
+        if (rightWindowProcessor.isIndexable()) {
+            rightWindowProcessor.setWindowIndex(new WindowIndex(rightAttributePositions, leftAttributePositions));
+        }
+    }
+
+    private static VariableExpressionExecutor getVariable(ExpressionExecutor expressionExecutor) {
+        if (!(expressionExecutor instanceof VariableExpressionExecutor)) {
+            return null;
+        }
+        VariableExpressionExecutor variable = (VariableExpressionExecutor) expressionExecutor;
+        if (variable.getInnerStreamPosition() != -1) {
+            return null;
+        }
+        switch (variable.getReturnType()) {
+            case STRING:
+            case INT:
+            case LONG:
+            case BOOL:
+                return variable;
+            default:
+                return null;
+        }
+    }
+
+    private static void collectConjuncts(ConditionExecutor conditionExecutor, List<ConditionExecutor> conjuncts) {
+        if (conditionExecutor instanceof AndConditionExecutor) {
+            collectConjuncts(((AndConditionExecutor) conditionExecutor).leftConditionExecutor, conjuncts);
+            collectConjuncts(((AndConditionExecutor) conditionExecutor).rightConditionExecutor, conjuncts);
+        } else {
+            conjuncts.add(conditionExecutor);
+        }
+    }
+
+    private static int[] toArray(List<Integer> positions) {
+        int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = positions.get(i);
+        }
+        return array;
+    }
+}
@@ -27,6 +27,7 @@ import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StateEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InStream;
+import org.wso2.siddhi.core.event.remove.RemoveStream;
 import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
 import org.wso2.siddhi.core.query.processor.PreSelectProcessingElement;
@@ -34,6 +35,9 @@ import org.wso2.siddhi.core.query.processor.window.WindowProcessor;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.util.LogHelper;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.locks.Lock;
 
@@ -115,46 +119,52 @@ public abstract class JoinProcessor implements QueryPostProcessingElement, PreSe
         if (atomicEvent instanceof Event && triggerEventTypeCheck((Event) atomicEvent)) {
             if (triggerEvent) {
                 acquireLock();
-                ListAtomicEvent listAtomicEvent = createNewListAtomicEvent();
-                Iterator<StreamEvent> iterator = getStreamEventIterator((Event) atomicEvent);
-
-                while (iterator.hasNext()) {
-                    StreamEvent windowStreamEvent = iterator.next();
+                try {
+                    ListAtomicEvent listAtomicEvent = createNewListAtomicEvent();
+                    Iterator<StreamEvent> iterator = getStreamEventIterator((Event) atomicEvent);
+                    try {
+                        while (iterator.hasNext()) {
+                            StreamEvent windowStreamEvent = iterator.next();
 
-                    if (windowStreamEvent instanceof Event) {
-//                        Event newEvent = (new InComplexEvent(new Event[]{((Event) complexEvent), ((Event) windowStreamEvent)}));
-                        if (isEventsWithin((Event) atomicEvent, windowStreamEvent)) {
-                            StateEvent newEvent = createNewEvent((Event) atomicEvent, (Event) windowStreamEvent);
-                            if (onConditionExecutor.execute(newEvent)) {
-                                listAtomicEvent.addEvent(newEvent);
-                            }
-                        } else {
-                            break;
-                        }
-                    } else if (windowStreamEvent instanceof ListEvent) {
-                        Event[] events = ((ListEvent) windowStreamEvent).getEvents();
-                        for (Event event : events) {
-//                            Event newEvent = (new InComplexEvent(new Event[]{((Event) complexEvent), ((Event) events[i])}));
-                            if (isEventsWithin((Event) atomicEvent, windowStreamEvent)) {
-                                StateEvent newEvent = createNewEvent((Event) atomicEvent, event);
-                                if (onConditionExecutor.execute(newEvent)) {
-                                    listAtomicEvent.addEvent(newEvent);
+                            if (windowStreamEvent instanceof Event) {
+//                                Event newEvent = (new InComplexEvent(new Event[]{((Event) complexEvent), ((Event) windowStreamEvent)}));
+                                if (isEventsWithin((Event) atomicEvent, windowStreamEvent)) {
+                                    StateEvent newEvent = createNewEvent((Event) atomicEvent, (Event) windowStreamEvent);
+                                    if (onConditionExecutor.execute(newEvent)) {
+                                        listAtomicEvent.addEvent(newEvent);
+                                    }
+                                } else {
+                                    break;
+                                }
+                            } else if (windowStreamEvent instanceof ListEvent) {
+                                Event[] events = ((ListEvent) windowStreamEvent).getEvents();
+                                for (Event event : events) {
+//                                    Event newEvent = (new InComplexEvent(new Event[]{((Event) complexEvent), ((Event) events[i])}));
+                                    if (isEventsWithin((Event) atomicEvent, windowStreamEvent)) {
+                                        StateEvent newEvent = createNewEvent((Event) atomicEvent, event);
+                                        if (onConditionExecutor.execute(newEvent)) {
+                                            listAtomicEvent.addEvent(newEvent);
+                                        }
+                                    } else {
+                                        break;
+                                    }
                                 }
                             } else {
-                                break;
+                                //todo error Complex atomicEvent not supported
                             }
                         }
-                    } else {
-                        //todo error Complex atomicEvent not supported
+                    } finally {
+                        close(iterator);
                     }
+                    if (listAtomicEvent.getActiveEvents() > 0) {
+                        sendEventList(listAtomicEvent);
+                    }
+                    if (atomicEvent instanceof InStream) {
+                        windowProcessor.process(atomicEvent);
+                    }
+                } finally {
+                    releaseLock();
                 }
-                if (listAtomicEvent.getActiveEvents() > 0) {
-                    sendEventList(listAtomicEvent);
-                }
-                if (atomicEvent instanceof InStream) {
-                    windowProcessor.process(atomicEvent);
-                }
-                releaseLock();
             } else {
                 if (atomicEvent instanceof InStream) {
                     windowProcessor.process(atomicEvent);
@@ -176,33 +186,49 @@ public abstract class JoinProcessor implements QueryPostProcessingElement, PreSe
                 }
                 acquireLock();
                 try {
+                    if (isJoinIndexed() || fromDB) {
+                        // joining each event with its candidates, for tables in databases the matching rows are selected by the join condition
+                        processIndexed(listEvent, listAtomicEvent);
+                        if (log.isDebugEnabled()) {
+                            log.debug("Sending join output events " + listAtomicEvent.getActiveEvents());
+                        }
+                        sendEventList(listAtomicEvent);
+                        if (listEvent instanceof InStream) {
+                            windowProcessor.process(listEvent);
+                        }
+                        return;
+                    }
                     Iterator<StreamEvent> iterator = oppositeWindowProcessor.iterator();
-                    while (iterator.hasNext()) {
-                        StreamEvent windowStreamEvent = iterator.next();
-                        //Assuming all events in complexEvent have time == to the timeStamp of the complexEvent.
-                        if (isEventsWithin(listEvent, windowStreamEvent)) {
-                            for (int i = 0; i < listEvent.getActiveEvents(); i++) {
-                                Event event = listEvent.getEvent(i);
-                                if (windowStreamEvent instanceof Event) {
-                                    StateEvent newEvent = createNewEvent(event, windowStreamEvent);
-                                    if (onConditionExecutor.execute(newEvent)) {
-                                        listAtomicEvent.addEvent(newEvent);
-                                    }
-                                } else if (windowStreamEvent instanceof ListEvent) {
-                                    for (int i1 = 0; i1 < ((ListEvent) windowStreamEvent).getActiveEvents(); i1++) {
-                                        Event windowEvent = ((ListEvent) windowStreamEvent).getEvent(i1);
-                                        StateEvent newEvent = createNewEvent(event, windowEvent);
+                    try {
+                        while (iterator.hasNext()) {
+                            StreamEvent windowStreamEvent = iterator.next();
+                            //Assuming all events in complexEvent have time == to the timeStamp of the complexEvent.
+                            if (isEventsWithin(listEvent, windowStreamEvent)) {
+                                for (int i = 0; i < listEvent.getActiveEvents(); i++) {
+                                    Event event = listEvent.getEvent(i);
+                                    if (windowStreamEvent instanceof Event) {
+                                        StateEvent newEvent = createNewEvent(event, windowStreamEvent);
                                         if (onConditionExecutor.execute(newEvent)) {
                                             listAtomicEvent.addEvent(newEvent);
                                         }
+                                    } else if (windowStreamEvent instanceof ListEvent) {
+                                        for (int i1 = 0; i1 < ((ListEvent) windowStreamEvent).getActiveEvents(); i1++) {
+                                            Event windowEvent = ((ListEvent) windowStreamEvent).getEvent(i1);
+                                            StateEvent newEvent = createNewEvent(event, windowEvent);
+                                            if (onConditionExecutor.execute(newEvent)) {
+                                                listAtomicEvent.addEvent(newEvent);
+                                            }
+                                        }
+                                    } else {
+                                        //todo error Complex event not supported
                                     }
-                                } else {
-                                    //todo error Complex event not supported
                                 }
+                            } else {
+                                break;
                             }
-                        } else {
-                            break;
                         }
+                    } finally {
+                        close(iterator);
                     }
                     if (log.isDebugEnabled()) {
                         log.debug("Sending join output events " + listAtomicEvent.getActiveEvents());
@@ -225,6 +251,11 @@ public abstract class JoinProcessor implements QueryPostProcessingElement, PreSe
 
     protected abstract ListAtomicEvent createNewListAtomicEvent();
 
+    /**
+     * @return position of the opposite window events in the joined events
+     */
+    protected abstract int getOppositeWindowPosition();
+
     private Iterator<StreamEvent> getStreamEventIterator(Event event) {
         Iterator<StreamEvent> iterator;
         if (distributedProcessing) {
@@ -248,6 +279,13 @@ public abstract class JoinProcessor implements QueryPostProcessingElement, PreSe
                 } else {
                     iterator = oppositeWindowProcessor.iterator();
                 }
+            } else if (isJoinIndexed()) {
+                Collection<StreamEvent> candidates = oppositeWindowProcessor.findJoinCandidates(createNewEvent(event, null), onConditionExecutor, getOppositeWindowPosition());
+                if (candidates != null) {
+                    iterator = candidates.iterator();
+                } else {
+                    iterator = oppositeWindowProcessor.iterator();
+                }
             } else {
                 iterator = oppositeWindowProcessor.iterator();
             }
@@ -255,6 +293,43 @@ public abstract class JoinProcessor implements QueryPostProcessingElement, PreSe
         return iterator;
     }
 
+    private boolean isJoinIndexed() {
+        return !distributedProcessing && !fromDB && oppositeWindowProcessor.isJoinIndexed();
+    }
+
+    private void processIndexed(ListEvent listEvent, ListAtomicEvent listAtomicEvent) {
+        for (int i = 0; i < listEvent.getActiveEvents(); i++) {
+            Event event = listEvent.getEvent(i);
+            Iterator<StreamEvent> iterator = getStreamEventIterator(event);
+            try {
+                while (iterator.hasNext()) {
+                    StreamEvent windowStreamEvent = iterator.next();
+                    if (isEventsWithin(listEvent, windowStreamEvent)) {
+                        StateEvent newEvent = createNewEvent(event, windowStreamEvent);
+                        if (onConditionExecutor.execute(newEvent)) {
+                            listAtomicEvent.addEvent(newEvent);
+                        }
+                    }
+                }
+            } finally {
+                close(iterator);
+            }
+        }
+    }
+
+    /**
+     * Releases the resources of the iterators, such as database cursors, also when the join fails midway
+     */
+    private void close(Iterator<StreamEvent> iterator) {
+        if (iterator instanceof Closeable) {
+            try {
+                ((Closeable) iterator).close();
+            } catch (IOException e) {
+                log.error("Unable to close the join iterator", e);
+            }
+        }
+    }
+
     public void acquireLock() {
         if (lock != null) {
             if (log.isDebugEnabled()) {
@@ -279,4 +354,15 @@ public abstract class JoinProcessor implements QueryPostProcessingElement, PreSe
 
     protected abstract StateEvent createNewEvent(ComplexEvent complexEvent, ComplexEvent complexEvent1);
 
+
+    /**
+     * Remove state events are stamped with the expiry time of the triggering event, hence the
+     * clock in use decides their timestamps.
+     */
+    protected long expiryTime(ComplexEvent complexEvent) {
+        if (complexEvent instanceof RemoveStream) {
+            return ((RemoveStream) complexEvent).getExpiryTime();
+        }
+        return complexEvent.getTimeStamp();
+    }
 }
@@ -37,6 +37,11 @@ public class LeftInStreamJoinProcessor extends JoinProcessor {
         return complexEvent instanceof InStream;
     }
 
+    @Override
+    protected int getOppositeWindowPosition() {
+        return 1;
+    }
+
     @Override
     protected ListAtomicEvent createNewListAtomicEvent() {
         return new InListAtomicEvent();
@@ -42,13 +42,18 @@ public class LeftRemoveStreamJoinProcessor extends JoinProcessor {
         return complexEvent instanceof RemoveStream;
     }
 
+    @Override
+    protected int getOppositeWindowPosition() {
+        return 1;
+    }
+
     @Override
     protected ListAtomicEvent createNewListAtomicEvent() {
         return new RemoveListAtomicEvent();
     }
 
     protected StateEvent createNewEvent(ComplexEvent complexEvent, ComplexEvent complexEvent1) {
-        return new RemoveStateEvent(new Event[]{((Event) complexEvent), ((Event) complexEvent1)}, System.currentTimeMillis());
+        return new RemoveStateEvent(new Event[]{((Event) complexEvent), ((Event) complexEvent1)}, expiryTime(complexEvent));
     }
 
 }
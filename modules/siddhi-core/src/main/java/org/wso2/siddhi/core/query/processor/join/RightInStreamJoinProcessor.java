@@ -40,6 +40,11 @@ public class RightInStreamJoinProcessor extends JoinProcessor {
         return complexEvent instanceof InStream;
     }
 
+    @Override
+    protected int getOppositeWindowPosition() {
+        return 0;
+    }
+
     @Override
     protected ListAtomicEvent createNewListAtomicEvent() {
         return new InListAtomicEvent();
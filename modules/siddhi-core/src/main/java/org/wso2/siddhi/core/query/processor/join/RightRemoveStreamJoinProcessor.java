@@ -41,6 +41,11 @@ public class RightRemoveStreamJoinProcessor extends JoinProcessor {
         return complexEvent instanceof RemoveStream;
     }
 
+    @Override
+    protected int getOppositeWindowPosition() {
+        return 0;
+    }
+
     @Override
     protected ListAtomicEvent createNewListAtomicEvent() {
         return new RemoveListAtomicEvent();
@@ -48,7 +53,7 @@ public class RightRemoveStreamJoinProcessor extends JoinProcessor {
 
     //parameters are applied in reverse order since they are originally sent for the oder of LEFT
     protected StateEvent createNewEvent(ComplexEvent complexEvent, ComplexEvent complexEvent1) {
-        return new RemoveStateEvent(new Event[]{((Event) complexEvent1), ((Event) complexEvent)}, System.currentTimeMillis());
+        return new RemoveStateEvent(new Event[]{((Event) complexEvent1), ((Event) complexEvent)}, expiryTime(complexEvent));
     }
 
 
@@ -36,7 +36,9 @@ import org.wso2.siddhi.query.api.expression.Variable;
 import org.wso2.siddhi.query.api.expression.constant.IntConstant;
 import org.wso2.siddhi.query.api.expression.constant.LongConstant;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class ExternalTimeWindowProcessor extends WindowProcessor {
 
@@ -96,9 +98,11 @@ public class ExternalTimeWindowProcessor extends WindowProcessor {
             removeExpiredEvent(currentTime);
             long expireTime = currentTime + timeToKeep;
             if (!async && siddhiContext.isDistributedProcessingEnabled()) {
+                List<StreamEvent> removeEvents = new ArrayList<StreamEvent>(listEvent.getActiveEvents());
                 for (int i = 0, activeEvents = listEvent.getActiveEvents(); i < activeEvents; i++) {
-                    window.put(new RemoveEvent(listEvent.getEvent(i), expireTime));
+                    removeEvents.add(new RemoveEvent(listEvent.getEvent(i), expireTime));
                 }
+                ((SiddhiQueueGrid<StreamEvent>) window).putAll(removeEvents);
             } else {
                 window.put(new RemoveListEvent(EventConverter.toRemoveEventArray(listEvent.getEvents(), listEvent.getActiveEvents(), expireTime)));
             }
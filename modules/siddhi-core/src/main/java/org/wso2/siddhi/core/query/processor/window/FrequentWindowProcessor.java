@@ -27,6 +27,7 @@ import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.event.remove.RemoveEvent;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
+import org.wso2.siddhi.core.util.collection.StreamSummary;
 import org.wso2.siddhi.core.util.collection.map.SiddhiMap;
 import org.wso2.siddhi.core.util.collection.map.SiddhiMapGrid;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
@@ -36,58 +37,43 @@ import org.wso2.siddhi.query.api.expression.Variable;
 import org.wso2.siddhi.query.api.expression.constant.IntConstant;
 import org.wso2.siddhi.query.api.expression.constant.StringConstant;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
  * This is the implementation of a counting algorithm based on
- * Misra-Gries counting algorithm
+ * Misra-Gries counting algorithm, the counters are kept in a StreamSummary
+ * hence decrementing all of them when a new event arrives is constant time
  */
 public class FrequentWindowProcessor extends WindowProcessor {
 
-    private SiddhiMap<Integer> countMap;
+    private StreamSummary<String> streamSummary;
     private SiddhiMap<StreamEvent> map;
     private int mostFrqntCount;
-    private List<Integer> attributeIndexes;    // attribute indexes starts with 0
+    private int[] attributeIndexes;    // attribute indexes starts with 0
 
     @Override
     protected void processEvent(InEvent event) {
         acquireLock();
         try {
-            StreamEvent oldEvent = map.put(generateKey(event), new RemoveEvent(event, Long.MAX_VALUE));
-            if (oldEvent != null) {       // this event is already in the store
-                countMap.put(generateKey(event), countMap.get(generateKey(event)) + 1);
+            String key = generateKey(event);
+            if (streamSummary.increment(key) != null) {       // this event is already in the store
+                map.put(key, new RemoveEvent(event, Long.MAX_VALUE));
                 nextProcessor.process(event);
             } else {
                 //  This is a new event
-                if (map.size() > mostFrqntCount) {
-                    List<String> keys = new ArrayList<String>();
-                    keys.addAll(countMap.keySet());
-                    for (int i = 0; i < mostFrqntCount; i++) {
-                        int count = countMap.get(keys.get(i)) - 1;
-                        if (count == 0) {
-                            countMap.remove(keys.get(i));
-                            nextProcessor.process((AtomicEvent) map.remove(keys.get(i)));
-                        } else {
-                            countMap.put(keys.get(i), count);
-                        }
+                if (streamSummary.size() >= mostFrqntCount) {
+                    // try to remove one for the new event by decrementing all the counters
+                    for (String removedKey : streamSummary.decrementAll()) {
+                        nextProcessor.process((AtomicEvent) map.remove(removedKey));
                     }
-                    // now we have tried to remove one for newly added item
-                    if (map.size() > mostFrqntCount) {
-                        //nothing happend by the attempt to remove one from the
-                        // map so we are ignoring this event
-                        map.remove(generateKey(event));
-                        // Here we do nothing just drop the message
-                    } else {
-                        // we got some space, event is already there in map object
-                        // we just have to add it to the countMap
-                        countMap.put(generateKey(event), 1);
-                        nextProcessor.process(event);
-                    }
-
-                } else {
-                    countMap.put(generateKey(event), 1);
+                }
+                if (streamSummary.size() < mostFrqntCount) {
+                    streamSummary.add(key, 1, 0);
+                    map.put(key, new RemoveEvent(event, Long.MAX_VALUE));
                     nextProcessor.process(event);
                 }
+                // else nothing was removed, hence the event is dropped
             }
 
         } finally {
@@ -127,51 +113,61 @@ public class FrequentWindowProcessor extends WindowProcessor {
 
     @Override
     protected Object[] currentState() {
-        return countMap.currentState();
+        return new Object[]{streamSummary.currentState(), map.currentState()};
     }
 
     @Override
     protected void restoreState(Object[] data) {
-        countMap.restoreState(data);
+        streamSummary.restoreState((Object[]) data[0]);
+        map.restoreState((Object[]) data[1]);
     }
 
     @Override
     protected void init(Expression[] parameters, QueryPostProcessingElement nextProcessor, AbstractDefinition streamDefinition, String elementId, boolean async, SiddhiContext siddhiContext) {
         mostFrqntCount = ((IntConstant) parameters[0]).getValue();
-        attributeIndexes = new ArrayList<Integer>();
-        if (parameters.length > 1) {  // by-default all the attributes will be compared
-            for (int i = 1; i < parameters.length; i++) {
-                attributeIndexes.add(streamDefinition.getAttributePosition(((Variable) parameters[i]).getAttributeName()));
-            }
-        }
-        if (attributeIndexes.size() == streamDefinition.getAttributeList().size()) {    // if all the attributes are configured or non-configured we compare all, so we ignore this index
-            attributeIndexes.clear();
-        }
+        attributeIndexes = generateAttributeIndexes(parameters, 1, streamDefinition);
+        streamSummary = new StreamSummary<String>();
 
         if (this.siddhiContext.isDistributedProcessingEnabled()) {
-            countMap = new SiddhiMapGrid<Integer>(elementId, this.siddhiContext);
             map = new SiddhiMapGrid<StreamEvent>(elementId, this.siddhiContext);
         } else {
-            countMap = new SiddhiMap<Integer>();
             map = new SiddhiMap<StreamEvent>();
         }
     }
 
-    private String generateKey(InEvent event) {      // for performance reason if its all attribute we don't do the attribute list check
+    /**
+     * @return positions of the attributes in the parameters from the given index, empty when all the attributes are compared
+     */
+    static int[] generateAttributeIndexes(Expression[] parameters, int from, AbstractDefinition streamDefinition) {
+        if (parameters.length - from == streamDefinition.getAttributeList().size()) {    // if all the attributes are configured or non-configured we compare all, so we ignore this index
+            return new int[0];
+        }
+        int[] attributeIndexes = new int[Math.max(parameters.length - from, 0)];
+        for (int i = from; i < parameters.length; i++) {
+            attributeIndexes[i - from] = streamDefinition.getAttributePosition(((Variable) parameters[i]).getAttributeName());
+        }
+        Arrays.sort(attributeIndexes);
+        return attributeIndexes;
+    }
+
+    static String generateKey(InEvent event, int[] attributeIndexes) {      // for performance reason if its all attribute we don't do the attribute list check
         StringBuilder stringBuilder = new StringBuilder();
-        if (attributeIndexes.size() == 0) {
-            for(Object data: event.getData()) {
+        if (attributeIndexes.length == 0) {
+            for (Object data : event.getData()) {
                 stringBuilder.append(data);
             }
         } else {
-            for (int i = 0; i < event.getData().length; i++) {
-                if (attributeIndexes.contains(i))
-                    stringBuilder.append(event.getData()[i]);
+            for (int index : attributeIndexes) {
+                stringBuilder.append(event.getData(index));
             }
         }
         return stringBuilder.toString();
     }
 
+    private String generateKey(InEvent event) {
+        return generateKey(event, attributeIndexes);
+    }
+
     @Override
     public void destroy() {
 
@@ -79,7 +79,7 @@ public class LengthBatchWindowProcessor extends WindowProcessor {
                 if (oldEvent == null) {
                     break;
                 } else {
-                    oldEvent.setExpiryTime(System.currentTimeMillis());
+                    oldEvent.setExpiryTime(siddhiContext.getClock().currentTime());
                     oldEventList.add(oldEvent);
                 }
             }
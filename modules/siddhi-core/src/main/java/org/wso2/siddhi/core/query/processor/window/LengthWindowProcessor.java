@@ -24,6 +24,9 @@ import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.event.remove.RemoveEvent;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
+import org.wso2.siddhi.core.snapshot.IncrementalSnapshotable;
+import org.wso2.siddhi.core.snapshot.QueueIncrementTracker;
+import org.wso2.siddhi.core.snapshot.SnapshotObject;
 import org.wso2.siddhi.core.util.collection.queue.ISiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.SiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.SiddhiQueueGrid;
@@ -33,18 +36,21 @@ import org.wso2.siddhi.query.api.expression.constant.IntConstant;
 
 import java.util.Iterator;
 
-public class LengthWindowProcessor extends WindowProcessor {
+public class LengthWindowProcessor extends WindowProcessor implements IncrementalSnapshotable {
 
     private int lengthToKeep;
     private ISiddhiQueue<StreamEvent> window;
+    private QueueIncrementTracker<StreamEvent> incrementTracker = new QueueIncrementTracker<StreamEvent>();
 
     @Override
     protected void processEvent(InEvent event) {
         acquireLock();
         try {
-            window.put(new RemoveEvent(event, Long.MAX_VALUE));
+            put(new RemoveEvent(event, Long.MAX_VALUE));
             if (window.size() > lengthToKeep) {
-                nextProcessor.process((Event) window.poll());
+                RemoveEvent removeEvent = (RemoveEvent) poll();
+                removeEvent.setExpiryTime(siddhiContext.getClock().currentTime());
+                nextProcessor.process(removeEvent);
             }
             nextProcessor.process(event);
         } finally {
@@ -65,24 +71,24 @@ public class LengthWindowProcessor extends WindowProcessor {
                     InEvent inEvent = (InEvent) listEvent.getEvent(i);
                     if (index < toFullQueueSize - 1) {
                         newEvents[index] = inEvent;
-                        window.put(new RemoveEvent(inEvent, Long.MAX_VALUE));
+                        put(new RemoveEvent(inEvent, Long.MAX_VALUE));
                         index++;
                     } else if (index == toFullQueueSize - 1) {
                         newEvents[index] = inEvent;
-                        window.put(new RemoveEvent(inEvent, Long.MAX_VALUE));
+                        put(new RemoveEvent(inEvent, Long.MAX_VALUE));
                         index++;
                         nextProcessor.process(new InListEvent(newEvents));
                     } else {
-                        RemoveEvent removeEvent = (RemoveEvent) window.poll();
-                        removeEvent.setExpiryTime(System.currentTimeMillis());
+                        RemoveEvent removeEvent = (RemoveEvent) poll();
+                        removeEvent.setExpiryTime(siddhiContext.getClock().currentTime());
                         nextProcessor.process(removeEvent);
-                        window.put(new RemoveEvent(inEvent, Long.MAX_VALUE));
+                        put(new RemoveEvent(inEvent, Long.MAX_VALUE));
                         nextProcessor.process(inEvent);
                     }
                 }
             } else {
                 for (int i = 0; i < listEvent.getActiveEvents(); i++) {
-                    window.put(new RemoveEvent(listEvent.getEvent(i), Long.MAX_VALUE));
+                    put(new RemoveEvent(listEvent.getEvent(i), Long.MAX_VALUE));
                 }
                 nextProcessor.process(listEvent);
             }
@@ -92,6 +98,21 @@ public class LengthWindowProcessor extends WindowProcessor {
 
     }
 
+    private void put(StreamEvent removeEvent) {
+        window.put(removeEvent);
+        incrementTracker.add(removeEvent);
+    }
+
+    private StreamEvent poll() {
+        incrementTracker.remove(1);
+        return window.poll();
+    }
+
+    @Override
+    public boolean isIndexable() {
+        return !siddhiContext.isDistributedProcessingEnabled();
+    }
+
     @Override
     public Iterator<StreamEvent> iterator() {
         return window.iterator();
@@ -114,6 +135,27 @@ public class LengthWindowProcessor extends WindowProcessor {
     @Override
     protected void restoreState(Object[] data) {
         window.restoreState(data);
+        incrementTracker.reset();
+    }
+
+    @Override
+    public SnapshotObject snapshotIncrement(boolean full) {
+        if (siddhiContext.isDistributedProcessingEnabled()) {
+            return null;
+        }
+        return incrementTracker.increment(full, window);
+    }
+
+    @Override
+    public void restoreIncrement(SnapshotObject increment) {
+        acquireLock();
+        try {
+            QueueIncrementTracker.restore(increment, window);
+            incrementTracker.reset();
+        } finally {
+            releaseLock();
+        }
+        rebuildIndex();
     }
 
     @Override
@@ -27,23 +27,24 @@ import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.event.remove.RemoveEvent;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
-import org.wso2.siddhi.core.util.collection.LossyCount;
+import org.wso2.siddhi.core.util.collection.StreamSummary;
 import org.wso2.siddhi.core.util.collection.map.SiddhiMap;
 import org.wso2.siddhi.core.util.collection.map.SiddhiMapGrid;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.expression.Expression;
-import org.wso2.siddhi.query.api.expression.Variable;
 import org.wso2.siddhi.query.api.expression.constant.DoubleConstant;
 import org.wso2.siddhi.query.api.expression.constant.IntConstant;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 
+/**
+ * Lossy Counting of the events, the counters are kept in a StreamSummary with the bucket id an
+ * event is first counted in as its error, hence pruning visits only the counters that can be pruned
+ */
 public class LossyFrequentWindowProcessor extends WindowProcessor {
-    private SiddhiMap<LossyCount> countMap;
+    private StreamSummary<String> streamSummary;
     private SiddhiMap<StreamEvent> map;
-    private List<Integer> attributeIndexes;    // attribute indexes starts with 0
+    private int[] attributeIndexes;    // attribute indexes starts with 0
 
     private int totalCount = 0;
     private double currentBucketId=1;
@@ -59,40 +60,24 @@ public class LossyFrequentWindowProcessor extends WindowProcessor {
             if (totalCount != 1) {
                 currentBucketId = Math.ceil(totalCount / windowWidth);
             }
-            StreamEvent oldEvent = map.put(generateKey(event), new RemoveEvent(event, Long.MAX_VALUE));
-            if (oldEvent != null) {       // this event is already in the store
-                countMap.put(generateKey(event), countMap.get(generateKey(event)).incrementCount());
-            } else {
+            String key = FrequentWindowProcessor.generateKey(event, attributeIndexes);
+            map.put(key, new RemoveEvent(event, Long.MAX_VALUE));
+            StreamSummary<String>.Counter counter = streamSummary.increment(key);
+            if (counter == null) {
                 //  This is a new event
-                LossyCount lCount;
-                lCount = new LossyCount(1, (int)currentBucketId - 1 );
-                countMap.put(generateKey(event), lCount);
-
+                counter = streamSummary.add(key, 1, (int) currentBucketId - 1);
             }
-            // calculating all the events in the system which match the
-            // requirement provided by the user
-            List<String> keys = new ArrayList<String>();
-            keys.addAll(countMap.keySet());
-            for (String key : keys) {
-                LossyCount lossyCount = countMap.get(key);
-                if (lossyCount.getCount() >= ((support - error) * totalCount)) {
-                    // among the selected events, if the newly arrive event is there we mark it as an inEvent
-                    if(key.equals(generateKey(event))) {
-                        nextProcessor.process(event);
-                    }
-                }
+            // if the newly arrived event match the requirement provided by the user we mark it as an inEvent
+            if (counter.getCount() >= ((support - error) * totalCount)) {
+                nextProcessor.process(event);
             }
             if (totalCount % windowWidth == 0) {
                 // its time to run the data-structure prune code
-                keys = new ArrayList<String>();
-                keys.addAll(countMap.keySet());
-                for (String key : keys) {
-                    LossyCount lossyCount = countMap.get(key);
-                    if (lossyCount.getCount() + lossyCount.getBucketId() <= currentBucketId) {
-                        log.info("Removing the Event: " + key + " from the window");
-                        countMap.remove(key);
-                        nextProcessor.process((AtomicEvent) map.remove(key));
+                for (String removedKey : streamSummary.removeAtMost((long) currentBucketId)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Removing the Event: " + removedKey + " from the window");
                     }
+                    nextProcessor.process((AtomicEvent) map.remove(removedKey));
                 }
             }
 
@@ -133,12 +118,15 @@ public class LossyFrequentWindowProcessor extends WindowProcessor {
 
     @Override
     protected Object[] currentState() {
-        return countMap.currentState();
+        return new Object[]{streamSummary.currentState(), map.currentState(), totalCount, currentBucketId};
     }
 
     @Override
     protected void restoreState(Object[] data) {
-        countMap.restoreState(data);
+        streamSummary.restoreState((Object[]) data[0]);
+        map.restoreState((Object[]) data[1]);
+        totalCount = (Integer) data[2];
+        currentBucketId = (Double) data[3];
     }
 
     @Override
@@ -152,41 +140,18 @@ public class LossyFrequentWindowProcessor extends WindowProcessor {
         if ((support > 1 || support < 0) || (error > 1 || error < 0)) {
             log.error("Wrong argument has provided, Error executing the window");
         }
-        attributeIndexes = new ArrayList<Integer>();
-        if (parameters.length > 2) {  // by-default all the attributes will be compared
-            for (int i = 2; i < parameters.length; i++) {
-                attributeIndexes.add(streamDefinition.getAttributePosition(((Variable) parameters[i]).getAttributeName()));
-            }
-        }
-        if (attributeIndexes.size() == streamDefinition.getAttributeList().size()) {    // if all the attributes are configured or non-configured we compare all, so we ignore this index
-            attributeIndexes.clear();
-        }
+        // by-default all the attributes will be compared
+        attributeIndexes = FrequentWindowProcessor.generateAttributeIndexes(parameters, 2, streamDefinition);
+        streamSummary = new StreamSummary<String>();
         windowWidth = Math.ceil(1 / error);
         currentBucketId = 1;
         if (this.siddhiContext.isDistributedProcessingEnabled()) {
-            countMap = new SiddhiMapGrid<LossyCount>(elementId, this.siddhiContext);
             map = new SiddhiMapGrid<StreamEvent>(elementId, this.siddhiContext);
         } else {
-            countMap = new SiddhiMap<LossyCount>();
             map = new SiddhiMap<StreamEvent>();
         }
     }
 
-    private String generateKey(InEvent event) {
-        StringBuilder stringBuilder = new StringBuilder();
-        if (attributeIndexes.size() == 0) {
-            for (Object data : event.getData()) {
-                stringBuilder.append(data);
-            }
-        } else {
-            for (int i = 0; i < event.getData().length; i++) {
-                if (attributeIndexes.contains(i))
-                    stringBuilder.append(event.getData()[i]);
-            }
-        }
-        return stringBuilder.toString();
-    }
-
     @Override
     public void destroy() {
 
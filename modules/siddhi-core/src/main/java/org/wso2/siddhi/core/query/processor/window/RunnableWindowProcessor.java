@@ -19,12 +19,11 @@ package org.wso2.siddhi.core.query.processor.window;
 
 import org.wso2.siddhi.core.snapshot.ThreadBarrier;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.SchedulerElement;
-
-import java.util.concurrent.ScheduledExecutorService;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 
 public interface RunnableWindowProcessor extends SchedulerElement, Runnable {
 
-    void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    void setClock(SiddhiClock clock);
 
     void setThreadBarrier(ThreadBarrier threadBarrier);
 }
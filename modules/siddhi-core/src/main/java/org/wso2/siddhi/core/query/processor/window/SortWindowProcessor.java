@@ -81,7 +81,7 @@ public class SortWindowProcessor extends WindowProcessor {
             sortedWindow.add(new RemoveEvent(event, Long.MAX_VALUE));
             if (sortedWindow.size() > lengthToKeep) {
                 Collections.sort(sortedWindow, eventComparator);
-                nextProcessor.process(new RemoveEvent(sortedWindow.remove(sortedWindow.size()-1), System.currentTimeMillis()));
+                nextProcessor.process(new RemoveEvent(sortedWindow.remove(sortedWindow.size()-1), siddhiContext.getClock().currentTime()));
             }
             nextProcessor.process(event);
         } finally {
@@ -113,7 +113,7 @@ public class SortWindowProcessor extends WindowProcessor {
                         sortedWindow.add(new RemoveEvent(inEvent, Long.MAX_VALUE));
                         Collections.sort(sortedWindow, eventComparator);
                         RemoveEvent removeEvent = (RemoveEvent) sortedWindow.remove(sortedWindow.size()-1);
-                        removeEvent.setExpiryTime(System.currentTimeMillis());
+                        removeEvent.setExpiryTime(siddhiContext.getClock().currentTime());
                         nextProcessor.process(removeEvent);
                         nextProcessor.process(inEvent);
                     }
@@ -0,0 +1,148 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.processor.window;
+
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.event.remove.RemoveEvent;
+import org.wso2.siddhi.core.query.QueryPostProcessingElement;
+import org.wso2.siddhi.core.util.collection.StreamSummary;
+import org.wso2.siddhi.core.util.collection.map.SiddhiMap;
+import org.wso2.siddhi.core.util.collection.map.SiddhiMapGrid;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.constant.IntConstant;
+
+import java.util.Iterator;
+
+/**
+ * Keeps the last event of the most frequent keys based on the Space-Saving algorithm, a new key takes over
+ * the counter of the least frequent key when all the counters are used and the last event of that key
+ * is expired. Counting an event is constant time as the counters are kept in a StreamSummary.
+ */
+public class SpaceSavingFrequentWindowProcessor extends WindowProcessor {
+
+    private StreamSummary<String> streamSummary;
+    private SiddhiMap<StreamEvent> map;
+    private int capacity;
+    private int[] attributeIndexes;    // attribute indexes starts with 0
+
+    @Override
+    protected void processEvent(InEvent event) {
+        acquireLock();
+        try {
+            String key = FrequentWindowProcessor.generateKey(event, attributeIndexes);
+            if (streamSummary.increment(key) == null) {
+                if (streamSummary.size() < capacity) {
+                    streamSummary.add(key, 1, 0);
+                } else {
+                    String evictedKey = streamSummary.replaceMinimum(key);
+                    if (log.isDebugEnabled()) {
+                        StreamSummary<String>.Counter counter = streamSummary.get(key);
+                        log.debug("Removing the Event: " + evictedKey + " from the window, " + key + " counted as " +
+                                  counter.getCount() + " with error " + counter.getError());
+                    }
+                    nextProcessor.process((AtomicEvent) map.remove(evictedKey));
+                }
+            }
+            map.put(key, new RemoveEvent(event, Long.MAX_VALUE));
+            nextProcessor.process(event);
+        } finally {
+            releaseLock();
+        }
+    }
+
+    @Override
+    protected void processEvent(InListEvent listEvent) {
+        acquireLock();
+        try {
+            for (int i = 0; i < listEvent.getActiveEvents(); i++) {
+                processEvent((InEvent) listEvent.getEvent(i));
+            }
+        } finally {
+            releaseLock();
+        }
+    }
+
+    /**
+     * @return count of the key with its error, the key occurred at least count - error times, or null when the key
+     *         is not counted
+     */
+    public long[] getCount(String key) {
+        acquireLock();
+        try {
+            StreamSummary<String>.Counter counter = streamSummary.get(key);
+            if (counter == null) {
+                return null;
+            }
+            return new long[]{counter.getCount(), counter.getError()};
+        } finally {
+            releaseLock();
+        }
+    }
+
+    @Override
+    public Iterator<StreamEvent> iterator() {
+        return map.iterator();
+    }
+
+    @Override
+    public Iterator<StreamEvent> iterator(String predicate) {
+        if (siddhiContext.isDistributedProcessingEnabled()) {
+            return ((SiddhiMapGrid<StreamEvent>) map).iterator(predicate);
+        } else {
+            return map.iterator();
+        }
+    }
+
+    @Override
+    protected Object[] currentState() {
+        return new Object[]{streamSummary.currentState(), map.currentState()};
+    }
+
+    @Override
+    protected void restoreState(Object[] data) {
+        streamSummary.restoreState((Object[]) data[0]);
+        map.restoreState((Object[]) data[1]);
+    }
+
+    @Override
+    protected void init(Expression[] parameters, QueryPostProcessingElement nextProcessor, AbstractDefinition streamDefinition, String elementId, boolean async, SiddhiContext siddhiContext) {
+        capacity = ((IntConstant) parameters[0]).getValue();
+        if (capacity <= 0) {
+            log.error("Wrong argument has provided, the number of keys counted by the window should be positive");
+            capacity = 1;
+        }
+        // by-default all the attributes will be compared
+        attributeIndexes = FrequentWindowProcessor.generateAttributeIndexes(parameters, 1, streamDefinition);
+        streamSummary = new StreamSummary<String>();
+        if (this.siddhiContext.isDistributedProcessingEnabled()) {
+            map = new SiddhiMapGrid<StreamEvent>(elementId, this.siddhiContext);
+        } else {
+            map = new SiddhiMap<StreamEvent>();
+        }
+    }
+
+    @Override
+    public void destroy() {
+
+    }
+}
@@ -18,15 +18,18 @@
 package org.wso2.siddhi.core.query.processor.window;
 
 import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.StateEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.table.InMemoryEventTable;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.expression.Expression;
 
+import java.util.Collection;
 import java.util.Iterator;
 
 public class TableWindowProcessor extends WindowProcessor {
@@ -63,6 +66,19 @@ public class TableWindowProcessor extends WindowProcessor {
         return  eventTable.iterator(streamEvent, conditionExecutor);
     }
 
+    @Override
+    public boolean isJoinIndexed() {
+        return eventTable instanceof InMemoryEventTable && ((InMemoryEventTable) eventTable).isIndexed();
+    }
+
+    @Override
+    public Collection<StreamEvent> findJoinCandidates(StateEvent stateEvent, ConditionExecutor conditionExecutor, int windowPosition) {
+        if (eventTable instanceof InMemoryEventTable) {
+            return ((InMemoryEventTable) eventTable).find(stateEvent, conditionExecutor, windowPosition);
+        }
+        return null;
+    }
+
     @Override
     protected Object[] currentState() {
         return new Object[0];
@@ -29,6 +29,8 @@ import org.wso2.siddhi.core.snapshot.ThreadBarrier;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.ISchedulerSiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.SchedulerSiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.SchedulerSiddhiQueueGrid;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
+import org.wso2.siddhi.core.util.timer.Timeout;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.expression.constant.IntConstant;
@@ -37,20 +39,17 @@ import org.wso2.siddhi.query.api.expression.constant.LongConstant;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 public class TimeBatchWindowProcessor extends WindowProcessor implements RunnableWindowProcessor {
 
     static final Logger log = Logger.getLogger(TimeBatchWindowProcessor.class);
-    private ScheduledExecutorService eventRemoverScheduler;
-    private ScheduledFuture<?> lastSchedule;
+    private SiddhiClock clock;
+    private Timeout lastSchedule;
     private long timeToKeep;
     private List<InEvent> newEventList;
     private List<RemoveEvent> oldEventList;
     private ThreadBarrier threadBarrier;
+    private boolean destroyed = false;
     private ISchedulerSiddhiQueue<StreamEvent> window;
 
     @Override
@@ -93,13 +92,17 @@ public class TimeBatchWindowProcessor extends WindowProcessor implements Runnabl
 
     @Override
     public void run() {
+        // waits at the barrier before taking the window lock, as in TimeWindowProcessor
+        threadBarrier.enter();
         acquireLock();
         try {
-            long scheduledTime = System.currentTimeMillis();
+            if (destroyed) {
+                return;
+            }
+            long scheduledTime = clock.currentTime();
             try {
                 oldEventList.clear();
                 while (true) {
-                    threadBarrier.pass();
                     RemoveEvent removeEvent = (RemoveEvent) window.poll();
                     if (removeEvent == null) {
                         if (oldEventList.size() > 0) {
@@ -117,21 +120,17 @@ public class TimeBatchWindowProcessor extends WindowProcessor implements Runnabl
                             newEventList.clear();
                         }
 
-                        long diff = timeToKeep - (System.currentTimeMillis() - scheduledTime);
+                        long diff = timeToKeep - (clock.currentTime() - scheduledTime);
                         if (diff > 0) {
-                            try {
-                                if (lastSchedule != null) {
-                                    lastSchedule.cancel(false);
-                                }
-                                lastSchedule = eventRemoverScheduler.schedule(this, diff, TimeUnit.MILLISECONDS);
-                            } catch (RejectedExecutionException ex) {
-                                log.warn("scheduling cannot be accepted for execution: elementID " + elementId);
+                            if (lastSchedule != null) {
+                                lastSchedule.cancel();
                             }
+                            lastSchedule = clock.schedule(this, diff);
                             break;
                         }
-                        scheduledTime = System.currentTimeMillis();
+                        scheduledTime = clock.currentTime();
                     } else {
-                        oldEventList.add(new RemoveEvent(removeEvent, System.currentTimeMillis()));
+                        oldEventList.add(new RemoveEvent(removeEvent, clock.currentTime()));
                     }
                 }
             } catch (Throwable t) {
@@ -139,6 +138,7 @@ public class TimeBatchWindowProcessor extends WindowProcessor implements Runnabl
             }
         } finally {
             releaseLock();
+            threadBarrier.exit();
         }
     }
 
@@ -184,22 +184,22 @@ public class TimeBatchWindowProcessor extends WindowProcessor implements Runnabl
     @Override
     public void schedule() {
         if (lastSchedule != null) {
-            lastSchedule.cancel(false);
+            lastSchedule.cancel();
         }
-        lastSchedule = eventRemoverScheduler.schedule(this, timeToKeep, TimeUnit.MILLISECONDS);
+        lastSchedule = clock.schedule(this, timeToKeep);
 
     }
 
     public void scheduleNow() {
         if (lastSchedule != null) {
-            lastSchedule.cancel(false);
+            lastSchedule.cancel();
         }
-        lastSchedule = eventRemoverScheduler.schedule(this, 0, TimeUnit.MILLISECONDS);
+        lastSchedule = clock.schedule(this, 0);
     }
 
     @Override
-    public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
-        this.eventRemoverScheduler = scheduledExecutorService;
+    public void setClock(SiddhiClock clock) {
+        this.clock = clock;
     }
 
     public void setThreadBarrier(ThreadBarrier threadBarrier) {
@@ -208,6 +208,14 @@ public class TimeBatchWindowProcessor extends WindowProcessor implements Runnabl
 
     @Override
     public void destroy() {
-
+        acquireLock();
+        try {
+            destroyed = true;
+            if (lastSchedule != null) {
+                lastSchedule.cancel();
+            }
+        } finally {
+            releaseLock();
+        }
     }
 }
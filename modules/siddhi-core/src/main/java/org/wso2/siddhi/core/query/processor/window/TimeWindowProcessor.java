@@ -28,39 +28,47 @@ import org.wso2.siddhi.core.event.remove.RemoveEvent;
 import org.wso2.siddhi.core.event.remove.RemoveListEvent;
 import org.wso2.siddhi.core.event.remove.RemoveStream;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
+import org.wso2.siddhi.core.snapshot.IncrementalSnapshotable;
+import org.wso2.siddhi.core.snapshot.QueueIncrementTracker;
+import org.wso2.siddhi.core.snapshot.SnapshotObject;
 import org.wso2.siddhi.core.snapshot.ThreadBarrier;
 import org.wso2.siddhi.core.util.EventConverter;
 import org.wso2.siddhi.core.util.collection.queue.TimeStampSiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.timestamp.ISchedulerTimestampSiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.timestamp.SchedulerTimestampSiddhiQueue;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.timestamp.SchedulerTimestampSiddhiQueueGrid;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
+import org.wso2.siddhi.core.util.timer.Timeout;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.expression.constant.IntConstant;
 import org.wso2.siddhi.query.api.expression.constant.LongConstant;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
-public class TimeWindowProcessor extends WindowProcessor implements RunnableWindowProcessor {
+public class TimeWindowProcessor extends WindowProcessor implements RunnableWindowProcessor, IncrementalSnapshotable {
 
     static final Logger log = Logger.getLogger(TimeWindowProcessor.class);
-    private ScheduledExecutorService eventRemoverScheduler;
+    private SiddhiClock clock;
     private long timeToKeep;
-    private ScheduledFuture<?> lastSchedule = null;
+    private Timeout lastSchedule = null;
     private long constantSchedulingInterval = -1;
     private boolean isConstantSchedulingMode = false;
     private ThreadBarrier threadBarrier;
+    private boolean destroyed = false;
     private ISchedulerTimestampSiddhiQueue<StreamEvent> window;
+    private QueueIncrementTracker<StreamEvent> incrementTracker = new QueueIncrementTracker<StreamEvent>();
 
     @Override
     public void processEvent(InEvent event) {
         acquireLock();
         try {
-            window.put(new RemoveEvent(event, System.currentTimeMillis() + timeToKeep));
+            RemoveEvent removeEvent = new RemoveEvent(event, clock.currentTime() + timeToKeep);
+            window.put(removeEvent);
+            incrementTracker.add(removeEvent);
             nextProcessor.process(event);
         } finally {
             releaseLock();
@@ -73,12 +81,16 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
         acquireLock();
         try {
             if (!async && siddhiContext.isDistributedProcessingEnabled()) {
-                long expireTime = System.currentTimeMillis() + timeToKeep;
+                long expireTime = clock.currentTime() + timeToKeep;
+                List<StreamEvent> removeEvents = new ArrayList<StreamEvent>(listEvent.getActiveEvents());
                 for (int i = 0, activeEvents = listEvent.getActiveEvents(); i < activeEvents; i++) {
-                    window.put(new RemoveEvent(listEvent.getEvent(i), expireTime));
+                    removeEvents.add(new RemoveEvent(listEvent.getEvent(i), expireTime));
                 }
+                ((SchedulerTimestampSiddhiQueueGrid<StreamEvent>) window).putAll(removeEvents);
             } else {
-                window.put(new RemoveListEvent(EventConverter.toRemoveEventArray(listEvent.getEvents(), listEvent.getActiveEvents(), System.currentTimeMillis() + timeToKeep)));
+                RemoveListEvent removeListEvent = new RemoveListEvent(EventConverter.toRemoveEventArray(listEvent.getEvents(), listEvent.getActiveEvents(), clock.currentTime() + timeToKeep));
+                window.put(removeListEvent);
+                incrementTracker.add(removeListEvent);
             }
             nextProcessor.process(listEvent);
         } finally {
@@ -86,6 +98,11 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
         }
     }
 
+    @Override
+    public boolean isIndexable() {
+        return !siddhiContext.isDistributedProcessingEnabled();
+    }
+
     @Override
     public Iterator<StreamEvent> iterator() {
         return window.iterator();
@@ -102,51 +119,42 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
 
     @Override
     public void run() {
+        // waits at the barrier before taking the window lock, a snapshot closing the barrier then waits for
+        // this run to exit instead of for producers blocked on the lock held here
+        threadBarrier.enter();
         acquireLock();
         try {
+            if (destroyed) {
+                return;
+            }
             while (true) {
-                threadBarrier.pass();
                 StreamEvent streamEvent = window.peek();
                 try {
                     if (streamEvent == null) {
                         break;
                     }
-                    long timeDiff = ((RemoveStream) streamEvent).getExpiryTime() - System.currentTimeMillis();
-                    try {
-                        if (timeDiff > 0) {
-                            if (!isConstantSchedulingMode) {
-                                if (siddhiContext.isDistributedProcessingEnabled()) {
-
-                                    if (lastSchedule != null) {
-                                        lastSchedule.cancel(false);
-                                    }
-                                    //should not use sleep as it will not release the lock, hence it will fail in distributed case
-                                    lastSchedule = eventRemoverScheduler.schedule(this, timeDiff,
-                                            TimeUnit.MILLISECONDS);
-                                    break;
-                                } else {
-                                    //this cannot be used for distributed case as it will course concurrency issues
-                                    releaseLock();
-                                    Thread.sleep(timeDiff);
-                                    acquireLock();
-                                }
-                            } else {
-                                break;
+                    long timeDiff = ((RemoveStream) streamEvent).getExpiryTime() - clock.currentTime();
+                    if (timeDiff > 0) {
+                        if (!isConstantSchedulingMode) {
+                            //rescheduling instead of sleeping releases the lock and the scheduler thread till the expiry
+                            if (lastSchedule != null) {
+                                lastSchedule.cancel();
                             }
+                            lastSchedule = clock.schedule(this, timeDiff);
                         }
+                        break;
+                    }
 
-                        Collection<StreamEvent> resultList = window.poll(System.currentTimeMillis());
-                        if (resultList != null) {
-                            for (StreamEvent event : resultList) {
-                                if (streamEvent instanceof AtomicEvent) {
-                                    nextProcessor.process((AtomicEvent) event);
-                                } else {
-                                    nextProcessor.process((ListEvent) event);
-                                }
+                    Collection<StreamEvent> resultList = window.poll(clock.currentTime());
+                    if (resultList != null) {
+                        incrementTracker.remove(resultList.size());
+                        for (StreamEvent event : resultList) {
+                            if (streamEvent instanceof AtomicEvent) {
+                                nextProcessor.process((AtomicEvent) event);
+                            } else {
+                                nextProcessor.process((ListEvent) event);
                             }
                         }
-                    } catch (InterruptedException e) {
-                        log.warn("Time window sleep interrupted at elementId " + elementId);
                     }
                 } catch (Throwable e) {
                     e.printStackTrace();
@@ -157,10 +165,11 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
         } finally {
             // If this is constant scheduling, reschedule after every execution since
             // arrival of events won't do any scheduling
-            if (isConstantSchedulingMode) {
+            if (isConstantSchedulingMode && !destroyed) {
                 this.scheduleConstantTime();
             }
             releaseLock();
+            threadBarrier.exit();
         }
     }
 
@@ -172,12 +181,34 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
     @Override
     protected void restoreState(Object[] data) {
         window.restoreState(data);
+        incrementTracker.reset();
 
         if (!isConstantSchedulingMode) {
             window.reSchedule();
         }
     }
 
+    @Override
+    public SnapshotObject snapshotIncrement(boolean full) {
+        if (isConstantSchedulingMode || siddhiContext.isDistributedProcessingEnabled()) {
+            return null;
+        }
+        return incrementTracker.increment(full, window);
+    }
+
+    @Override
+    public void restoreIncrement(SnapshotObject increment) {
+        acquireLock();
+        try {
+            QueueIncrementTracker.restore(increment, window);
+            incrementTracker.reset();
+        } finally {
+            releaseLock();
+        }
+        rebuildIndex();
+        window.reSchedule();
+    }
+
     @Override
     protected void init(Expression[] parameters, QueryPostProcessingElement nextProcessor, AbstractDefinition streamDefinition, String elementId, boolean async, SiddhiContext siddhiContext) {
         if (parameters[0] instanceof IntConstant) {
@@ -204,7 +235,7 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
                 throw new UnsupportedOperationException("Constant time sliding not supported for distributed processing.");
                 //TODO : Implement constant time sliding window grid for distributed case
             } else {
-                window = new TimeStampSiddhiQueue<StreamEvent>(constantSchedulingInterval);
+                window = new TimeStampSiddhiQueue<StreamEvent>(constantSchedulingInterval, clock.currentTime());
                 this.schedule();
             }
         }
@@ -213,27 +244,25 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
 
     public void scheduleNow() {
         if (lastSchedule != null) {
-            lastSchedule.cancel(false);
-        } else {
-            lastSchedule = null;
+            lastSchedule.cancel();
         }
-        eventRemoverScheduler.execute(this);
+        lastSchedule = clock.schedule(this, 0);
     }
 
     public void schedule() {
         if (lastSchedule != null) {
-            lastSchedule.cancel(false);
+            lastSchedule.cancel();
         }
-        lastSchedule= eventRemoverScheduler.schedule(this, timeToKeep, TimeUnit.MILLISECONDS);
+        lastSchedule = clock.schedule(this, timeToKeep);
     }
 
     public void scheduleConstantTime() {
-        eventRemoverScheduler.schedule(this, constantSchedulingInterval, TimeUnit.MILLISECONDS);
+        lastSchedule = clock.schedule(this, constantSchedulingInterval);
     }
 
     @Override
-    public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
-        eventRemoverScheduler = scheduledExecutorService;
+    public void setClock(SiddhiClock clock) {
+        this.clock = clock;
     }
 
     public void setThreadBarrier(ThreadBarrier threadBarrier) {
@@ -242,7 +271,15 @@ public class TimeWindowProcessor extends WindowProcessor implements RunnableWind
 
     @Override
     public void destroy() {
-
+        acquireLock();
+        try {
+            destroyed = true;
+            if (lastSchedule != null) {
+                lastSchedule.cancel();
+            }
+        } finally {
+            releaseLock();
+        }
     }
 }
 
@@ -0,0 +1,137 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.processor.window;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.ListEvent;
+import org.wso2.siddhi.core.event.StreamEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Hash index over the events held by a window, keyed on the attributes the window is equi-joined on.
+ * Events are added as they enter the window and removed as the window emits them as expired, events
+ * having null for any of the attributes are not indexed as compare conditions never match null.
+ */
+public class WindowIndex {
+
+    private final int[] attributePositions;
+    private final int[] probeAttributePositions;
+    private Map<Object, LinkedList<StreamEvent>> indexMap = new HashMap<Object, LinkedList<StreamEvent>>();
+
+    /**
+     * @param attributePositions      positions of the join attributes in the window events
+     * @param probeAttributePositions positions of the matching attributes in the events of the opposite side
+     */
+    public WindowIndex(int[] attributePositions, int[] probeAttributePositions) {
+        this.attributePositions = attributePositions;
+        this.probeAttributePositions = probeAttributePositions;
+    }
+
+    public void add(StreamEvent streamEvent) {
+        if (streamEvent instanceof ListEvent) {
+            for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
+                add(((ListEvent) streamEvent).getEvent(i));
+            }
+        } else {
+            Object key = createKey((Event) streamEvent, attributePositions);
+            if (key != null) {
+                LinkedList<StreamEvent> events = indexMap.get(key);
+                if (events == null) {
+                    events = new LinkedList<StreamEvent>();
+                    indexMap.put(key, events);
+                }
+                events.add(streamEvent);
+            }
+        }
+    }
+
+    /**
+     * Removes the indexed event carrying the same data as the given expired event,
+     * windows expire in arrival order hence it is generally the first of its bucket.
+     */
+    public void remove(StreamEvent streamEvent) {
+        if (streamEvent instanceof ListEvent) {
+            for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
+                remove(((ListEvent) streamEvent).getEvent(i));
+            }
+        } else {
+            Object[] data = ((Event) streamEvent).getData();
+            Object key = createKey((Event) streamEvent, attributePositions);
+            if (key != null) {
+                LinkedList<StreamEvent> events = indexMap.get(key);
+                if (events != null) {
+                    for (Iterator<StreamEvent> iterator = events.iterator(); iterator.hasNext(); ) {
+                        if (((Event) iterator.next()).getData() == data) {
+                            iterator.remove();
+                            break;
+                        }
+                    }
+                    if (events.isEmpty()) {
+                        indexMap.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the window events having the same join attribute values as the given opposite side event,
+     * in their arrival order
+     */
+    public Collection<StreamEvent> find(Event probeEvent) {
+        Object key = createKey(probeEvent, probeAttributePositions);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        LinkedList<StreamEvent> events = indexMap.get(key);
+        if (events == null) {
+            return Collections.emptyList();
+        }
+        //copied as the window can get modified while the joined events are processed
+        return new ArrayList<StreamEvent>(events);
+    }
+
+    public void rebuild(Iterator<StreamEvent> iterator) {
+        indexMap.clear();
+        while (iterator.hasNext()) {
+            add(iterator.next());
+        }
+    }
+
+    private Object createKey(Event event, int[] positions) {
+        if (positions.length == 1) {
+            return event.getData(positions[0]);
+        }
+        Object[] key = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            key[i] = event.getData(positions[i]);
+            if (key[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(key);
+    }
+}
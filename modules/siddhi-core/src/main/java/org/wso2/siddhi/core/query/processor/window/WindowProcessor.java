@@ -21,6 +21,8 @@ import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.AtomicEvent;
 import org.wso2.siddhi.core.event.BundleEvent;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.StateEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
 import org.wso2.siddhi.core.event.in.InListEvent;
@@ -36,6 +38,7 @@ import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.expression.Expression;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.locks.Lock;
 
@@ -53,6 +56,7 @@ public abstract class WindowProcessor implements Snapshotable, MarkedElement, Pr
     protected AbstractDefinition definition;
     protected boolean async;
     protected Expression[] parameters;
+    private WindowIndex windowIndex;
 
     public void setParameters(Expression[] parameters) {
         this.parameters = parameters;
@@ -69,7 +73,17 @@ public abstract class WindowProcessor implements Snapshotable, MarkedElement, Pr
     @Override
     public void process(AtomicEvent atomicEvent) {
         if (atomicEvent instanceof InEvent) {
-            processEvent((InEvent) atomicEvent);
+            if (windowIndex != null) {
+                acquireLock();
+                try {
+                    windowIndex.add((StreamEvent) atomicEvent);
+                    processEvent((InEvent) atomicEvent);
+                } finally {
+                    releaseLock();
+                }
+            } else {
+                processEvent((InEvent) atomicEvent);
+            }
         } else {
             log.error("Un expected message type " + atomicEvent.getClass().getCanonicalName() + " for event " + atomicEvent);
         }
@@ -78,7 +92,17 @@ public abstract class WindowProcessor implements Snapshotable, MarkedElement, Pr
     @Override
     public void process(BundleEvent bundleEvent) {
         if (bundleEvent instanceof InListEvent) {
-            processEvent((InListEvent) bundleEvent);
+            if (windowIndex != null) {
+                acquireLock();
+                try {
+                    windowIndex.add((StreamEvent) bundleEvent);
+                    processEvent((InListEvent) bundleEvent);
+                } finally {
+                    releaseLock();
+                }
+            } else {
+                processEvent((InListEvent) bundleEvent);
+            }
         } else {
             log.error("Un expected message type " + bundleEvent.getClass().getCanonicalName() + " for event " + bundleEvent);
         }
@@ -96,6 +120,57 @@ public abstract class WindowProcessor implements Snapshotable, MarkedElement, Pr
         return null;
     }
 
+    /**
+     * Whether the window can maintain a WindowIndex, that is every event it holds has arrived through
+     * process() and is emitted to the next processor as a RemoveEvent sharing its data when it leaves the window.
+     */
+    public boolean isIndexable() {
+        return false;
+    }
+
+    /**
+     * Sets the index maintained alongside the window contents, to be called after setNext() and before initWindow().
+     */
+    public void setWindowIndex(WindowIndex windowIndex) {
+        this.windowIndex = windowIndex;
+        final QueryPostProcessingElement next = nextProcessor;
+        final WindowIndex index = windowIndex;
+        nextProcessor = new QueryPostProcessingElement() {
+            @Override
+            public void process(AtomicEvent atomicEvent) {
+                if (!(atomicEvent instanceof InEvent)) {
+                    index.remove((StreamEvent) atomicEvent);
+                }
+                next.process(atomicEvent);
+            }
+
+            @Override
+            public void process(BundleEvent bundleEvent) {
+                if (!(bundleEvent instanceof InListEvent)) {
+                    index.remove((StreamEvent) bundleEvent);
+                }
+                next.process(bundleEvent);
+            }
+        };
+    }
+
+    public boolean isJoinIndexed() {
+        return windowIndex != null;
+    }
+
+    /**
+     * @param stateEvent        joined event holding the opposite side event, with this side left null
+     * @param conditionExecutor the join condition
+     * @param windowPosition    position of this side in the joined events
+     * @return the window events that can satisfy the join condition, or null if all events have to be checked
+     */
+    public Collection<StreamEvent> findJoinCandidates(StateEvent stateEvent, ConditionExecutor conditionExecutor, int windowPosition) {
+        if (windowIndex == null) {
+            return null;
+        }
+        return windowIndex.find((Event) stateEvent.getStreamEvent(windowPosition == 0 ? 1 : 0));
+    }
+
     @Override
     public void setElementId(String elementId) {
         this.elementId = elementId;
@@ -116,6 +191,13 @@ public abstract class WindowProcessor implements Snapshotable, MarkedElement, Pr
     @Override
     public final void restore(SnapshotObject snapshotObject) {
         restoreState(snapshotObject.getData());
+        rebuildIndex();
+    }
+
+    protected void rebuildIndex() {
+        if (windowIndex != null) {
+            windowIndex.rebuild(iterator());
+        }
     }
 
     protected abstract void restoreState(Object[] data);
@@ -0,0 +1,220 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.selector;
+
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open addressing map of the group-by states of a query. Each group has a row of states shared by
+ * all group-by aggregators of the query, each of them using its own slot of the row. Groups of a
+ * single int or long attribute are kept by their primitive values.
+ */
+public class GroupByStateMap {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int width;
+    private final Attribute.Type keyType;
+    private final boolean primitiveKeys;
+    private long[] longKeys;
+    private Object[] keys;
+    private int[] hashes;
+    private Object[][] rows;
+    private Object[] nullRow;
+    private int size;
+    private int mask;
+    private Object lastKey;
+    private Object[] lastRow;
+
+    /**
+     * @param width   number of states of a group
+     * @param keyType type of the single group-by attribute, null for the other keys
+     */
+    public GroupByStateMap(int width, Attribute.Type keyType) {
+        this.width = width;
+        this.keyType = keyType;
+        this.primitiveKeys = keyType == Attribute.Type.INT || keyType == Attribute.Type.LONG;
+        init(INITIAL_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        if (primitiveKeys) {
+            longKeys = new long[capacity];
+        } else {
+            keys = new Object[capacity];
+            hashes = new int[capacity];
+        }
+        rows = new Object[capacity][];
+        mask = capacity - 1;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public synchronized int size() {
+        return nullRow == null ? size : size + 1;
+    }
+
+    /**
+     * @return the states of the group, created when the group is new
+     */
+    public synchronized Object[] getRow(Object key) {
+        if (key == lastKey && lastRow != null) {
+            return lastRow;
+        }
+        Object[] row;
+        if (primitiveKeys && key instanceof Number) {
+            row = getRow(((Number) key).longValue());
+        } else if (!primitiveKeys && key != null && key != GroupKey.NULL) {
+            row = getObjectRow(key);
+        } else {
+            if (nullRow == null) {
+                nullRow = new Object[width];
+            }
+            row = nullRow;
+        }
+        lastKey = key;
+        lastRow = row;
+        return row;
+    }
+
+    private Object[] getRow(long key) {
+        int index = index(key);
+        while (rows[index] != null) {
+            if (longKeys[index] == key) {
+                return rows[index];
+            }
+            index = (index + 1) & mask;
+        }
+        Object[] row = new Object[width];
+        longKeys[index] = key;
+        rows[index] = row;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize();
+        }
+        return row;
+    }
+
+    private Object[] getObjectRow(Object key) {
+        int hash = key.hashCode();
+        int index = index(hash);
+        while (rows[index] != null) {
+            if (hashes[index] == hash && key.equals(keys[index])) {
+                return rows[index];
+            }
+            index = (index + 1) & mask;
+        }
+        Object[] row = new Object[width];
+        keys[index] = key;
+        hashes[index] = hash;
+        rows[index] = row;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize();
+        }
+        return row;
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int index(int hash) {
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void resize() {
+        long[] oldLongKeys = longKeys;
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[][] oldRows = rows;
+        init(oldRows.length * 2);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] == null) {
+                continue;
+            }
+            int index = primitiveKeys ? index(oldLongKeys[i]) : index(oldHashes[i]);
+            while (rows[index] != null) {
+                index = (index + 1) & mask;
+            }
+            rows[index] = oldRows[i];
+            if (primitiveKeys) {
+                longKeys[index] = oldLongKeys[i];
+            } else {
+                keys[index] = oldKeys[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * @return the states of the slot by their group keys, used for snapshots
+     */
+    public synchronized Map<Object, Object> getSlot(int slot) {
+        Map<Object, Object> states = new HashMap<Object, Object>();
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != null && rows[i][slot] != null) {
+                states.put(primitiveKeys ? toKey(longKeys[i]) : keys[i], rows[i][slot]);
+            }
+        }
+        if (nullRow != null && nullRow[slot] != null) {
+            states.put(GroupKey.NULL, nullRow[slot]);
+        }
+        return states;
+    }
+
+    public synchronized void restoreSlot(int slot, Map<Object, Object> states) {
+        for (Object[] row : rows) {
+            if (row != null) {
+                row[slot] = null;
+            }
+        }
+        if (nullRow != null) {
+            nullRow[slot] = null;
+        }
+        for (Map.Entry<Object, Object> entry : states.entrySet()) {
+            getRow(entry.getKey())[slot] = entry.getValue();
+        }
+        lastKey = null;
+        lastRow = null;
+    }
+
+    private Object toKey(long key) {
+        if (keyType == Attribute.Type.INT) {
+            return (int) key;
+        }
+        return key;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(rows, null);
+        if (keys != null) {
+            Arrays.fill(keys, null);
+        }
+        nullRow = null;
+        size = 0;
+        lastKey = null;
+        lastRow = null;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.query.selector;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Group-by key of more than one attribute, compared by the attribute values with its hash computed once.
+ * Groups of a single attribute are keyed by the attribute value itself, and by NULL when it is null.
+ */
+public final class GroupKey implements Serializable {
+
+    public static final GroupKey NULL = new GroupKey(new Object[]{null});
+
+    private final Object[] values;
+    private final int hash;
+
+    public GroupKey(Object[] values) {
+        this.values = values;
+        this.hash = Arrays.hashCode(values);
+    }
+
+    public Object[] getValues() {
+        return values;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof GroupKey)) {
+            return false;
+        }
+        GroupKey groupKey = (GroupKey) object;
+        return hash == groupKey.hash && Arrays.equals(values, groupKey.values);
+    }
+
+    /**
+     * Resolves the deserialized null group to NULL, as the null group is looked up by identity
+     */
+    private Object readResolve() {
+        if (values.length == 1 && values[0] == null) {
+            return NULL;
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Object value : values) {
+            sb.append(value).append("::");
+        }
+        return sb.toString();
+    }
+}
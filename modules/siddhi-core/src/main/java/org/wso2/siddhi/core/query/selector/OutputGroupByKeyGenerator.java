@@ -21,6 +21,7 @@ import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.AtomicEvent;
 import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
 import org.wso2.siddhi.core.util.parser.ExecutorParser;
+import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Variable;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
 
@@ -42,15 +43,31 @@ public class OutputGroupByKeyGenerator {
         }
     }
 
-    protected String constructEventKey(AtomicEvent event) {
-        if (groupByExecutors != null) {
-            StringBuilder sb = new StringBuilder();
-            for (ExpressionExecutor executor : groupByExecutors) {
-                sb.append(executor.execute(event)).append("::");
-            }
-            return sb.toString();
-        } else {
+    /**
+     * @return the attribute value for a single group-by attribute, else a GroupKey of the values
+     */
+    protected Object constructEventKey(AtomicEvent event) {
+        if (groupByExecutors == null) {
             return null;
         }
+        if (groupByExecutors.length == 1) {
+            Object key = groupByExecutors[0].execute(event);
+            return key == null ? GroupKey.NULL : key;
+        }
+        Object[] values = new Object[groupByExecutors.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = groupByExecutors[i].execute(event);
+        }
+        return new GroupKey(values);
+    }
+
+    /**
+     * @return type of the single group-by attribute, null when grouped by more attributes
+     */
+    public Attribute.Type getKeyType() {
+        if (groupByExecutors != null && groupByExecutors.length == 1) {
+            return groupByExecutors[0].getReturnType();
+        }
+        return null;
     }
 }
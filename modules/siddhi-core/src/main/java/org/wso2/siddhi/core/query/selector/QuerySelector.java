@@ -30,7 +30,10 @@ import org.wso2.siddhi.core.event.in.InListEvent;
 import org.wso2.siddhi.core.event.in.InStream;
 import org.wso2.siddhi.core.event.remove.RemoveStream;
 import org.wso2.siddhi.core.exception.QueryCreationException;
+import org.wso2.siddhi.core.executor.compiler.CompiledSelector;
+import org.wso2.siddhi.core.executor.compiler.ExecutorCompiler;
 import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
 import org.wso2.siddhi.core.extension.holder.ExecutorExtensionHolder;
 import org.wso2.siddhi.core.extension.holder.OutputAttributeExtensionHolder;
 import org.wso2.siddhi.core.query.QueryPostProcessingElement;
@@ -39,6 +42,7 @@ import org.wso2.siddhi.core.query.selector.attribute.factory.OutputAttributeAggr
 import org.wso2.siddhi.core.query.selector.attribute.processor.AbstractAggregationAttributeProcessor;
 import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
 import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessorFactory;
+import org.wso2.siddhi.core.query.selector.attribute.processor.GroupByAttributeAggregatorProcessor;
 import org.wso2.siddhi.core.query.selector.attribute.processor.GroupByAttributeProcessor;
 import org.wso2.siddhi.core.query.selector.attribute.processor.NonGroupingAttributeProcessor;
 import org.wso2.siddhi.core.query.selector.attribute.processor.PassThroughAttributeProcessor;
@@ -77,6 +81,7 @@ public class QuerySelector implements QueryPostProcessingElement {
     private StreamDefinition outputStreamDefinition;
     private Selector selector;
     private ConditionExecutor havingConditionExecutor = null;
+    private CompiledSelector compiledSelector = null;
     //    private OutStream outStream;
     public boolean currentOn = false;
     public boolean expiredOn = false;
@@ -84,6 +89,7 @@ public class QuerySelector implements QueryPostProcessingElement {
     private boolean groupBy = false;
     private boolean distributedProcessing = false;
     private final OutputRateManager outputRateManager;
+    private Object outputLock;
 
     public QuerySelector(String outputStreamId, Selector selector,
                          OutputRateManager outputRateManager, List<QueryEventSource> queryEventSourceList,
@@ -106,14 +112,53 @@ public class QuerySelector implements QueryPostProcessingElement {
 
         populateOutputAttributes(queryEventSourceList, siddhiContext);
 
+        if (groupBy) {
+            shareGroupByStates();
+        }
+
         havingConditionExecutor = generateHavingExecutor(selector.getHavingCondition(), outputStreamDefinition, eventTableMap, siddhiContext);
 
+        ExecutorCompiler executorCompiler = siddhiContext.getExecutorCompiler();
+        if (executorCompiler != null) {
+            havingConditionExecutor = executorCompiler.compile(havingConditionExecutor);
+            List<ExpressionExecutor> expressionExecutors = new ArrayList<ExpressionExecutor>(outputSize);
+            for (AttributeProcessor attributeProcessor : attributeProcessorList) {
+                if (attributeProcessor instanceof PassThroughAttributeProcessor) {
+                    expressionExecutors.add(((PassThroughAttributeProcessor) attributeProcessor).getExpressionExecutor());
+                }
+            }
+            if (expressionExecutors.size() == outputSize) {
+                compiledSelector = executorCompiler.compile(expressionExecutors);
+            }
+        }
+
         distributedProcessing = siddhiContext.isDistributedProcessingEnabled();
 
         this.outputRateManager = outputRateManager;
 
     }
 
+    /**
+     * The group-by aggregators of the query keep their states in the slots of a shared GroupByStateMap
+     */
+    private void shareGroupByStates() {
+        int width = 0;
+        for (AttributeProcessor attributeProcessor : aggregateAttributeProcessorList) {
+            if (attributeProcessor instanceof GroupByAttributeAggregatorProcessor) {
+                width++;
+            }
+        }
+        if (width > 0) {
+            GroupByStateMap groupByStateMap = new GroupByStateMap(width, groupByKeyGenerator.getKeyType());
+            int slot = 0;
+            for (AttributeProcessor attributeProcessor : aggregateAttributeProcessorList) {
+                if (attributeProcessor instanceof GroupByAttributeAggregatorProcessor) {
+                    ((GroupByAttributeAggregatorProcessor) attributeProcessor).setGroupByStateMap(groupByStateMap, slot++);
+                }
+            }
+        }
+    }
+
     private ConditionExecutor generateHavingExecutor(Condition condition,
                                                      StreamDefinition outputStreamDefinition,
                                                      ConcurrentMap<String, EventTable> eventTableMap, SiddhiContext siddhiContext) {
@@ -195,7 +240,7 @@ public class QuerySelector implements QueryPostProcessingElement {
     public void process(AtomicEvent atomicEvent) {
         LogHelper.logMethod(log, atomicEvent);
         try {
-            String groupByKey = null;
+            Object groupByKey = null;
             if (groupBy) {
                 groupByKey = groupByKeyGenerator.constructEventKey(atomicEvent);
             }
@@ -206,11 +251,7 @@ public class QuerySelector implements QueryPostProcessingElement {
                 return;
             }
 
-            Object[] data = new Object[outputSize];
-            for (int i = 0; i < outputSize; i++) {
-                AttributeProcessor attributeProcessor = attributeProcessorList.get(i);
-                data[i] = processOutputAttributeGenerator(atomicEvent, groupByKey, attributeProcessor);
-            }
+            Object[] data = select(atomicEvent, groupByKey);
 
             //   dataList.add(data);
 //            if (outputStreamJunction != null) {
@@ -218,21 +259,21 @@ public class QuerySelector implements QueryPostProcessingElement {
             if (havingConditionExecutor == null) {
                 if (atomicEvent instanceof InStream) {
                     event = new InEvent(outputStreamId, atomicEvent.getTimeStamp(), data);
-                    outputRateManager.send(event.getTimeStamp(), event, null, groupByKey);
+                    send(event.getTimeStamp(), event, null, groupByKey);
                 } else {
                     event = new InEvent(outputStreamId, ((RemoveStream) atomicEvent).getExpiryTime(), data);
-                    outputRateManager.send(event.getTimeStamp(), null, event, groupByKey);
+                    send(event.getTimeStamp(), null, event, groupByKey);
                 }
             } else {
                 if (atomicEvent instanceof InStream) {
                     event = new InEvent(outputStreamId, atomicEvent.getTimeStamp(), data);
                     if (havingConditionExecutor.execute((AtomicEvent) event)) {
-                        outputRateManager.send(event.getTimeStamp(), event, null, groupByKey);
+                        send(event.getTimeStamp(), event, null, groupByKey);
                     }
                 } else {
                     event = new InEvent(outputStreamId, ((RemoveStream) atomicEvent).getExpiryTime(), data);
                     if (havingConditionExecutor.execute((AtomicEvent) event)) {
-                        outputRateManager.send(event.getTimeStamp(), null, event, groupByKey);
+                        send(event.getTimeStamp(), null, event, groupByKey);
                     }
                 }
             }
@@ -251,7 +292,7 @@ public class QuerySelector implements QueryPostProcessingElement {
                 attributeProcessor.lock();
             }
         }
-        String groupByKey = null;
+        Object groupByKey = null;
         try {
             if ((!(bundleEvent instanceof InStream) || !currentOn) && (!(bundleEvent instanceof RemoveStream) || !expiredOn)) {
                 for (int i = 0, eventsLength = bundleEvent.getActiveEvents(); i < eventsLength; i++) {
@@ -277,26 +318,16 @@ public class QuerySelector implements QueryPostProcessingElement {
                     List<Object[]> groupedEventData = new ArrayList<Object[]>();
                     for (int j = 0, eventsLength = bundleEvent.getActiveEvents(); j < eventsLength; j++) {
                         AtomicEvent event = bundleEvent.getEvent(j);
-                        Object[] data = new Object[outputSize];
-                        for (int i = 0; i < outputSize; i++) {
-                            AttributeProcessor attributeProcessor = attributeProcessorList.get(i);
-                            data[i] = processOutputAttributeGenerator(event, null, attributeProcessor);
-                        }
-                        groupedEventData.add(data);
+                        groupedEventData.add(select(event, null));
                     }
                     sendEvents(bundleEvent, groupedEventData, groupByKey);
                 }
             } else {
-                LinkedHashMap<String, Object[]> groupedEvents = new LinkedHashMap<String, Object[]>();
+                LinkedHashMap<Object, Object[]> groupedEvents = new LinkedHashMap<Object, Object[]>();
                 for (int j = 0, eventsLength = bundleEvent.getActiveEvents(); j < eventsLength; j++) {
                     AtomicEvent event = bundleEvent.getEvent(j);
                     groupByKey = groupByKeyGenerator.constructEventKey(event);
-                    Object[] data = new Object[outputSize];
-                    for (int i = 0; i < outputSize; i++) {
-                        AttributeProcessor attributeProcessor = attributeProcessorList.get(i);
-                        data[i] = processOutputAttributeGenerator(event, groupByKey, attributeProcessor);
-                    }
-                    groupedEvents.put(groupByKey, data);
+                    groupedEvents.put(groupByKey, select(event, groupByKey));
                 }
                 sendEvents(bundleEvent, groupedEvents.values(), groupByKey);
 
@@ -313,7 +344,7 @@ public class QuerySelector implements QueryPostProcessingElement {
     }
 
     private void sendEvents(ComplexEvent referenceEvent,
-                            Collection<Object[]> groupedEventData, String groupByKey) {
+                            Collection<Object[]> groupedEventData, Object groupByKey) {
         if (outputRateManager.hasCallBack()) {
             long timeStamp;
             if (referenceEvent instanceof InStream) {
@@ -336,15 +367,43 @@ public class QuerySelector implements QueryPostProcessingElement {
             }
             if (outputListEvent.getActiveEvents() > 0) {
                 if (referenceEvent instanceof InStream) {
-                    outputRateManager.send(outputListEvent.getTimeStamp(), outputListEvent, null, groupByKey);
+                    send(outputListEvent.getTimeStamp(), outputListEvent, null, groupByKey);
                 } else {
-                    outputRateManager.send(outputListEvent.getTimeStamp(), null, outputListEvent, groupByKey);
+                    send(outputListEvent.getTimeStamp(), null, outputListEvent, groupByKey);
                 }
             }
         }
     }
 
-    private Object processOutputAttributeGenerator(AtomicEvent atomicEvent, String groupByKey,
+    private void send(long timeStamp, StreamEvent currentEvent, StreamEvent expiredEvent, Object groupByKey) {
+        if (outputLock == null) {
+            outputRateManager.send(timeStamp, currentEvent, expiredEvent, groupByKey);
+        } else {
+            synchronized (outputLock) {
+                outputRateManager.send(timeStamp, currentEvent, expiredEvent, groupByKey);
+            }
+        }
+    }
+
+    /**
+     * @param outputLock lock held while sending the output, shared by the selectors of a query processed on several threads
+     */
+    public void setOutputLock(Object outputLock) {
+        this.outputLock = outputLock;
+    }
+
+    private Object[] select(AtomicEvent atomicEvent, Object groupByKey) {
+        if (compiledSelector != null) {
+            return compiledSelector.select(atomicEvent);
+        }
+        Object[] data = new Object[outputSize];
+        for (int i = 0; i < outputSize; i++) {
+            data[i] = processOutputAttributeGenerator(atomicEvent, groupByKey, attributeProcessorList.get(i));
+        }
+        return data;
+    }
+
+    private Object processOutputAttributeGenerator(AtomicEvent atomicEvent, Object groupByKey,
                                                    AttributeProcessor attributeProcessor) {
         if (attributeProcessor instanceof NonGroupingAttributeProcessor) {
             return ((NonGroupingAttributeProcessor) attributeProcessor).process(atomicEvent);
@@ -21,12 +21,17 @@ import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggr
 import org.wso2.siddhi.core.util.parser.OutputAttributeHandlerParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class MaxOutputAttributeAggregatorFactory implements OutputAttributeAggregatorFactory {
+public class MaxOutputAttributeAggregatorFactory implements ExpiryAwareOutputAttributeAggregatorFactory {
 
 
     @Override
     public OutputAttributeAggregator createAttributeAggregator(Attribute.Type[] types) {
-        return OutputAttributeHandlerParser.createMaxAggregator(types);
+        return OutputAttributeHandlerParser.createMaxAggregator(types, false);
+    }
+
+    @Override
+    public OutputAttributeAggregator createAttributeAggregator(Attribute.Type[] types, boolean fifoExpiry) {
+        return OutputAttributeHandlerParser.createMaxAggregator(types, fifoExpiry);
     }
 
 }
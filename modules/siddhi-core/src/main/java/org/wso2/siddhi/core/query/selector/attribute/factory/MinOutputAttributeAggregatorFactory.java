@@ -21,12 +21,17 @@ import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggr
 import org.wso2.siddhi.core.util.parser.OutputAttributeHandlerParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class MinOutputAttributeAggregatorFactory implements OutputAttributeAggregatorFactory {
+public class MinOutputAttributeAggregatorFactory implements ExpiryAwareOutputAttributeAggregatorFactory {
 
 
     @Override
     public OutputAttributeAggregator createAttributeAggregator(Attribute.Type[] types) {
-        return OutputAttributeHandlerParser.createMinAggregator(types);
+        return OutputAttributeHandlerParser.createMinAggregator(types, false);
+    }
+
+    @Override
+    public OutputAttributeAggregator createAttributeAggregator(Attribute.Type[] types, boolean fifoExpiry) {
+        return OutputAttributeHandlerParser.createMinAggregator(types, fifoExpiry);
     }
 
 }
@@ -0,0 +1,72 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.siddhi.core.query.selector.attribute.handler;
+
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.TreeMap;
+
+/**
+ * Keeps the values of the window in a tree with their occurrence counts, so values can be removed
+ * in any order in O(log n).
+ */
+public abstract class CountedTreeOutputAttributeAggregator implements OutputAttributeAggregator {
+
+    protected final Attribute.Type type;
+    protected TreeMap<Object, int[]> counts = new TreeMap<Object, int[]>();
+
+    protected CountedTreeOutputAttributeAggregator(Attribute.Type type) {
+        this.type = type;
+    }
+
+    public Attribute.Type getReturnType() {
+        return type;
+    }
+
+    @Override
+    public Object processAdd(Object obj) {
+        if (obj != null) {
+            int[] count = counts.get(obj);
+            if (count == null) {
+                counts.put(obj, new int[]{1});
+            } else {
+                count[0]++;
+            }
+        }
+        return currentValue();
+    }
+
+    @Override
+    public Object processRemove(Object obj) {
+        if (obj != null) {
+            int[] count = counts.get(obj);
+            if (count != null && --count[0] == 0) {
+                counts.remove(obj);
+            }
+        }
+        return currentValue();
+    }
+
+    protected abstract Object currentValue();
+
+    @Override
+    public void destroy() {
+
+    }
+}
@@ -18,46 +18,43 @@
 package org.wso2.siddhi.core.query.selector.attribute.handler.max;
 
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
+import org.wso2.siddhi.core.util.collection.deque.DoubleMonotonicDeque;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
-
+/**
+ * Max for windows expiring events in the order they arrived, non FIFO windows use
+ * MaxOutputAttributeAggregatorCountedTree.
+ */
 public class MaxOutputAttributeAggregatorDouble implements OutputAttributeAggregator {
 
-    private Deque<Double> maxDeque = new LinkedList<Double>();
-    private volatile Double maxValue = null;
-    private static final Attribute.Type type = Attribute.Type.DOUBLE;
+    private DoubleMonotonicDeque maxDeque = new DoubleMonotonicDeque(true);
+    private final static Attribute.Type type = Attribute.Type.DOUBLE;
 
     public Attribute.Type getReturnType() {
         return type;
     }
 
     @Override
-    public synchronized Object processAdd(Object obj) {
-        Double value = ((Double) obj);
-        for (Iterator<Double> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-            if (iterator.next() < value) {
-                iterator.remove();
-            } else {
-                break;
-            }
-        }
-        maxDeque.addLast(value);
-         if(maxValue==null)
-            maxValue = value;
-        else if (maxValue < value) {
-            maxValue = value;
+    public Object processAdd(Object obj) {
+        if (obj != null) {
+            maxDeque.add((Double) obj);
         }
-        return maxValue;
+        return currentMax();
     }
 
     @Override
-    public synchronized Object processRemove(Object obj) {
-        maxDeque.removeFirstOccurrence(obj);
-        maxValue = maxDeque.peekFirst();
-        return maxValue;
+    public Object processRemove(Object obj) {
+        if (obj != null) {
+            maxDeque.removeOldest();
+        }
+        return currentMax();
+    }
+
+    private Double currentMax() {
+        if (maxDeque.isEmpty()) {
+            return null;
+        }
+        return maxDeque.peek();
     }
 
     @Override
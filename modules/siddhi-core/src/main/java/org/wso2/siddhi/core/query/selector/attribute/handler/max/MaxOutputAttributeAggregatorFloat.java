@@ -18,16 +18,16 @@
 package org.wso2.siddhi.core.query.selector.attribute.handler.max;
 
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
+import org.wso2.siddhi.core.util.collection.deque.DoubleMonotonicDeque;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
-
+/**
+ * Max for windows expiring events in the order they arrived, non FIFO windows use
+ * MaxOutputAttributeAggregatorCountedTree.
+ */
 public class MaxOutputAttributeAggregatorFloat implements OutputAttributeAggregator {
 
-    private Deque<Float> maxDeque = new LinkedList<Float>();
-    private volatile Float maxValue = null;
+    private DoubleMonotonicDeque maxDeque = new DoubleMonotonicDeque(true);
     private final static Attribute.Type type = Attribute.Type.FLOAT;
 
     public Attribute.Type getReturnType() {
@@ -35,30 +35,26 @@ public class MaxOutputAttributeAggregatorFloat implements OutputAttributeAggrega
     }
 
     @Override
-    public synchronized Object processAdd(Object obj) {
-        Float value = ((Float) obj);
-        for (Iterator<Float> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-
-            if (iterator.next() < value) {
-                iterator.remove();
-            } else {
-                break;
-            }
+    public Object processAdd(Object obj) {
+        if (obj != null) {
+            maxDeque.add((Float) obj);
         }
-        maxDeque.addLast(value);
-        if(maxValue==null)
-            maxValue = value;
-        else if (maxValue < value) {
-            maxValue = value;
-        }
-        return maxValue;
+        return currentMax();
     }
 
     @Override
-    public synchronized Object processRemove(Object obj) {
-        maxDeque.removeFirstOccurrence(obj);
-        maxValue = maxDeque.peekFirst();
-        return maxValue;
+    public Object processRemove(Object obj) {
+        if (obj != null) {
+            maxDeque.removeOldest();
+        }
+        return currentMax();
+    }
+
+    private Float currentMax() {
+        if (maxDeque.isEmpty()) {
+            return null;
+        }
+        return (float) maxDeque.peek();
     }
 
     @Override
@@ -18,16 +18,16 @@
 package org.wso2.siddhi.core.query.selector.attribute.handler.max;
 
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
+import org.wso2.siddhi.core.util.collection.deque.LongMonotonicDeque;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
-
+/**
+ * Max for windows expiring events in the order they arrived, non FIFO windows use
+ * MaxOutputAttributeAggregatorCountedTree.
+ */
 public class MaxOutputAttributeAggregatorInt implements OutputAttributeAggregator {
 
-    private Deque<Integer> maxDeque = new LinkedList<Integer>();
-    private volatile Integer maxValue = null;
+    private LongMonotonicDeque maxDeque = new LongMonotonicDeque(true);
     private final static Attribute.Type type = Attribute.Type.INT;
 
     public Attribute.Type getReturnType() {
@@ -35,29 +35,26 @@ public class MaxOutputAttributeAggregatorInt implements OutputAttributeAggregato
     }
 
     @Override
-    public synchronized Object processAdd(Object obj) {
-        Integer value = ((Integer) obj);
-        for (Iterator<Integer> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-            if (iterator.next() < value) {
-                iterator.remove();
-            } else {
-                break;
-            }
-        }
-        maxDeque.addLast(value);
-        if(maxValue==null)
-            maxValue = value;
-        else if (maxValue < value) {
-            maxValue = value;
+    public Object processAdd(Object obj) {
+        if (obj != null) {
+            maxDeque.add((Integer) obj);
         }
-        return maxValue;
+        return currentMax();
     }
 
     @Override
-    public synchronized Object processRemove(Object obj) {
-        maxDeque.removeFirstOccurrence(obj);
-        maxValue = maxDeque.peekFirst();
-        return maxValue;
+    public Object processRemove(Object obj) {
+        if (obj != null) {
+            maxDeque.removeOldest();
+        }
+        return currentMax();
+    }
+
+    private Integer currentMax() {
+        if (maxDeque.isEmpty()) {
+            return null;
+        }
+        return (int) maxDeque.peek();
     }
 
     @Override
@@ -18,16 +18,16 @@
 package org.wso2.siddhi.core.query.selector.attribute.handler.max;
 
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
+import org.wso2.siddhi.core.util.collection.deque.LongMonotonicDeque;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
-
+/**
+ * Max for windows expiring events in the order they arrived, non FIFO windows use
+ * MaxOutputAttributeAggregatorCountedTree.
+ */
 public class MaxOutputAttributeAggregatorLong implements OutputAttributeAggregator {
 
-    private Deque<Long> maxDeque = new LinkedList<Long>();
-    private volatile Long maxValue = null;
+    private LongMonotonicDeque maxDeque = new LongMonotonicDeque(true);
     private final static Attribute.Type type = Attribute.Type.LONG;
 
     public Attribute.Type getReturnType() {
@@ -35,29 +35,26 @@ public class MaxOutputAttributeAggregatorLong implements OutputAttributeAggregat
     }
 
     @Override
-    public synchronized Object processAdd(Object obj) {
-        Long value = ((Long) obj);
-        for (Iterator<Long> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-            if (iterator.next() < value) {
-                iterator.remove();
-            } else {
-                break;
-            }
-        }
-        maxDeque.addLast(value);
-         if(maxValue==null)
-            maxValue = value;
-        else if (maxValue < value) {
-            maxValue = value;
+    public Object processAdd(Object obj) {
+        if (obj != null) {
+            maxDeque.add((Long) obj);
         }
-        return maxValue;
+        return currentMax();
     }
 
     @Override
-    public synchronized Object processRemove(Object obj) {
-        maxDeque.removeFirstOccurrence(obj);
-        maxValue = maxDeque.peekFirst();
-        return maxValue;
+    public Object processRemove(Object obj) {
+        if (obj != null) {
+            maxDeque.removeOldest();
+        }
+        return currentMax();
+    }
+
+    private Long currentMax() {
+        if (maxDeque.isEmpty()) {
+            return null;
+        }
+        return maxDeque.peek();
     }
 
     @Override
@@ -18,45 +18,43 @@
 package org.wso2.siddhi.core.query.selector.attribute.handler.min;
 
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
+import org.wso2.siddhi.core.util.collection.deque.DoubleMonotonicDeque;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
-
+/**
+ * Min for windows expiring events in the order they arrived, non FIFO windows use
+ * MinOutputAttributeAggregatorCountedTree.
+ */
 public class MinOutputAttributeAggregatorFloat implements OutputAttributeAggregator {
 
-    private Deque<Float> minDeque = new LinkedList<Float>();
-    private volatile Float minValue = null;
-    private  static final Attribute.Type type = Attribute.Type.FLOAT;
+    private DoubleMonotonicDeque minDeque = new DoubleMonotonicDeque(false);
+    private final static Attribute.Type type = Attribute.Type.FLOAT;
 
     public Attribute.Type getReturnType() {
         return type;
     }
 
     @Override
-    public synchronized Object processAdd(Object obj) {
-        Float value = ((Float) obj);
-        for (Iterator<Float> iterator = minDeque.descendingIterator(); iterator.hasNext(); ) {
-
-            if (iterator.next() > value) {
-                iterator.remove();
-            }
+    public Object processAdd(Object obj) {
+        if (obj != null) {
+            minDeque.add((Float) obj);
         }
-        minDeque.addLast(value);
-        if(minValue==null)
-            minValue = value;
-        else if (minValue > value) {
-            minValue = value;
-        }
-        return minValue;
+        return currentMin();
     }
 
     @Override
-    public synchronized Object processRemove(Object obj) {
-        minDeque.removeFirstOccurrence(obj);
-        minValue = minDeque.peekFirst();
-        return minValue;
+    public Object processRemove(Object obj) {
+        if (obj != null) {
+            minDeque.removeOldest();
+        }
+        return currentMin();
+    }
+
+    private Float currentMin() {
+        if (minDeque.isEmpty()) {
+            return null;
+        }
+        return (float) minDeque.peek();
     }
 
     @Override
@@ -24,9 +24,11 @@ import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
 import org.wso2.siddhi.core.snapshot.SnapshotObject;
 import org.wso2.siddhi.core.persistence.PersistenceStore;
 import org.wso2.siddhi.core.snapshot.Snapshotable;
+import org.wso2.siddhi.core.query.selector.attribute.factory.ExpiryAwareOutputAttributeAggregatorFactory;
 import org.wso2.siddhi.core.query.selector.attribute.factory.OutputAttributeAggregatorFactory;
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
 import org.wso2.siddhi.core.util.parser.ExecutorParser;
+import org.wso2.siddhi.core.util.parser.OutputAttributeHandlerParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
@@ -58,7 +60,11 @@ public abstract class AbstractAggregationAttributeProcessor implements Attribute
         for (int i = 0; i < expressionExecutors.size(); i++) {
             attributeTypes[i] = expressionExecutors.get(i).getReturnType();
         }
-        this.sampleOutputAttributeAggregator = outputAttributeAggregatorFactory.createAttributeAggregator(attributeTypes);
+        if (outputAttributeAggregatorFactory instanceof ExpiryAwareOutputAttributeAggregatorFactory) {
+            this.sampleOutputAttributeAggregator = ((ExpiryAwareOutputAttributeAggregatorFactory) outputAttributeAggregatorFactory).createAttributeAggregator(attributeTypes, OutputAttributeHandlerParser.isFifoExpiry(queryEventSourceList));
+        } else {
+            this.sampleOutputAttributeAggregator = outputAttributeAggregatorFactory.createAttributeAggregator(attributeTypes);
+        }
         siddhiContext.addEternalReferencedHolder(sampleOutputAttributeAggregator);
         size = expressionExecutors.size();
     }
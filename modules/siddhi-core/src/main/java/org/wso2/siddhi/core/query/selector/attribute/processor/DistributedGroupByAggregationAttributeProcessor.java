@@ -35,10 +35,10 @@ public class DistributedGroupByAggregationAttributeProcessor extends AbstractAgg
 
     static final Logger log = Logger.getLogger(DistributedGroupByAggregationAttributeProcessor.class);
 
-    private IMap<String, OutputAttributeAggregator> distributedAggregatorMap;
+    private IMap<Object, OutputAttributeAggregator> distributedAggregatorMap;
     private volatile boolean lockedAcquired = false;
     private volatile Lock lock;
-    private volatile Map<String, OutputAttributeAggregator> tempAggregatorMap = new HashMap<String, OutputAttributeAggregator>();
+    private volatile Map<Object, OutputAttributeAggregator> tempAggregatorMap = new HashMap<Object, OutputAttributeAggregator>();
 
     public DistributedGroupByAggregationAttributeProcessor(Expression[] expressions, List<QueryEventSource> queryEventSourceList, OutputAttributeAggregatorFactory outputAttributeAggregatorFactory, String elementId, SiddhiContext siddhiContext) {
         super(expressions, queryEventSourceList, outputAttributeAggregatorFactory, elementId, siddhiContext);
@@ -46,7 +46,7 @@ public class DistributedGroupByAggregationAttributeProcessor extends AbstractAgg
         distributedAggregatorMap = siddhiContext.getHazelcastInstance().getMap(elementId + "-GroupByMap");
     }
 
-    public synchronized Object process(AtomicEvent event, String key) {
+    public synchronized Object process(AtomicEvent event, Object key) {
 
         OutputAttributeAggregator currentOutputAttributeAggregator = null;
         if (!lockedAcquired) {
@@ -87,8 +87,8 @@ public class DistributedGroupByAggregationAttributeProcessor extends AbstractAgg
 
 
     public Object[] currentState() {
-        Map<String, OutputAttributeAggregator> tempMap = new HashMap<String, OutputAttributeAggregator>();
-        for (Map.Entry<String, OutputAttributeAggregator> entry : distributedAggregatorMap.entrySet()) {
+        Map<Object, OutputAttributeAggregator> tempMap = new HashMap<Object, OutputAttributeAggregator>();
+        for (Map.Entry<Object, OutputAttributeAggregator> entry : distributedAggregatorMap.entrySet()) {
             tempMap.put(entry.getKey(), entry.getValue());
         }
         //todo may be we throw an error saying we don't support for distributed cases
@@ -96,7 +96,7 @@ public class DistributedGroupByAggregationAttributeProcessor extends AbstractAgg
     }
 
     public void restoreState(Object[] objects) {
-        distributedAggregatorMap.putAll((Map<String, OutputAttributeAggregator>) objects[0]);
+        distributedAggregatorMap.putAll((Map<Object, OutputAttributeAggregator>) objects[0]);
     }
 
     @Override
@@ -114,7 +114,7 @@ public class DistributedGroupByAggregationAttributeProcessor extends AbstractAgg
     @Override
     public synchronized void unlock() {
         if (lockedAcquired) {
-            for (Map.Entry<String, OutputAttributeAggregator> entry : tempAggregatorMap.entrySet()) {
+            for (Map.Entry<Object, OutputAttributeAggregator> entry : tempAggregatorMap.entrySet()) {
                 distributedAggregatorMap.putAsync(entry.getKey(), entry.getValue());
             }
             tempAggregatorMap.clear();
@@ -19,39 +19,55 @@ package org.wso2.siddhi.core.query.selector.attribute.processor;
 
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.query.selector.GroupByStateMap;
 import org.wso2.siddhi.core.query.selector.attribute.factory.OutputAttributeAggregatorFactory;
 import org.wso2.siddhi.core.query.selector.attribute.handler.OutputAttributeAggregator;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Aggregates per group, keeping the aggregator of each group in its slot of the GroupByStateMap
+ * shared by the group-by aggregators of the query.
+ */
 public class GroupByAttributeAggregatorProcessor extends AbstractAggregationAttributeProcessor implements GroupByAttributeProcessor {
 
-    protected Map<String, OutputAttributeAggregator> aggregatorMap = new HashMap<String, OutputAttributeAggregator>();
+    private GroupByStateMap groupByStateMap;
+    private int slot;
 
     public GroupByAttributeAggregatorProcessor(Expression[] expressions, List<QueryEventSource> queryEventSourceList, OutputAttributeAggregatorFactory outputAttributeAggregatorFactory, String elementId, SiddhiContext siddhiContext) {
         super(expressions, queryEventSourceList, outputAttributeAggregatorFactory, elementId, siddhiContext);
+        this.groupByStateMap = new GroupByStateMap(1, null);
+        this.slot = 0;
     }
 
-    public synchronized Object process(AtomicEvent event, String key) {
-        OutputAttributeAggregator currentOutputAttributeAggregator = aggregatorMap.get(key);
+    /**
+     * Shares the group-by states of the query, the aggregators of this processor are kept in the given slot
+     */
+    public void setGroupByStateMap(GroupByStateMap groupByStateMap, int slot) {
+        this.groupByStateMap = groupByStateMap;
+        this.slot = slot;
+    }
+
+    public synchronized Object process(AtomicEvent event, Object key) {
+        Object[] groupStates = groupByStateMap.getRow(key);
+        OutputAttributeAggregator currentOutputAttributeAggregator = (OutputAttributeAggregator) groupStates[slot];
         if (currentOutputAttributeAggregator == null) {
             currentOutputAttributeAggregator = sampleOutputAttributeAggregator.newInstance();
             siddhiContext.addEternalReferencedHolder(currentOutputAttributeAggregator);
-            aggregatorMap.put(key, currentOutputAttributeAggregator);
+            groupStates[slot] = currentOutputAttributeAggregator;
         }
         return process(event, currentOutputAttributeAggregator);
     }
 
     public synchronized Object[] currentState() {
-        return new Object[]{aggregatorMap};
+        return new Object[]{groupByStateMap.getSlot(slot)};
     }
 
     public synchronized void restoreState(Object[] objects) {
-        this.aggregatorMap = (Map<String, OutputAttributeAggregator>) objects[0];
+        groupByStateMap.restoreSlot(slot, (Map<Object, Object>) objects[0]);
     }
 
     @Override
@@ -21,6 +21,6 @@ import org.wso2.siddhi.core.event.AtomicEvent;
 
 public interface GroupByAttributeProcessor extends AttributeProcessor {
 
-    public Object process(AtomicEvent event, String key);
+    public Object process(AtomicEvent event, Object key);
 
 }
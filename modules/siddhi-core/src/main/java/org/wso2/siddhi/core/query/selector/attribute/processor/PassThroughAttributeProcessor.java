@@ -36,6 +36,10 @@ public class PassThroughAttributeProcessor implements NonGroupingAttributeProces
         return expressionExecutor.execute(event);
     }
 
+    public ExpressionExecutor getExpressionExecutor() {
+        return expressionExecutor;
+    }
+
     @Override
     public void lock() {
     	
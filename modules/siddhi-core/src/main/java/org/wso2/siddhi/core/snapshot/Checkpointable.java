@@ -0,0 +1,32 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot;
+
+/**
+ * Element keeping state outside the snapshots, such as writes buffered for an external store, that has to
+ * be written out whenever a snapshot is taken
+ */
+public interface Checkpointable {
+
+    /**
+     * Called before the snapshot is taken, while the ThreadBarrier is closed. The snapshot fails with the
+     * RuntimeException thrown when the state cannot be written out.
+     */
+    public void checkpoint();
+
+}
@@ -0,0 +1,55 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Snapshot persisted as a revision, holding the serialized states of the Snapshotables and the
+ * increments of the IncrementalSnapshotables since its base revision. A snapshot without a base
+ * revision is full and starts a new chain of revisions.
+ */
+public class IncrementalSnapshot implements Serializable {
+
+    private final String baseRevision;
+    private final Map<String, byte[]> states;
+    private final Map<String, SnapshotObject> increments;
+
+    public IncrementalSnapshot(String baseRevision, Map<String, byte[]> states, Map<String, SnapshotObject> increments) {
+        this.baseRevision = baseRevision;
+        this.states = states;
+        this.increments = increments;
+    }
+
+    public String getBaseRevision() {
+        return baseRevision;
+    }
+
+    public boolean isFull() {
+        return baseRevision == null;
+    }
+
+    public Map<String, byte[]> getStates() {
+        return states;
+    }
+
+    public Map<String, SnapshotObject> getIncrements() {
+        return increments;
+    }
+}
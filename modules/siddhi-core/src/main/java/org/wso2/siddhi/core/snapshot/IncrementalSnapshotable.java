@@ -0,0 +1,41 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot;
+
+/**
+ * Snapshotable able to report only its changes since the last snapshot, letting the persisted
+ * revisions carry deltas instead of the whole state.
+ */
+public interface IncrementalSnapshotable extends Snapshotable {
+
+    /**
+     * Changes since the last increment, or the whole state as changes over an empty element when full
+     * or when no increment was taken before.
+     * <p/>
+     * Called while the thread barrier is closed, after the ring buffers and partition workers are drained,
+     * so no other thread processing events is in flight and the state is read without taking its lock.
+     * Taking it could deadlock, as a thread waiting for a ring buffer slot or a partition worker queue slot
+     * is out of flight while it may still hold the lock, and goes on only once the barrier is opened.
+     * When the snapshot is taken by a thread processing an event, that thread is the only one in flight.
+     *
+     * @return null if increments are not supported, in which case snapshot() is used
+     */
+    public SnapshotObject snapshotIncrement(boolean full);
+
+    public void restoreIncrement(SnapshotObject increment);
+}
@@ -0,0 +1,101 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot;
+
+import org.wso2.siddhi.core.util.collection.queue.ISiddhiQueue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Tracks the elements put to and polled from a FIFO window queue since its last increment.
+ * Tracking only starts with the first increment. Polls first remove the elements the queue held at
+ * the last increment, which are recorded as a count, and then the elements added since, which are
+ * taken off the front of the added elements.
+ */
+public class QueueIncrementTracker<T> {
+
+    private boolean tracking = false;
+    private LinkedList<T> addedElements = new LinkedList<T>();
+    private int removedElements = 0;
+    private int baseSize = 0;
+
+    public void add(T element) {
+        if (tracking) {
+            addedElements.add(element);
+        }
+    }
+
+    public void remove(int count) {
+        if (tracking) {
+            for (int i = 0; i < count; i++) {
+                if (removedElements < baseSize) {
+                    removedElements++;
+                } else if (!addedElements.isEmpty()) {
+                    addedElements.removeFirst();
+                } else {
+                    // more polled than tracked, the next increment copies the whole queue
+                    reset();
+                    return;
+                }
+            }
+        }
+    }
+
+    public SnapshotObject increment(boolean full, ISiddhiQueue<T> queue) {
+        SnapshotObject increment;
+        if (full || !tracking) {
+            List<T> elements = new ArrayList<T>();
+            for (Iterator<T> iterator = queue.iterator(); iterator.hasNext(); ) {
+                elements.add(iterator.next());
+            }
+            baseSize = elements.size();
+            increment = new SnapshotObject(true, 0, elements);
+        } else {
+            baseSize = baseSize - removedElements + addedElements.size();
+            increment = new SnapshotObject(false, removedElements, new ArrayList<T>(addedElements));
+        }
+        addedElements = new LinkedList<T>();
+        removedElements = 0;
+        tracking = true;
+        return increment;
+    }
+
+    public void reset() {
+        tracking = false;
+        addedElements = new LinkedList<T>();
+        removedElements = 0;
+    }
+
+    public static <T> void restore(SnapshotObject increment, ISiddhiQueue<T> queue) {
+        Object[] data = increment.getData();
+        if ((Boolean) data[0]) {
+            while (queue.poll() != null) {
+            }
+        } else {
+            for (int i = 0, removedElements = (Integer) data[1]; i < removedElements; i++) {
+                queue.poll();
+            }
+        }
+        for (T element : (List<T>) data[2]) {
+            queue.put(element);
+        }
+    }
+}
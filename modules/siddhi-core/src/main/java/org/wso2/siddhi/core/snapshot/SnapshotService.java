@@ -19,37 +19,128 @@ package org.wso2.siddhi.core.snapshot;
 
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
-import org.wso2.siddhi.core.util.ByteSerializer;
+import org.wso2.siddhi.core.partition.PartitionInstance;
+import org.wso2.siddhi.core.partition.PartitionWorkerPool;
+import org.wso2.siddhi.core.snapshot.codec.SnapshotCodec;
+import org.wso2.siddhi.core.util.collection.ringbuffer.RingBuffer;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SnapshotService {
 
     static final Logger log = Logger.getLogger(SnapshotService.class);
-    private List<Snapshotable> snapshotableList = new ArrayList<Snapshotable>();
+    private final Set<Snapshotable> snapshotables = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Snapshotable, Boolean>()));
+    private final List<Checkpointable> checkpointables = new CopyOnWriteArrayList<Checkpointable>();
+    private final List<RingBuffer<?>> ringBuffers = new CopyOnWriteArrayList<RingBuffer<?>>();
     private SiddhiContext siddhiContext;
+    private final SnapshotCodec codec;
 
     public SnapshotService(
             SiddhiContext siddhiContext) {
         this.siddhiContext = siddhiContext;
+        this.codec = new SnapshotCodec(siddhiContext.isSnapshotCompression());
     }
 
+    public SnapshotCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Snapshotables of a partition instance being constructed are only recorded against the instance, the
+     * QueryPartitioner takes their states with its own
+     */
     public void addSnapshotable(Snapshotable snapshotable) {
-        snapshotableList.add(snapshotable);
+        PartitionInstance partitionInstance = siddhiContext.getConstructingPartition();
+        if (partitionInstance != null) {
+            partitionInstance.addSnapshotable(snapshotable);
+        } else {
+            snapshotables.add(snapshotable);
+        }
+    }
+
+    public void addCheckpointable(Checkpointable checkpointable) {
+        checkpointables.add(checkpointable);
+    }
+
+    public void removeCheckpointable(Checkpointable checkpointable) {
+        checkpointables.remove(checkpointable);
+    }
+
+    public void addRingBuffer(RingBuffer<?> ringBuffer) {
+        ringBuffers.add(ringBuffer);
+    }
+
+    public void removeRingBuffer(RingBuffer<?> ringBuffer) {
+        ringBuffers.remove(ringBuffer);
+    }
+
+    /**
+     * Closes the ThreadBarrier once the consumers have read all the events published to the ring buffers and
+     * the partition workers have run all the queued tasks, so that no event is left between the streams when
+     * the snapshot is taken. The consumers and workers are held back by the barrier as well, hence it is opened
+     * and drained again when events were given to them in between. Producers waiting for a free slot are out
+     * of flight, so close() does not wait on them.
+     */
+    private void closeDrained() {
+        ThreadBarrier threadBarrier = siddhiContext.getThreadBarrier();
+        PartitionWorkerPool partitionWorkerPool = siddhiContext.getPartitionWorkerPool();
+        if ((ringBuffers.isEmpty() && partitionWorkerPool == null) || threadBarrier.isInFlight()) {
+            // a thread taking the snapshot while processing an event could be waiting on its own consumer or worker
+            threadBarrier.close();
+            return;
+        }
+        while (true) {
+            for (RingBuffer<?> ringBuffer : ringBuffers) {
+                if (!ringBuffer.awaitConsumed(ringBuffer.getCursor().get())) {
+                    threadBarrier.close();
+                    return;
+                }
+            }
+            if (partitionWorkerPool != null && !partitionWorkerPool.awaitDrained()) {
+                threadBarrier.close();
+                return;
+            }
+            threadBarrier.close();
+            if (isConsumed() && (partitionWorkerPool == null || partitionWorkerPool.isDrained())) {
+                return;
+            }
+            threadBarrier.open();
+        }
+    }
+
+    private boolean isConsumed() {
+        for (RingBuffer<?> ringBuffer : ringBuffers) {
+            if (!ringBuffer.isConsumed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkpoint() {
+        for (Checkpointable checkpointable : checkpointables) {
+            checkpointable.checkpoint();
+        }
     }
 
     public byte[] snapshot() {
-        HashMap<String, SnapshotObject> snapshots = new HashMap<String, SnapshotObject>(snapshotableList.size());
+        HashMap<String, SnapshotObject> snapshots = new HashMap<String, SnapshotObject>();
 
         if (log.isDebugEnabled()) {
             log.debug("Taking snapshot ...");
         }
         try {
-            siddhiContext.getThreadBarrier().close();
-            for (Snapshotable snapshotable : snapshotableList) {
-                snapshots.put(snapshotable.getElementId(), snapshotable.snapshot());
+            closeDrained();
+            checkpoint();
+            synchronized (snapshotables) {
+                for (Snapshotable snapshotable : snapshotables) {
+                    snapshots.put(snapshotable.getElementId(), snapshotable.snapshot());
+                }
             }
         } finally {
             siddhiContext.getThreadBarrier().open();
@@ -58,16 +149,87 @@ public class SnapshotService {
             log.debug("Taking snapshot finished.");
         }
 
-        return ByteSerializer.OToB(snapshots);
+        return codec.encode(snapshots);
+
+    }
+
+    /**
+     * Takes the increments of the IncrementalSnapshotables and serializes the states of the other
+     * Snapshotables while the ThreadBarrier is closed. The increments are only serialized with the
+     * returned snapshot, after the barrier is opened.
+     *
+     * @param baseRevision revision the increments are taken since, null for a full snapshot
+     */
+    public IncrementalSnapshot incrementalSnapshot(String baseRevision) {
+        boolean full = baseRevision == null;
+        HashMap<String, byte[]> states = new HashMap<String, byte[]>();
+        HashMap<String, SnapshotObject> increments = new HashMap<String, SnapshotObject>();
 
+        if (log.isDebugEnabled()) {
+            log.debug("Taking " + (full ? "full" : "incremental") + " snapshot ...");
+        }
+        try {
+            closeDrained();
+            checkpoint();
+            synchronized (snapshotables) {
+                for (Snapshotable snapshotable : snapshotables) {
+                    SnapshotObject increment = null;
+                    if (snapshotable instanceof IncrementalSnapshotable) {
+                        increment = ((IncrementalSnapshotable) snapshotable).snapshotIncrement(full);
+                    }
+                    if (increment != null) {
+                        increments.put(snapshotable.getElementId(), increment);
+                    } else {
+                        // compressed once with the whole snapshot
+                        states.put(snapshotable.getElementId(), codec.encode(snapshotable.snapshot(), false));
+                    }
+                }
+            }
+        } finally {
+            siddhiContext.getThreadBarrier().open();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Taking snapshot finished.");
+        }
+        return new IncrementalSnapshot(baseRevision, states, increments);
+    }
+
+    /**
+     * @param snapshots chain of snapshots starting from a full snapshot, states are restored from the
+     *                  last snapshot and the increments are applied in order
+     */
+    public void restore(List<IncrementalSnapshot> snapshots) {
+        IncrementalSnapshot lastSnapshot = snapshots.get(snapshots.size() - 1);
+        try {
+            this.siddhiContext.getThreadBarrier().close();
+            synchronized (snapshotables) {
+                for (Snapshotable snapshotable : snapshotables) {
+                    byte[] state = lastSnapshot.getStates().get(snapshotable.getElementId());
+                    if (state != null) {
+                        snapshotable.restore((SnapshotObject) codec.decode(state));
+                    } else if (snapshotable instanceof IncrementalSnapshotable) {
+                        for (IncrementalSnapshot snapshot : snapshots) {
+                            SnapshotObject increment = snapshot.getIncrements().get(snapshotable.getElementId());
+                            if (increment != null) {
+                                ((IncrementalSnapshotable) snapshotable).restoreIncrement(increment);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            siddhiContext.getThreadBarrier().open();
+        }
     }
 
     public void restore(byte[] snapshot) {
-        HashMap<String, SnapshotObject> snapshots = (HashMap<String, SnapshotObject>) ByteSerializer.BToO(snapshot);
+        HashMap<String, SnapshotObject> snapshots = (HashMap<String, SnapshotObject>) codec.decode(snapshot);
         try {
             this.siddhiContext.getThreadBarrier().close();
-            for (Snapshotable snapshotable : snapshotableList) {
-                snapshotable.restore(snapshots.get(snapshotable.getElementId()));
+            synchronized (snapshotables) {
+                for (Snapshotable snapshotable : snapshotables) {
+                    snapshotable.restore(snapshots.get(snapshotable.getElementId()));
+                }
             }
         } finally {
             siddhiContext.getThreadBarrier().open();
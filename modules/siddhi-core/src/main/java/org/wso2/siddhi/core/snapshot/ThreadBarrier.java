@@ -1,42 +1,191 @@
 package org.wso2.siddhi.core.snapshot;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
-
+/**
+ * Barrier holding back the event processing while snapshots are taken or restored.
+ * Every thread processing events, the senders as well as the ring buffer consumers, timers and async
+ * handlers, brackets them with enter() and exit(), marking them in flight on a counter of their own.
+ * Threads only waiting on the barrier call pass(). While open both are a volatile read without locking,
+ * close() waits till the events in flight are drained.
+ */
 public class ThreadBarrier {
-    private boolean open = true;
-    
+    private volatile boolean open = true;
+    private int closeCount = 0;
+
     private final ReentrantLock lock = new ReentrantLock();
-    private final Condition threadSwitchCondition  = lock.newCondition();
-    
+    private final Condition openCondition = lock.newCondition();
+    private final Condition drainedCondition = lock.newCondition();
+
+    private final List<InFlightCounter> counters = new CopyOnWriteArrayList<InFlightCounter>();
+    private final ThreadLocal<InFlightCounter> threadCounter = new ThreadLocal<InFlightCounter>() {
+        @Override
+        protected InFlightCounter initialValue() {
+            InFlightCounter counter = new InFlightCounter(Thread.currentThread());
+            counters.add(counter);
+            return counter;
+        }
+    };
+
     public void pass() {
-        lock.lock();
-        if(!open){
-//            threadSwitchCondition.awaitUninterruptibly();
-            try {
-                threadSwitchCondition.await();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        if (!open && threadCounter.get().depth == 0) {
+            awaitOpen();
+        }
+    }
+
+    /**
+     * Marks the current thread in flight, waiting while the barrier is closed. Calls can be nested.
+     */
+    public void enter() {
+        InFlightCounter counter = threadCounter.get();
+        if (counter.depth > 0) {
+            counter.depth++;
+            return;
+        }
+        enter(counter, 1);
+    }
+
+    private void enter(InFlightCounter counter, int depth) {
+        while (true) {
+            counter.depth = depth;
+            if (open) {
+                return;
+            }
+            counter.depth = 0;
+            signalDrained();
+            if (!awaitOpen()) {
+                counter.depth = depth;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes the current thread out of flight till {@link #resume(int)}, so that it can wait on other
+     * threads the barrier could hold back, without keeping a closing barrier from draining.
+     *
+     * @return the nesting depth to resume with
+     */
+    public int suspend() {
+        InFlightCounter counter = threadCounter.get();
+        int depth = counter.depth;
+        if (depth > 0) {
+            counter.depth = 0;
+            if (!open) {
+                signalDrained();
             }
         }
-        lock.unlock();
-     }
-    
-    public void open(){
+        return depth;
+    }
+
+    /**
+     * Marks the current thread in flight again at the depth returned by {@link #suspend()},
+     * waiting while the barrier is closed.
+     */
+    public void resume(int depth) {
+        if (depth > 0) {
+            enter(threadCounter.get(), depth);
+        }
+    }
+
+    /**
+     * @return true if the current thread is between enter() and exit()
+     */
+    public boolean isInFlight() {
+        return threadCounter.get().depth > 0;
+    }
+
+    public void exit() {
+        InFlightCounter counter = threadCounter.get();
+        counter.depth--;
+        if (counter.depth == 0 && !open) {
+            signalDrained();
+        }
+    }
+
+    public void open() {
         lock.lock();
-        if(!open){
-            open = true;
-            threadSwitchCondition.signalAll(); 
+        try {
+            if (closeCount > 0 && --closeCount == 0) {
+                open = true;
+                openCondition.signalAll();
+            }
+        } finally {
+            lock.unlock();
         }
-        lock.unlock();
     }
 
+    /**
+     * Closes the barrier and waits till all other threads have exited, the barrier is only opened
+     * again when each close() is matched by an open().
+     */
     public void close() {
         lock.lock();
-        open = false;
-        lock.unlock();
+        try {
+            closeCount++;
+            open = false;
+            InFlightCounter ownCounter = threadCounter.get();
+            for (InFlightCounter counter : counters) {
+                if (counter == ownCounter) {
+                    continue;
+                }
+                while (counter.depth > 0) {
+                    try {
+                        drainedCondition.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!counter.thread.isAlive()) {
+                    counters.remove(counter);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return false if interrupted while waiting, in which case the thread passes as before
+     */
+    private boolean awaitOpen() {
+        lock.lock();
+        try {
+            while (!open) {
+                try {
+                    openCondition.await();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    private void signalDrained() {
+        lock.lock();
+        try {
+            drainedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
+    private static class InFlightCounter {
+        private final Thread thread;
+        // only written by its own thread
+        private volatile int depth = 0;
+
+        private InFlightCounter(Thread thread) {
+            this.thread = thread;
+        }
+    }
 }
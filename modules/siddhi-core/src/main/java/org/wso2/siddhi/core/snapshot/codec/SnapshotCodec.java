@@ -0,0 +1,158 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot.codec;
+
+import org.wso2.siddhi.core.util.ByteSerializer;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary codec of the snapshots. Events are written by the attribute types of their stream
+ * definitions, with the stream ids and strings dictionary encoded and numbers as varints, while the
+ * collections, arrays and snapshot objects are written by type tags instead of class descriptors.
+ * Objects of other types fall back to Java serialization. Snapshots start with a version header,
+ * and the ones without it are read as Java serialized snapshots of the earlier revisions.
+ */
+public class SnapshotCodec {
+
+    static final byte MAGIC_0 = 'S';
+    static final byte MAGIC_1 = 'C';
+    static final byte VERSION = 1;
+    static final byte FLAG_DEFLATE = 1;
+    static final int HEADER_SIZE = 4;
+
+    static final byte NULL = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte FLOAT = 5;
+    static final byte DOUBLE = 6;
+    static final byte STRING = 7;
+    static final byte REFERENCE = 8;
+    static final byte BYTES = 9;
+    static final byte OBJECT_ARRAY = 10;
+    static final byte TYPED_ARRAY = 11;
+    static final byte ARRAY_LIST = 12;
+    static final byte LINKED_LIST = 13;
+    static final byte BLOCKING_QUEUE = 14;
+    static final byte HASH_MAP = 15;
+    static final byte PAIR = 16;
+    static final byte SNAPSHOT_OBJECT = 17;
+    static final byte INCREMENTAL_SNAPSHOT = 18;
+    static final byte IN_EVENT = 19;
+    static final byte REMOVE_EVENT = 20;
+    static final byte IN_LIST_EVENT = 21;
+    static final byte REMOVE_LIST_EVENT = 22;
+    static final byte JAVA_OBJECT = 23;
+    static final byte IN_PRIMITIVE_EVENT = 24;
+    static final byte IN_PRIMITIVE_LIST_EVENT = 25;
+
+    static final byte TAGGED_DATA = 0;
+    static final byte SCHEMA_DATA = 1;
+
+    private final boolean compression;
+    private Map<String, AbstractDefinition> definitionMap = Collections.emptyMap();
+
+    public SnapshotCodec(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * @param definitionMap stream and table definitions by their ids, giving the attribute types of the events
+     */
+    public void setDefinitionMap(Map<String, AbstractDefinition> definitionMap) {
+        this.definitionMap = definitionMap;
+    }
+
+    public byte[] encode(Object object) {
+        return encode(object, compression);
+    }
+
+    public byte[] encode(Object object, boolean compress) {
+        SnapshotEncoder encoder = new SnapshotEncoder(definitionMap);
+        encoder.writeObject(object);
+        if (!compress) {
+            return encoder.toByteArray();
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(encoder.buffer(), HEADER_SIZE, encoder.size() - HEADER_SIZE);
+        deflater.finish();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(encoder.size() / 2 + 16);
+        outputStream.write(MAGIC_0);
+        outputStream.write(MAGIC_1);
+        outputStream.write(VERSION);
+        outputStream.write(FLAG_DEFLATE);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            outputStream.write(buffer, 0, length);
+        }
+        deflater.end();
+        return outputStream.toByteArray();
+    }
+
+    public Object decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+            return ByteSerializer.BToO(bytes);
+        }
+        if (bytes[2] > VERSION) {
+            throw new IllegalStateException("Snapshot version " + bytes[2] + " is newer than the supported version " + VERSION);
+        }
+        byte[] payload;
+        int offset;
+        if ((bytes[3] & FLAG_DEFLATE) != 0) {
+            payload = inflate(bytes);
+            offset = 0;
+        } else {
+            payload = bytes;
+            offset = HEADER_SIZE;
+        }
+        return new SnapshotDecoder(payload, offset).readObject();
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 3);
+        byte[] buffer = new byte[8192];
+        try {
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed snapshot");
+                }
+                outputStream.write(buffer, 0, length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed snapshot", e);
+        } finally {
+            inflater.end();
+        }
+        return outputStream.toByteArray();
+    }
+}
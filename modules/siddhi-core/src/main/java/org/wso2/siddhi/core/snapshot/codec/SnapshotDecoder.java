@@ -0,0 +1,399 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot.codec;
+
+import org.wso2.siddhi.core.event.EventLayout;
+import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.event.in.InPrimitiveEvent;
+import org.wso2.siddhi.core.event.in.InPrimitiveListEvent;
+import org.wso2.siddhi.core.event.remove.RemoveEvent;
+import org.wso2.siddhi.core.event.remove.RemoveListEvent;
+import org.wso2.siddhi.core.snapshot.IncrementalSnapshot;
+import org.wso2.siddhi.core.snapshot.SnapshotObject;
+import org.wso2.siddhi.core.util.ByteSerializer;
+import org.wso2.siddhi.core.util.collection.Pair;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Reads the object graphs written by the SnapshotEncoder.
+ */
+class SnapshotDecoder {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Attribute.Type[] ATTRIBUTE_TYPES = Attribute.Type.values();
+
+    private final byte[] buffer;
+    private int position;
+    private final List<String> strings = new ArrayList<String>();
+    private final List<String> streamIds = new ArrayList<String>();
+    private final List<Attribute.Type[]> streams = new ArrayList<Attribute.Type[]>();
+    private final List<EventLayout> eventLayouts = new ArrayList<EventLayout>();
+    private final List<Object> references = new ArrayList<Object>();
+
+    SnapshotDecoder(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    Object readObject() {
+        byte tag = readByte();
+        switch (tag) {
+            case SnapshotCodec.NULL:
+                return null;
+            case SnapshotCodec.TRUE:
+                return Boolean.TRUE;
+            case SnapshotCodec.FALSE:
+                return Boolean.FALSE;
+            case SnapshotCodec.INT:
+                return (int) unZigZag(readVarLong());
+            case SnapshotCodec.LONG:
+                return unZigZag(readVarLong());
+            case SnapshotCodec.FLOAT:
+                return Float.intBitsToFloat(readInt());
+            case SnapshotCodec.DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case SnapshotCodec.STRING:
+                return readString();
+            case SnapshotCodec.REFERENCE:
+                return references.get(readLength());
+            default:
+                return readReferenced(tag);
+        }
+    }
+
+    private Object readReferenced(byte tag) {
+        int reference = references.size();
+        references.add(null);
+        switch (tag) {
+            case SnapshotCodec.BYTES: {
+                byte[] bytes = readBytes(readLength());
+                references.set(reference, bytes);
+                return bytes;
+            }
+            case SnapshotCodec.OBJECT_ARRAY: {
+                Object[] array = new Object[readLength()];
+                references.set(reference, array);
+                return readElements(array);
+            }
+            case SnapshotCodec.TYPED_ARRAY: {
+                Class<?> componentType = loadClass(readString());
+                Object[] array = (Object[]) Array.newInstance(componentType, readLength());
+                references.set(reference, array);
+                return readElements(array);
+            }
+            case SnapshotCodec.ARRAY_LIST: {
+                int size = readLength();
+                return readElements(reference, new ArrayList<Object>(size), size);
+            }
+            case SnapshotCodec.LINKED_LIST:
+                return readElements(reference, new LinkedList<Object>(), readLength());
+            case SnapshotCodec.BLOCKING_QUEUE:
+                return readElements(reference, new LinkedBlockingQueue<Object>(), readLength());
+            case SnapshotCodec.HASH_MAP: {
+                int size = readLength();
+                Map<Object, Object> map = new HashMap<Object, Object>((int) (size / 0.75f) + 1);
+                references.set(reference, map);
+                for (int i = 0; i < size; i++) {
+                    Object key = readObject();
+                    map.put(key, readObject());
+                }
+                return map;
+            }
+            case SnapshotCodec.PAIR: {
+                Pair<Object, Object> pair = new Pair<Object, Object>(null, null);
+                references.set(reference, pair);
+                pair.setOne(readObject());
+                pair.setTwo(readObject());
+                return pair;
+            }
+            case SnapshotCodec.SNAPSHOT_OBJECT: {
+                SnapshotObject snapshotObject = new SnapshotObject();
+                references.set(reference, snapshotObject);
+                snapshotObject.setData((Object[]) readObject());
+                return snapshotObject;
+            }
+            case SnapshotCodec.INCREMENTAL_SNAPSHOT: {
+                String baseRevision = (String) readObject();
+                Map<String, byte[]> states = (Map<String, byte[]>) readObject();
+                Map<String, SnapshotObject> increments = (Map<String, SnapshotObject>) readObject();
+                IncrementalSnapshot snapshot = new IncrementalSnapshot(baseRevision, states, increments);
+                references.set(reference, snapshot);
+                return snapshot;
+            }
+            case SnapshotCodec.REMOVE_EVENT: {
+                int stream = readStream();
+                long timeStamp = unZigZag(readVarLong());
+                Object[] data = readData(stream);
+                RemoveEvent event = new RemoveEvent(streamIds.get(stream), timeStamp, data, unZigZag(readVarLong()));
+                references.set(reference, event);
+                return event;
+            }
+            case SnapshotCodec.IN_EVENT: {
+                int stream = readStream();
+                long timeStamp = unZigZag(readVarLong());
+                InEvent event = new InEvent(streamIds.get(stream), timeStamp, readData(stream));
+                references.set(reference, event);
+                return event;
+            }
+            case SnapshotCodec.IN_PRIMITIVE_EVENT: {
+                int stream = readStream();
+                long timeStamp = unZigZag(readVarLong());
+                boolean schemaData = buffer[position] == SnapshotCodec.SCHEMA_DATA;
+                Object[] data = readData(stream);
+                EventLayout eventLayout = schemaData ? eventLayout(stream) : null;
+                InEvent event;
+                if (eventLayout != null) {
+                    event = new InPrimitiveEvent(eventLayout, timeStamp, data);
+                } else {
+                    event = new InEvent(streamIds.get(stream), timeStamp, data);
+                }
+                references.set(reference, event);
+                return event;
+            }
+            case SnapshotCodec.REMOVE_LIST_EVENT: {
+                RemoveEvent[] events = new RemoveEvent[readLength()];
+                for (int i = 0; i < events.length; i++) {
+                    events[i] = (RemoveEvent) readObject();
+                }
+                RemoveListEvent listEvent = new RemoveListEvent(events);
+                references.set(reference, listEvent);
+                return listEvent;
+            }
+            case SnapshotCodec.IN_LIST_EVENT: {
+                InEvent[] events = new InEvent[readLength()];
+                for (int i = 0; i < events.length; i++) {
+                    events[i] = (InEvent) readObject();
+                }
+                InListEvent listEvent = new InListEvent(events);
+                references.set(reference, listEvent);
+                return listEvent;
+            }
+            case SnapshotCodec.IN_PRIMITIVE_LIST_EVENT: {
+                InEvent[] events = new InEvent[readLength()];
+                for (int i = 0; i < events.length; i++) {
+                    events[i] = (InEvent) readObject();
+                }
+                InListEvent listEvent;
+                if (events.length > 0 && events[0] instanceof InPrimitiveEvent) {
+                    InPrimitiveListEvent primitiveListEvent = new InPrimitiveListEvent(((InPrimitiveEvent) events[0]).getEventLayout(), events.length);
+                    for (InEvent event : events) {
+                        primitiveListEvent.addRow(event.getTimeStamp(), event.getData());
+                    }
+                    listEvent = primitiveListEvent;
+                } else {
+                    listEvent = new InListEvent(events);
+                }
+                references.set(reference, listEvent);
+                return listEvent;
+            }
+            case SnapshotCodec.JAVA_OBJECT: {
+                int length = readLength();
+                Object object = length == 0 ? null : ByteSerializer.BToO(readBytes(length));
+                references.set(reference, object);
+                return object;
+            }
+            default:
+                throw new IllegalStateException("Unknown type tag " + tag + " at " + (position - 1) + " of the snapshot");
+        }
+    }
+
+    private Object[] readElements(Object[] array) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readObject();
+        }
+        return array;
+    }
+
+    private Collection<Object> readElements(int reference, Collection<Object> collection, int size) {
+        references.set(reference, collection);
+        for (int i = 0; i < size; i++) {
+            collection.add(readObject());
+        }
+        return collection;
+    }
+
+    private Object[] readData(int stream) {
+        byte encoding = readByte();
+        if (encoding == SnapshotCodec.TAGGED_DATA) {
+            return (Object[]) readObject();
+        }
+        Attribute.Type[] types = streams.get(stream);
+        Object[] data = new Object[types.length];
+        references.add(data);
+        byte[] nulls = readBytes((data.length + 7) / 8);
+        for (int i = 0; i < data.length; i++) {
+            if ((nulls[i / 8] & (1 << (i % 8))) != 0) {
+                continue;
+            }
+            switch (types[i]) {
+                case STRING:
+                    data[i] = readString();
+                    break;
+                case INT:
+                    data[i] = (int) unZigZag(readVarLong());
+                    break;
+                case LONG:
+                    data[i] = unZigZag(readVarLong());
+                    break;
+                case FLOAT:
+                    data[i] = Float.intBitsToFloat(readInt());
+                    break;
+                case DOUBLE:
+                    data[i] = Double.longBitsToDouble(readLong());
+                    break;
+                case BOOL:
+                    data[i] = readByte() != 0;
+                    break;
+                default:
+                    data[i] = readObject();
+            }
+        }
+        return data;
+    }
+
+    /**
+     * @return index of the stream, read along with its attribute types on its first occurrence
+     */
+    /**
+     * Layouts are built from the attribute types written with the streams, hence the primitive events
+     * written without the definition of their stream, with tagged data, are restored as plain events.
+     */
+    private EventLayout eventLayout(int stream) {
+        while (eventLayouts.size() <= stream) {
+            eventLayouts.add(null);
+        }
+        EventLayout eventLayout = eventLayouts.get(stream);
+        if (eventLayout == null) {
+            eventLayout = new EventLayout(streamIds.get(stream), streams.get(stream));
+            eventLayouts.set(stream, eventLayout);
+        }
+        return eventLayout;
+    }
+
+    private int readStream() {
+        int index = readLength();
+        if (index > 0) {
+            return index - 1;
+        }
+        streamIds.add((String) readObject());
+        int typeCount = readLength();
+        Attribute.Type[] types = null;
+        if (typeCount > 0) {
+            types = new Attribute.Type[typeCount - 1];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = ATTRIBUTE_TYPES[readByte()];
+            }
+        }
+        streams.add(types);
+        return streams.size() - 1;
+    }
+
+    private String readString() {
+        int index = readLength();
+        if (index > 0) {
+            return strings.get(index - 1);
+        }
+        int length = readLength();
+        String string = new String(buffer, position, length, UTF_8);
+        position += length;
+        strings.add(string);
+        return string;
+    }
+
+    private Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, SnapshotDecoder.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            if (contextClassLoader != null) {
+                try {
+                    return Class.forName(name, false, contextClassLoader);
+                } catch (ClassNotFoundException ignored) {
+                }
+            }
+            throw new IllegalStateException("Cannot load " + name + " of the snapshot", e);
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Corrupted snapshot, invalid length " + length);
+        }
+        return (int) length;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Corrupted snapshot, malformed varint at " + position);
+    }
+
+    private int readInt() {
+        checkAvailable(4);
+        int value = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                    | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    private long readLong() {
+        long high = readInt();
+        return (high << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    private byte readByte() {
+        checkAvailable(1);
+        return buffer[position++];
+    }
+
+    private byte[] readBytes(int length) {
+        checkAvailable(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    private void checkAvailable(int length) {
+        if (length > buffer.length - position) {
+            throw new IllegalStateException("Truncated snapshot at " + position);
+        }
+    }
+}
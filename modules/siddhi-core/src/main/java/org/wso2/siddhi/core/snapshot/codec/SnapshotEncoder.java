@@ -0,0 +1,417 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.snapshot.codec;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.ListEvent;
+import org.wso2.siddhi.core.event.PrimitiveEvent;
+import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.event.in.InPrimitiveListEvent;
+import org.wso2.siddhi.core.event.remove.RemoveEvent;
+import org.wso2.siddhi.core.event.remove.RemoveListEvent;
+import org.wso2.siddhi.core.snapshot.IncrementalSnapshot;
+import org.wso2.siddhi.core.snapshot.SnapshotObject;
+import org.wso2.siddhi.core.util.ByteSerializer;
+import org.wso2.siddhi.core.util.collection.Pair;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes an object graph of a snapshot, keeping the shared objects shared through back references
+ * as Java serialization does.
+ */
+class SnapshotEncoder {
+
+    private final Map<String, AbstractDefinition> definitionMap;
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<String, Attribute.Type[]> streams = new HashMap<String, Attribute.Type[]>();
+    private final Map<String, Integer> streamIndexes = new HashMap<String, Integer>();
+    private final IdentityHashMap<Object, Integer> references = new IdentityHashMap<Object, Integer>();
+    private byte[] buffer = new byte[256];
+    private int position;
+
+    SnapshotEncoder(Map<String, AbstractDefinition> definitionMap) {
+        this.definitionMap = definitionMap;
+        buffer[0] = SnapshotCodec.MAGIC_0;
+        buffer[1] = SnapshotCodec.MAGIC_1;
+        buffer[2] = SnapshotCodec.VERSION;
+        buffer[3] = 0;
+        position = SnapshotCodec.HEADER_SIZE;
+    }
+
+    /**
+     * @return the header followed by the encoded object
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int size() {
+        return position;
+    }
+
+    void writeObject(Object object) {
+        if (object == null) {
+            writeByte(SnapshotCodec.NULL);
+        } else if (object instanceof Boolean) {
+            writeByte((Boolean) object ? SnapshotCodec.TRUE : SnapshotCodec.FALSE);
+        } else if (object instanceof Integer) {
+            writeByte(SnapshotCodec.INT);
+            writeVarLong(zigZag((Integer) object));
+        } else if (object instanceof Long) {
+            writeByte(SnapshotCodec.LONG);
+            writeVarLong(zigZag((Long) object));
+        } else if (object instanceof Float) {
+            writeByte(SnapshotCodec.FLOAT);
+            writeInt(Float.floatToIntBits((Float) object));
+        } else if (object instanceof Double) {
+            writeByte(SnapshotCodec.DOUBLE);
+            writeLong(Double.doubleToLongBits((Double) object));
+        } else if (object instanceof String) {
+            writeByte(SnapshotCodec.STRING);
+            writeString((String) object);
+        } else {
+            Integer reference = references.get(object);
+            if (reference != null) {
+                writeByte(SnapshotCodec.REFERENCE);
+                writeVarLong(reference);
+            } else {
+                references.put(object, references.size());
+                writeReferenced(object);
+            }
+        }
+    }
+
+    private void writeReferenced(Object object) {
+        Class<?> type = object.getClass();
+        if (type == byte[].class) {
+            byte[] bytes = (byte[]) object;
+            writeByte(SnapshotCodec.BYTES);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        } else if (type == Object[].class) {
+            writeByte(SnapshotCodec.OBJECT_ARRAY);
+            writeElements((Object[]) object);
+        } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+            writeByte(SnapshotCodec.TYPED_ARRAY);
+            writeString(type.getComponentType().getName());
+            writeElements((Object[]) object);
+        } else if (type == ArrayList.class) {
+            writeByte(SnapshotCodec.ARRAY_LIST);
+            writeElements((Collection<?>) object);
+        } else if (type == LinkedList.class) {
+            writeByte(SnapshotCodec.LINKED_LIST);
+            writeElements((Collection<?>) object);
+        } else if (type == LinkedBlockingQueue.class && isUnbounded((LinkedBlockingQueue<?>) object)) {
+            writeByte(SnapshotCodec.BLOCKING_QUEUE);
+            writeElements((Collection<?>) object);
+        } else if (type == HashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            writeByte(SnapshotCodec.HASH_MAP);
+            writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        } else if (type == Pair.class) {
+            writeByte(SnapshotCodec.PAIR);
+            writeObject(((Pair<?, ?>) object).getOne());
+            writeObject(((Pair<?, ?>) object).getTwo());
+        } else if (type == SnapshotObject.class) {
+            writeByte(SnapshotCodec.SNAPSHOT_OBJECT);
+            writeObject(((SnapshotObject) object).getData());
+        } else if (type == IncrementalSnapshot.class) {
+            IncrementalSnapshot snapshot = (IncrementalSnapshot) object;
+            writeByte(SnapshotCodec.INCREMENTAL_SNAPSHOT);
+            writeObject(snapshot.getBaseRevision());
+            writeObject(new HashMap<String, byte[]>(snapshot.getStates()));
+            writeObject(new HashMap<String, SnapshotObject>(snapshot.getIncrements()));
+        } else if (type == RemoveEvent.class) {
+            RemoveEvent event = (RemoveEvent) object;
+            writeByte(SnapshotCodec.REMOVE_EVENT);
+            writeEvent(event);
+            writeVarLong(zigZag(event.getExpiryTime()));
+        } else if (type == InEvent.class) {
+            writeByte(SnapshotCodec.IN_EVENT);
+            writeEvent((Event) object);
+        } else if (object instanceof InEvent && object instanceof PrimitiveEvent) {
+            // the primitive events and the rows of the primitive list events, restored as primitive events
+            writeByte(SnapshotCodec.IN_PRIMITIVE_EVENT);
+            writeEvent((Event) object);
+        } else if (type == RemoveListEvent.class && containsOnly((RemoveListEvent) object, RemoveEvent.class)) {
+            writeByte(SnapshotCodec.REMOVE_LIST_EVENT);
+            writeEvents((RemoveListEvent) object);
+        } else if (type == InListEvent.class && containsOnly((InListEvent) object, InEvent.class)) {
+            writeByte(SnapshotCodec.IN_LIST_EVENT);
+            writeEvents((InListEvent) object);
+        } else if (type == InPrimitiveListEvent.class) {
+            writeByte(SnapshotCodec.IN_PRIMITIVE_LIST_EVENT);
+            writeEvents((InPrimitiveListEvent) object);
+        } else {
+            byte[] bytes = ByteSerializer.OToB(object);
+            if (bytes == null) {
+                bytes = new byte[0];
+            }
+            writeByte(SnapshotCodec.JAVA_OBJECT);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    private static boolean isUnbounded(LinkedBlockingQueue<?> queue) {
+        return queue.remainingCapacity() == Integer.MAX_VALUE - queue.size();
+    }
+
+    private void writeElements(Object[] elements) {
+        writeVarLong(elements.length);
+        for (Object element : elements) {
+            writeObject(element);
+        }
+    }
+
+    private void writeElements(Collection<?> elements) {
+        writeVarLong(elements.size());
+        for (Object element : elements) {
+            writeObject(element);
+        }
+    }
+
+    private boolean containsOnly(ListEvent listEvent, Class<?> eventType) {
+        for (int i = 0, activeEvents = listEvent.getActiveEvents(); i < activeEvents; i++) {
+            if (!eventType.isInstance(listEvent.getEvent(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeEvents(ListEvent listEvent) {
+        int activeEvents = listEvent.getActiveEvents();
+        writeVarLong(activeEvents);
+        for (int i = 0; i < activeEvents; i++) {
+            writeObject(listEvent.getEvent(i));
+        }
+    }
+
+    /**
+     * Writes the data of the event untagged by the attribute types of its stream when they match,
+     * with a bitmap of the null attributes.
+     */
+    private void writeEvent(Event event) {
+        Attribute.Type[] types = writeStream(event.getStreamId());
+        writeVarLong(zigZag(event.getTimeStamp()));
+        Object[] data = event.getData();
+        if (types == null || data == null || references.containsKey(data) || !matches(types, data)) {
+            writeByte(SnapshotCodec.TAGGED_DATA);
+            writeObject(data);
+            return;
+        }
+        references.put(data, references.size());
+        writeByte(SnapshotCodec.SCHEMA_DATA);
+        for (int i = 0; i < data.length; i += 8) {
+            int nulls = 0;
+            for (int j = i; j < i + 8 && j < data.length; j++) {
+                if (data[j] == null) {
+                    nulls |= 1 << (j - i);
+                }
+            }
+            writeByte((byte) nulls);
+        }
+        for (int i = 0; i < data.length; i++) {
+            Object value = data[i];
+            if (value == null) {
+                continue;
+            }
+            switch (types[i]) {
+                case STRING:
+                    writeString((String) value);
+                    break;
+                case INT:
+                    writeVarLong(zigZag((Integer) value));
+                    break;
+                case LONG:
+                    writeVarLong(zigZag((Long) value));
+                    break;
+                case FLOAT:
+                    writeInt(Float.floatToIntBits((Float) value));
+                    break;
+                case DOUBLE:
+                    writeLong(Double.doubleToLongBits((Double) value));
+                    break;
+                case BOOL:
+                    writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+                    break;
+                default:
+                    writeObject(value);
+            }
+        }
+    }
+
+    private static boolean matches(Attribute.Type[] types, Object[] data) {
+        if (types.length != data.length) {
+            return false;
+        }
+        for (int i = 0; i < data.length; i++) {
+            Object value = data[i];
+            if (value == null) {
+                continue;
+            }
+            switch (types[i]) {
+                case STRING:
+                    if (!(value instanceof String)) {
+                        return false;
+                    }
+                    break;
+                case INT:
+                    if (!(value instanceof Integer)) {
+                        return false;
+                    }
+                    break;
+                case LONG:
+                    if (!(value instanceof Long)) {
+                        return false;
+                    }
+                    break;
+                case FLOAT:
+                    if (!(value instanceof Float)) {
+                        return false;
+                    }
+                    break;
+                case DOUBLE:
+                    if (!(value instanceof Double)) {
+                        return false;
+                    }
+                    break;
+                case BOOL:
+                    if (!(value instanceof Boolean)) {
+                        return false;
+                    }
+                    break;
+                default:
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streams are dictionary encoded, the attribute types of a stream are written with its first occurrence.
+     *
+     * @return attribute types of the stream, null if it has no known definition
+     */
+    private Attribute.Type[] writeStream(String streamId) {
+        Integer index = streamIndexes.get(streamId);
+        if (index != null) {
+            writeVarLong(index + 1);
+            return streams.get(streamId);
+        }
+        streamIndexes.put(streamId, streamIndexes.size());
+        writeVarLong(0);
+        writeObject(streamId);
+        Attribute.Type[] types = null;
+        AbstractDefinition definition = streamId == null ? null : definitionMap.get(streamId);
+        if (definition != null) {
+            List<Attribute> attributeList = definition.getAttributeList();
+            types = new Attribute.Type[attributeList.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = attributeList.get(i).getType();
+            }
+            writeVarLong(types.length + 1);
+            for (Attribute.Type attributeType : types) {
+                writeByte((byte) attributeType.ordinal());
+            }
+        } else {
+            writeVarLong(0);
+        }
+        streams.put(streamId, types);
+        return types;
+    }
+
+    /**
+     * Strings are dictionary encoded, a string is written as UTF-8 only with its first occurrence.
+     */
+    private void writeString(String string) {
+        Integer index = strings.get(string);
+        if (index != null) {
+            writeVarLong(index + 1);
+            return;
+        }
+        strings.put(string, strings.size());
+        writeVarLong(0);
+        byte[] bytes = string.getBytes(SnapshotDecoder.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
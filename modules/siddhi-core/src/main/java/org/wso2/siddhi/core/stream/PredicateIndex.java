@@ -0,0 +1,336 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.stream;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.executor.compiler.CompiledConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.AndConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.equal.EqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.greater_than.GreaterThenCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.greater_than_equal.GreaterThenEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.less_than.LessThenCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.less_than_equal.LessThenEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.processor.handler.SimpleHandlerProcessor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index over the filters of the queries consuming a stream, used by the StreamJunction to pass an event
+ * only to the receivers whose filter can match it. A filter is indexed by one of the comparisons between
+ * an attribute and a constant in its top level and-conditions: equalities go to hash buckets and range
+ * comparisons to sorted thresholds. The filtered inputs of joins are indexed like the single stream queries,
+ * as their filters drop the events before the join windows. Receivers without such a comparison get every
+ * event, and the indexed ones still evaluate their whole filter on the events passed to them.
+ */
+final class PredicateIndex {
+
+    /**
+     * Below this number of indexed receivers evaluating the filters is cheaper than the index
+     */
+    static final int MIN_INDEXED_RECEIVERS = 4;
+
+    private final StreamReceiver[] receivers;
+    private final BitSet unindexedReceivers;
+    private final AttributeIndex[] attributeIndexes;
+
+    private PredicateIndex(StreamReceiver[] receivers, BitSet unindexedReceivers, AttributeIndex[] attributeIndexes) {
+        this.receivers = receivers;
+        this.unindexedReceivers = unindexedReceivers;
+        this.attributeIndexes = attributeIndexes;
+    }
+
+    /**
+     * @return the index of the receivers, or null if too few of them can be indexed
+     */
+    static PredicateIndex build(List<StreamReceiver> streamReceivers) {
+        StreamReceiver[] receivers = streamReceivers.toArray(new StreamReceiver[streamReceivers.size()]);
+        BitSet unindexedReceivers = new BitSet(receivers.length);
+        Map<Integer, AttributeIndex> attributeIndexMap = new TreeMap<Integer, AttributeIndex>();
+        int indexedCount = 0;
+        for (int i = 0; i < receivers.length; i++) {
+            Comparison comparison = null;
+            if (receivers[i] instanceof SimpleHandlerProcessor) {
+                comparison = selectComparison(((SimpleHandlerProcessor) receivers[i]).getFilterProcessor().getConditionExecutor());
+            }
+            if (comparison == null) {
+                unindexedReceivers.set(i);
+            } else {
+                AttributeIndex attributeIndex = attributeIndexMap.get(comparison.attributePosition);
+                if (attributeIndex == null) {
+                    attributeIndex = new AttributeIndex(comparison.attributePosition);
+                    attributeIndexMap.put(comparison.attributePosition, attributeIndex);
+                }
+                attributeIndex.add(comparison, i);
+                indexedCount++;
+            }
+        }
+        if (indexedCount < MIN_INDEXED_RECEIVERS) {
+            return null;
+        }
+        for (AttributeIndex attributeIndex : attributeIndexMap.values()) {
+            attributeIndex.sort();
+        }
+        return new PredicateIndex(receivers, unindexedReceivers, attributeIndexMap.values().toArray(new AttributeIndex[attributeIndexMap.size()]));
+    }
+
+    void send(Event event) {
+        BitSet candidates = (BitSet) unindexedReceivers.clone();
+        for (AttributeIndex attributeIndex : attributeIndexes) {
+            attributeIndex.match(event.getData(attributeIndex.attributePosition), candidates);
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            receivers[i].receive(event);
+        }
+    }
+
+    /**
+     * @return an equality of the top level and-conditions if there is one, else a range comparison
+     */
+    private static Comparison selectComparison(ConditionExecutor conditionExecutor) {
+        List<ConditionExecutor> conditions = new ArrayList<ConditionExecutor>();
+        flattenAnd(conditionExecutor, conditions);
+        Comparison rangeComparison = null;
+        for (ConditionExecutor condition : conditions) {
+            if (condition instanceof CompareConditionExecutor) {
+                Comparison comparison = Comparison.create((CompareConditionExecutor) condition);
+                if (comparison != null && comparison.key != null) {
+                    return comparison;
+                } else if (comparison != null && rangeComparison == null) {
+                    rangeComparison = comparison;
+                }
+            }
+        }
+        return rangeComparison;
+    }
+
+    private static void flattenAnd(ConditionExecutor conditionExecutor, List<ConditionExecutor> conditions) {
+        if (conditionExecutor instanceof CompiledConditionExecutor) {
+            flattenAnd(((CompiledConditionExecutor) conditionExecutor).getConditionExecutor(), conditions);
+        } else if (conditionExecutor instanceof AndConditionExecutor) {
+            flattenAnd(((AndConditionExecutor) conditionExecutor).leftConditionExecutor, conditions);
+            flattenAnd(((AndConditionExecutor) conditionExecutor).rightConditionExecutor, conditions);
+        } else if (conditionExecutor != null) {
+            conditions.add(conditionExecutor);
+        }
+    }
+
+    /**
+     * Normalizes integral values to Long, as int and long attributes share the equality buckets
+     */
+    private static Object toKey(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    /**
+     * Comparison of an attribute with a constant, either an equality with a key or a range bound
+     */
+    private static final class Comparison {
+
+        private final int attributePosition;
+        private final Object key;
+        private final double bound;
+        private final boolean lowerBound;
+
+        private Comparison(int attributePosition, Object key, double bound, boolean lowerBound) {
+            this.attributePosition = attributePosition;
+            this.key = key;
+            this.bound = bound;
+            this.lowerBound = lowerBound;
+        }
+
+        /**
+         * @return null if the comparison cannot be indexed
+         */
+        private static Comparison create(CompareConditionExecutor compareExecutor) {
+            ExpressionExecutor left = compareExecutor.leftExpressionExecutor;
+            ExpressionExecutor right = compareExecutor.rightExpressionExecutor;
+            boolean swapped = false;
+            if (left instanceof ConstantExpressionExecutor && right instanceof VariableExpressionExecutor) {
+                ExpressionExecutor constant = left;
+                left = right;
+                right = constant;
+                swapped = true;
+            } else if (!(left instanceof VariableExpressionExecutor && right instanceof ConstantExpressionExecutor)) {
+                return null;
+            }
+            int attributePosition = ((VariableExpressionExecutor) left).getAttributePosition();
+            Attribute.Type type = left.getReturnType();
+            Object value = right.execute(null);
+            if (value == null || attributePosition < 0) {
+                return null;
+            }
+            if (compareExecutor instanceof EqualCompareConditionExecutor) {
+                if ((type == Attribute.Type.STRING && value instanceof String) || (type == Attribute.Type.BOOL && value instanceof Boolean) ||
+                    ((type == Attribute.Type.INT || type == Attribute.Type.LONG) && (value instanceof Integer || value instanceof Long))) {
+                    return new Comparison(attributePosition, toKey(value), 0, false);
+                }
+                return null;
+            }
+            boolean numeric = type == Attribute.Type.INT || type == Attribute.Type.LONG || type == Attribute.Type.FLOAT || type == Attribute.Type.DOUBLE;
+            if (!numeric || !(value instanceof Number) || Double.isNaN(((Number) value).doubleValue())) {
+                return null;
+            }
+            boolean lowerBound;
+            if (compareExecutor instanceof GreaterThenCompareConditionExecutor || compareExecutor instanceof GreaterThenEqualCompareConditionExecutor) {
+                lowerBound = !swapped;
+            } else if (compareExecutor instanceof LessThenCompareConditionExecutor || compareExecutor instanceof LessThenEqualCompareConditionExecutor) {
+                lowerBound = swapped;
+            } else {
+                return null;
+            }
+            // strict bounds are kept inclusive as longs may round when compared as doubles
+            return new Comparison(attributePosition, null, ((Number) value).doubleValue(), lowerBound);
+        }
+    }
+
+    /**
+     * Comparisons of the receivers on one attribute
+     */
+    private static final class AttributeIndex {
+
+        private final int attributePosition;
+        private final Map<Object, BitSet> buckets = new HashMap<Object, BitSet>();
+        private final List<Bound> lowerBoundList = new ArrayList<Bound>();
+        private final List<Bound> upperBoundList = new ArrayList<Bound>();
+        private double[] lowerBounds;
+        private int[] lowerBoundReceivers;
+        private double[] upperBounds;
+        private int[] upperBoundReceivers;
+
+        private AttributeIndex(int attributePosition) {
+            this.attributePosition = attributePosition;
+        }
+
+        private void add(Comparison comparison, int receiver) {
+            if (comparison.key != null) {
+                BitSet bucket = buckets.get(comparison.key);
+                if (bucket == null) {
+                    bucket = new BitSet();
+                    buckets.put(comparison.key, bucket);
+                }
+                bucket.set(receiver);
+            } else if (comparison.lowerBound) {
+                lowerBoundList.add(new Bound(comparison.bound, receiver));
+            } else {
+                upperBoundList.add(new Bound(comparison.bound, receiver));
+            }
+        }
+
+        private void sort() {
+            Collections.sort(lowerBoundList);
+            Collections.sort(upperBoundList);
+            lowerBounds = new double[lowerBoundList.size()];
+            lowerBoundReceivers = new int[lowerBoundList.size()];
+            for (int i = 0; i < lowerBounds.length; i++) {
+                lowerBounds[i] = lowerBoundList.get(i).bound;
+                lowerBoundReceivers[i] = lowerBoundList.get(i).receiver;
+            }
+            upperBounds = new double[upperBoundList.size()];
+            upperBoundReceivers = new int[upperBoundList.size()];
+            for (int i = 0; i < upperBounds.length; i++) {
+                upperBounds[i] = upperBoundList.get(i).bound;
+                upperBoundReceivers[i] = upperBoundList.get(i).receiver;
+            }
+        }
+
+        private void match(Object value, BitSet candidates) {
+            if (value == null) {
+                return;
+            }
+            if (!buckets.isEmpty()) {
+                BitSet bucket = buckets.get(toKey(value));
+                if (bucket != null) {
+                    candidates.or(bucket);
+                }
+            }
+            if (lowerBounds.length == 0 && upperBounds.length == 0) {
+                return;
+            }
+            if (!(value instanceof Number)) {
+                setAll(lowerBoundReceivers, 0, lowerBoundReceivers.length, candidates);
+                setAll(upperBoundReceivers, 0, upperBoundReceivers.length, candidates);
+                return;
+            }
+            double doubleValue = ((Number) value).doubleValue();
+            if (Double.isNaN(doubleValue)) {
+                return;
+            }
+            // lower bounds at or below the value match
+            int low = 0;
+            int high = lowerBounds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (lowerBounds[mid] <= doubleValue) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            setAll(lowerBoundReceivers, 0, low, candidates);
+            // upper bounds at or above the value match
+            low = 0;
+            high = upperBounds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (upperBounds[mid] < doubleValue) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            setAll(upperBoundReceivers, low, upperBoundReceivers.length, candidates);
+        }
+
+        private static void setAll(int[] receivers, int from, int to, BitSet candidates) {
+            for (int i = from; i < to; i++) {
+                candidates.set(receivers[i]);
+            }
+        }
+    }
+
+    private static final class Bound implements Comparable<Bound> {
+
+        private final double bound;
+        private final int receiver;
+
+        private Bound(double bound, int receiver) {
+            this.bound = bound;
+            this.receiver = receiver;
+        }
+
+        @Override
+        public int compareTo(Bound other) {
+            return Double.compare(bound, other.bound);
+        }
+    }
+}
@@ -17,21 +17,43 @@
 */
 package org.wso2.siddhi.core.stream;
 
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.query.processor.handler.HandlerProcessor;
+import org.wso2.siddhi.core.snapshot.ThreadBarrier;
 import org.wso2.siddhi.core.tracer.EventMonitorService;
+import org.wso2.siddhi.core.util.SiddhiThreadFactory;
+import org.wso2.siddhi.core.util.collection.ringbuffer.RingBuffer;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class StreamJunction {
     private List<StreamReceiver> streamReceivers = new CopyOnWriteArrayList<StreamReceiver>();
     private String streamId;
     private EventMonitorService eventMonitorService;
+    private SiddhiContext siddhiContext;
+    private volatile PredicateIndex predicateIndex;
 
-    public StreamJunction(String streamId, EventMonitorService eventMonitorService) {
+    //only used when ring buffer processing is enabled
+    private RingBuffer<StreamEvent> ringBuffer;
+    private Map<StreamReceiver, StreamJunctionConsumer> consumerMap;
+    private SiddhiThreadFactory consumerThreadFactory;
+
+    public StreamJunction(String streamId, SiddhiContext siddhiContext) {
         this.streamId = streamId;
-        this.eventMonitorService = eventMonitorService;
+        this.siddhiContext = siddhiContext;
+        this.eventMonitorService = siddhiContext.getEventMonitorService();
+        if (siddhiContext.isRingBufferProcessing()) {
+            this.ringBuffer = new RingBuffer<StreamEvent>(siddhiContext.getRingBufferSize(),
+                                                          siddhiContext.getRingBufferWaitStrategy().createWaitStrategy());
+            this.consumerMap = new ConcurrentHashMap<StreamReceiver, StreamJunctionConsumer>();
+            this.consumerThreadFactory = new SiddhiThreadFactory("Junction-" + streamId);
+            siddhiContext.getSnapshotService().addRingBuffer(ringBuffer);
+        }
     }
 
     public void send(StreamEvent allEvents) {
@@ -41,18 +63,71 @@ public class StreamJunction {
         if (eventMonitorService.isEnableStats()) {
             eventMonitorService.calculateStats(allEvents);
         }
-        for (StreamReceiver handlerProcessor : streamReceivers) {
-            handlerProcessor.receive(allEvents);
+        if (ringBuffer != null) {
+            if (!ringBuffer.tryPublish(allEvents)) {
+                publishWhenFree(allEvents);
+            }
+        } else {
+            PredicateIndex index = predicateIndex;
+            if (index != null && allEvents instanceof Event) {
+                index.send((Event) allEvents);
+                return;
+            }
+            for (StreamReceiver handlerProcessor : streamReceivers) {
+                handlerProcessor.receive(allEvents);
+            }
         }
     }
 
+    /**
+     * Waits for a free slot out of flight of the ThreadBarrier, as the consumers that free the slots
+     * are held back while a snapshot closes the barrier. The event being processed by this thread
+     * can hence be half way through the queries when the snapshot is taken.
+     */
+    private void publishWhenFree(StreamEvent allEvents) {
+        ThreadBarrier threadBarrier = siddhiContext.getThreadBarrier();
+        do {
+            int depth = threadBarrier.suspend();
+            try {
+                ringBuffer.awaitCapacity();
+            } finally {
+                threadBarrier.resume(depth);
+            }
+        } while (!ringBuffer.tryPublish(allEvents));
+    }
+
     public synchronized void addEventFlow(StreamReceiver streamReceiver) {
         //in reverse order to execute the later states first to overcome to dependencies of count states
         streamReceivers.add(0, streamReceiver);
+        if (ringBuffer != null) {
+            StreamJunctionConsumer consumer = new StreamJunctionConsumer(streamReceiver, ringBuffer, siddhiContext.getThreadBarrier());
+            consumerMap.put(streamReceiver, consumer);
+            consumerThreadFactory.newThread(consumer).start();
+        } else {
+            predicateIndex = PredicateIndex.build(streamReceivers);
+        }
     }
 
     public synchronized void removeEventFlow(HandlerProcessor queryStreamProcessor) {
         streamReceivers.remove(queryStreamProcessor);
+        if (ringBuffer != null) {
+            StreamJunctionConsumer consumer = consumerMap.remove(queryStreamProcessor);
+            if (consumer != null) {
+                consumer.stop();
+            }
+        } else {
+            predicateIndex = PredicateIndex.build(streamReceivers);
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (ringBuffer != null) {
+            for (StreamJunctionConsumer consumer : consumerMap.values()) {
+                consumer.stop();
+            }
+            consumerMap.clear();
+            siddhiContext.getSnapshotService().removeRingBuffer(ringBuffer);
+        }
     }
 
     public String getStreamId() {
@@ -0,0 +1,92 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.stream;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.snapshot.ThreadBarrier;
+import org.wso2.siddhi.core.util.collection.ringbuffer.RingBuffer;
+import org.wso2.siddhi.core.util.collection.ringbuffer.Sequence;
+import org.wso2.siddhi.core.util.collection.ringbuffer.WaitStrategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the ring buffer of a {@link StreamJunction} with its own sequence and
+ * delivers the events to a single {@link StreamReceiver} on a dedicated thread.
+ * Each event is delivered in flight of the {@link ThreadBarrier}.
+ */
+public class StreamJunctionConsumer implements Runnable {
+
+    static final Logger log = Logger.getLogger(StreamJunctionConsumer.class);
+
+    private final StreamReceiver streamReceiver;
+    private final RingBuffer<StreamEvent> ringBuffer;
+    private final Sequence sequence;
+    private final WaitStrategy waitStrategy;
+    private final ThreadBarrier threadBarrier;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    public StreamJunctionConsumer(StreamReceiver streamReceiver, RingBuffer<StreamEvent> ringBuffer, ThreadBarrier threadBarrier) {
+        this.streamReceiver = streamReceiver;
+        this.ringBuffer = ringBuffer;
+        this.sequence = ringBuffer.addConsumer();
+        this.waitStrategy = ringBuffer.getWaitStrategy();
+        this.threadBarrier = threadBarrier;
+    }
+
+    @Override
+    public void run() {
+        long nextSequence = sequence.get() + 1;
+        while (running.get()) {
+            try {
+                long availableSequence = waitStrategy.waitFor(nextSequence, ringBuffer.getCursor(), running);
+                if (availableSequence < nextSequence) {
+                    continue;
+                }
+                availableSequence = ringBuffer.getHighestPublishedSequence(nextSequence, availableSequence);
+                while (nextSequence <= availableSequence) {
+                    threadBarrier.enter();
+                    try {
+                        streamReceiver.receive(ringBuffer.get(nextSequence));
+                    } catch (Throwable t) {
+                        log.error(t.getMessage(), t);
+                    } finally {
+                        // marked read before leaving the barrier, so a closed barrier sees every event read
+                        // either consumed or still pending in the ring buffer
+                        sequence.set(nextSequence);
+                        threadBarrier.exit();
+                    }
+                    nextSequence++;
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        ringBuffer.removeConsumer(sequence);
+    }
+
+    public void stop() {
+        running.set(false);
+        ringBuffer.getWaitStrategy().signalAllWhenBlocking();
+    }
+
+    public StreamReceiver getStreamReceiver() {
+        return streamReceiver;
+    }
+}
@@ -18,42 +18,129 @@
 package org.wso2.siddhi.core.stream.input;
 
 import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.EventLayout;
 import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
 import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.event.in.InPrimitiveEvent;
+import org.wso2.siddhi.core.event.in.InPrimitiveListEvent;
 import org.wso2.siddhi.core.snapshot.ThreadBarrier;
 import org.wso2.siddhi.core.stream.StreamJunction;
+import org.wso2.siddhi.core.util.timer.EventTimeClock;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
 public class InputHandler {
     private String streamId;
     private StreamJunction streamJunction;
     private final ThreadBarrier threadBarrier;
+    private final SiddhiClock clock;
+    private final EventTimeClock eventTimeClock;
+    private EventLayout eventLayout;
 
     public InputHandler(String streamId, StreamJunction streamJunction,SiddhiContext siddhiContext) {
         this.streamId = streamId;
         this.streamJunction = streamJunction;
         this.threadBarrier =siddhiContext.getThreadBarrier();
+        this.clock = siddhiContext.getClock();
+        this.eventTimeClock = siddhiContext.isEventTimeProcessing() ? (EventTimeClock) clock : null;
+    }
+
+    public InputHandler(StreamDefinition streamDefinition, StreamJunction streamJunction, SiddhiContext siddhiContext) {
+        this(streamDefinition.getStreamId(), streamJunction, siddhiContext);
+        this.eventLayout = new EventLayout(streamDefinition);
+    }
+
+    /**
+     * Creates an event holding its attributes in primitive slots, to be sent without boxing them.
+     */
+    public InPrimitiveEvent createEvent() {
+        return createEvent(clock.currentTime());
+    }
+
+    public InPrimitiveEvent createEvent(long timeStamp) {
+        return new InPrimitiveEvent(getEventLayout(), timeStamp);
+    }
+
+    /**
+     * Creates a list event storing the attributes of its events in primitive columns.
+     */
+    public InPrimitiveListEvent createListEvent(int initialSize) {
+        return new InPrimitiveListEvent(getEventLayout(), initialSize);
+    }
+
+    private EventLayout getEventLayout() {
+        if (eventLayout == null) {
+            throw new IllegalStateException("Stream definition of " + streamId + " is not known to create primitive events");
+        }
+        return eventLayout;
     }
 
     public void send(Object[] data) throws InterruptedException {
-        StreamEvent event = new InEvent(streamId, System.currentTimeMillis(), data);
-        threadBarrier.pass();
-        streamJunction.send(event);
+        StreamEvent event = new InEvent(streamId, clock.currentTime(), data);
+        threadBarrier.enter();
+        try {
+            streamJunction.send(event);
+        } finally {
+            threadBarrier.exit();
+        }
     }
 
     public void send(long timeStamp, Object[] data) throws InterruptedException {
         StreamEvent event = new InEvent(streamId, timeStamp, data);
-        threadBarrier.pass();
-        streamJunction.send(event);
+        threadBarrier.enter();
+        try {
+            if (eventTimeClock != null) {
+                eventTimeClock.advance(timeStamp);
+            }
+            streamJunction.send(event);
+        } finally {
+            threadBarrier.exit();
+        }
     }
 
     public void send(StreamEvent event) throws InterruptedException {
-        threadBarrier.pass();
-        streamJunction.send(event);
+        threadBarrier.enter();
+        try {
+            if (eventTimeClock != null) {
+                eventTimeClock.advance(event.getTimeStamp());
+            }
+            streamJunction.send(event);
+        } finally {
+            threadBarrier.exit();
+        }
     }
+
+    /**
+     * In event time processing the time advances up to the timestamp of the last event of the list.
+     */
     public void send(ListEvent listEvent) throws InterruptedException {
-        threadBarrier.pass();
-        streamJunction.send(listEvent);
+        threadBarrier.enter();
+        try {
+            if (eventTimeClock != null) {
+                eventTimeClock.advance(listEvent.getTimeStamp());
+            }
+            streamJunction.send(listEvent);
+        } finally {
+            threadBarrier.exit();
+        }
+    }
+
+    /**
+     * Advances the event time to the given timestamp without sending an event, expiring the time
+     * windows and firing the output rates due by then. Events sent later with older timestamps are
+     * processed at the current event time.
+     */
+    public void sendWatermark(long timeStamp) throws InterruptedException {
+        if (eventTimeClock == null) {
+            throw new IllegalStateException("Watermarks are only supported when event time processing is enabled");
+        }
+        threadBarrier.enter();
+        try {
+            eventTimeClock.advance(timeStamp);
+        } finally {
+            threadBarrier.exit();
+        }
     }
 
     public String getStreamId() {
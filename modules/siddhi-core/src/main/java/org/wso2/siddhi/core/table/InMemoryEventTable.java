@@ -25,13 +25,22 @@ import org.wso2.siddhi.core.event.remove.RemoveEvent;
 import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
 import org.wso2.siddhi.core.snapshot.SnapshotObject;
 import org.wso2.siddhi.core.snapshot.Snapshotable;
+import org.wso2.siddhi.core.table.index.HashTableIndex;
+import org.wso2.siddhi.core.table.index.IndexedLookup;
+import org.wso2.siddhi.core.table.index.RangeTableIndex;
+import org.wso2.siddhi.core.table.index.TableIndex;
+import org.wso2.siddhi.core.table.index.TableIndexPlanner;
+import org.wso2.siddhi.core.util.collection.list.SiddhiLinkedSetList;
 import org.wso2.siddhi.core.util.collection.list.SiddhiList;
 import org.wso2.siddhi.core.util.collection.list.SiddhiListGrid;
 import org.wso2.siddhi.query.api.definition.TableDefinition;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 public class InMemoryEventTable implements EventTable, Snapshotable {
     static final Logger log = Logger.getLogger(InMemoryEventTable.class);
@@ -41,7 +50,16 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
     private QueryEventSource queryEventSource;
     private String elementId;
     private final boolean enableRemoveAndAdd;
-
+    //table row is at position 1 of the state events used for delete, update and contains
+    private static final int TABLE_POSITION = 1;
+    private static final IndexedLookup NO_INDEXED_LOOKUP = new IndexedLookup() {
+        @Override
+        public Collection<StreamEvent> find(AtomicEvent event) {
+            return null;
+        }
+    };
+    private Map<Integer, TableIndex> indexMap = new HashMap<Integer, TableIndex>();
+    private Map<ConditionExecutor, IndexedLookup> indexedLookupMap = new HashMap<ConditionExecutor, IndexedLookup>();
 
     public InMemoryEventTable(TableDefinition tableDefinition, SiddhiContext siddhiContext) {
         elementId = siddhiContext.getElementIdGenerator().createNewId();
@@ -50,6 +68,20 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
         if (siddhiContext.isDistributedProcessingEnabled()) {
             enableRemoveAndAdd = true;
             this.list = new SiddhiListGrid<StreamEvent>(elementId, siddhiContext);
+            if (!tableDefinition.getIndexMap().isEmpty()) {
+                log.warn("Indexes of table " + tableDefinition.getTableId() + " are ignored as distributed processing is enabled");
+            }
+        } else if (!tableDefinition.getIndexMap().isEmpty()) {
+            enableRemoveAndAdd = false;
+            this.list = new SiddhiLinkedSetList<StreamEvent>();
+            for (Map.Entry<String, TableDefinition.IndexType> entry : tableDefinition.getIndexMap().entrySet()) {
+                int attributePosition = tableDefinition.getAttributePosition(entry.getKey());
+                if (entry.getValue() == TableDefinition.IndexType.HASH) {
+                    indexMap.put(attributePosition, new HashTableIndex(attributePosition, tableDefinition.getAttributeType(entry.getKey())));
+                } else {
+                    indexMap.put(attributePosition, new RangeTableIndex(attributePosition, tableDefinition.getAttributeType(entry.getKey())));
+                }
+            }
         } else {
             enableRemoveAndAdd = false;
             this.list = new SiddhiList<StreamEvent>();
@@ -63,10 +95,10 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
 
     public synchronized void add(StreamEvent streamEvent) {
         if (streamEvent instanceof AtomicEvent) {
-            list.add(new RemoveEvent((Event) streamEvent, Long.MAX_VALUE));
+            addRow(new RemoveEvent((Event) streamEvent, Long.MAX_VALUE));
         } else {
             for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
-                list.add(new RemoveEvent((Event) ((ListEvent) streamEvent).getEvent(i), Long.MAX_VALUE));
+                addRow(new RemoveEvent((Event) ((ListEvent) streamEvent).getEvent(i), Long.MAX_VALUE));
             }
         }
         if (log.isTraceEnabled()) {
@@ -74,8 +106,53 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
         }
     }
 
+    private void addRow(StreamEvent row) {
+        list.add(row);
+        if (!indexMap.isEmpty()) {
+            for (TableIndex tableIndex : indexMap.values()) {
+                tableIndex.add(row);
+            }
+        }
+    }
+
+    private void removeRowFromIndexes(StreamEvent row) {
+        for (TableIndex tableIndex : indexMap.values()) {
+            tableIndex.remove(row);
+        }
+    }
+
+    private IndexedLookup getIndexedLookup(ConditionExecutor conditionExecutor) {
+        return getIndexedLookup(conditionExecutor, TABLE_POSITION);
+    }
+
+    private IndexedLookup getIndexedLookup(ConditionExecutor conditionExecutor, int tablePosition) {
+        IndexedLookup indexedLookup = indexedLookupMap.get(conditionExecutor);
+        if (indexedLookup == null) {
+            indexedLookup = TableIndexPlanner.plan(conditionExecutor, indexMap, tablePosition);
+            if (indexedLookup == null) {
+                indexedLookup = NO_INDEXED_LOOKUP;
+            }
+            indexedLookupMap.put(conditionExecutor, indexedLookup);
+        }
+        return indexedLookup == NO_INDEXED_LOOKUP ? null : indexedLookup;
+    }
+
+    /**
+     * Candidate rows for the condition, through an index when possible or else all rows.
+     */
+    private Iterator<StreamEvent> candidateIterator(StateEvent stateEvent, ConditionExecutor conditionExecutor) {
+        IndexedLookup indexedLookup = getIndexedLookup(conditionExecutor);
+        if (indexedLookup == null) {
+            return list.iterator();
+        }
+        //copied as the indexes get modified while iterating
+        return new ArrayList<StreamEvent>(indexedLookup.find(stateEvent)).iterator();
+    }
+
     public synchronized void delete(StreamEvent streamEvent, ConditionExecutor conditionExecutor) {
-        if (conditionExecutor != null) {
+        if (!indexMap.isEmpty()) {
+            deleteIndexed(streamEvent, conditionExecutor);
+        } else if (conditionExecutor != null) {
             if (streamEvent instanceof AtomicEvent) {
                 Iterator<StreamEvent> iterator = list.iterator();
                 StateEvent stateEvent = new InStateEvent(new StreamEvent[]{streamEvent, null});
@@ -108,7 +185,61 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
         }
     }
 
+    private void deleteIndexed(StreamEvent streamEvent, ConditionExecutor conditionExecutor) {
+        if (conditionExecutor == null) {
+            list.clear();
+            for (TableIndex tableIndex : indexMap.values()) {
+                tableIndex.clear();
+            }
+            return;
+        }
+        StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
+        for (int i = 0, size = (streamEvent instanceof AtomicEvent) ? 1 : ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
+            stateEvent.setStreamEvent(0, (streamEvent instanceof AtomicEvent) ? streamEvent : ((ListEvent) streamEvent).getEvent(i));
+            stateEvent.setStreamEvent(1, null);
+            Iterator<StreamEvent> iterator = candidateIterator(stateEvent, conditionExecutor);
+            while (iterator.hasNext()) {
+                StreamEvent tableStreamEvent = iterator.next();
+                stateEvent.setStreamEvent(1, tableStreamEvent);
+                if (conditionExecutor.execute(stateEvent)) {
+                    list.remove(tableStreamEvent);
+                    removeRowFromIndexes(tableStreamEvent);
+                }
+            }
+        }
+    }
+
+    private void updateIndexed(StreamEvent streamEvent, ConditionExecutor conditionExecutor, int[] attributeUpdateMappingPosition) {
+        StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
+        for (int i = 0, size = (streamEvent instanceof AtomicEvent) ? 1 : ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
+            Event event = (Event) ((streamEvent instanceof AtomicEvent) ? streamEvent : ((ListEvent) streamEvent).getEvent(i));
+            stateEvent.setStreamEvent(0, event);
+            stateEvent.setStreamEvent(1, null);
+            Iterator<StreamEvent> iterator = conditionExecutor == null ? list.getList().iterator() : candidateIterator(stateEvent, conditionExecutor);
+            while (iterator.hasNext()) {
+                StreamEvent tableStreamEvent = iterator.next();
+                stateEvent.setStreamEvent(1, tableStreamEvent);
+                if (conditionExecutor == null || conditionExecutor.execute(stateEvent)) {
+                    removeRowFromIndexes(tableStreamEvent);
+                    for (int j = 0, mappingSize = attributeUpdateMappingPosition.length; j < mappingSize; j++) {
+                        ((RemoveEvent) tableStreamEvent).getData()[attributeUpdateMappingPosition[j]] = event.getData()[j];
+                    }
+                    for (TableIndex tableIndex : indexMap.values()) {
+                        tableIndex.add(tableStreamEvent);
+                    }
+                }
+            }
+        }
+    }
+
     public synchronized void update(StreamEvent streamEvent, ConditionExecutor conditionExecutor, int[] attributeUpdateMappingPosition) {
+        if (!indexMap.isEmpty()) {
+            updateIndexed(streamEvent, conditionExecutor, attributeUpdateMappingPosition);
+            if (log.isTraceEnabled()) {
+                log.trace("list " + elementId + " size " + list.size());
+            }
+            return;
+        }
         Iterator<StreamEvent> iterator = list.iterator();
         StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
         ArrayList<RemoveEvent> toAddRemoveEventList = null;
@@ -169,9 +300,7 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
             }
         }
         if (enableRemoveAndAdd) {
-            for (RemoveEvent removeEvent : toAddRemoveEventList) {
-                list.add(removeEvent);
-            }
+            list.addAll(toAddRemoveEventList);
         }
         if (log.isTraceEnabled()) {
             log.trace("list " + elementId + " size " + list.size());
@@ -181,8 +310,13 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
 
     public synchronized boolean contains(AtomicEvent atomicEvent, ConditionExecutor conditionExecutor) {
         if (conditionExecutor != null) {
-            Iterator<StreamEvent> iterator = list.iterator();
             StateEvent stateEvent = new InStateEvent(new StreamEvent[]{(StreamEvent) atomicEvent, null});
+            Iterator<StreamEvent> iterator;
+            if (!indexMap.isEmpty()) {
+                iterator = candidateIterator(stateEvent, conditionExecutor);
+            } else {
+                iterator = list.iterator();
+            }
             while (iterator.hasNext()) {
                 StreamEvent tableStreamEvent = iterator.next();
                 stateEvent.setStreamEvent(1, tableStreamEvent);
@@ -194,6 +328,28 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
         return false;
     }
 
+    public boolean isIndexed() {
+        return !indexMap.isEmpty();
+    }
+
+    /**
+     * Finds the rows that can satisfy the condition through the table indexes, used by joins.
+     *
+     * @param stateEvent    joined event holding the table row at tablePosition
+     * @param tablePosition position of the table in the joined events
+     * @return the candidate rows or null if no index can be used for the condition
+     */
+    public synchronized Collection<StreamEvent> find(StateEvent stateEvent, ConditionExecutor conditionExecutor, int tablePosition) {
+        if (indexMap.isEmpty()) {
+            return null;
+        }
+        IndexedLookup indexedLookup = getIndexedLookup(conditionExecutor, tablePosition);
+        if (indexedLookup == null) {
+            return null;
+        }
+        return new ArrayList<StreamEvent>(indexedLookup.find(stateEvent));
+    }
+
     @Override
     public QueryEventSource getQueryEventSource() {
         return queryEventSource;
@@ -225,8 +381,20 @@ public class InMemoryEventTable implements EventTable, Snapshotable {
     }
 
     @Override
-    public void restore(SnapshotObject snapshotObject) {
+    public synchronized void restore(SnapshotObject snapshotObject) {
         list.restoreState((Object[]) snapshotObject.getData()[0]);
+        if (!indexMap.isEmpty()) {
+            for (TableIndex tableIndex : indexMap.values()) {
+                tableIndex.clear();
+            }
+            Iterator<StreamEvent> iterator = list.iterator();
+            while (iterator.hasNext()) {
+                StreamEvent row = iterator.next();
+                for (TableIndex tableIndex : indexMap.values()) {
+                    tableIndex.add(row);
+                }
+            }
+        }
     }
 
     @Override
@@ -18,31 +18,38 @@
 
 package org.wso2.siddhi.core.table;
 
-import org.apache.hadoop.util.bloom.CountingBloomFilter;
-import org.apache.hadoop.util.bloom.Key;
-import org.apache.hadoop.util.hash.Hash;
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.*;
 import org.wso2.siddhi.core.event.in.InEvent;
-import org.wso2.siddhi.core.event.in.InStateEvent;
 import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.extension.EternalReferencedHolder;
+import org.wso2.siddhi.core.snapshot.Checkpointable;
 import org.wso2.siddhi.core.table.cache.CachingTable;
 import org.wso2.siddhi.core.table.predicate.PredicateToken;
 import org.wso2.siddhi.core.table.predicate.PredicateTreeNode;
 import org.wso2.siddhi.core.table.predicate.sql.SQLPredicateBuilder;
+import org.wso2.siddhi.core.table.rdbms.RDBMSBloomFilterIndex;
+import org.wso2.siddhi.core.table.rdbms.RDBMSCursor;
+import org.wso2.siddhi.core.table.rdbms.RDBMSMutation;
+import org.wso2.siddhi.core.table.rdbms.RDBMSWriteBehindWriter;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.TableDefinition;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
 
 import javax.sql.DataSource;
-import java.nio.ByteBuffer;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class RDBMSEventTable implements EventTable {
+public class RDBMSEventTable implements EventTable, Checkpointable, EternalReferencedHolder {
     static final String PARAM_TABLE_NAME = "table.name";
     static final String PARAM_DATASOURCE_NAME = "datasource.name";
     static final String PARAM_CREATE_QUERY = "create.query";
@@ -50,9 +57,23 @@ public class RDBMSEventTable implements EventTable {
     static final String PARAM_CACHE_SIZE = "cache.size";
     static final String PARAM_CACHE_LOADING = "cache.loading";
     static final String PARAM_BLOOM_FILTERS = "bloom.filters";
+    static final String PARAM_BLOOM_FILTERS_COMPOSITE = "bloom.filters.composite";
+    static final String PARAM_BLOOM_FILTERS_FALSE_POSITIVE_RATE = "bloom.filters.false.positive.rate";
+    static final String PARAM_FETCH_SIZE = "fetch.size";
+    static final String PARAM_WRITE_BEHIND = "write.behind";
+    static final String PARAM_WRITE_BEHIND_BATCH_SIZE = "write.behind.batch.size";
+    static final String PARAM_WRITE_BEHIND_BUFFER_SIZE = "write.behind.buffer.size";
+    static final String PARAM_WRITE_BEHIND_INTERVAL = "write.behind.interval";
+    static final String PARAM_WRITE_BEHIND_RETRIES = "write.behind.retries";
 
-    public static final int BLOOM_FILTER_SIZE = 10000;
-    public static final int BLOOM_FILTER_HASH_FUNCTIONS = 4;
+    public static final double DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    public static final int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 500;
+    public static final int DEFAULT_WRITE_BEHIND_BUFFER_SIZE = 10000;
+    public static final long DEFAULT_WRITE_BEHIND_INTERVAL = 1000;
+    public static final int DEFAULT_WRITE_BEHIND_RETRIES = 3;
 
     static final Logger log = Logger.getLogger(RDBMSEventTable.class);
 
@@ -71,11 +92,21 @@ public class RDBMSEventTable implements EventTable {
     private boolean isInitialized;  // db connection init status
 
     private String insertQuery;
+    private String selectQuery;
+    private int fetchSize;
     private boolean bloomFiltersEnabled;
 
     private CachingTable cachedTable;
-    //    private BloomFilter[] bloomFilters;   // bloom filters for each column
-    private CountingBloomFilter[] bloomFilters;
+    private volatile RDBMSBloomFilterIndex bloomFilterIndex;
+    // writes hold the read lock till their rows are in the bloom filters, rebuilds hold the write lock till the
+    // new filters are published, so that rows written while the table is scanned are not left in the old filters
+    private final ReentrantReadWriteLock bloomFilterLock = new ReentrantReadWriteLock();
+
+    private RDBMSWriteBehindWriter writeBehindWriter;
+    // delete and update queries by their predicates, only their parameters differ between events. Keyed by the
+    // predicates rather than the condition executors, as partitioned queries create executors per partition key
+    private final ConcurrentHashMap<String, String> deleteQueries = new ConcurrentHashMap<String, String>();
+    private final ConcurrentHashMap<String, String> updateQueries = new ConcurrentHashMap<String, String>();
 
     public RDBMSEventTable( ) {
     }
@@ -104,12 +135,23 @@ public class RDBMSEventTable implements EventTable {
         try {
             initializeConnection();
             createPreparedStatementQueries();
+            fetchSize = getIntParameter(PARAM_FETCH_SIZE, DEFAULT_FETCH_SIZE);
             if (eagerCacheLoading) {
                 preloadCache();
             }
             if (bloomFiltersEnabled) {
                 buildBloomFilters();
             }
+            // writes are synchronous by default
+            if ((tableDefinition.getExternalTable().getParameter(PARAM_WRITE_BEHIND) != null) && (tableDefinition.getExternalTable().getParameter(PARAM_WRITE_BEHIND).equalsIgnoreCase("enabled"))) {
+                writeBehindWriter = new RDBMSWriteBehindWriter(dataSource, tableName,
+                        getIntParameter(PARAM_WRITE_BEHIND_BATCH_SIZE, DEFAULT_WRITE_BEHIND_BATCH_SIZE),
+                        getIntParameter(PARAM_WRITE_BEHIND_BUFFER_SIZE, DEFAULT_WRITE_BEHIND_BUFFER_SIZE),
+                        getIntParameter(PARAM_WRITE_BEHIND_INTERVAL, (int) DEFAULT_WRITE_BEHIND_INTERVAL),
+                        getIntParameter(PARAM_WRITE_BEHIND_RETRIES, DEFAULT_WRITE_BEHIND_RETRIES));
+                siddhiContext.getSnapshotService().addCheckpointable(this);
+                siddhiContext.addEternalReferencedHolder(this);
+            }
         } catch (ClassNotFoundException e) {
             log.error("Class not found. Can't continue to initialize the table.", e);
             throw new RuntimeException(e);
@@ -118,6 +160,18 @@ public class RDBMSEventTable implements EventTable {
         }
     }
 
+    private int getIntParameter(String name, int defaultValue) {
+        String value = tableDefinition.getExternalTable().getParameter(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                log.error("Can't parse " + name + " of table " + tableDefinition.getTableId() + ", using the default " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     private void initializeConnection() throws SQLException, ClassNotFoundException {
         if (!isInitialized) {
             synchronized (this) {
@@ -213,54 +267,105 @@ public class RDBMSEventTable implements EventTable {
     }
 
 
-    private synchronized void buildBloomFilters() {
-        this.bloomFilters = new CountingBloomFilter[tableDefinition.getAttributeList().size()];
-        for (int i = 0; i < bloomFilters.length; i++) {
-            // number of hashes: 4
-            bloomFilters[i] = new CountingBloomFilter(BLOOM_FILTER_SIZE, BLOOM_FILTER_HASH_FUNCTIONS, Hash.MURMUR_HASH);
-        }
+    /**
+     * Builds the bloom filters from the rows of the table, sized by the row count, blocking the writes till
+     * they are published
+     */
+    private void buildBloomFilters() {
         Connection con = null;
         Statement stmt = null;
+        bloomFilterLock.writeLock().lock();
         try {
+            flushPendingWrites();
             con = dataSource.getConnection();
             stmt = con.createStatement();
-            ResultSet results = stmt.executeQuery("SELECT * FROM " + fullTableName);
-            int count = 0;
-            while (results.next()) {
-                count++;
-                for (int i = 0; i < bloomFilters.length; i++) {
-                    switch (tableDefinition.getAttributeList().get(i).getType()) {
-                        case INT:
-                            bloomFilters[i].add(new Key(Integer.toString(results.getInt(i + 1)).getBytes()));
-                            break;
-                        case LONG:
-                            bloomFilters[i].add(new Key(Long.toString(results.getLong(i + 1)).getBytes()));
-                            break;
-                        case FLOAT:
-                            bloomFilters[i].add(new Key(Float.toString(results.getFloat(i + 1)).getBytes()));
-                            break;
-                        case DOUBLE:
-                            bloomFilters[i].add(new Key(Double.toString(results.getDouble(i + 1)).getBytes()));
-                            break;
-                        case STRING:
-                            bloomFilters[i].add(new Key(results.getString(i + 1).getBytes()));
-                            break;
-                        case BOOL:
-                            bloomFilters[i].add(new Key(Boolean.toString(results.getBoolean(i + 1)).getBytes()));
-                            break;
+            ResultSet resultCount = stmt.executeQuery("SELECT COUNT(*) FROM " + fullTableName);
+            long rowCount = 0;
+            if (resultCount.next()) {
+                rowCount = resultCount.getLong(1);
+            }
+            resultCount.close();
 
-                    }
-                }
+            RDBMSBloomFilterIndex index = new RDBMSBloomFilterIndex(attributeList, getCompositeBloomFilterColumns(), rowCount, getBloomFilterFalsePositiveRate());
+            stmt.setFetchSize(fetchSize);
+            ResultSet results = stmt.executeQuery(selectQuery);
+            while (results.next()) {
+                index.add(RDBMSCursor.readRow(results, attributeList));
             }
             results.close();
-
+            bloomFilterIndex = index;
         } catch (Exception ex) {
             log.error(ex);
         } finally {
             cleanUpConnections(stmt, con);
+            bloomFilterLock.writeLock().unlock();
         }
     }
 
+    /**
+     * @return attribute positions of the groups of attributes given as 'attribute,attribute;attribute,attribute'
+     */
+    private int[][] getCompositeBloomFilterColumns() {
+        String composite = tableDefinition.getExternalTable().getParameter(PARAM_BLOOM_FILTERS_COMPOSITE);
+        if (composite == null || composite.trim().length() == 0) {
+            return new int[0][];
+        }
+        List<int[]> columnsList = new ArrayList<int[]>();
+        for (String group : composite.split(";")) {
+            String[] names = group.split(",");
+            int[] columns = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                columns[i] = getAttributePosition(names[i].trim());
+                if (columns[i] < 0) {
+                    log.error("Unknown attribute " + names[i] + " in the bloom filters of table " + tableDefinition.getTableId());
+                    columns = null;
+                    break;
+                }
+            }
+            if (columns != null) {
+                columnsList.add(columns);
+            }
+        }
+        return columnsList.toArray(new int[columnsList.size()][]);
+    }
+
+    private double getBloomFilterFalsePositiveRate() {
+        String rate = tableDefinition.getExternalTable().getParameter(PARAM_BLOOM_FILTERS_FALSE_POSITIVE_RATE);
+        if (rate != null) {
+            try {
+                return Double.parseDouble(rate);
+            } catch (NumberFormatException e) {
+                log.error("Can't parse " + PARAM_BLOOM_FILTERS_FALSE_POSITIVE_RATE + " of table " + tableDefinition.getTableId() + ", using the default " + DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE);
+            }
+        }
+        return DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE;
+    }
+
+    private int getAttributePosition(String name) {
+        for (int i = 0; i < attributeList.size(); i++) {
+            if (attributeList.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rebuilds the bloom filters once deleted and updated rows make them inefficient
+     */
+    private void rebuildStaleBloomFilters() {
+        if (bloomFilterIndex != null && bloomFilterIndex.isStale()) {
+            buildBloomFilters();
+        }
+    }
+
+    /**
+     * @return observed rate of the lookups of missing rows not rejected by the bloom filters
+     */
+    public double getObservedBloomFilterFalsePositiveRate() {
+        RDBMSBloomFilterIndex index = bloomFilterIndex;
+        return index == null ? 0 : index.getFalsePositiveRate();
+    }
 
     @Override
     public TableDefinition getTableDefinition() {
@@ -269,111 +374,118 @@ public class RDBMSEventTable implements EventTable {
 
     @Override
     public void add(StreamEvent streamEvent) {
-
-        Connection con = null;
-        PreparedStatement statement = null;
         try {
             initializeConnection();
-            con = dataSource.getConnection();
-            con.setAutoCommit(false);
-
-            statement = con.prepareStatement(insertQuery);
+            List<RDBMSMutation> mutationList = new ArrayList<RDBMSMutation>();
             ArrayList<Event> bloomFilterInsertionList = null;
             if (bloomFiltersEnabled) {
                 bloomFilterInsertionList = new ArrayList<Event>();
             }
             if (streamEvent instanceof AtomicEvent) {
-                populateInsertQuery((Event) streamEvent, statement);
-                statement.executeUpdate();
+                mutationList.add(new RDBMSMutation(insertQuery, createInsertParameters((Event) streamEvent)));
                 if (bloomFiltersEnabled) {
                     bloomFilterInsertionList.add((Event) streamEvent);
                 }
             } else {
                 ListEvent listEvent = ((ListEvent) streamEvent);
                 for (int i = 0, size = listEvent.getActiveEvents(); i < size; i++) {
-                    populateInsertQuery(listEvent.getEvent(i), statement);
-                    statement.addBatch();
+                    mutationList.add(new RDBMSMutation(insertQuery, createInsertParameters(listEvent.getEvent(i))));
                     if (bloomFiltersEnabled) {
                         bloomFilterInsertionList.add(listEvent.getEvent(i));
                     }
                 }
-                statement.executeBatch();
-            }
-            con.commit();
-
-            if (cachedTable != null) {
-                cachedTable.add(streamEvent);
             }
             if (bloomFiltersEnabled) {
-                addToBloomFilters(bloomFilterInsertionList);
+                bloomFilterLock.readLock().lock();
+            }
+            try {
+                write(mutationList);
+
+                if (cachedTable != null) {
+                    cachedTable.add(streamEvent);
+                }
+                if (bloomFiltersEnabled && bloomFilterIndex != null) {
+                    for (Event event : bloomFilterInsertionList) {
+                        bloomFilterIndex.add(event.getData());
+                    }
+                }
+            } finally {
+                if (bloomFiltersEnabled) {
+                    bloomFilterLock.readLock().unlock();
+                }
             }
 
         } catch (SQLException e) {
             log.error("Unable to insert the records to the table", e);
         } catch (Exception e) {
             log.error("Error while inserting data.", e);
-        } finally {
-            cleanUpConnections(statement, con);
         }
     }
 
-
-    private void addToBloomFilters(List<Event> eventList) {
-        for (Event event : eventList) {
-            for (int i = 0; i < attributeList.size(); i++) {
-                Attribute at = attributeList.get(i);
-                switch (at.getType()) {
-                    case INT:
-                        bloomFilters[i].add(new Key(Integer.toString((Integer) event.getData(i)).getBytes()));
-                        break;
-                    case LONG:
-                        bloomFilters[i].add(new Key(Long.toString((Long) event.getData(i)).getBytes()));
-                        break;
-                    case FLOAT:
-                        bloomFilters[i].add(new Key(Float.toString((Float) event.getData(i)).getBytes()));
-                        break;
-                    case DOUBLE:
-                        bloomFilters[i].add(new Key(Double.toString((Double) event.getData(i)).getBytes()));
-                        break;
-                    case STRING:
-                        bloomFilters[i].add(new Key(event.getData(i).toString().getBytes()));
-                        break;
-                    case BOOL:
-                        bloomFilters[i].add(new Key(Boolean.toString((Boolean) event.getData(i)).getBytes()));
-                        break;
+    /**
+     * Buffers the mutations in write behind mode, or executes them as batches in one transaction
+     */
+    private void write(List<RDBMSMutation> mutationList) throws SQLException {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.write(mutationList);
+            SQLException failure = writeBehindWriter.takeFailure();
+            if (failure != null) {
+                // the cache already reflects the dropped changes, reads go to the database till it is reloaded
+                log.error("Buffered changes of table " + tableDefinition.getTableId() + " were lost, invalidating its cache", failure);
+                if (cachedTable != null) {
+                    cachedTable.invalidateCache();
                 }
             }
+            return;
+        }
+        Connection con = null;
+        Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+        try {
+            con = dataSource.getConnection();
+            con.setAutoCommit(false);
+            RDBMSWriteBehindWriter.execute(con, mutationList, statements);
+            con.commit();
+        } finally {
+            for (PreparedStatement statement : statements.values()) {
+                cleanUpConnections(statement, null);
+            }
+            cleanUpConnections(null, con);
         }
     }
 
-    private void removeFromBloomFilters(List<Event> eventList) {
-        for (Event event : eventList) {
-            for (int i = 0; i < attributeList.size(); i++) {
-                Attribute at = attributeList.get(i);
-                switch (at.getType()) {
-                    case INT:
-                        bloomFilters[i].delete(new Key(ByteBuffer.allocate(4).putInt((Integer) event.getData(i)).array()));
-                        break;
-                    case LONG:
-                        bloomFilters[i].delete(new Key(ByteBuffer.allocate(8).putLong((Long) event.getData(i)).array()));
-                        break;
-                    case FLOAT:
-                        bloomFilters[i].delete(new Key(ByteBuffer.allocate(4).putFloat((Float) event.getData(i)).array()));
-                        break;
-                    case DOUBLE:
-                        bloomFilters[i].delete(new Key(ByteBuffer.allocate(8).putDouble((Double) event.getData(i)).array()));
-                        break;
-                    case STRING:
-                        bloomFilters[i].delete(new Key(event.getData(i).toString().getBytes()));
-                        break;
-                    case BOOL:
-                        bloomFilters[i].delete(new Key(Boolean.toString((Boolean) event.getData(i)).getBytes()));
-                        break;
-                }
+    /**
+     * Writes the buffered mutations before reading from the database, so that reads see the pending writes
+     *
+     * @throws SQLException if they could not be written, the read then fails as the database lacks them
+     */
+    private void flushPendingWrites() throws SQLException {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.flush();
+        }
+    }
+
+    /**
+     * @throws RuntimeException if the buffered mutations could not be written, failing the snapshot
+     */
+    @Override
+    public void checkpoint() {
+        if (writeBehindWriter != null) {
+            try {
+                writeBehindWriter.flush();
+            } catch (SQLException e) {
+                throw new RuntimeException("Unable to write the buffered changes of the table " + tableDefinition.getTableId() + " for the snapshot", e);
             }
         }
     }
 
+    @Override
+    public void destroy() {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.shutdown();
+        }
+    }
+
+
     private void preloadCache() {
         Connection con = null;
         Statement statement = null;
@@ -437,29 +549,35 @@ public class RDBMSEventTable implements EventTable {
         }
     }
 
-    private void populateInsertQuery(Event event, PreparedStatement statement) throws SQLException {
+    private Object[] createInsertParameters(Event event) {
+        Object[] parameters = new Object[attributeList.size()];
         for (int i = 0; i < attributeList.size(); i++) {
+            Object value = event.getData(i);
+            if (value == null) {
+                continue;
+            }
             switch (attributeList.get(i).getType()) {
                 case INT:
-                    statement.setInt(i + 1, ((Number) event.getData(i)).intValue());
+                    parameters[i] = ((Number) value).intValue();
                     break;
                 case LONG:
-                    statement.setLong(i + 1, ((Number) event.getData(i)).longValue());
+                    parameters[i] = ((Number) value).longValue();
                     break;
                 case FLOAT:
-                    statement.setFloat(i + 1, ((Number) event.getData(i)).floatValue());
+                    parameters[i] = ((Number) value).floatValue();
                     break;
                 case DOUBLE:
-                    statement.setDouble(i + 1, ((Number) event.getData(i)).doubleValue());
+                    parameters[i] = ((Number) value).doubleValue();
                     break;
                 case BOOL:
-                    statement.setBoolean(i + 1, (Boolean) event.getData(i));
+                    parameters[i] = value;
                     break;
                 default:
-                    statement.setString(i + 1, event.getData(i).toString());
+                    parameters[i] = value.toString();
                     break;
             }
         }
+        return parameters;
     }
 
     private void createPreparedStatementQueries() {
@@ -478,181 +596,172 @@ public class RDBMSEventTable implements EventTable {
         }
         builder.append(")");
         insertQuery = builder.toString();
+
+        // selecting the attributes in their defined order, the rows are read by column position
+        builder = new StringBuilder("SELECT ");
+        for (int i = 0; i < attributeList.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(attributeList.get(i).getName());
+        }
+        builder.append(" FROM ");
+        builder.append(fullTableName);
+        selectQuery = builder.toString();
     }
 
     @Override
     public void delete(StreamEvent streamEvent, ConditionExecutor conditionExecutor) {
-        PreparedStatement statement = null;
-        Connection con = null;
         try {
             initializeConnection();
-            con = dataSource.getConnection();
-            con.setAutoCommit(false);
-            StringBuilder statementBuilder = new StringBuilder("DELETE FROM ");
-            statementBuilder.append(fullTableName);
-            statementBuilder.append(" WHERE ");
+            List<RDBMSMutation> mutationList = new ArrayList<RDBMSMutation>();
             ArrayList<Event> bloomFilterDeletionList = null;
             if (bloomFiltersEnabled) {
                 bloomFilterDeletionList = new ArrayList<Event>();
             }
+            SQLPredicateBuilder predicateBuilder = new SQLPredicateBuilder();
             if (streamEvent instanceof AtomicEvent) {
-                PredicateTreeNode predicate = conditionExecutor.constructPredicate((Event) streamEvent, tableDefinition, new SQLPredicateBuilder());
-                statementBuilder.append(predicate.buildPredicateString());
-                statement = con.prepareStatement(statementBuilder.toString());
-                ArrayList paramList = new ArrayList();
-                predicate.populateParameters(paramList);
-                for (int i = 0; i < paramList.size(); i++) {
-                    populateStatement(statement, i + 1, paramList.get(i));
-                }
+                mutationList.add(createDeleteMutation((Event) streamEvent, conditionExecutor, predicateBuilder));
                 if (bloomFiltersEnabled) {
                     bloomFilterDeletionList.add((Event) streamEvent);
                 }
-                statement.executeUpdate();
             } else {
                 for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
-                    // deleting the entire event set using an aggregate query with OR conditions
-                    if (i > 0) {
-                        statementBuilder.append(" OR ");
-                    }
-                    statementBuilder.append("(");
-                    statementBuilder.append(conditionExecutor.constructPredicate(((ListEvent) streamEvent).getEvent(i), tableDefinition, new SQLPredicateBuilder()).buildPredicateString());
-                    statementBuilder.append(")");
+                    // deleted as a batch of the same statement
+                    mutationList.add(createDeleteMutation(((ListEvent) streamEvent).getEvent(i), conditionExecutor, predicateBuilder));
                     if (bloomFiltersEnabled) {
                         bloomFilterDeletionList.add(((ListEvent) streamEvent).getEvent(i));
                     }
                 }
-                statement = con.prepareStatement(statementBuilder.toString());
-                statement.executeUpdate();
             }
-            con.commit();
+            write(mutationList);
             if (cachedTable != null) {
                 cachedTable.delete(streamEvent, conditionExecutor);
             }
-            if (bloomFiltersEnabled) {
-                removeFromBloomFilters(bloomFilterDeletionList);
+            if (bloomFiltersEnabled && bloomFilterIndex != null) {
+                // deleted rows stay in the filters until they are rebuilt
+                bloomFilterIndex.addStaleRows(bloomFilterDeletionList.size());
+                rebuildStaleBloomFilters();
             }
 
         } catch (SQLException e) {
             log.error("Unable to execute deletion.", e);
         } catch (ClassNotFoundException e) {
             log.error("Unable to load the database driver.", e);
-        } finally {
-            cleanUpConnections(statement, con);
         }
 
     }
 
+    private RDBMSMutation createDeleteMutation(Event event, ConditionExecutor conditionExecutor, SQLPredicateBuilder predicateBuilder) {
+        PredicateTreeNode predicate = conditionExecutor.constructPredicate(event, tableDefinition, predicateBuilder);
+        String predicateString = predicate.buildPredicateString();
+        String query = deleteQueries.get(predicateString);
+        if (query == null) {
+            query = "DELETE FROM " + fullTableName + " WHERE " + predicateString;
+            deleteQueries.put(predicateString, query);
+        }
+        ArrayList paramList = new ArrayList();
+        predicate.populateParameters(paramList);
+        return new RDBMSMutation(query, paramList.toArray());
+    }
+
     @Override
     public void update(StreamEvent streamEvent, ConditionExecutor conditionExecutor,
                        int[] attributeUpdateMappingPosition) {
-        Connection con = null;
-        PreparedStatement statement = null;
-
         try {
             initializeConnection();
-            con = dataSource.getConnection();
-            con.setAutoCommit(false);
-            Event atomicEvent = null;
+            List<RDBMSMutation> mutationList = new ArrayList<RDBMSMutation>();
             SQLPredicateBuilder predicateBuilder = new SQLPredicateBuilder();
             if (streamEvent instanceof AtomicEvent) {
-                atomicEvent = (Event) streamEvent;  // used to execute the condition executor
-            } else {
-                if (((ListEvent) streamEvent).getActiveEvents() > 0) {
-                    atomicEvent = ((ListEvent) streamEvent).getEvent(0);
+                mutationList.add(createUpdateMutation((Event) streamEvent, conditionExecutor, attributeUpdateMappingPosition, predicateBuilder));
+            } else {      // streamEvent instanceof ListEvent
+                for (int j = 0, size = ((ListEvent) streamEvent).getActiveEvents(); j < size; j++) {
+                    mutationList.add(createUpdateMutation(((ListEvent) streamEvent).getEvent(j), conditionExecutor, attributeUpdateMappingPosition, predicateBuilder));
                 }
             }
-
-            PredicateTreeNode predicate = conditionExecutor.constructPredicate(atomicEvent, tableDefinition, predicateBuilder);
-            String query = createUpdateQuery(predicate.buildPredicateString(), attributeUpdateMappingPosition);
-            statement = con.prepareStatement(query);
-            ArrayList paramList = new ArrayList();
-
-            if (streamEvent instanceof AtomicEvent) {
-
-                for (int i = 0; i < attributeUpdateMappingPosition.length; i++) {
-                    populateStatement(statement, i + 1, atomicEvent.getData(i));
-                }
-
-                predicate.populateParameters(paramList);
-                for (int i = 0; i < paramList.size(); i++) {
-                    populateStatement(statement, attributeUpdateMappingPosition.length + i + 1, paramList.get(i));
+            boolean rebuild = false;
+            if (bloomFiltersEnabled) {
+                bloomFilterLock.readLock().lock();
+            }
+            try {
+                write(mutationList);
+                if (cachedTable != null) {
+                    cachedTable.update(streamEvent, conditionExecutor, attributeUpdateMappingPosition);
                 }
-                statement.executeUpdate();
-
-            } else {      // streamEvent instanceof ListEvent
-                statement.clearParameters();
-
-                for (int j = 0, size = ((ListEvent) streamEvent).getActiveEvents(); j < size; j++) {
-                    Event event = ((ListEvent) streamEvent).getEvent(j);
-                    predicate = conditionExecutor.constructPredicate(event, tableDefinition, predicateBuilder);
-                    paramList.clear();
-                    predicate.populateParameters(paramList);
-                    for (int i = 0; i < attributeList.size(); i++) {
-                        populateStatement(statement, i + 1, event.getData(i));
+                if (bloomFiltersEnabled && bloomFilterIndex != null) {
+                    // updated values are added to the filters, their old values stay until the filters are rebuilt
+                    boolean added = true;
+                    int updateCount = 0;
+                    if (streamEvent instanceof AtomicEvent) {
+                        added = bloomFilterIndex.addValues(attributeUpdateMappingPosition, ((Event) streamEvent).getData());
+                        updateCount = 1;
+                    } else {
+                        for (int j = 0, size = ((ListEvent) streamEvent).getActiveEvents(); j < size && added; j++) {
+                            added = bloomFilterIndex.addValues(attributeUpdateMappingPosition, ((ListEvent) streamEvent).getEvent(j).getData());
+                            updateCount++;
+                        }
                     }
-                    for (int i = 0; i < paramList.size(); i++) {
-                        populateStatement(statement, attributeList.size() + i + 1, paramList.get(i));
+                    if (added) {
+                        bloomFilterIndex.addStaleRows(updateCount);
+                    } else {
+                        rebuild = true;
                     }
-                    statement.addBatch();
                 }
-                statement.executeBatch();
-            }
-            con.commit();
-            if (cachedTable != null) {
-                cachedTable.update(streamEvent, conditionExecutor, attributeUpdateMappingPosition);
+            } finally {
+                if (bloomFiltersEnabled) {
+                    bloomFilterLock.readLock().unlock();
+                }
             }
-            if (bloomFiltersEnabled) {
+            // rebuilt after releasing the read lock, as it can't be upgraded to the write lock
+            if (rebuild) {
                 buildBloomFilters();
+            } else if (bloomFiltersEnabled) {
+                rebuildStaleBloomFilters();
             }
 
         } catch (SQLException e) {
             log.error("Unable to execute update on " + streamEvent, e);
         } catch (ClassNotFoundException e) {
             log.error("Unable to load the database driver for " + tableDefinition.getExternalTable().getParameter(PARAM_TABLE_NAME), e);
-        } finally {
-            cleanUpConnections(statement, con);
         }
 
     }
 
+    private RDBMSMutation createUpdateMutation(Event event, ConditionExecutor conditionExecutor, int[] attributeUpdateMappingPosition,
+                                               SQLPredicateBuilder predicateBuilder) {
+        PredicateTreeNode predicate = conditionExecutor.constructPredicate(event, tableDefinition, predicateBuilder);
+        String predicateString = predicate.buildPredicateString();
+        String queryKey = Arrays.toString(attributeUpdateMappingPosition) + predicateString;
+        String query = updateQueries.get(queryKey);
+        if (query == null) {
+            query = createUpdateQuery(predicateString, attributeUpdateMappingPosition);
+            updateQueries.put(queryKey, query);
+        }
+        ArrayList paramList = new ArrayList();
+        for (int i = 0; i < attributeUpdateMappingPosition.length; i++) {
+            paramList.add(event.getData(i));
+        }
+        predicate.populateParameters(paramList);
+        return new RDBMSMutation(query, paramList.toArray());
+    }
+
 
     @Override
     public boolean contains(AtomicEvent atomicEvent, ConditionExecutor conditionExecutor) {
 
         PredicateTreeNode predicate = null;
+        boolean bloomFilterPassed = false;
 
-        if (bloomFiltersEnabled) {
-            // bloom filters used only for the equal conditions.
+        RDBMSBloomFilterIndex index = bloomFilterIndex;
+        if (index != null) {
+            // bloom filters are only used for conditions of equalities joined by AND.
             predicate = conditionExecutor.constructPredicate(atomicEvent, tableDefinition, new SQLPredicateBuilder());
-            ArrayList<PredicateToken> tokenList = new ArrayList<PredicateToken>(3);
-            predicate.populateTokens(tokenList);
-
-            // looking for two sided equals conditions (operators) only.
-            if (tokenList.size() < 4) {
-                // not using bloom filters for complex conditions
-                for (int operatorIndex = 1; operatorIndex < tokenList.size() - 1; operatorIndex++) {
-
-                    // at this level the operator becomes '=' instead of '=='
-                    if (tokenList.get(operatorIndex).getGetTokenType() == PredicateToken.Type.OPERATOR &&
-                            tokenList.get(operatorIndex).getTokenValue().trim().equals("=")) {
-
-                        // param and value can be in any order i.e. price = 3 or 1 = price. this is to handle such scenarios.
-                        String param = tokenList.get(operatorIndex - 1).getGetTokenType() == PredicateToken.Type.VARIABLE ? tokenList.get(operatorIndex - 1).getTokenValue().trim() :
-                                tokenList.get(operatorIndex + 1).getTokenValue().toString().trim();
-                        String value = tokenList.get(operatorIndex - 1).getGetTokenType() == PredicateToken.Type.VARIABLE ? tokenList.get(operatorIndex + 1).getTokenValue().toString().trim() :
-                                tokenList.get(operatorIndex - 1).getTokenValue().trim();
-
-                        for (int i = 0; i < attributeList.size(); i++) {
-                            if (attributeList.get(i).getName().equals(param)) {
-                                boolean mightContain = bloomFilters[i].membershipTest(new Key(value.getBytes()));
-
-                                if (!mightContain) {
-                                    return false;
-                                }
-                            }
-                        }
-                    }
+            Object[] equalities = getEqualities(predicate);
+            if (equalities != null) {
+                if (!index.mightContain(equalities)) {
+                    return false;
                 }
+                bloomFilterPassed = true;
             }
         }
 
@@ -664,6 +773,7 @@ public class RDBMSEventTable implements EventTable {
             PreparedStatement statement = null;
             try {
                 initializeConnection();
+                flushPendingWrites();
 
                 if (predicate == null) {
                     predicate = conditionExecutor.constructPredicate(atomicEvent, tableDefinition, new SQLPredicateBuilder());
@@ -719,6 +829,9 @@ public class RDBMSEventTable implements EventTable {
                     }
                 }
                 resultSet.close();
+                if (!contains && bloomFilterPassed) {
+                    index.recordFalsePositive();
+                }
                 return contains;
             } catch (SQLException e) {
                 log.error("Can't read the database table: " + tableDefinition.getExternalTable().getParameter(PARAM_TABLE_NAME), e);
@@ -731,6 +844,45 @@ public class RDBMSEventTable implements EventTable {
         }
     }
 
+    /**
+     * @return values the attributes are compared to, by the attribute positions, or null when the predicate isn't
+     * equalities of attributes and values joined by AND
+     */
+    private Object[] getEqualities(PredicateTreeNode predicate) {
+        List<PredicateToken> tokenList = new ArrayList<PredicateToken>();
+        predicate.populateTokens(tokenList);
+        List paramList = new ArrayList();
+        predicate.populateParameters(paramList);
+
+        Object[] equalities = new Object[attributeList.size()];
+        int paramIndex = 0;
+        // tokens of the form: variable = value AND value = variable ..
+        for (int i = 0; i < tokenList.size(); i += 4) {
+            if (i + 2 >= tokenList.size() || !isOperator(tokenList.get(i + 1), "=") ||
+                    (i + 3 < tokenList.size() && !isOperator(tokenList.get(i + 3), "AND"))) {
+                return null;
+            }
+            PredicateToken variable;
+            if (tokenList.get(i).getGetTokenType() == PredicateToken.Type.VARIABLE && tokenList.get(i + 2).getGetTokenType() == PredicateToken.Type.VALUE) {
+                variable = tokenList.get(i);
+            } else if (tokenList.get(i).getGetTokenType() == PredicateToken.Type.VALUE && tokenList.get(i + 2).getGetTokenType() == PredicateToken.Type.VARIABLE) {
+                variable = tokenList.get(i + 2);
+            } else {
+                return null;
+            }
+            int position = getAttributePosition(variable.getTokenValue().trim());
+            if (position < 0 || paramIndex >= paramList.size()) {
+                return null;
+            }
+            equalities[position] = paramList.get(paramIndex++);
+        }
+        return equalities;
+    }
+
+    private boolean isOperator(PredicateToken token, String operator) {
+        return token.getGetTokenType() == PredicateToken.Type.OPERATOR && token.getTokenValue().trim().equalsIgnoreCase(operator);
+    }
+
     private String createUpdateQuery(String predicate, int[] attributeMappingPositions) {
         StringBuilder statementBuilder = new StringBuilder("UPDATE ");
         statementBuilder.append(fullTableName);
@@ -759,21 +911,8 @@ public class RDBMSEventTable implements EventTable {
     public Iterator<StreamEvent> iterator(StreamEvent event, ConditionExecutor conditionExecutor) {
         if (cachedTable != null && cachedTable.isFullyLoaded()) {
             if (event instanceof AtomicEvent) {
-                synchronized (this) {
-                    ArrayList<StreamEvent> resultEvents = new ArrayList<StreamEvent>();
-                    Iterator<StreamEvent> iterator = cachedTable.iterator();
-                    StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
-                    stateEvent.setStreamEvent(0, event);
-                    while (iterator.hasNext()) {
-                        StreamEvent cachedEvent = iterator.next();
-                        stateEvent.setStreamEvent(1, cachedEvent);
-                        if (conditionExecutor.execute(stateEvent)) {
-                            resultEvents.add(cachedEvent);
-                        }
-                    }
-                    return resultEvents.iterator();
-                }
-
+                // the join condition is evaluated by the join on the returned events
+                return cachedTable.getEvents().iterator();
             }
         }
         PredicateTreeNode predicate = conditionExecutor.constructPredicate((AtomicEvent) event, tableDefinition, new SQLPredicateBuilder());
@@ -783,66 +922,41 @@ public class RDBMSEventTable implements EventTable {
         }
         ArrayList paramList = new ArrayList();
         predicate.populateParameters(paramList);
-        for (int i = 0; i < paramList.size(); i++) {
-            Object value = paramList.get(i);
-            if (value != null) {
-                value = value.toString().replaceAll("'", "''");
-            }
-            sqlPredicate = sqlPredicate.replaceFirst("\\?", "'" + value.toString() + "'");  // populate one by one.
-        }
-        return iterator(sqlPredicate);
+        return query(sqlPredicate, paramList);
     }
 
     @Override
     public Iterator<StreamEvent> iterator(String sqlPredicate) {
+        return query(sqlPredicate, null);
+    }
+
+    /**
+     * Selects the rows matching the predicate through a cursor fetching them as they are iterated
+     *
+     * @param sqlPredicate predicate of the where clause, null to select all the rows
+     * @param paramList    parameters of the predicate, or null
+     */
+    private Iterator<StreamEvent> query(String sqlPredicate, List paramList) {
         Connection con = null;
-        Statement statement = null;
+        PreparedStatement statement = null;
         try {
+            flushPendingWrites();
             con = dataSource.getConnection();
-            statement = con.createStatement();
-            ResultSet resultSet = statement.executeQuery("SELECT * FROM " + fullTableName +
-                    ((sqlPredicate == null) ? "" : (" WHERE " + sqlPredicate)));
-            resultSet.setFetchSize(10000);
-            ArrayList<StreamEvent> eventList = new ArrayList<StreamEvent>();
-            long timestamp = System.currentTimeMillis();
-            while (resultSet.next()) {
-                Object[] data = new Object[attributeList.size()];
-                for (int i = 0; i < attributeList.size(); i++) {
-                    switch (attributeList.get(i).getType()) {
-                        case BOOL:
-                            data[i] = resultSet.getBoolean(attributeList.get(i).getName());
-                            break;
-                        case DOUBLE:
-                            data[i] = resultSet.getDouble(attributeList.get(i).getName());
-                            break;
-                        case FLOAT:
-                            data[i] = resultSet.getFloat(attributeList.get(i).getName());
-                            break;
-                        case INT:
-                            data[i] = resultSet.getInt(attributeList.get(i).getName());
-                            break;
-                        case LONG:
-                            data[i] = resultSet.getLong(attributeList.get(i).getName());
-                            break;
-                        case STRING:
-                            data[i] = resultSet.getString(attributeList.get(i).getName());
-                            break;
-                        default:
-                            data[i] = resultSet.getObject(attributeList.get(i).getName());
-
-                    }
+            statement = con.prepareStatement(selectQuery + ((sqlPredicate == null) ? "" : (" WHERE " + sqlPredicate)),
+                                             ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            if (paramList != null) {
+                for (int i = 0; i < paramList.size(); i++) {
+                    populateStatement(statement, i + 1, paramList.get(i));
                 }
-                Event event = new InEvent(tableDefinition.getExternalTable().getParameter(PARAM_TABLE_NAME), timestamp, data);
-                eventList.add(event);
             }
-            resultSet.close();
-            return eventList.iterator();
+            ResultSet resultSet = statement.executeQuery();
+            return new RDBMSCursor(tableDefinition.getExternalTable().getParameter(PARAM_TABLE_NAME), attributeList, con, statement, resultSet);
         } catch (SQLException e) {
             log.error("Unable to read the table: " + tableDefinition.getExternalTable().getParameter(PARAM_TABLE_NAME), e);
-        } finally {
-            cleanUpConnections(statement, con);
         }
-        return null;
+        cleanUpConnections(statement, con);
+        return Collections.<StreamEvent>emptyList().iterator();
     }
 
     @Override
@@ -870,20 +984,6 @@ public class RDBMSEventTable implements EventTable {
 
     private void populateStatement(PreparedStatement stmt, int index, Object value)
             throws SQLException {
-        if (value instanceof String) {
-            stmt.setString(index, (String) value);
-        } else if (value instanceof Integer) {
-            stmt.setInt(index, (Integer) value);
-        } else if (value instanceof Double) {
-            stmt.setDouble(index, (Double) value);
-        } else if (value instanceof Boolean) {
-            stmt.setBoolean(index, (Boolean) value);
-        } else if (value instanceof Float) {
-            stmt.setFloat(index, (Float) value);
-        } else if (value instanceof Long) {
-            stmt.setLong(index, (Long) value);
-        } else {
-            stmt.setString(index, (String) value);
-        }
+        RDBMSMutation.populateStatement(stmt, index, value);
     }
 }
@@ -1,15 +1,16 @@
 package org.wso2.siddhi.core.table.cache;
 
-import org.wso2.siddhi.core.event.AtomicEvent;
-import org.wso2.siddhi.core.event.Event;
-import org.wso2.siddhi.core.event.ListEvent;
 import org.wso2.siddhi.core.event.StreamEvent;
-import org.wso2.siddhi.core.event.remove.RemoveEvent;
-import org.wso2.siddhi.core.util.collection.list.SiddhiList;
 
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Evicts the events in the order they were cached.
+ */
 public class BasicCacheManager implements CacheManager {
 
-    private SiddhiList<StreamEvent> cacheList;
+    private LinkedHashSet<StreamEvent> events;
     private int limit;
 
     public BasicCacheManager() {
@@ -17,31 +18,26 @@ public class BasicCacheManager implements CacheManager {
     }
 
     @Override
-    public void init(SiddhiList<StreamEvent> cacheList, int limit) {
-        this.cacheList = cacheList;
+    public void init(int limit) {
+        this.events = new LinkedHashSet<StreamEvent>();
         this.limit = limit;
     }
 
     @Override
-    public void add(StreamEvent item) {
-        if (item instanceof AtomicEvent) {
-            if (cacheList.size() >= limit) {
-                cacheList.remove(0);
-            }
-            cacheList.add(new RemoveEvent((Event) item, Long.MAX_VALUE));
-        } else {
-            for (int i = 0, size = ((ListEvent) item).getActiveEvents(); i < size; i++) {
-                if (cacheList.size() >= limit) {
-                    cacheList.remove(0);
-                }
-                cacheList.add(new RemoveEvent(((ListEvent) item).getEvent(i), Long.MAX_VALUE));
-            }
+    public StreamEvent add(StreamEvent item) {
+        events.add(item);
+        if (events.size() > limit) {
+            Iterator<StreamEvent> iterator = events.iterator();
+            StreamEvent eldest = iterator.next();
+            iterator.remove();
+            return eldest;
         }
+        return null;
     }
 
     @Override
     public void delete(StreamEvent item) {
-        cacheList.remove(item);
+        events.remove(item);
     }
 
     @Override
@@ -53,4 +49,9 @@ public class BasicCacheManager implements CacheManager {
     public void update(StreamEvent item) {
         // has no effect
     }
+
+    @Override
+    public void clear() {
+        events.clear();
+    }
 }
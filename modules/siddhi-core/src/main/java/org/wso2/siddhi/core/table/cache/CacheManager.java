@@ -1,13 +1,18 @@
 package org.wso2.siddhi.core.table.cache;
 
 import org.wso2.siddhi.core.event.StreamEvent;
-import org.wso2.siddhi.core.util.collection.list.SiddhiList;
 
+/**
+ * Eviction policy of a CachingTable, tracking the cached events by their identity in constant time.
+ */
 public interface CacheManager {
 
-    public void init(SiddhiList<StreamEvent> cacheList, int limit);
+    public void init(int limit);
 
-    public void add(StreamEvent item);
+    /**
+     * @return event evicted to keep the cache within its limit, which can be the added event itself, or null
+     */
+    public StreamEvent add(StreamEvent item);
 
     public void delete(StreamEvent item);
 
@@ -15,5 +20,6 @@ public interface CacheManager {
 
     public void update(StreamEvent item);
 
+    public void clear();
 
 }
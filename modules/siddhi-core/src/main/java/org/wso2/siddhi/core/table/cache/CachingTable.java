@@ -6,31 +6,40 @@ import org.wso2.siddhi.core.event.*;
 import org.wso2.siddhi.core.event.in.InStateEvent;
 import org.wso2.siddhi.core.event.remove.RemoveEvent;
 import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
-import org.wso2.siddhi.core.util.collection.list.SiddhiList;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+/**
+ * Cache of the rows of an RDBMS table, evicting them through the CacheManager of the configured caching algorithm
+ * ('basic', 'lru', 'lfu' or 'tinylfu') once the cache size is exceeded.
+ */
 public class CachingTable {
 
     static final Logger log = Logger.getLogger(CachingTable.class);
 
-    private SiddhiList<StreamEvent> list;
+    private LinkedHashSet<StreamEvent> events;
     private String elementId;
     private String tableId;
     private CacheManager cacheManager;
     private int cacheLimit;
     private boolean isFullyLoaded;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
 
     public static final int DEFAULT_CACHE_SIZE = 4096;
 
     public static final String CACHING_ALGO_BASIC = "basic";
     public static final String CACHING_ALGO_LRU = "lru";
     public static final String CACHING_ALGO_LFU = "lfu";
+    public static final String CACHING_ALGO_TINY_LFU = "tinylfu";
 
     public CachingTable(String tableId, String cachingAlgorithm, String cacheSize, SiddhiContext siddhiContext) {
         this.elementId = siddhiContext.getElementIdGenerator().createNewId();
-        this.list = new SiddhiList<StreamEvent>();
+        this.events = new LinkedHashSet<StreamEvent>();
         this.tableId = tableId;
         cacheLimit = DEFAULT_CACHE_SIZE;
         if (cacheSize != null) {
@@ -44,99 +53,96 @@ public class CachingTable {
             this.cacheManager = new LFUCacheManager();
         } else if (CACHING_ALGO_LRU.equalsIgnoreCase(cachingAlgorithm)) {
             this.cacheManager = new LRUCacheManager();
+        } else if (CACHING_ALGO_TINY_LFU.equalsIgnoreCase(cachingAlgorithm)) {
+            this.cacheManager = new TinyLFUCacheManager();
         } else {
             this.cacheManager = new BasicCacheManager();
         }
-        this.cacheManager.init(list, cacheLimit);
+        this.cacheManager.init(cacheLimit);
     }
 
     public synchronized void add(StreamEvent streamEvent) {
-        cacheManager.add(streamEvent);
+        if (streamEvent instanceof AtomicEvent) {
+            addEvent((Event) streamEvent);
+        } else {
+            for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
+                addEvent(((ListEvent) streamEvent).getEvent(i));
+            }
+        }
         if (log.isTraceEnabled()) {
-            log.trace("list " + elementId + " size " + list.size());
+            log.trace("list " + elementId + " size " + events.size());
         }
     }
 
     public synchronized void addAll(List<StreamEvent> streamEvents) {
         for (StreamEvent event : streamEvents) {
-            cacheManager.add(event);
+            add(event);
+        }
+    }
+
+    private void addEvent(Event event) {
+        // cached as remove events as their attributes are updated in place
+        StreamEvent cachedEvent = new RemoveEvent(event, Long.MAX_VALUE);
+        events.add(cachedEvent);
+        StreamEvent evictedEvent = cacheManager.add(cachedEvent);
+        if (evictedEvent != null) {
+            events.remove(evictedEvent);
+            evictionCount++;
+            isFullyLoaded = false;
         }
     }
 
     public synchronized void delete(StreamEvent streamEvent, ConditionExecutor conditionExecutor) {
         if (conditionExecutor != null) {
-            if (streamEvent instanceof AtomicEvent) {
-                Iterator<StreamEvent> iterator = list.iterator();
-                StateEvent stateEvent = new InStateEvent(new StreamEvent[]{streamEvent, null});
-                while (iterator.hasNext()) {
-                    StreamEvent tableStreamEvent = iterator.next();
-                    stateEvent.setStreamEvent(1, tableStreamEvent);
+            List<StreamEvent> deletedEvents = new ArrayList<StreamEvent>();
+            StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
+            for (StreamEvent tableStreamEvent : events) {
+                stateEvent.setStreamEvent(1, tableStreamEvent);
+                if (streamEvent instanceof AtomicEvent) {
+                    stateEvent.setStreamEvent(0, streamEvent);
                     if (conditionExecutor.execute(stateEvent)) {
-                        iterator.remove();
-                        cacheManager.delete(tableStreamEvent);
+                        deletedEvents.add(tableStreamEvent);
                     }
-                }
-            } else {
-                Iterator<StreamEvent> iterator = list.iterator();
-                StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
-                for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
-                    stateEvent.setStreamEvent(0, ((ListEvent) streamEvent).getEvent(i));
-                    while (iterator.hasNext()) {
-                        StreamEvent tableStreamEvent = iterator.next();
-                        stateEvent.setStreamEvent(1, tableStreamEvent);
+                } else {
+                    for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
+                        stateEvent.setStreamEvent(0, ((ListEvent) streamEvent).getEvent(i));
                         if (conditionExecutor.execute(stateEvent)) {
-                            iterator.remove();
-                            cacheManager.delete(tableStreamEvent);
+                            deletedEvents.add(tableStreamEvent);
+                            break;
                         }
                     }
                 }
             }
+            for (StreamEvent deletedEvent : deletedEvents) {
+                events.remove(deletedEvent);
+                cacheManager.delete(deletedEvent);
+            }
         } else {
-            list.clear();
+            invalidateCache();
         }
         if (log.isTraceEnabled()) {
-            log.trace("list " + elementId + " size " + list.size());
+            log.trace("list " + elementId + " size " + events.size());
         }
     }
 
     public synchronized void update(StreamEvent streamEvent, ConditionExecutor conditionExecutor, int[] attributeUpdateMappingPosition) {
-        Iterator<StreamEvent> iterator = list.iterator();
         StateEvent stateEvent = new InStateEvent(new StreamEvent[2]);
-        if (streamEvent instanceof AtomicEvent) {
-            stateEvent.setStreamEvent(0, streamEvent);
-            while (iterator.hasNext()) {
-                StreamEvent tableStreamEvent = iterator.next();
-                stateEvent.setStreamEvent(1, tableStreamEvent);
-                if (conditionExecutor != null) {
-                    if (conditionExecutor.execute(stateEvent)) {
-                        for (int i = 0, size = attributeUpdateMappingPosition.length; i < size; i++) {
-                            ((RemoveEvent) tableStreamEvent).getData()[attributeUpdateMappingPosition[i]] = ((Event) streamEvent).getData()[i];
-                        }
-                        cacheManager.update(tableStreamEvent);
-                    }
-                } else {
+        for (StreamEvent tableStreamEvent : events) {
+            stateEvent.setStreamEvent(1, tableStreamEvent);
+            if (streamEvent instanceof AtomicEvent) {
+                stateEvent.setStreamEvent(0, streamEvent);
+                if (conditionExecutor == null || conditionExecutor.execute(stateEvent)) {
                     for (int i = 0, size = attributeUpdateMappingPosition.length; i < size; i++) {
                         ((RemoveEvent) tableStreamEvent).getData()[attributeUpdateMappingPosition[i]] = ((Event) streamEvent).getData()[i];
                     }
                     cacheManager.update(tableStreamEvent);
                 }
-            }
-        } else {
-            while (iterator.hasNext()) {
-                StreamEvent tableStreamEvent = iterator.next();
-                stateEvent.setStreamEvent(1, tableStreamEvent);
+            } else {
                 for (int i = 0, size = ((ListEvent) streamEvent).getActiveEvents(); i < size; i++) {
                     stateEvent.setStreamEvent(0, ((ListEvent) streamEvent).getEvent(i));
-                    if (conditionExecutor != null) {
-                        if (conditionExecutor.execute(stateEvent)) {
-                            for (int i1 = 0, size1 = attributeUpdateMappingPosition.length; i1 < size1; i1++) {
-                                ((RemoveEvent) tableStreamEvent).getData()[attributeUpdateMappingPosition[i1]] = ((Event) streamEvent).getData()[i1];
-                            }
-                            cacheManager.update(tableStreamEvent);
-                        }
-                    } else {
+                    if (conditionExecutor == null || conditionExecutor.execute(stateEvent)) {
                         for (int i1 = 0, size1 = attributeUpdateMappingPosition.length; i1 < size1; i1++) {
-                            ((RemoveEvent) tableStreamEvent).getData()[attributeUpdateMappingPosition[i1]] = ((Event) streamEvent).getData()[i1];
+                            ((RemoveEvent) tableStreamEvent).getData()[attributeUpdateMappingPosition[i1]] = ((ListEvent) streamEvent).getEvent(i).getData()[i1];
                         }
                         cacheManager.update(tableStreamEvent);
                     }
@@ -144,36 +150,57 @@ public class CachingTable {
             }
         }
         if (log.isTraceEnabled()) {
-            log.trace("list " + elementId + " size " + list.size());
+            log.trace("list " + elementId + " size " + events.size());
         }
     }
 
     public synchronized void invalidateCache() {
-        list.clear();
+        events.clear();
+        cacheManager.clear();
+        isFullyLoaded = false;
     }
 
     public synchronized boolean contains(AtomicEvent atomicEvent, ConditionExecutor conditionExecutor) {
         if (conditionExecutor != null) {
-            Iterator<StreamEvent> iterator = list.iterator();
             StateEvent stateEvent = new InStateEvent(new StreamEvent[]{(StreamEvent) atomicEvent, null});
-            while (iterator.hasNext()) {
-                StreamEvent tableStreamEvent = iterator.next();
+            for (StreamEvent tableStreamEvent : events) {
                 stateEvent.setStreamEvent(1, tableStreamEvent);
                 if (conditionExecutor.execute(stateEvent)) {
                     cacheManager.read(tableStreamEvent);
+                    hitCount++;
                     return true;
                 }
             }
         }
+        missCount++;
         return false;
     }
 
     public Iterator<StreamEvent> iterator() {
-        return list.iterator();
+        return getEvents().iterator();
+    }
+
+    /**
+     * @return copy of the cached events, not affected by later changes to the cache
+     */
+    public synchronized List<StreamEvent> getEvents() {
+        return new ArrayList<StreamEvent>(events);
     }
 
     public Iterator<StreamEvent> iterator(String SQLPredicate) {
-        return list.iterator();
+        return iterator();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
     }
 
     public String getElementId() {
@@ -1,15 +1,19 @@
 package org.wso2.siddhi.core.table.cache;
 
 import org.wso2.siddhi.core.event.StreamEvent;
-import org.wso2.siddhi.core.util.collection.list.SiddhiList;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 
+/**
+ * Evicts the least frequently used event, the least recently added of them on ties. The events are
+ * kept in buckets of their access frequency, linked in the increasing order of the frequencies.
+ */
 public class LFUCacheManager implements CacheManager {
 
-    private ConcurrentHashMap<StreamEvent, Integer> eventAccessFrequencies;
-    private SiddhiList<StreamEvent> cacheList;
+    private HashMap<StreamEvent, FrequencyBucket> eventBuckets;
+    private FrequencyBucket leastFrequentBucket;
     private int limit;
 
     public LFUCacheManager() {
@@ -17,50 +21,115 @@ public class LFUCacheManager implements CacheManager {
     }
 
     @Override
-    public void init(SiddhiList<StreamEvent> cacheList, int limit) {
-        this.eventAccessFrequencies = new ConcurrentHashMap<StreamEvent, Integer>();
-        this.cacheList = cacheList;
+    public void init(int limit) {
+        this.eventBuckets = new HashMap<StreamEvent, FrequencyBucket>();
+        this.leastFrequentBucket = null;
         this.limit = limit;
     }
 
 
     @Override
-    public void add(StreamEvent item) {
-        cacheList.add(item);
-        eventAccessFrequencies.put(item, 1);
-        if (eventAccessFrequencies.size() >= limit) {
-            StreamEvent leastFrequentItem = null;
-            Integer leastFrequency = Integer.MAX_VALUE;
-            for (Map.Entry<StreamEvent, Integer> entry : eventAccessFrequencies.entrySet()) {
-                if (leastFrequency > entry.getValue()) {
-                    leastFrequency = entry.getValue();
-                    leastFrequentItem = entry.getKey();
-                }
+    public StreamEvent add(StreamEvent item) {
+        if (eventBuckets.containsKey(item)) {
+            increment(item);
+            return null;
+        }
+        StreamEvent leastFrequentItem = null;
+        if (eventBuckets.size() >= limit && leastFrequentBucket != null) {
+            Iterator<StreamEvent> iterator = leastFrequentBucket.events.iterator();
+            leastFrequentItem = iterator.next();
+            iterator.remove();
+            eventBuckets.remove(leastFrequentItem);
+            if (leastFrequentBucket.events.isEmpty()) {
+                unlink(leastFrequentBucket);
+            }
+        }
+        if (leastFrequentBucket == null || leastFrequentBucket.frequency != 1) {
+            FrequencyBucket bucket = new FrequencyBucket(1);
+            bucket.next = leastFrequentBucket;
+            if (leastFrequentBucket != null) {
+                leastFrequentBucket.previous = bucket;
             }
-            eventAccessFrequencies.remove(leastFrequentItem);
-            cacheList.remove(leastFrequentItem);
+            leastFrequentBucket = bucket;
         }
+        leastFrequentBucket.events.add(item);
+        eventBuckets.put(item, leastFrequentBucket);
+        if (limit < 1) {
+            delete(item);
+            return item;
+        }
+        return leastFrequentItem;
     }
 
     @Override
     public void delete(StreamEvent item) {
-        eventAccessFrequencies.remove(item);
-        cacheList.remove(item);
+        FrequencyBucket bucket = eventBuckets.remove(item);
+        if (bucket != null) {
+            bucket.events.remove(item);
+            if (bucket.events.isEmpty()) {
+                unlink(bucket);
+            }
+        }
     }
 
     @Override
     public void read(StreamEvent item) {
-        Integer currentAccessAttempts = eventAccessFrequencies.get(item);
-        if (currentAccessAttempts != null) {
-            eventAccessFrequencies.put(item, currentAccessAttempts + 1);
-        }
+        increment(item);
     }
 
     @Override
     public void update(StreamEvent item) {
-        Integer currentAccessAttempts = eventAccessFrequencies.get(item);
-        if (currentAccessAttempts != null) {
-            eventAccessFrequencies.put(item, currentAccessAttempts + 1);
+        increment(item);
+    }
+
+    @Override
+    public void clear() {
+        eventBuckets.clear();
+        leastFrequentBucket = null;
+    }
+
+    private void increment(StreamEvent item) {
+        FrequencyBucket bucket = eventBuckets.get(item);
+        if (bucket == null) {
+            return;
+        }
+        FrequencyBucket nextBucket = bucket.next;
+        if (nextBucket == null || nextBucket.frequency != bucket.frequency + 1) {
+            nextBucket = new FrequencyBucket(bucket.frequency + 1);
+            nextBucket.previous = bucket;
+            nextBucket.next = bucket.next;
+            if (bucket.next != null) {
+                bucket.next.previous = nextBucket;
+            }
+            bucket.next = nextBucket;
+        }
+        nextBucket.events.add(item);
+        eventBuckets.put(item, nextBucket);
+        bucket.events.remove(item);
+        if (bucket.events.isEmpty()) {
+            unlink(bucket);
+        }
+    }
+
+    private void unlink(FrequencyBucket bucket) {
+        if (bucket.previous != null) {
+            bucket.previous.next = bucket.next;
+        } else {
+            leastFrequentBucket = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    private static class FrequencyBucket {
+        private final long frequency;
+        private final LinkedHashSet<StreamEvent> events = new LinkedHashSet<StreamEvent>();
+        private FrequencyBucket previous;
+        private FrequencyBucket next;
+
+        private FrequencyBucket(long frequency) {
+            this.frequency = frequency;
         }
     }
 
@@ -1,60 +1,56 @@
 package org.wso2.siddhi.core.table.cache;
 
 import org.wso2.siddhi.core.event.StreamEvent;
-import org.wso2.siddhi.core.util.collection.list.SiddhiList;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
+/**
+ * Evicts the least recently used event, the events are kept in access order.
+ */
 public class LRUCacheManager implements CacheManager {
 
-    private ConcurrentHashMap<StreamEvent, Long> eventSequenceNumbers;
-    private SiddhiList<StreamEvent> cacheList;
+    private LinkedHashMap<StreamEvent, StreamEvent> events;
     private int limit;
-    private volatile long sequenceNo;
 
     public LRUCacheManager() {
     }
 
     @Override
-    public void init(SiddhiList<StreamEvent> cacheList, int limit) {
-        this.eventSequenceNumbers = new ConcurrentHashMap<StreamEvent, Long>();
-        this.cacheList = cacheList;
+    public void init(int limit) {
+        this.events = new LinkedHashMap<StreamEvent, StreamEvent>(16, 0.75f, true);
         this.limit = limit;
-        this.sequenceNo = 0;
     }
 
     @Override
-    public void add(StreamEvent item) {
-        cacheList.add(item);
-        eventSequenceNumbers.put(item, ++sequenceNo);
-        if (eventSequenceNumbers.size() >= limit) {
-            StreamEvent leastRecent = null;
-            long leastRecentTime = Long.MAX_VALUE;
-            for (Map.Entry<StreamEvent, Long> entry : eventSequenceNumbers.entrySet()) {
-                if (leastRecentTime > entry.getValue()) {
-                    leastRecentTime = entry.getValue();
-                    leastRecent = entry.getKey();
-                }
-            }
-            eventSequenceNumbers.remove(leastRecent);
-            cacheList.remove(leastRecent);
+    public StreamEvent add(StreamEvent item) {
+        events.put(item, item);
+        if (events.size() > limit) {
+            Iterator<StreamEvent> iterator = events.keySet().iterator();
+            StreamEvent leastRecent = iterator.next();
+            iterator.remove();
+            return leastRecent;
         }
+        return null;
     }
 
     @Override
     public void delete(StreamEvent item) {
-        eventSequenceNumbers.remove(item);
-        cacheList.remove(item);
+        events.remove(item);
     }
 
     @Override
     public void read(StreamEvent item) {
-        eventSequenceNumbers.put(item, ++sequenceNo);
+        events.get(item);
     }
 
     @Override
     public void update(StreamEvent item) {
-        eventSequenceNumbers.put(item, ++sequenceNo);
+        events.get(item);
+    }
+
+    @Override
+    public void clear() {
+        events.clear();
     }
 }
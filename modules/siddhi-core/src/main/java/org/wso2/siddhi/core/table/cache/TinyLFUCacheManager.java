@@ -0,0 +1,202 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.cache;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.StreamEvent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU policy, resisting scans of events read once. New events enter an LRU window of 1% of the
+ * cache, and events leaving the window are only admitted to the main cache when they are estimated to be
+ * accessed more often than the event they would evict. The main cache is a segmented LRU of a probation
+ * segment and a protected segment of 80%, events read on probation are promoted to the protected segment.
+ * Access frequencies are estimated by a count-min sketch whose counters are halved periodically.
+ */
+public class TinyLFUCacheManager implements CacheManager {
+
+    private LinkedHashMap<StreamEvent, StreamEvent> window;
+    private LinkedHashMap<StreamEvent, StreamEvent> probation;
+    private LinkedHashMap<StreamEvent, StreamEvent> protectedSegment;
+    private FrequencySketch sketch;
+    private int windowLimit;
+    private int mainLimit;
+    private int protectedLimit;
+
+    @Override
+    public void init(int limit) {
+        this.window = new LinkedHashMap<StreamEvent, StreamEvent>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<StreamEvent, StreamEvent>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<StreamEvent, StreamEvent>(16, 0.75f, true);
+        this.windowLimit = Math.max(1, limit / 100);
+        this.mainLimit = Math.max(0, limit - windowLimit);
+        this.protectedLimit = (int) (mainLimit * 0.8);
+        this.sketch = new FrequencySketch(limit);
+    }
+
+    @Override
+    public StreamEvent add(StreamEvent item) {
+        sketch.increment(item);
+        window.put(item, item);
+        if (window.size() <= windowLimit) {
+            return null;
+        }
+        StreamEvent candidate = removeEldest(window);
+        if (probation.size() + protectedSegment.size() < mainLimit) {
+            probation.put(candidate, candidate);
+            return null;
+        }
+        LinkedHashMap<StreamEvent, StreamEvent> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        if (victimSegment.isEmpty()) {
+            return candidate;
+        }
+        StreamEvent victim = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            probation.put(candidate, candidate);
+            return victim;
+        }
+        return candidate;
+    }
+
+    @Override
+    public void delete(StreamEvent item) {
+        if (window.remove(item) == null && probation.remove(item) == null) {
+            protectedSegment.remove(item);
+        }
+    }
+
+    @Override
+    public void read(StreamEvent item) {
+        sketch.increment(item);
+        if (window.get(item) != null || protectedSegment.get(item) != null) {
+            return;
+        }
+        if (probation.remove(item) != null) {
+            protectedSegment.put(item, item);
+            if (protectedSegment.size() > protectedLimit) {
+                StreamEvent demoted = removeEldest(protectedSegment);
+                probation.put(demoted, demoted);
+            }
+        }
+    }
+
+    @Override
+    public void update(StreamEvent item) {
+        read(item);
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        sketch.clear();
+    }
+
+    private StreamEvent removeEldest(LinkedHashMap<StreamEvent, StreamEvent> segment) {
+        Iterator<StreamEvent> iterator = segment.keySet().iterator();
+        StreamEvent eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    /**
+     * Count-min sketch of 4 rows of counters saturating at 15, halved after 10 increments per cached event
+     */
+    private static class FrequencySketch {
+
+        private static final int[] SEEDS = new int[]{0x97cb3127, 0xc3a5c85c, 0x9e3779b9, 0x85ebca6b};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int limit) {
+            // 4 counters a row per cached event, keeping the estimates of events seen once low until the counters are halved
+            int width = 16;
+            while (width < 4L * limit && width < (1 << 24)) {
+                width <<= 1;
+            }
+            this.counters = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(limit, 1);
+        }
+
+        private void increment(StreamEvent item) {
+            int hash = hash(item);
+            boolean incremented = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i);
+                if (counters[i][index] < MAX_COUNT) {
+                    counters[i][index]++;
+                    incremented = true;
+                }
+            }
+            if (incremented && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(StreamEvent item) {
+            int hash = hash(item);
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, counters[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        /**
+         * Events are counted by their attributes, so that rows cached again after their eviction keep their history
+         */
+        private int hash(StreamEvent item) {
+            if (item instanceof Event) {
+                return Arrays.hashCode(((Event) item).getData());
+            }
+            return System.identityHashCode(item);
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        private void clear() {
+            for (byte[] row : counters) {
+                Arrays.fill(row, (byte) 0);
+            }
+            additions = 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.index;
+
+import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+
+import java.util.Collection;
+import java.util.Collections;
+
+public class EqualIndexedLookup implements IndexedLookup {
+
+    private final TableIndex tableIndex;
+    private final ExpressionExecutor valueExecutor;
+
+    public EqualIndexedLookup(TableIndex tableIndex, ExpressionExecutor valueExecutor) {
+        this.tableIndex = tableIndex;
+        this.valueExecutor = valueExecutor;
+    }
+
+    @Override
+    public Collection<StreamEvent> find(AtomicEvent event) {
+        Object value = valueExecutor.execute(event);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        return tableIndex.find(value);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.index;
+
+import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+
+import java.util.Collection;
+import java.util.Collections;
+
+public class RangeIndexedLookup implements IndexedLookup {
+
+    private final RangeTableIndex tableIndex;
+    private final ExpressionExecutor lowerBoundExecutor;
+    private final boolean lowerBoundInclusive;
+    private final ExpressionExecutor upperBoundExecutor;
+    private final boolean upperBoundInclusive;
+
+    public RangeIndexedLookup(RangeTableIndex tableIndex,
+                              ExpressionExecutor lowerBoundExecutor, boolean lowerBoundInclusive,
+                              ExpressionExecutor upperBoundExecutor, boolean upperBoundInclusive) {
+        this.tableIndex = tableIndex;
+        this.lowerBoundExecutor = lowerBoundExecutor;
+        this.lowerBoundInclusive = lowerBoundInclusive;
+        this.upperBoundExecutor = upperBoundExecutor;
+        this.upperBoundInclusive = upperBoundInclusive;
+    }
+
+    @Override
+    public Collection<StreamEvent> find(AtomicEvent event) {
+        Object lowerBound = null;
+        Object upperBound = null;
+        if (lowerBoundExecutor != null) {
+            lowerBound = lowerBoundExecutor.execute(event);
+            if (lowerBound == null) {
+                return Collections.emptyList();
+            }
+        }
+        if (upperBoundExecutor != null) {
+            upperBound = upperBoundExecutor.execute(event);
+            if (upperBound == null) {
+                return Collections.emptyList();
+            }
+        }
+        return tableIndex.findRange(lowerBound, lowerBoundInclusive, upperBound, upperBoundInclusive);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.index;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary index over one attribute of the rows of an event table.
+ * Rows having null for the attribute are not indexed, as compare conditions never match null.
+ */
+public abstract class TableIndex {
+
+    protected final int attributePosition;
+    protected final Attribute.Type attributeType;
+
+    protected TableIndex(int attributePosition, Attribute.Type attributeType) {
+        this.attributePosition = attributePosition;
+        this.attributeType = attributeType;
+    }
+
+    protected abstract Map<Object, Set<StreamEvent>> getIndexMap();
+
+    public void add(StreamEvent streamEvent) {
+        Object key = ((Event) streamEvent).getData(attributePosition);
+        if (key != null) {
+            Set<StreamEvent> events = getIndexMap().get(key);
+            if (events == null) {
+                events = new LinkedHashSet<StreamEvent>();
+                getIndexMap().put(key, events);
+            }
+            events.add(streamEvent);
+        }
+    }
+
+    public void remove(StreamEvent streamEvent) {
+        Object key = ((Event) streamEvent).getData(attributePosition);
+        if (key != null) {
+            Set<StreamEvent> events = getIndexMap().get(key);
+            if (events != null) {
+                events.remove(streamEvent);
+                if (events.isEmpty()) {
+                    getIndexMap().remove(key);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        getIndexMap().clear();
+    }
+
+    /**
+     * @return the rows having the given value, the returned collection must not be modified
+     */
+    public abstract Collection<StreamEvent> find(Object value);
+
+    public int getAttributePosition() {
+        return attributePosition;
+    }
+
+    public Attribute.Type getAttributeType() {
+        return attributeType;
+    }
+}
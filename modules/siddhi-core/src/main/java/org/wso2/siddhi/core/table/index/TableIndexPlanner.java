@@ -0,0 +1,175 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.index;
+
+import org.wso2.siddhi.core.executor.conditon.AndConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.CompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.equal.EqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.greater_than.GreaterThenCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.greater_than_equal.GreaterThenEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.less_than.LessThenCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.conditon.compare.less_than_equal.LessThenEqualCompareConditionExecutor;
+import org.wso2.siddhi.core.executor.expression.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.expression.VariableExpressionExecutor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks a table index to probe for a condition. Only the conjuncts of the top
+ * level AND tree that compare an indexed table attribute with a constant or an
+ * attribute of another stream, of the same type, are considered. Equality
+ * conjuncts are preferred over range conjuncts.
+ */
+public class TableIndexPlanner {
+
+    private TableIndexPlanner() {
+    }
+
+    /**
+     * @param conditionExecutor condition evaluated against a state event holding the table row at tablePosition
+     * @param indexMap          table indexes keyed by attribute position
+     * @param tablePosition     position of the table row in the state event
+     * @return the lookup to use or null if the table has to be scanned
+     */
+    public static IndexedLookup plan(ConditionExecutor conditionExecutor, Map<Integer, TableIndex> indexMap, int tablePosition) {
+        if (conditionExecutor == null || indexMap.isEmpty()) {
+            return null;
+        }
+        List<ConditionExecutor> conjuncts = new ArrayList<ConditionExecutor>();
+        collectConjuncts(conditionExecutor, conjuncts);
+
+        for (ConditionExecutor conjunct : conjuncts) {
+            if (conjunct instanceof EqualCompareConditionExecutor) {
+                CompareConditionExecutor compare = (CompareConditionExecutor) conjunct;
+                TableIndex tableIndex = getIndex(compare.leftExpressionExecutor, compare.rightExpressionExecutor, indexMap, tablePosition);
+                if (tableIndex != null) {
+                    return new EqualIndexedLookup(tableIndex, compare.rightExpressionExecutor);
+                }
+                tableIndex = getIndex(compare.rightExpressionExecutor, compare.leftExpressionExecutor, indexMap, tablePosition);
+                if (tableIndex != null) {
+                    return new EqualIndexedLookup(tableIndex, compare.leftExpressionExecutor);
+                }
+            }
+        }
+
+        Map<RangeTableIndex, RangeBounds> rangeBoundsMap = new LinkedHashMap<RangeTableIndex, RangeBounds>();
+        for (ConditionExecutor conjunct : conjuncts) {
+            boolean greater;
+            boolean inclusive;
+            if (conjunct instanceof GreaterThenCompareConditionExecutor) {
+                greater = true;
+                inclusive = false;
+            } else if (conjunct instanceof GreaterThenEqualCompareConditionExecutor) {
+                greater = true;
+                inclusive = true;
+            } else if (conjunct instanceof LessThenCompareConditionExecutor) {
+                greater = false;
+                inclusive = false;
+            } else if (conjunct instanceof LessThenEqualCompareConditionExecutor) {
+                greater = false;
+                inclusive = true;
+            } else {
+                continue;
+            }
+            CompareConditionExecutor compare = (CompareConditionExecutor) conjunct;
+            ExpressionExecutor valueExecutor = compare.rightExpressionExecutor;
+            TableIndex tableIndex = getIndex(compare.leftExpressionExecutor, compare.rightExpressionExecutor, indexMap, tablePosition);
+            if (tableIndex == null) {
+                //value on the left, hence the comparison is flipped with respect to the table attribute
+                valueExecutor = compare.leftExpressionExecutor;
+                tableIndex = getIndex(compare.rightExpressionExecutor, compare.leftExpressionExecutor, indexMap, tablePosition);
+                greater = !greater;
+            }
+            if (!(tableIndex instanceof RangeTableIndex)) {
+                continue;
+            }
+            RangeBounds rangeBounds = rangeBoundsMap.get(tableIndex);
+            if (rangeBounds == null) {
+                rangeBounds = new RangeBounds();
+                rangeBoundsMap.put((RangeTableIndex) tableIndex, rangeBounds);
+            }
+            if (greater && rangeBounds.lowerBoundExecutor == null) {
+                rangeBounds.lowerBoundExecutor = valueExecutor;
+                rangeBounds.lowerBoundInclusive = inclusive;
+            } else if (!greater && rangeBounds.upperBoundExecutor == null) {
+                rangeBounds.upperBoundExecutor = valueExecutor;
+                rangeBounds.upperBoundInclusive = inclusive;
+            }
+        }
+        RangeTableIndex selectedIndex = null;
+        for (Map.Entry<RangeTableIndex, RangeBounds> entry : rangeBoundsMap.entrySet()) {
+            if (selectedIndex == null) {
+                selectedIndex = entry.getKey();
+            }
+            if (entry.getValue().lowerBoundExecutor != null && entry.getValue().upperBoundExecutor != null) {
+                selectedIndex = entry.getKey();
+                break;
+            }
+        }
+        if (selectedIndex != null) {
+            RangeBounds rangeBounds = rangeBoundsMap.get(selectedIndex);
+            return new RangeIndexedLookup(selectedIndex, rangeBounds.lowerBoundExecutor, rangeBounds.lowerBoundInclusive,
+                                          rangeBounds.upperBoundExecutor, rangeBounds.upperBoundInclusive);
+        }
+        return null;
+    }
+
+    private static void collectConjuncts(ConditionExecutor conditionExecutor, List<ConditionExecutor> conjuncts) {
+        if (conditionExecutor instanceof AndConditionExecutor) {
+            collectConjuncts(((AndConditionExecutor) conditionExecutor).leftConditionExecutor, conjuncts);
+            collectConjuncts(((AndConditionExecutor) conditionExecutor).rightConditionExecutor, conjuncts);
+        } else {
+            conjuncts.add(conditionExecutor);
+        }
+    }
+
+    private static TableIndex getIndex(ExpressionExecutor tableExecutor, ExpressionExecutor valueExecutor,
+                                       Map<Integer, TableIndex> indexMap, int tablePosition) {
+        if (!(tableExecutor instanceof VariableExpressionExecutor)) {
+            return null;
+        }
+        VariableExpressionExecutor tableVariable = (VariableExpressionExecutor) tableExecutor;
+        if (tableVariable.getStreamPosition() != tablePosition || tableVariable.getInnerStreamPosition() != -1) {
+            return null;
+        }
+        if (valueExecutor instanceof VariableExpressionExecutor) {
+            int valueStreamPosition = ((VariableExpressionExecutor) valueExecutor).getStreamPosition();
+            if (valueStreamPosition < 0 || valueStreamPosition == tablePosition) {
+                return null;
+            }
+        } else if (!(valueExecutor instanceof ConstantExpressionExecutor)) {
+            return null;
+        }
+        if (tableVariable.getReturnType() != valueExecutor.getReturnType()) {
+            return null;
+        }
+        return indexMap.get(tableVariable.getAttributePosition());
+    }
+
+    private static class RangeBounds {
+        private ExpressionExecutor lowerBoundExecutor;
+        private boolean lowerBoundInclusive;
+        private ExpressionExecutor upperBoundExecutor;
+        private boolean upperBoundInclusive;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.rdbms;
+
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Bloom filters over the rows of an RDBMS table, one for each attribute and one for each configured group of
+ * attributes, telling when no row can match the equality conditions of a query. Values are encoded in one
+ * binary form by the type of their attribute. Filters can't remove entries, so deleted and updated rows are
+ * counted as stale and the table rebuilds the filters once they reach half of the rows.
+ */
+public class RDBMSBloomFilterIndex {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] NULL_KEY = new byte[]{0};
+
+    private final List<Attribute> attributeList;
+    private final int[][] compositeColumns;
+    private final ScalableBloomFilter[] filters;
+    private final ScalableBloomFilter[] compositeFilters;
+    private long rowCount;
+    private long staleCount;
+    private long negativeCount;
+    private long falsePositiveCount;
+
+    /**
+     * @param compositeColumns attribute positions of each group of attributes filtered together
+     */
+    public RDBMSBloomFilterIndex(List<Attribute> attributeList, int[][] compositeColumns, long expectedRows,
+                                 double falsePositiveRate) {
+        this.attributeList = attributeList;
+        this.compositeColumns = compositeColumns;
+        this.filters = new ScalableBloomFilter[attributeList.size()];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new ScalableBloomFilter(expectedRows, falsePositiveRate);
+        }
+        this.compositeFilters = new ScalableBloomFilter[compositeColumns.length];
+        for (int i = 0; i < compositeFilters.length; i++) {
+            compositeFilters[i] = new ScalableBloomFilter(expectedRows, falsePositiveRate);
+        }
+    }
+
+    public synchronized void add(Object[] row) {
+        for (int i = 0; i < filters.length; i++) {
+            filters[i].add(encodeOrNull(i, row[i]));
+        }
+        for (int i = 0; i < compositeFilters.length; i++) {
+            compositeFilters[i].add(encodeComposite(compositeColumns[i], row));
+        }
+        rowCount++;
+    }
+
+    /**
+     * Adds updated attribute values, only possible when none of the attributes is in a group of attributes
+     *
+     * @return false when the values can't be added as a group of attributes contains one of them
+     */
+    public synchronized boolean addValues(int[] columns, Object[] values) {
+        for (int column : columns) {
+            for (int[] composite : compositeColumns) {
+                for (int compositeColumn : composite) {
+                    if (compositeColumn == column) {
+                        return false;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            filters[columns[i]].add(encodeOrNull(columns[i], values[i]));
+        }
+        return true;
+    }
+
+    public synchronized void addStaleRows(long count) {
+        staleCount += count;
+    }
+
+    public synchronized boolean isStale() {
+        return staleCount * 2 > rowCount;
+    }
+
+    /**
+     * @param equalities values the attributes are compared to for equality, null for the attributes not compared
+     * @return false when no row matches the equalities
+     */
+    public synchronized boolean mightContain(Object[] equalities) {
+        for (int i = 0; i < filters.length; i++) {
+            if (equalities[i] != null) {
+                byte[] key = encode(attributeList.get(i).getType(), equalities[i]);
+                if (key != null && !filters[i].mightContain(key)) {
+                    negativeCount++;
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < compositeFilters.length; i++) {
+            byte[] key = encodeComposite(compositeColumns[i], equalities);
+            if (key != null && !compositeFilters[i].mightContain(key)) {
+                negativeCount++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a row not found after mightContain() returned true
+     */
+    public synchronized void recordFalsePositive() {
+        falsePositiveCount++;
+    }
+
+    /**
+     * @return rate of the lookups of missing rows the filters failed to reject
+     */
+    public synchronized double getFalsePositiveRate() {
+        if (falsePositiveCount == 0) {
+            return 0;
+        }
+        return (double) falsePositiveCount / (falsePositiveCount + negativeCount);
+    }
+
+    public synchronized double getExpectedFalsePositiveRate() {
+        double rate = 0;
+        for (ScalableBloomFilter filter : filters) {
+            rate = Math.max(rate, filter.getExpectedFalsePositiveRate());
+        }
+        return rate;
+    }
+
+    private byte[] encodeOrNull(int column, Object value) {
+        byte[] key = encode(attributeList.get(column).getType(), value);
+        return key == null ? NULL_KEY : key;
+    }
+
+    /**
+     * @return the attribute values concatenated with their lengths, null if any of them is unknown
+     */
+    private byte[] encodeComposite(int[] columns, Object[] values) {
+        byte[][] keys = new byte[columns.length][];
+        int length = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (values[columns[i]] == null) {
+                return null;
+            }
+            keys[i] = encode(attributeList.get(columns[i]).getType(), values[columns[i]]);
+            if (keys[i] == null) {
+                return null;
+            }
+            length += 4 + keys[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] key : keys) {
+            buffer.putInt(key.length).put(key);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Encodes the value as the attribute type, numbers in 8 bytes so that conditions with other number
+     * types find the rows
+     *
+     * @return encoded value, or null when the value can't be of the attribute type
+     */
+    public static byte[] encode(Attribute.Type type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (type) {
+            case INT:
+            case LONG:
+                if (value instanceof Number) {
+                    return ByteBuffer.allocate(8).putLong(((Number) value).longValue()).array();
+                }
+                return null;
+            case FLOAT:
+                if (value instanceof Number) {
+                    return encodeDouble(((Number) value).floatValue());
+                }
+                return null;
+            case DOUBLE:
+                if (value instanceof Number) {
+                    return encodeDouble(((Number) value).doubleValue());
+                }
+                return null;
+            case BOOL:
+                if (value instanceof Boolean) {
+                    return new byte[]{(byte) (((Boolean) value) ? 2 : 1)};
+                }
+                return null;
+            default:
+                return value.toString().getBytes(UTF_8);
+        }
+    }
+
+    private static byte[] encodeDouble(double value) {
+        // -0.0 equals 0.0 in the database
+        return ByteBuffer.allocate(8).putDouble(value == 0 ? 0d : value).array();
+    }
+}
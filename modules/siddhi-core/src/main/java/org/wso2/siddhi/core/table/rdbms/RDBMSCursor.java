@@ -0,0 +1,159 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.rdbms;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the rows of a query result, fetching them from the database as they are iterated.
+ * The columns are read by their position in the select list, which has to be the attributes of the
+ * table in their defined order. The connection is released when the rows are exhausted or on close().
+ */
+public class RDBMSCursor implements Iterator<StreamEvent>, Closeable {
+
+    static final Logger log = Logger.getLogger(RDBMSCursor.class);
+
+    private final String streamId;
+    private final List<Attribute> attributeList;
+    private final long timestamp;
+    private Connection connection;
+    private Statement statement;
+    private ResultSet resultSet;
+    private StreamEvent nextEvent;
+
+    public RDBMSCursor(String streamId, List<Attribute> attributeList, Connection connection, Statement statement,
+                       ResultSet resultSet) {
+        this.streamId = streamId;
+        this.attributeList = attributeList;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextEvent == null && resultSet != null) {
+            try {
+                if (resultSet.next()) {
+                    nextEvent = new InEvent(streamId, timestamp, readRow(resultSet, attributeList));
+                } else {
+                    close();
+                }
+            } catch (SQLException e) {
+                log.error("Unable to read the next row of " + streamId, e);
+                close();
+            }
+        }
+        return nextEvent != null;
+    }
+
+    @Override
+    public StreamEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StreamEvent event = nextEvent;
+        nextEvent = null;
+        return event;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Releases the result set, statement and connection, the rows not yet iterated are discarded
+     */
+    @Override
+    public void close() {
+        if (resultSet != null) {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                log.error("unable to release result set", e);
+            }
+            resultSet = null;
+        }
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                log.error("unable to release statement", e);
+            }
+            statement = null;
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.error("unable to release connection", e);
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Reads the current row by column position, SQL NULLs are read as null
+     */
+    public static Object[] readRow(ResultSet resultSet, List<Attribute> attributeList) throws SQLException {
+        Object[] data = new Object[attributeList.size()];
+        for (int i = 0; i < data.length; i++) {
+            int column = i + 1;
+            switch (attributeList.get(i).getType()) {
+                case BOOL:
+                    data[i] = resultSet.getBoolean(column);
+                    break;
+                case DOUBLE:
+                    data[i] = resultSet.getDouble(column);
+                    break;
+                case FLOAT:
+                    data[i] = resultSet.getFloat(column);
+                    break;
+                case INT:
+                    data[i] = resultSet.getInt(column);
+                    break;
+                case LONG:
+                    data[i] = resultSet.getLong(column);
+                    break;
+                case STRING:
+                    data[i] = resultSet.getString(column);
+                    break;
+                default:
+                    data[i] = resultSet.getObject(column);
+            }
+            if (resultSet.wasNull()) {
+                data[i] = null;
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.rdbms;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Insert, delete or update of an RDBMS table row, as the SQL of its prepared statement and the parameters
+ * of the statement. Consecutive mutations with the same SQL are executed as a JDBC batch.
+ */
+public class RDBMSMutation {
+
+    private final String sql;
+    private final Object[] parameters;
+
+    public RDBMSMutation(String sql, Object[] parameters) {
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Object[] getParameters() {
+        return parameters;
+    }
+
+    public void populate(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            populateStatement(statement, i + 1, parameters[i]);
+        }
+    }
+
+    public static void populateStatement(PreparedStatement stmt, int index, Object value)
+            throws SQLException {
+        if (value instanceof String) {
+            stmt.setString(index, (String) value);
+        } else if (value instanceof Integer) {
+            stmt.setInt(index, (Integer) value);
+        } else if (value instanceof Double) {
+            stmt.setDouble(index, (Double) value);
+        } else if (value instanceof Boolean) {
+            stmt.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Float) {
+            stmt.setFloat(index, (Float) value);
+        } else if (value instanceof Long) {
+            stmt.setLong(index, (Long) value);
+        } else {
+            stmt.setString(index, (String) value);
+        }
+    }
+}
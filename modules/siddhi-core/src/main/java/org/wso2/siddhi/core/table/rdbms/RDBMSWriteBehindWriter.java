@@ -0,0 +1,288 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.rdbms;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.util.SiddhiThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Buffers the mutations of an RDBMS table and writes them behind on its own thread, as JDBC batches of
+ * prepared statements cached on one connection. The buffer is written when it holds a batch or when the
+ * flush interval elapses, writers block while the buffer is full. A batch that fails to be written is kept
+ * and retried a flush interval later, flushes before that fail without trying. After the retries the batch
+ * is dropped and its failure is kept for the table.
+ */
+public class RDBMSWriteBehindWriter implements Runnable {
+
+    static final Logger log = Logger.getLogger(RDBMSWriteBehindWriter.class);
+
+    private final DataSource dataSource;
+    private final String tableName;
+    private final int batchSize;
+    private final long flushInterval;
+    private final int maxRetries;
+    private final BlockingQueue<RDBMSMutation> buffer;
+    private final List<RDBMSMutation> batch;
+    private final Object signal = new Object();
+    private final Object flushLock = new Object();
+    private final Thread thread;
+    private volatile boolean stopped = false;
+    private volatile SQLException failure;
+    private int failedAttempts = 0;
+    private long nextAttemptTime = 0;
+    private SQLException lastAttemptFailure;
+
+    private Connection connection;
+    private Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+
+    public RDBMSWriteBehindWriter(DataSource dataSource, String tableName, int batchSize, int bufferSize, long flushInterval,
+                                 int maxRetries) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("Write behind flush interval should be positive but found " + flushInterval);
+        }
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.batchSize = Math.min(batchSize, bufferSize);
+        this.flushInterval = flushInterval;
+        this.maxRetries = maxRetries;
+        this.buffer = new ArrayBlockingQueue<RDBMSMutation>(bufferSize);
+        this.batch = new ArrayList<RDBMSMutation>(this.batchSize);
+        this.thread = new SiddhiThreadFactory("RDBMSWriteBehind").newThread(this);
+        thread.start();
+    }
+
+    /**
+     * Buffers all the mutations, an interrupt while waiting for space in the buffer is restored once they
+     * are buffered so that none of them is lost
+     */
+    public void write(List<RDBMSMutation> mutations) {
+        boolean interrupted = false;
+        for (RDBMSMutation mutation : mutations) {
+            while (true) {
+                try {
+                    buffer.put(mutation);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (buffer.size() >= batchSize) {
+            synchronized (signal) {
+                signal.notify();
+            }
+        }
+    }
+
+    /**
+     * @return the failure of the last batch dropped since the previous call, null if none was dropped
+     */
+    public SQLException takeFailure() {
+        SQLException e = failure;
+        if (e != null) {
+            failure = null;
+        }
+        return e;
+    }
+
+    /**
+     * Writes all the buffered mutations, returning after they and any batch being written are committed.
+     *
+     * @throws SQLException if a batch failed to be written, now or on an attempt less than a flush interval
+     *                      ago, the batch is kept for the next flush with the mutations still buffered
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            while (!batch.isEmpty() || !buffer.isEmpty()) {
+                if (batch.isEmpty()) {
+                    buffer.drainTo(batch, batchSize);
+                } else if (System.currentTimeMillis() < nextAttemptTime) {
+                    throw new SQLException("Unable to write " + batch.size() + " buffered changes to the table " +
+                                           tableName + ", waiting to retry", lastAttemptFailure);
+                }
+                try {
+                    if (connection == null) {
+                        connection = dataSource.getConnection();
+                        connection.setAutoCommit(false);
+                    }
+                    execute(connection, batch, statements);
+                    connection.commit();
+                    batch.clear();
+                    resetAttempts();
+                } catch (SQLException e) {
+                    closeConnection(true);
+                    if (failedAttempts < maxRetries) {
+                        failedAttempts++;
+                        nextAttemptTime = System.currentTimeMillis() + flushInterval;
+                        lastAttemptFailure = e;
+                        log.error("Unable to write " + batch.size() + " buffered changes to the table " + tableName +
+                                  ", retrying in " + flushInterval + " ms (" + failedAttempts + "/" + maxRetries + ")", e);
+                        throw e;
+                    }
+                    drop(batch.size(), "after " + (maxRetries + 1) + " failed attempts to write them", e);
+                    batch.clear();
+                    resetAttempts();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean failed = false;
+        while (!stopped) {
+            synchronized (signal) {
+                // after a failure the whole interval is waited, however full the buffer is
+                long deadline = System.currentTimeMillis() + flushInterval;
+                long remaining = flushInterval;
+                while (!stopped && remaining > 0 && (failed || buffer.size() < batchSize)) {
+                    try {
+                        signal.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            }
+            try {
+                flush();
+                failed = false;
+            } catch (SQLException e) {
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Stops the writer thread after writing the buffered mutations. The writes are retried for as long as
+     * the retries of one batch take, the mutations still buffered after that are dropped.
+     */
+    public void shutdown() {
+        stopped = true;
+        synchronized (signal) {
+            signal.notify();
+        }
+        long deadline = System.currentTimeMillis() + (maxRetries + 1) * flushInterval;
+        synchronized (flushLock) {
+            while (true) {
+                try {
+                    flush();
+                    break;
+                } catch (SQLException e) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        drop(batch.size() + buffer.size(), "as they could not be written before the shutdown", e);
+                        batch.clear();
+                        buffer.clear();
+                        break;
+                    }
+                    try {
+                        flushLock.wait(Math.min(flushInterval, remaining));
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        drop(batch.size() + buffer.size(), "as the shutdown was interrupted", e);
+                        batch.clear();
+                        buffer.clear();
+                        break;
+                    }
+                }
+            }
+            closeConnection(false);
+        }
+    }
+
+    private void drop(int count, String reason, SQLException e) {
+        String message = "Dropped " + count + " buffered changes of the table " + tableName + " " + reason;
+        log.error(message, e);
+        failure = new SQLException(message, e);
+    }
+
+    private void resetAttempts() {
+        failedAttempts = 0;
+        nextAttemptTime = 0;
+        lastAttemptFailure = null;
+    }
+
+    private void closeConnection(boolean rollback) {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                log.error("unable to release statement", e);
+            }
+        }
+        statements.clear();
+        if (connection != null) {
+            try {
+                if (rollback) {
+                    connection.rollback();
+                }
+                connection.close();
+            } catch (SQLException e) {
+                log.error("unable to release connection", e);
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Executes the mutations in order, consecutive mutations with the same SQL as one batch
+     *
+     * @param statements prepared statements of the connection by their SQL, the statements prepared are added
+     */
+    public static void execute(Connection connection, List<RDBMSMutation> mutations, Map<String, PreparedStatement> statements)
+            throws SQLException {
+        PreparedStatement statement = null;
+        String sql = null;
+        int batchCount = 0;
+        for (RDBMSMutation mutation : mutations) {
+            if (!mutation.getSql().equals(sql)) {
+                if (batchCount > 0) {
+                    statement.executeBatch();
+                    batchCount = 0;
+                }
+                sql = mutation.getSql();
+                statement = statements.get(sql);
+                if (statement == null) {
+                    statement = connection.prepareStatement(sql);
+                    statements.put(sql, statement);
+                }
+            }
+            mutation.populate(statement);
+            statement.addBatch();
+            batchCount++;
+        }
+        if (batchCount > 0) {
+            statement.executeBatch();
+        }
+    }
+}
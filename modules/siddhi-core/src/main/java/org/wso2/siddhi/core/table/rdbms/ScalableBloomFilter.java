@@ -0,0 +1,102 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.table.rdbms;
+
+import org.apache.hadoop.util.bloom.BloomFilter;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter growing by adding layers as entries are added. The first layer is sized for the expected
+ * entries, each further layer holds twice the entries of the previous one with half its false positive
+ * rate, bounding the false positive rate of all the layers by the requested rate.
+ */
+public class ScalableBloomFilter {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final List<Layer> layers = new ArrayList<Layer>();
+
+    public ScalableBloomFilter(long expectedEntries, double falsePositiveRate) {
+        addLayer(Math.max(expectedEntries, MIN_CAPACITY), falsePositiveRate * (1 - TIGHTENING_RATIO));
+    }
+
+    public void add(byte[] key) {
+        Layer layer = layers.get(layers.size() - 1);
+        if (layer.entries >= layer.capacity) {
+            layer = addLayer(layer.capacity * GROWTH_FACTOR, layer.falsePositiveRate * TIGHTENING_RATIO);
+        }
+        layer.filter.add(new Key(key));
+        layer.entries++;
+    }
+
+    public boolean mightContain(byte[] key) {
+        Key filterKey = new Key(key);
+        for (Layer layer : layers) {
+            if (layer.filter.membershipTest(filterKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false positive rate expected for the entries added so far
+     */
+    public double getExpectedFalsePositiveRate() {
+        double trueNegativeRate = 1;
+        for (Layer layer : layers) {
+            double unsetBitRate = Math.exp(-(double) layer.hashCount * layer.entries / layer.bitCount);
+            trueNegativeRate *= 1 - Math.pow(1 - unsetBitRate, layer.hashCount);
+        }
+        return 1 - trueNegativeRate;
+    }
+
+    public int getLayerCount() {
+        return layers.size();
+    }
+
+    private Layer addLayer(long capacity, double falsePositiveRate) {
+        Layer layer = new Layer(capacity, falsePositiveRate);
+        layers.add(layer);
+        return layer;
+    }
+
+    private static class Layer {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final int bitCount;
+        private final int hashCount;
+        private final BloomFilter filter;
+        private long entries;
+
+        private Layer(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            // optimal size and hash count for the capacity and false positive rate
+            this.bitCount = (int) Math.min(Integer.MAX_VALUE - 64, Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.filter = new BloomFilter(bitCount, hashCount, Hash.MURMUR_HASH);
+        }
+    }
+}
@@ -14,7 +14,7 @@ public final class Pair<One, Two> implements Serializable {
     }
 
     public int hashCode() {
-        return one.hashCode() ^ two.hashCode();
+        return (one == null ? 0 : one.hashCode()) ^ (two == null ? 0 : two.hashCode());
 
     }
 
@@ -28,7 +28,7 @@ public final class Pair<One, Two> implements Serializable {
             return (one == null ?
                     pairObject.one == null : one.equals(pairObject.one)) &&
                    (two == null ?
-                    pairObject.two == null : pairObject.equals(pairObject.two));
+                    pairObject.two == null : two.equals(pairObject.two));
         }
 
         return false;
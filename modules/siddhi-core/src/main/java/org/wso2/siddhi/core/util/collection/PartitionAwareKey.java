@@ -0,0 +1,103 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.PartitionAware;
+import com.hazelcast.core.PartitionService;
+
+import java.io.Serializable;
+
+/**
+ * Grid key stored in the partition of its partition key, all the entries of a grid collection share
+ * one partition key so that they live on the member owning that partition.
+ */
+public class PartitionAwareKey implements PartitionAware<String>, Serializable {
+
+    private final String key;
+    private final String partitionKey;
+
+    public PartitionAwareKey(String key, String partitionKey) {
+        this.key = key;
+        this.partitionKey = partitionKey;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PartitionAwareKey)) {
+            return false;
+        }
+        PartitionAwareKey that = (PartitionAwareKey) o;
+        return key.equals(that.key) && partitionKey.equals(that.partitionKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * key.hashCode() + partitionKey.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    /**
+     * @return the plain key of a grid key, which is the grid key itself without partition aware placement
+     */
+    public static String plainKey(Object gridKey) {
+        return gridKey instanceof PartitionAwareKey ? ((PartitionAwareKey) gridKey).getKey() : (String) gridKey;
+    }
+
+    /**
+     * Returns the partition key of a grid collection, agreed across the cluster. The first member asking
+     * for it chooses a key of a partition it owns.
+     */
+    public static String getPartitionKey(HazelcastInstance hazelcastInstance, String elementId) {
+        IMap<String, String> partitionKeys = hazelcastInstance.getMap("SiddhiGridPartitionKeys");
+        String partitionKey = partitionKeys.get(elementId);
+        if (partitionKey != null) {
+            return partitionKey;
+        }
+        Member localMember = hazelcastInstance.getCluster().getLocalMember();
+        PartitionService partitionService = hazelcastInstance.getPartitionService();
+        partitionKey = elementId;
+        for (int i = 0, attempts = partitionService.getPartitions().size() * 10; i < attempts; i++) {
+            String candidate = elementId + "-" + i;
+            if (localMember.equals(partitionService.getPartition(candidate).getOwner())) {
+                partitionKey = candidate;
+                break;
+            }
+        }
+        String agreedPartitionKey = partitionKeys.putIfAbsent(elementId, partitionKey);
+        return agreedPartitionKey == null ? partitionKey : agreedPartitionKey;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stream-Summary of the counters of frequent keys. Counters of equal count share a bucket and the buckets are
+ * linked in ascending order of count, hence incrementing a counter, replacing the smallest counter (Space-Saving),
+ * decrementing all counters (Misra-Gries) and removing the counters below a count (Lossy Counting) do not scan
+ * the other counters. Each counter has an error bound, the true count of its key is at least getCount() - getError().
+ */
+public class StreamSummary<K> {
+
+    private final Map<K, Counter> counterMap = new HashMap<K, Counter>();
+    private Bucket head;
+    private Bucket tail;
+    // subtracted from the bucket counts, incremented to decrement all the counters at once
+    private long offset = 0;
+
+    public int size() {
+        return counterMap.size();
+    }
+
+    public Counter get(K key) {
+        return counterMap.get(key);
+    }
+
+    /**
+     * @return the incremented counter of the key, or null when the key is not counted
+     */
+    public Counter increment(K key) {
+        Counter counter = counterMap.get(key);
+        if (counter != null) {
+            moveToNextCount(counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Starts counting the key, the buckets are scanned from the smallest count hence the count is expected to be
+     * at most one more than the smallest count.
+     */
+    public Counter add(K key, long count, long error) {
+        Counter counter = new Counter(key, error);
+        counterMap.put(key, counter);
+        long bucketCount = count + offset;
+        Bucket previous = null;
+        Bucket bucket = head;
+        while (bucket != null && bucket.count < bucketCount) {
+            previous = bucket;
+            bucket = bucket.next;
+        }
+        if (bucket == null || bucket.count != bucketCount) {
+            bucket = insertBucket(previous, bucketCount);
+        }
+        bucket.add(counter);
+        return counter;
+    }
+
+    /**
+     * Space-Saving step, the key takes over the oldest of the smallest counters with its count as the error
+     * and counts one more.
+     *
+     * @return the key that was counted by the counter
+     */
+    public K replaceMinimum(K key) {
+        Counter counter = head.first;
+        K evictedKey = counter.key;
+        counterMap.remove(evictedKey);
+        counter.key = key;
+        counter.error = counter.getCount();
+        counterMap.put(key, counter);
+        moveToNextCount(counter);
+        return evictedKey;
+    }
+
+    /**
+     * Misra-Gries step, decrements all the counters by one.
+     *
+     * @return keys of the counters that reached zero, which are removed
+     */
+    public List<K> decrementAll() {
+        offset++;
+        if (head == null || head.count - offset > 0) {
+            return Collections.emptyList();
+        }
+        List<K> removedKeys = new ArrayList<K>();
+        for (Counter counter = head.first; counter != null; counter = counter.next) {
+            counterMap.remove(counter.key);
+            removedKeys.add(counter.key);
+        }
+        removeBucket(head);
+        return removedKeys;
+    }
+
+    /**
+     * Lossy Counting step, removes the counters whose count and error add up to at most the threshold.
+     *
+     * @return keys of the removed counters
+     */
+    public List<K> removeAtMost(long threshold) {
+        List<K> removedKeys = new ArrayList<K>();
+        Bucket bucket = head;
+        while (bucket != null && bucket.count - offset <= threshold) {
+            Bucket next = bucket.next;
+            for (Counter counter = bucket.first; counter != null; ) {
+                Counter nextCounter = counter.next;
+                if (counter.getCount() + counter.error <= threshold) {
+                    counterMap.remove(counter.key);
+                    removedKeys.add(counter.key);
+                    bucket.remove(counter);
+                }
+                counter = nextCounter;
+            }
+            if (bucket.first == null) {
+                removeBucket(bucket);
+            }
+            bucket = next;
+        }
+        return removedKeys;
+    }
+
+    public void clear() {
+        counterMap.clear();
+        head = null;
+        tail = null;
+        offset = 0;
+    }
+
+    /**
+     * @return the keys, counts and errors of the counters in ascending order of count
+     */
+    public Object[] currentState() {
+        List<K> keys = new ArrayList<K>(counterMap.size());
+        long[] counts = new long[counterMap.size()];
+        long[] errors = new long[counterMap.size()];
+        int i = 0;
+        for (Bucket bucket = head; bucket != null; bucket = bucket.next) {
+            for (Counter counter = bucket.first; counter != null; counter = counter.next) {
+                keys.add(counter.key);
+                counts[i] = counter.getCount();
+                errors[i] = counter.error;
+                i++;
+            }
+        }
+        return new Object[]{keys, counts, errors};
+    }
+
+    public void restoreState(Object[] state) {
+        clear();
+        List<K> keys = (List<K>) state[0];
+        long[] counts = (long[]) state[1];
+        long[] errors = (long[]) state[2];
+        for (int i = 0; i < keys.size(); i++) {
+            Counter counter = new Counter(keys.get(i), errors[i]);
+            counterMap.put(counter.key, counter);
+            if (tail == null || tail.count != counts[i]) {
+                insertBucket(tail, counts[i]);
+            }
+            tail.add(counter);
+        }
+    }
+
+    private void moveToNextCount(Counter counter) {
+        Bucket bucket = counter.bucket;
+        Bucket nextBucket = bucket.next;
+        if (nextBucket == null || nextBucket.count != bucket.count + 1) {
+            nextBucket = insertBucket(bucket, bucket.count + 1);
+        }
+        bucket.remove(counter);
+        if (bucket.first == null) {
+            removeBucket(bucket);
+        }
+        nextBucket.add(counter);
+    }
+
+    private Bucket insertBucket(Bucket previous, long count) {
+        Bucket bucket = new Bucket(count);
+        bucket.previous = previous;
+        if (previous == null) {
+            bucket.next = head;
+            head = bucket;
+        } else {
+            bucket.next = previous.next;
+            previous.next = bucket;
+        }
+        if (bucket.next == null) {
+            tail = bucket;
+        } else {
+            bucket.next.previous = bucket;
+        }
+        return bucket;
+    }
+
+    private void removeBucket(Bucket bucket) {
+        if (bucket.previous == null) {
+            head = bucket.next;
+        } else {
+            bucket.previous.next = bucket.next;
+        }
+        if (bucket.next == null) {
+            tail = bucket.previous;
+        } else {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    public class Counter {
+        private K key;
+        private long error;
+        private Bucket bucket;
+        private Counter previous;
+        private Counter next;
+
+        private Counter(K key, long error) {
+            this.key = key;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return bucket.count - offset;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+
+    private class Bucket {
+        private final long count;
+        private Counter first;
+        private Counter last;
+        private Bucket previous;
+        private Bucket next;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void add(Counter counter) {
+            counter.bucket = this;
+            counter.previous = last;
+            counter.next = null;
+            if (last == null) {
+                first = counter;
+            } else {
+                last.next = counter;
+            }
+            last = counter;
+        }
+
+        private void remove(Counter counter) {
+            if (counter.previous == null) {
+                first = counter.next;
+            } else {
+                counter.previous.next = counter.next;
+            }
+            if (counter.next == null) {
+                last = counter.previous;
+            } else {
+                counter.next.previous = counter.previous;
+            }
+            counter.previous = null;
+            counter.next = null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.deque;
+
+import java.io.Serializable;
+
+/**
+ * Monotonic deque over a primitive ring buffer giving the max or min of a sliding window whose
+ * values expire in the order they were added. Values that can never become the extremum are dropped
+ * on add and the front is popped when the value it holds expires, hence both are amortized O(1).
+ */
+public class DoubleMonotonicDeque implements Serializable {
+
+    private final boolean max;
+    private double[] values;
+    private long[] sequences;
+    private int head = 0;
+    private int size = 0;
+    private long addSequence = 0;
+    private long removeSequence = 0;
+
+    public DoubleMonotonicDeque(boolean max) {
+        this.max = max;
+        values = new double[16];
+        sequences = new long[16];
+    }
+
+    public void add(double value) {
+        int mask = values.length - 1;
+        while (size > 0) {
+            double last = values[(head + size - 1) & mask];
+            if (max ? last <= value : last >= value) {
+                size--;
+            } else {
+                break;
+            }
+        }
+        if (size == values.length) {
+            grow();
+            mask = values.length - 1;
+        }
+        int tail = (head + size) & mask;
+        values[tail] = value;
+        sequences[tail] = addSequence++;
+        size++;
+    }
+
+    /**
+     * Expires the oldest value added to the window
+     */
+    public void removeOldest() {
+        if (size > 0 && sequences[head] == removeSequence) {
+            head = (head + 1) & (values.length - 1);
+            size--;
+        }
+        removeSequence++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return max or min of the values in the window, only valid when the deque is not empty
+     */
+    public double peek() {
+        return values[head];
+    }
+
+    private void grow() {
+        double[] newValues = new double[values.length << 1];
+        long[] newSequences = new long[values.length << 1];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & (values.length - 1);
+            newValues[i] = values[index];
+            newSequences[i] = sequences[index];
+        }
+        values = newValues;
+        sequences = newSequences;
+        head = 0;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.list;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+
+/**
+ * Insertion ordered list that removes a given element in constant time,
+ * elements are expected not to override equals (events are compared by identity).
+ */
+public class SiddhiLinkedSetList<T> extends SiddhiList<T> {
+    private LinkedHashSet<T> set = new LinkedHashSet<T>();
+
+    public synchronized void add(T t) {
+        set.add(t);
+    }
+
+    public synchronized T get(int index) {
+        Iterator<T> iterator = set.iterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    public synchronized T remove(int index) {
+        T t = get(index);
+        set.remove(t);
+        return t;
+    }
+
+    public synchronized boolean remove(T t) {
+        return set.remove(t);
+    }
+
+    public Iterator<T> iterator() {
+        return set.iterator();
+    }
+
+    public Object[] currentState() {
+        return new Object[]{new LinkedList<T>(set)};
+    }
+
+    public void restoreState(Object[] objects) {
+        set = new LinkedHashSet<T>((LinkedList<T>) objects[0]);
+    }
+
+    public int size() {
+        return set.size();
+    }
+
+    public void clear() {
+        set.clear();
+    }
+
+    public LinkedList<T> getList() {
+        return new LinkedList<T>(set);
+    }
+}
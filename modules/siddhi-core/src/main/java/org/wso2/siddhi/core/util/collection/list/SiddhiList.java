@@ -17,6 +17,7 @@
 */
 package org.wso2.siddhi.core.util.collection.list;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -27,6 +28,12 @@ public class SiddhiList<T> {
         list.add(t);
     }
 
+    public synchronized void addAll(Collection<? extends T> ts) {
+        for (T t : ts) {
+            add(t);
+        }
+    }
+
     public synchronized T get(int index) {
         return list.get(index);
     }
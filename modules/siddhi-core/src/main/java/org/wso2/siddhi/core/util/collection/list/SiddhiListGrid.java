@@ -46,6 +46,13 @@ public class SiddhiListGrid<T> extends SiddhiList<T> {
         list.add(t);
     }
 
+    /**
+     * Adds all the elements with one grid operation
+     */
+    public synchronized void addAll(Collection<? extends T> ts) {
+        list.addAll(ts);
+    }
+
     public synchronized T get(int index) {
         return list.get(index);
     }
@@ -0,0 +1,102 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.map;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.IMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Local copy of the entries of a grid map written by this member, serving their reads without remote
+ * calls. Writes of this member are applied by the grid collection as it makes them. Entry events of
+ * other members invalidate the key instead of populating it, as an event arriving after a later local
+ * write of the same key would otherwise bring back a stale entry. Hence the cache holds a subset of the
+ * grid, misses and iterations are served by the grid.
+ */
+public class GridNearCache<K, V> implements EntryListener<K, V> {
+
+    protected final ConcurrentMap<K, V> entries;
+
+    public GridNearCache(IMap<K, V> map) {
+        this(map, new ConcurrentHashMap<K, V>(), false);
+    }
+
+    /**
+     * @param includeValue whether the entry events of the grid carry the values
+     */
+    protected GridNearCache(IMap<K, V> map, ConcurrentMap<K, V> entries, boolean includeValue) {
+        this.entries = entries;
+        map.addEntryListener(this, includeValue);
+    }
+
+    public V get(K key) {
+        return entries.get(key);
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public void putAll(Map<? extends K, ? extends V> map) {
+        entries.putAll(map);
+    }
+
+    public V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public void entryAdded(EntryEvent<K, V> event) {
+        if (!event.getMember().localMember()) {
+            entries.remove(event.getKey());
+        }
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<K, V> event) {
+        if (!event.getMember().localMember()) {
+            entries.remove(event.getKey());
+        }
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<K, V> event) {
+        if (!event.getMember().localMember()) {
+            entries.remove(event.getKey());
+        }
+    }
+
+    @Override
+    public void entryEvicted(EntryEvent<K, V> event) {
+        if (!event.getMember().localMember()) {
+            entries.remove(event.getKey());
+        }
+    }
+}
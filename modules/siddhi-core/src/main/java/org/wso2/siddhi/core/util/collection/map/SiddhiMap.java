@@ -18,6 +18,7 @@
 package org.wso2.siddhi.core.util.collection.map;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -28,6 +29,12 @@ public class SiddhiMap<T> {
         return map.put(key, t);
     }
 
+    public void putAll(Map<String, T> entries) {
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
     public T putIfAbsent(String key, T t) {
         return map.putIfAbsent(key, t);
     }
@@ -22,16 +22,20 @@ import com.hazelcast.query.SqlPredicate;
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.exception.NoIdentifierException;
+import org.wso2.siddhi.core.util.collection.PartitionAwareKey;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 public class SiddhiMapGrid<T> extends SiddhiMap<T> {
     static final Logger log = Logger.getLogger(SiddhiMapGrid.class);
 
-    protected IMap<String, T> map;
+    protected IMap<Object, T> map;
     protected String elementId;
     protected SiddhiContext siddhiContext;
+    protected String partitionKey;
+    protected GridNearCache<Object, T> nearCache;
 
 
     public SiddhiMapGrid(String elementId, SiddhiContext siddhiContext) {
@@ -41,25 +45,72 @@ public class SiddhiMapGrid<T> extends SiddhiMap<T> {
         }
         this.elementId = elementId + "-" + this.getClass().getSimpleName();
         map = siddhiContext.getHazelcastInstance().getMap(this.elementId);
+        if (siddhiContext.isGridPartitionAware()) {
+            partitionKey = PartitionAwareKey.getPartitionKey(siddhiContext.getHazelcastInstance(), this.elementId);
+        }
+        if (siddhiContext.isGridNearCache()) {
+            nearCache = new GridNearCache<Object, T>(map);
+        }
+    }
+
+    protected Object gridKey(String key) {
+        return partitionKey == null ? key : new PartitionAwareKey(key, partitionKey);
     }
 
     public synchronized T put(String key, T t) {
-        return map.put(key, t);
+        Object gridKey = gridKey(key);
+        if (nearCache != null) {
+            nearCache.put(gridKey, t);
+        }
+        return map.put(gridKey, t);
+    }
+
+    /**
+     * Puts all the entries with one grid operation
+     */
+    public synchronized void putAll(Map<String, T> entries) {
+        Map<Object, T> gridEntries = new HashMap<Object, T>(entries.size() * 2);
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            gridEntries.put(gridKey(entry.getKey()), entry.getValue());
+        }
+        if (nearCache != null) {
+            nearCache.putAll(gridEntries);
+        }
+        map.putAll(gridEntries);
     }
 
     public synchronized T putIfAbsent(String key, T t) {
-        return map.putIfAbsent(key, t);
+        Object gridKey = gridKey(key);
+        T existing = map.putIfAbsent(gridKey, t);
+        if (nearCache != null) {
+            nearCache.put(gridKey, existing == null ? t : existing);
+        }
+        return existing;
     }
 
     public synchronized T get(String key) {
-        return map.get(key);
+        Object gridKey = gridKey(key);
+        if (nearCache != null) {
+            T t = nearCache.get(gridKey);
+            if (t != null) {
+                return t;
+            }
+        }
+        return map.get(gridKey);
     }
 
     public synchronized T remove(String key) {
-        return map.remove(key);
+        Object gridKey = gridKey(key);
+        if (nearCache != null) {
+            nearCache.remove(gridKey);
+        }
+        return map.remove(gridKey);
     }
 
     public synchronized void clear() {
+        if (nearCache != null) {
+            nearCache.clear();
+        }
         map.clear();
     }
 
@@ -67,10 +118,14 @@ public class SiddhiMapGrid<T> extends SiddhiMap<T> {
         return map.values().iterator();
     }
 
+    /**
+     * Snapshots the entries by their plain keys, as the partition key of the grid keys is only agreed
+     * within the cluster taking the snapshot
+     */
     public Object[] currentState() {
-        java.util.Map tempMap = new HashMap<String, T>();
-        for (java.util.Map.Entry<String, T> entry : map.entrySet()) {
-            tempMap.put(entry.getKey(), entry.getValue());
+        Map<String, T> tempMap = new HashMap<String, T>();
+        for (Map.Entry<Object, T> entry : map.entrySet()) {
+            tempMap.put(PartitionAwareKey.plainKey(entry.getKey()), entry.getValue());
         }
         if (log.isDebugEnabled()) {
             log.debug("map size bring persisted " + map.size());
@@ -80,13 +135,21 @@ public class SiddhiMapGrid<T> extends SiddhiMap<T> {
     }
 
     public void restoreState(Object[] objects) {
-        map.putAll((java.util.Map) objects[0]);
+        Map<Object, T> tempMap = (Map<Object, T>) objects[0];
+        Map<Object, T> gridEntries = new HashMap<Object, T>(tempMap.size() * 2);
+        for (Map.Entry<Object, T> entry : tempMap.entrySet()) {
+            gridEntries.put(gridKey(PartitionAwareKey.plainKey(entry.getKey())), entry.getValue());
+        }
+        if (nearCache != null) {
+            nearCache.putAll(gridEntries);
+        }
+        map.putAll(gridEntries);
     }
 
     public synchronized Iterator<T> iterator(String condition) {
 
         if (condition.trim().equals("*")) {
-            return map.values().iterator();
+            return iterator();
         }
         return map.values(new SqlPredicate(condition)).iterator();
     }
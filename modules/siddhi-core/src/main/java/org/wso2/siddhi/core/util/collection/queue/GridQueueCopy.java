@@ -0,0 +1,132 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.queue;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.IMap;
+import org.wso2.siddhi.core.util.collection.map.GridNearCache;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Complete local copy of the entries of a partition aware grid queue, in the order of their indexes. As all
+ * the entries of the queue live in one partition, the entry events of the other members arrive in the
+ * order of their writes and are applied to the copy. The entries are only removed from the head, hence
+ * an added event of an index the head has already passed is stale and ignored.
+ */
+public class GridQueueCopy<T> extends GridNearCache<Object, T> {
+
+    // orders the decimal indexes without parsing them
+    private static final Comparator<Object> INDEX_ORDER = new Comparator<Object>() {
+        @Override
+        public int compare(Object key1, Object key2) {
+            String index1 = key1.toString();
+            String index2 = key2.toString();
+            if (index1.length() != index2.length()) {
+                return index1.length() < index2.length() ? -1 : 1;
+            }
+            return index1.compareTo(index2);
+        }
+    };
+
+    // indexes start from 1, left without an initializer as the events can arrive before it would run
+    private long removedIndex;
+
+    public GridQueueCopy(IMap<Object, T> map) {
+        super(map, new ConcurrentSkipListMap<Object, T>(INDEX_ORDER), true);
+        // loaded after listening, so that the entries written meanwhile are not missed
+        for (Map.Entry<Object, T> entry : map.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return the entries in the order of the queue
+     */
+    public Collection<T> values() {
+        return entries.values();
+    }
+
+    @Override
+    public synchronized void put(Object key, T value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map<?, ? extends T> map) {
+        entries.putAll(map);
+    }
+
+    @Override
+    public synchronized T remove(Object key) {
+        removedIndex = Math.max(removedIndex, index(key));
+        return entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        removedIndex = 0;
+    }
+
+    private synchronized void add(Object key, T value) {
+        if (index(key) > removedIndex) {
+            entries.putIfAbsent(key, value);
+        }
+    }
+
+    private long index(Object key) {
+        return Long.parseLong(key.toString());
+    }
+
+    @Override
+    public void entryAdded(EntryEvent<Object, T> event) {
+        if (!event.getMember().localMember()) {
+            add(event.getKey(), event.getValue());
+        }
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<Object, T> event) {
+        if (!event.getMember().localMember()) {
+            synchronized (this) {
+                if (index(event.getKey()) > removedIndex) {
+                    entries.put(event.getKey(), event.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<Object, T> event) {
+        if (!event.getMember().localMember()) {
+            remove(event.getKey());
+        }
+    }
+
+    @Override
+    public void entryEvicted(EntryEvent<Object, T> event) {
+        if (!event.getMember().localMember()) {
+            // not taken from the head
+            entries.remove(event.getKey());
+        }
+    }
+}
@@ -23,20 +23,27 @@ import com.hazelcast.query.SqlPredicate;
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.exception.NoIdentifierException;
+import org.wso2.siddhi.core.util.collection.PartitionAwareKey;
+import org.wso2.siddhi.core.util.collection.map.GridNearCache;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 public class SiddhiQueueGrid<T> extends SiddhiQueue<T> {
     static final Logger log = Logger.getLogger(SiddhiQueueGrid.class);
 
-    protected IMap<String, T> map;
+    protected IMap<Object, T> map;
     protected IAtomicLong firstIndex;
     protected IAtomicLong lastIndex;
     protected String elementId;
     protected SiddhiContext siddhiContext;
     protected boolean async = true;
+    protected String partitionKey;
+    protected GridNearCache<Object, T> nearCache;
 
 
     public SiddhiQueueGrid(String elementId, SiddhiContext siddhiContext, boolean async) {
@@ -50,26 +57,88 @@ public class SiddhiQueueGrid<T> extends SiddhiQueue<T> {
         firstIndex = siddhiContext.getHazelcastInstance().getAtomicLong(this.elementId + "-FirstIndex");
         lastIndex = siddhiContext.getHazelcastInstance().getAtomicLong(this.elementId + "-LastIndex");
         map = siddhiContext.getHazelcastInstance().getMap(this.elementId);
+        if (siddhiContext.isGridPartitionAware()) {
+            partitionKey = PartitionAwareKey.getPartitionKey(siddhiContext.getHazelcastInstance(), this.elementId);
+        }
+        if (siddhiContext.isGridNearCache()) {
+            // the entries of a partition aware queue are all kept, so that it can also be iterated locally
+            nearCache = partitionKey != null ? new GridQueueCopy<T>(map) : new GridNearCache<Object, T>(map);
+        }
     }
 
+    protected Object gridKey(long index) {
+        return gridKey(String.valueOf(index));
+    }
+
+    private Object gridKey(String key) {
+        return partitionKey == null ? key : new PartitionAwareKey(key, partitionKey);
+    }
+
+    protected boolean isEmpty() {
+        return (nearCache == null || nearCache.isEmpty()) && map.isEmpty();
+    }
+
+    /**
+     * Returns the element at the index from the near cache when enabled, otherwise from the grid
+     */
+    protected T get(Object gridKey) throws Exception {
+        if (nearCache != null) {
+            T t = nearCache.get(gridKey);
+            if (t != null) {
+                return t;
+            }
+        }
+        return map.getAsync(gridKey).get();
+    }
 
     public synchronized void put(T t) {
         if (log.isDebugEnabled()) {
             log.debug("Put to SchedulerQueueGrid of elementId:" + elementId + " " + t + " having :" + map.size());
         }
+        Object gridKey = gridKey(lastIndex.incrementAndGet());
+        if (nearCache != null) {
+            nearCache.put(gridKey, t);
+        }
         if (async) {
-            map.putAsync(String.valueOf(lastIndex.incrementAndGet()), t);
+            map.putAsync(gridKey, t);
         } else {
-            map.put(String.valueOf(lastIndex.incrementAndGet()), t);
+            map.put(gridKey, t);
         }
     }
 
+    /**
+     * Adds the elements in order, reserving their indexes with one atomic operation and writing them
+     * with one grid operation
+     */
+    public synchronized void putAll(Collection<T> ts) {
+        int size = ts.size();
+        if (size == 0) {
+            return;
+        }
+        long index = lastIndex.getAndAdd(size);
+        Map<Object, T> entries = new HashMap<Object, T>(size * 2);
+        for (T t : ts) {
+            entries.put(gridKey(++index), t);
+        }
+        if (nearCache != null) {
+            nearCache.putAll(entries);
+        }
+        map.putAll(entries);
+    }
 
     public synchronized T poll() {
-        if (!map.isEmpty()) {
+        if (!isEmpty()) {
             T t = null;
+            Object gridKey = gridKey(firstIndex.incrementAndGet());
+            if (nearCache != null) {
+                t = nearCache.remove(gridKey);
+            }
             try {
-                t = map.removeAsync(String.valueOf(firstIndex.incrementAndGet())).get();
+                if (t == null) {
+                    t = map.removeAsync(gridKey).get();
+                } else {
+                    map.removeAsync(gridKey);
+                }
             } catch (Exception e) {
                 log.error(e);
             }
@@ -86,18 +155,75 @@ public class SiddhiQueueGrid<T> extends SiddhiQueue<T> {
 
     }
 
+    /**
+     * Removes up to maxElements elements from the head of the queue and adds them to the collection,
+     * reading the ones missing in the near cache with one grid operation
+     *
+     * @return number of elements drained
+     */
+    public synchronized int drainTo(Collection<? super T> collection, int maxElements) {
+        int count = Math.min(size(), maxElements);
+        if (count <= 0) {
+            return 0;
+        }
+        long index = firstIndex.get();
+        Map<Object, T> entries = new HashMap<Object, T>(count * 2);
+        Set<Object> missedKeys = new HashSet<Object>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            Object gridKey = gridKey(index + i);
+            T t = nearCache != null ? nearCache.get(gridKey) : null;
+            if (t != null) {
+                entries.put(gridKey, t);
+            } else {
+                missedKeys.add(gridKey);
+            }
+        }
+        if (!missedKeys.isEmpty()) {
+            entries.putAll(map.getAll(missedKeys));
+        }
+        int drained = 0;
+        for (int i = 1; i <= count; i++) {
+            T t = entries.get(gridKey(index + i));
+            if (t == null) {
+                break;
+            }
+            collection.add(t);
+            drained++;
+        }
+        removeFirst(drained);
+        return drained;
+    }
+
     protected void removeFirst() {
-        if (async) {
-            map.removeAsync(String.valueOf(firstIndex.incrementAndGet()));
-        } else {
-            map.remove(String.valueOf(firstIndex.incrementAndGet()));
+        removeFirst(1);
+    }
+
+    /**
+     * Removes the given number of elements from the head of the queue, advancing the head index with one
+     * atomic operation
+     */
+    protected void removeFirst(int count) {
+        if (count == 0) {
+            return;
+        }
+        long index = firstIndex.getAndAdd(count);
+        for (int i = 1; i <= count; i++) {
+            Object gridKey = gridKey(index + i);
+            if (nearCache != null) {
+                nearCache.remove(gridKey);
+            }
+            if (async) {
+                map.removeAsync(gridKey);
+            } else {
+                map.delete(gridKey);
+            }
         }
     }
 
     public synchronized T peek() {
-        if (!map.isEmpty()) {
+        if (!isEmpty()) {
             try {
-                return map.getAsync(String.valueOf(firstIndex.get() + 1)).get();
+                return get(gridKey(firstIndex.get() + 1));
             } catch (Exception e) {
                 log.error(e);
                 return null;
@@ -110,22 +236,32 @@ public class SiddhiQueueGrid<T> extends SiddhiQueue<T> {
         }
     }
 
+    /**
+     * Iterates the local copy of a partition aware queue with the near cache, otherwise the grid
+     */
     public synchronized Iterator<T> iterator() {
+        if (nearCache instanceof GridQueueCopy) {
+            return ((GridQueueCopy<T>) nearCache).values().iterator();
+        }
         return map.values().iterator();
     }
 
     public synchronized Iterator<T> iterator(String condition) {
 
         if (condition.trim().equals("*")) {
-            return map.values().iterator();
+            return iterator();
         }
         return map.values(new SqlPredicate(condition)).iterator();
     }
 
+    /**
+     * Snapshots the entries by their plain index keys, as the partition key of the grid keys is only agreed
+     * within the cluster taking the snapshot
+     */
     public Object[] currentState() {
         Map<String, T> tempMap = new HashMap<String, T>();
-        for (Map.Entry<String, T> entry : map.entrySet()) {
-            tempMap.put(entry.getKey(), entry.getValue());
+        for (Map.Entry<Object, T> entry : map.entrySet()) {
+            tempMap.put(PartitionAwareKey.plainKey(entry.getKey()), entry.getValue());
         }
         if (log.isDebugEnabled()) {
             log.debug("map size bring persisted " + map.size());
@@ -137,7 +273,16 @@ public class SiddhiQueueGrid<T> extends SiddhiQueue<T> {
     public void restoreState(Object[] objects) {
         firstIndex.set((Long) objects[0]);
         lastIndex.set((Long) objects[1]);
-        map.putAll((Map<String, T>) objects[3]);
+        Map<Object, T> tempMap = (Map<Object, T>) objects[3];
+        Map<Object, T> gridEntries = new HashMap<Object, T>(tempMap.size() * 2);
+        for (Map.Entry<Object, T> entry : tempMap.entrySet()) {
+            gridEntries.put(gridKey(PartitionAwareKey.plainKey(entry.getKey())), entry.getValue());
+        }
+        if (nearCache != null) {
+            nearCache.clear();
+            nearCache.putAll(gridEntries);
+        }
+        map.putAll(gridEntries);
     }
 
     public int size() {
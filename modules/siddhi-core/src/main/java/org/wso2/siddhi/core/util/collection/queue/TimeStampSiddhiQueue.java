@@ -20,9 +20,9 @@ public class TimeStampSiddhiQueue<T extends StreamEvent> extends SiddhiQueue<T>
     private long pollInterval = 0;
     private Long nextPollTime = 0l;
 
-    public TimeStampSiddhiQueue(long pollInterval) {
+    public TimeStampSiddhiQueue(long pollInterval, long startTime) {
         this.pollInterval = pollInterval;
-        updateNextPollTime(System.currentTimeMillis());
+        updateNextPollTime(startTime);
     }
 
     private void updateNextPollTime(long lastPollTime){
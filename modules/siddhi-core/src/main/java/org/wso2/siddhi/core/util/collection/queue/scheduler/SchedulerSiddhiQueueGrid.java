@@ -21,6 +21,7 @@ import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.util.collection.queue.SiddhiQueueGrid;
 
+import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SchedulerSiddhiQueueGrid<T> extends SiddhiQueueGrid<T> implements ISchedulerSiddhiQueue<T> {
@@ -43,6 +44,12 @@ public class SchedulerSiddhiQueueGrid<T> extends SiddhiQueueGrid<T> implements I
         this.schedulerElement.schedule();
     }
 
+    @Override
+    public synchronized void putAll(Collection<T> ts) {
+        super.putAll(ts);
+        this.schedulerElement.schedule();
+    }
+
 
     public synchronized T poll() {
         T t = super.poll();
@@ -21,6 +21,7 @@ import com.hazelcast.query.SqlPredicate;
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.event.remove.RemoveStream;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.SchedulerElement;
 import org.wso2.siddhi.core.util.collection.queue.scheduler.SchedulerSiddhiQueueGrid;
 
@@ -28,29 +29,39 @@ import java.util.*;
 
 public class SchedulerTimestampSiddhiQueueGrid<T extends StreamEvent> extends SchedulerSiddhiQueueGrid<T> implements ISchedulerTimestampSiddhiQueue<T> {
     static final Logger log = Logger.getLogger(SchedulerTimestampSiddhiQueueGrid.class);
-    private EntrySetComparator entrySetComparator = new EntrySetComparator();
 
     public SchedulerTimestampSiddhiQueueGrid(String elementId, SchedulerElement schedulerElement,
                                              SiddhiContext siddhiContext, boolean async) {
         super(elementId, schedulerElement, siddhiContext, async);
     }
 
+    /**
+     * Removes the expired elements at the head of the queue, read from the near cache when enabled and
+     * otherwise with one grid query, and removed with one head index update
+     */
     public synchronized Collection<T> poll(long expiryTime) {
-        if (!map.isEmpty()) {
+        if (!isEmpty()) {
             try {
+                Map<Object, T> expiredEntries = null;
+                if (nearCache == null) {
+                    expiredEntries = new HashMap<Object, T>();
+                    SqlPredicate sqlPredicate = new SqlPredicate(" expiryTime <= " + expiryTime + ")");
+                    for (Map.Entry<Object, T> entry : map.entrySet(sqlPredicate)) {
+                        expiredEntries.put(entry.getKey(), entry.getValue());
+                    }
+                }
                 List<T> resultList = new ArrayList<T>();
-                SqlPredicate sqlPredicate = new SqlPredicate(" expiryTime <= " + expiryTime + ")");
-                ArrayList<Map.Entry<String, T>> results = new ArrayList<Map.Entry<String, T>>(map.entrySet(sqlPredicate));
-                Collections.sort(results, entrySetComparator);
-                for (Map.Entry<String, T> result : results) {
-                    if (result.getKey().equals(String.valueOf(firstIndex.get() + 1))) {
-                        resultList.add(result.getValue());
-                        removeFirst();
-                    } else {
-                        return resultList;
+                long index = firstIndex.get();
+                while (true) {
+                    Object gridKey = gridKey(++index);
+                    T t = expiredEntries != null ? expiredEntries.get(gridKey) : get(gridKey);
+                    if (t == null || ((RemoveStream) t).getExpiryTime() > expiryTime) {
+                        break;
                     }
+                    resultList.add(t);
                 }
                 if (resultList.size() > 0) {
+                    removeFirst(resultList.size());
                     return resultList;
                 } else {
                     return null;
@@ -67,14 +78,4 @@ public class SchedulerTimestampSiddhiQueueGrid<T extends StreamEvent> extends Sc
         }
 
     }
-
-    public class EntrySetComparator implements Comparator<Map.Entry<String, T>> {
-
-        @Override
-        public int compare(Map.Entry<String, T> o1, Map.Entry<String, T> o2) {
-            long o11 = Long.parseLong(o1.getKey());
-            long o21 = Long.parseLong(o2.getKey());
-            return (o11 > o21 ? 1 : (o11 == o21 ? 0 : -1));
-        }
-    }
 }
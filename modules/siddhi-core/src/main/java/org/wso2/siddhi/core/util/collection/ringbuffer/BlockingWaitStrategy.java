@@ -0,0 +1,68 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.ringbuffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Parks idle consumers on a condition. The producer only takes the lock
+ * when some consumer is actually waiting, hence the publish path stays lock free under load.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition cursorMovedCondition = lock.newCondition();
+    private final AtomicInteger waitingConsumers = new AtomicInteger(0);
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, AtomicBoolean running) throws InterruptedException {
+        long availableSequence = cursor.get();
+        if (availableSequence < sequence) {
+            lock.lock();
+            waitingConsumers.incrementAndGet();
+            try {
+                while ((availableSequence = cursor.get()) < sequence && running.get()) {
+                    //bounded wait, guards against a signal raised between the check and the await
+                    cursorMovedCondition.awaitNanos(MAX_WAIT_NANOS);
+                }
+            } finally {
+                waitingConsumers.decrementAndGet();
+                lock.unlock();
+            }
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        if (waitingConsumers.get() > 0) {
+            lock.lock();
+            try {
+                cursorMovedCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
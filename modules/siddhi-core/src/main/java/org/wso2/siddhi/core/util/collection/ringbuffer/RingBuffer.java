@@ -0,0 +1,211 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.ringbuffer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated ring buffer where every consumer reads all published elements
+ * through its own {@link Sequence}. Publishing never takes a lock; slots are
+ * claimed with a CAS on the cursor so that query outputs inserting into the
+ * same stream from different threads stay safe. A producer can only publish
+ * when it is less than a full buffer ahead of the slowest consumer.
+ *
+ * @param <T> element type
+ */
+public class RingBuffer<T> {
+
+    private final Object[] entries;
+    private final int bufferSize;
+    private final int indexMask;
+    private final int indexShift;
+    private final AtomicIntegerArray availableBuffer;
+    private final Sequence cursor = new Sequence(-1);
+    private final Sequence gatingSequenceCache = new Sequence(-1);
+    private final WaitStrategy waitStrategy;
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    public RingBuffer(int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of 2, but found " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.entries = new Object[bufferSize];
+        this.availableBuffer = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availableBuffer.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    public void publish(T element) {
+        while (!tryPublish(element)) {
+            awaitCapacity();
+        }
+    }
+
+    /**
+     * Publishes the element if there is a free slot.
+     *
+     * @return false if the buffer is a full buffer ahead of the slowest consumer
+     */
+    public boolean tryPublish(T element) {
+        long sequence = tryNext();
+        if (sequence < 0) {
+            return false;
+        }
+        entries[(int) sequence & indexMask] = element;
+        availableBuffer.lazySet((int) sequence & indexMask, (int) (sequence >>> indexShift));
+        waitStrategy.signalAllWhenBlocking();
+        return true;
+    }
+
+    /**
+     * Waits till the slowest consumer frees a slot, which other producers can still claim first.
+     */
+    public void awaitCapacity() {
+        long current = cursor.get();
+        while (current + 1 - bufferSize > getMinimumSequence(current)) {
+            LockSupport.parkNanos(1);
+            current = cursor.get();
+        }
+    }
+
+    /**
+     * @return the claimed sequence, or -1 if there is no free slot
+     */
+    private long tryNext() {
+        long current;
+        long next;
+        while (true) {
+            current = cursor.get();
+            next = current + 1;
+            long wrapPoint = next - bufferSize;
+            long cachedGatingSequence = gatingSequenceCache.get();
+            if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+                long gatingSequence = getMinimumSequence(current);
+                if (wrapPoint > gatingSequence) {
+                    return -1;
+                }
+                gatingSequenceCache.set(gatingSequence);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) entries[(int) sequence & indexMask];
+    }
+
+    public boolean isAvailable(long sequence) {
+        return availableBuffer.get((int) sequence & indexMask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * @return the highest sequence in the range that can be read without gaps
+     */
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    /**
+     * Registers a new consumer, the consumer will read elements published after this call.
+     */
+    public synchronized Sequence addConsumer() {
+        Sequence sequence = new Sequence(cursor.get());
+        Sequence[] current = gatingSequences;
+        Sequence[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+        sequence.setVolatile(cursor.get());
+        return sequence;
+    }
+
+    public synchronized void removeConsumer(Sequence sequence) {
+        Sequence[] current = gatingSequences;
+        int index = -1;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == sequence) {
+                index = i;
+                break;
+            }
+        }
+        if (index >= 0) {
+            Sequence[] updated = new Sequence[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            gatingSequences = updated;
+        }
+    }
+
+    /**
+     * Waits till every consumer has read the elements up to the given sequence.
+     *
+     * @return false if interrupted while waiting
+     */
+    public boolean awaitConsumed(long sequence) {
+        while (getMinimumSequence(sequence) < sequence) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(1000);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every consumer has read all the published elements
+     */
+    public boolean isConsumed() {
+        long current = cursor.get();
+        return getMinimumSequence(current) == current;
+    }
+
+    private long getMinimumSequence(long minimum) {
+        for (Sequence sequence : gatingSequences) {
+            long value = sequence.get();
+            if (value < minimum) {
+                minimum = value;
+            }
+        }
+        return minimum;
+    }
+
+    public Sequence getCursor() {
+        return cursor;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
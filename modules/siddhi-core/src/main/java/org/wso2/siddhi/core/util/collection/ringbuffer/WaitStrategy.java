@@ -0,0 +1,66 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.ringbuffer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Strategy used by a ring buffer consumer to wait until the producer cursor
+ * has moved past the sequence it wants to read.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the cursor reaches the given sequence or the consumer is stopped.
+     *
+     * @param sequence the sequence the consumer wants to read
+     * @param cursor   the producer cursor of the ring buffer
+     * @param running  running flag of the waiting consumer
+     * @return the current cursor value, which can be less than the sequence when the consumer is stopped
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    long waitFor(long sequence, Sequence cursor, AtomicBoolean running) throws InterruptedException;
+
+    /**
+     * Wakes up waiting consumers, called by the producer after each publish.
+     */
+    void signalAllWhenBlocking();
+
+    public enum Type {
+        BUSY_SPIN {
+            @Override
+            public WaitStrategy createWaitStrategy() {
+                return new BusySpinWaitStrategy();
+            }
+        },
+        YIELDING {
+            @Override
+            public WaitStrategy createWaitStrategy() {
+                return new YieldingWaitStrategy();
+            }
+        },
+        BLOCKING {
+            @Override
+            public WaitStrategy createWaitStrategy() {
+                return new BlockingWaitStrategy();
+            }
+        };
+
+        public abstract WaitStrategy createWaitStrategy();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.collection.ringbuffer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Spins for a while and then yields the thread, giving up the core to other threads when idle.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, AtomicBoolean running) throws InterruptedException {
+        long availableSequence;
+        int counter = SPIN_TRIES;
+        while ((availableSequence = cursor.get()) < sequence && running.get()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (counter == 0) {
+                Thread.yield();
+            } else {
+                counter--;
+            }
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        //no waiting threads to signal
+    }
+}
@@ -20,29 +20,30 @@ package org.wso2.siddhi.core.util.generator;
 import com.hazelcast.core.IAtomicLong;
 import org.wso2.siddhi.core.config.SiddhiContext;
 
+/**
+ * Generates indexes unique across the cluster. Each node leases a block of indexes with a single atomic
+ * add on the cluster counter and hands them out locally, contacting the cluster once per block.
+ */
 public class GlobalIndexGenerator {
 
+    private final IAtomicLong counter;
+    private final int blockSize;
+    private long nextIndex = 0;
+    private long blockEnd = 0;
 
-    private static IAtomicLong one;
-    private static IAtomicLong two;
-
-    public GlobalIndexGenerator(SiddhiContext siddhiContext) {
-        one = siddhiContext.getHazelcastInstance().getAtomicLong("GlobalIndexGenerator-one");
-        two = siddhiContext.getHazelcastInstance().getAtomicLong("GlobalIndexGenerator-two");
+    public GlobalIndexGenerator(SiddhiContext siddhiContext, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Global index block size should be positive but found " + blockSize);
+        }
+        this.counter = siddhiContext.getHazelcastInstance().getAtomicLong("GlobalIndexGenerator");
+        this.blockSize = blockSize;
     }
 
-    public synchronized String getNewIndex() {
-        long localOne;
-        long localTwo = two.incrementAndGet();
-        if (localTwo == Long.MAX_VALUE) {
-            two.set(Long.MIN_VALUE);
-            localOne = one.incrementAndGet();
-            if (localOne == Long.MAX_VALUE) {
-                one.set(Long.MIN_VALUE);
-            }
-        } else {
-            localOne = one.get();
+    public synchronized long getNewIndex() {
+        if (nextIndex == blockEnd) {
+            nextIndex = counter.getAndAdd(blockSize);
+            blockEnd = nextIndex + blockSize;
         }
-        return localOne + "_" + localTwo;
+        return nextIndex++;
     }
 }
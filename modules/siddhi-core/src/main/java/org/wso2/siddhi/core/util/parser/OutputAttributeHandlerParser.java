@@ -25,10 +25,12 @@ import org.wso2.siddhi.core.query.selector.attribute.handler.avg.AvgOutputAttrib
 import org.wso2.siddhi.core.query.selector.attribute.handler.avg.AvgOutputAttributeAggregatorInt;
 import org.wso2.siddhi.core.query.selector.attribute.handler.avg.AvgOutputAttributeAggregatorLong;
 import org.wso2.siddhi.core.query.selector.attribute.handler.count.CountOutputAttributeAggregator;
+import org.wso2.siddhi.core.query.selector.attribute.handler.max.MaxOutputAttributeAggregatorCountedTree;
 import org.wso2.siddhi.core.query.selector.attribute.handler.max.MaxOutputAttributeAggregatorDouble;
 import org.wso2.siddhi.core.query.selector.attribute.handler.max.MaxOutputAttributeAggregatorFloat;
 import org.wso2.siddhi.core.query.selector.attribute.handler.max.MaxOutputAttributeAggregatorInt;
 import org.wso2.siddhi.core.query.selector.attribute.handler.max.MaxOutputAttributeAggregatorLong;
+import org.wso2.siddhi.core.query.selector.attribute.handler.min.MinOutputAttributeAggregatorCountedTree;
 import org.wso2.siddhi.core.query.selector.attribute.handler.min.MinOutputAttributeAggregatorDouble;
 import org.wso2.siddhi.core.query.selector.attribute.handler.min.MinOutputAttributeAggregatorFloat;
 import org.wso2.siddhi.core.query.selector.attribute.handler.min.MinOutputAttributeAggregatorInt;
@@ -38,9 +40,33 @@ import org.wso2.siddhi.core.query.selector.attribute.handler.sum.SumOutputAttrib
 import org.wso2.siddhi.core.query.selector.attribute.handler.sum.SumOutputAttributeAggregatorInt;
 import org.wso2.siddhi.core.query.selector.attribute.handler.sum.SumOutputAttributeAggregatorLong;
 import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.query.QueryEventSource;
+import org.wso2.siddhi.query.api.query.input.handler.Window;
+
+import java.util.List;
 
 public class OutputAttributeHandlerParser {
 
+    /**
+     * Events of a single stream reach the selector in the order they arrived, either without a window
+     * or through a window expiring them in that order. Joins and the other windows are not FIFO.
+     */
+    public static boolean isFifoExpiry(List<QueryEventSource> queryEventSourceList) {
+        if (queryEventSourceList.size() != 1) {
+            return false;
+        }
+        Window window = queryEventSourceList.get(0).getWindow();
+        if (window == null) {
+            return true;
+        }
+        if (window.getExtension() != null) {
+            return false;
+        }
+        String name = window.getName();
+        return "length".equals(name) || "time".equals(name) || "lengthBatch".equals(name) ||
+               "timeBatch".equals(name) || "externalTime".equals(name);
+    }
+
 
     public static OutputAttributeAggregator createSumAggregator(Attribute.Type[] types) {
         if (types.length > 1) {
@@ -86,7 +112,7 @@ public class OutputAttributeHandlerParser {
         throw new OperationNotSupportedException("Avg not supported for " + type);
     }
 
-    public static OutputAttributeAggregator createMaxAggregator(Attribute.Type[] types) {
+    public static OutputAttributeAggregator createMaxAggregator(Attribute.Type[] types, boolean fifoExpiry) {
         if (types.length > 1) {
             throw new QueryCreationException("Max can only have one parameter");
         }
@@ -95,13 +121,13 @@ public class OutputAttributeHandlerParser {
             case STRING:
                 throw new OperationNotSupportedException("Max not supported for string");
             case INT:
-                return new MaxOutputAttributeAggregatorInt();
+                return fifoExpiry ? new MaxOutputAttributeAggregatorInt() : new MaxOutputAttributeAggregatorCountedTree(type);
             case LONG:
-                return new MaxOutputAttributeAggregatorLong();
+                return fifoExpiry ? new MaxOutputAttributeAggregatorLong() : new MaxOutputAttributeAggregatorCountedTree(type);
             case FLOAT:
-                return new MaxOutputAttributeAggregatorFloat();
+                return fifoExpiry ? new MaxOutputAttributeAggregatorFloat() : new MaxOutputAttributeAggregatorCountedTree(type);
             case DOUBLE:
-                return new MaxOutputAttributeAggregatorDouble();
+                return fifoExpiry ? new MaxOutputAttributeAggregatorDouble() : new MaxOutputAttributeAggregatorCountedTree(type);
             case BOOL:
                 throw new OperationNotSupportedException("Max not supported for bool");
         }
@@ -109,7 +135,7 @@ public class OutputAttributeHandlerParser {
     }
 
 
-    public static OutputAttributeAggregator createMinAggregator(Attribute.Type[] types) {
+    public static OutputAttributeAggregator createMinAggregator(Attribute.Type[] types, boolean fifoExpiry) {
         if (types.length > 1) {
             throw new QueryCreationException("Min can only have one parameter");
         }
@@ -118,13 +144,13 @@ public class OutputAttributeHandlerParser {
             case STRING:
                 throw new OperationNotSupportedException("Min not supported for string");
             case INT:
-                return new MinOutputAttributeAggregatorInt();
+                return fifoExpiry ? new MinOutputAttributeAggregatorInt() : new MinOutputAttributeAggregatorCountedTree(type);
             case LONG:
-                return new MinOutputAttributeAggregatorLong();
+                return fifoExpiry ? new MinOutputAttributeAggregatorLong() : new MinOutputAttributeAggregatorCountedTree(type);
             case FLOAT:
-                return new MinOutputAttributeAggregatorFloat();
+                return fifoExpiry ? new MinOutputAttributeAggregatorFloat() : new MinOutputAttributeAggregatorCountedTree(type);
             case DOUBLE:
-                return new MinOutputAttributeAggregatorDouble();
+                return fifoExpiry ? new MinOutputAttributeAggregatorDouble() : new MinOutputAttributeAggregatorCountedTree(type);
             case BOOL:
                 throw new OperationNotSupportedException("Min not supported for bool");
         }
@@ -41,6 +41,7 @@ import org.wso2.siddhi.core.query.output.ratelimit.time.LastPerTimeOutputRateMan
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.stream.StreamJunction;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.timer.SiddhiClock;
 import org.wso2.siddhi.query.api.condition.Condition;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import org.wso2.siddhi.query.api.query.QueryEventSource;
@@ -58,7 +59,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
 
 public class QueryOutputParser {
     public static QuerySelector constructQuerySelector(OutStream outStream, Selector selector, OutputRateManager outputRateManager, List<QueryEventSource> queryEventSourceList,
@@ -96,7 +96,7 @@ public class QueryOutputParser {
             } else {
                 StreamJunction outputStreamJunction = streamJunctionMap.get(id);
                 if (outputStreamJunction == null) {
-                    outputStreamJunction = new StreamJunction(id,siddhiContext.getEventMonitorService());
+                    outputStreamJunction = new StreamJunction(id, siddhiContext);
                     streamJunctionMap.putIfAbsent(id, outputStreamJunction);
                 }
                 return new InsertIntoStreamCallback(outputStreamJunction, outputStreamDefinition);
@@ -138,7 +138,7 @@ public class QueryOutputParser {
         }
     }
 
-    public static OutputRateManager constructOutputRateManager(OutputRate outputRate, ScheduledExecutorService scheduledExecutorService, boolean isGroupby, boolean isWindowed) {
+    public static OutputRateManager constructOutputRateManager(OutputRate outputRate, SiddhiClock clock, boolean isGroupby, boolean isWindowed) {
         if (outputRate == null) {
             return new PassThroughOutputRateManager();
         } else if (outputRate instanceof EventOutputRate) {
@@ -163,24 +163,24 @@ public class QueryOutputParser {
         } else if (outputRate instanceof TimeOutputRate) {
             switch (((TimeOutputRate) outputRate).getType()) {
                 case ALL:
-                    return new org.wso2.siddhi.core.query.output.ratelimit.time.AllPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), scheduledExecutorService);
+                    return new org.wso2.siddhi.core.query.output.ratelimit.time.AllPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), clock);
                 case FIRST:
                     if (isGroupby) {
-                        return new FirstGroupByPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), scheduledExecutorService);
+                        return new FirstGroupByPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), clock);
                     } else {
-                        return new FirstPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), scheduledExecutorService);
+                        return new FirstPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), clock);
                     }
                 case LAST:
                     if (isGroupby) {
-                        return new LastGroupByPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), scheduledExecutorService);
+                        return new LastGroupByPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), clock);
                     } else {
-                        return new LastPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), scheduledExecutorService);
+                        return new LastPerTimeOutputRateManager(((TimeOutputRate) outputRate).getValue(), clock);
                     }
             }
             //never happens
             return null;
         } else {
-            return new WrappedSnapshotOutputRateManager(((SnapshotOutputRate) outputRate).getValue(), scheduledExecutorService, isGroupby, isWindowed);
+            return new WrappedSnapshotOutputRateManager(((SnapshotOutputRate) outputRate).getValue(), clock, isGroupby, isWindowed);
         }
     }
 }
@@ -35,6 +35,7 @@ import org.wso2.siddhi.core.query.processor.handler.sequence.CountSequenceInnerH
 import org.wso2.siddhi.core.query.processor.handler.sequence.OrSequenceInnerHandlerProcessor;
 import org.wso2.siddhi.core.query.processor.handler.sequence.SequenceHandlerProcessor;
 import org.wso2.siddhi.core.query.processor.handler.sequence.SequenceInnerHandlerProcessor;
+import org.wso2.siddhi.core.query.processor.join.JoinIndexPlanner;
 import org.wso2.siddhi.core.query.processor.join.JoinProcessor;
 import org.wso2.siddhi.core.query.processor.join.LeftInStreamJoinProcessor;
 import org.wso2.siddhi.core.query.processor.join.LeftRemoveStreamJoinProcessor;
@@ -216,6 +217,10 @@ public class StreamParser {
         rightInStreamJoinProcessor.setWindowProcessor(rightWindowProcessor);
         rightWindowProcessor.setNext(rightRemoveStreamJoinProcessor);
 
+        if (!siddhiContext.isDistributedProcessingEnabled() && !fromDB) {
+            JoinIndexPlanner.plan(onConditionExecutor, leftWindowProcessor, rightWindowProcessor);
+        }
+
         //init window
         leftWindowProcessor.initWindow();
         rightWindowProcessor.initWindow();
@@ -388,7 +393,11 @@ public class StreamParser {
         } else {
             Condition condition = filter.getFilterCondition();
             ConditionValidator.validate(condition, queryEventSourceList, streamTableDefinitionMap, queryEventSource.getReferenceSourceId(), true);
-            return new FilterProcessor(ExecutorParser.parseCondition(condition, queryEventSourceList, queryEventSource.getReferenceSourceId(), eventTableMap, true, siddhiContext));
+            ConditionExecutor conditionExecutor = ExecutorParser.parseCondition(condition, queryEventSourceList, queryEventSource.getReferenceSourceId(), eventTableMap, true, siddhiContext);
+            if (siddhiContext.getExecutorCompiler() != null) {
+                conditionExecutor = siddhiContext.getExecutorCompiler().compile(conditionExecutor);
+            }
+            return new FilterProcessor(conditionExecutor);
         }
 
 
@@ -464,7 +473,7 @@ public class StreamParser {
         windowProcessor.setSiddhiContext(siddhiContext);
         windowProcessor.setDefinition(queryEventSource.getOutDefinition());
         if (windowProcessor instanceof RunnableWindowProcessor) {
-            ((RunnableWindowProcessor) windowProcessor).setScheduledExecutorService(siddhiContext.getScheduledExecutorService());
+            ((RunnableWindowProcessor) windowProcessor).setClock(siddhiContext.getClock());
             ((RunnableWindowProcessor) windowProcessor).setThreadBarrier(siddhiContext.getThreadBarrier());
         }
         windowProcessor.setParameters(window.getParameters());
@@ -0,0 +1,444 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.statemachine.statelist;
+
+import org.wso2.siddhi.core.event.StateEvent;
+import org.wso2.siddhi.core.executor.expression.ExpressionExecutor;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * StateList keeping the partial matches of a pattern or sequence state in an array in their arrival order.
+ * Partial matches removed while iterating are only marked, the array is compacted when it has to grow.
+ * When a key executor is given the partial matches are also bucketed by the key they hold, so that an
+ * arriving event only visits the partial matches of its own key and the ones without a key.
+ */
+public class PartialMatchStore extends StateList<StateEvent> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ExpressionExecutor keyExecutor;
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+    private int head;
+    private int tail;
+    private int liveCount;
+    private long sequence;
+    private Map<Object, Bucket> buckets;
+    private Bucket unkeyedBucket;
+
+    public PartialMatchStore() {
+        this(null);
+    }
+
+    /**
+     * @param keyExecutor executor giving the key of a partial match, null for a store without an index
+     */
+    public PartialMatchStore(ExpressionExecutor keyExecutor) {
+        this.keyExecutor = keyExecutor;
+        if (keyExecutor != null) {
+            buckets = new HashMap<Object, Bucket>();
+            unkeyedBucket = new Bucket();
+        }
+    }
+
+    public boolean isIndexed() {
+        return keyExecutor != null;
+    }
+
+    @Override
+    public synchronized void put(StateEvent stateEvent) {
+        if (tail == entries.length) {
+            compact();
+        }
+        Entry entry = new Entry(stateEvent, sequence++);
+        entries[tail++] = entry;
+        liveCount++;
+        if (keyExecutor != null) {
+            Object key = toKey(keyExecutor.execute(stateEvent));
+            Bucket bucket;
+            if (key == null) {
+                bucket = unkeyedBucket;
+            } else {
+                bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket();
+                    buckets.put(key, bucket);
+                }
+            }
+            entry.key = key;
+            entry.bucket = bucket;
+            bucket.add(entry);
+        }
+    }
+
+    /**
+     * Drops the removed entries, growing the array only if more than half of it is in use
+     */
+    private void compact() {
+        Entry[] target = liveCount * 2 <= entries.length ? entries : new Entry[entries.length * 2];
+        int size = 0;
+        for (int i = head; i < tail; i++) {
+            if (!entries[i].removed) {
+                target[size++] = entries[i];
+            }
+        }
+        if (target == entries) {
+            Arrays.fill(entries, size, tail, null);
+        }
+        entries = target;
+        head = 0;
+        tail = size;
+    }
+
+    private void remove(Entry entry) {
+        drop(entry);
+        while (head < tail && entries[head].removed) {
+            entries[head++] = null;
+        }
+    }
+
+    private void drop(Entry entry) {
+        entry.removed = true;
+        liveCount--;
+        if (entry.bucket != null && entry.bucket.trimHead() && entry.key != null && buckets.get(entry.key) == entry.bucket) {
+            buckets.remove(entry.key);
+        }
+    }
+
+    /**
+     * Drops the partial matches at the head of the store whose first event is older than the deadline.
+     * Partial matches mostly arrive in the order of their first events, so the expired ones are dropped
+     * without visiting the rest; the ones out of that order are left for the caller to check.
+     */
+    public void expire(long deadline) {
+        while (head < tail) {
+            Entry entry = entries[head];
+            if (!entry.removed) {
+                long firstEventTimeStamp = entry.stateEvent.getFirstEventTimeStamp();
+                if (firstEventTimeStamp == 0 || firstEventTimeStamp >= deadline) {
+                    return;
+                }
+                drop(entry);
+            }
+            entries[head++] = null;
+        }
+    }
+
+    @Override
+    public Iterator<StateEvent> iterator() {
+        return new StoreIterator();
+    }
+
+    @Override
+    public Collection<StateEvent> getCollection() {
+        return new AbstractCollection<StateEvent>() {
+            @Override
+            public Iterator<StateEvent> iterator() {
+                return new StoreIterator();
+            }
+
+            @Override
+            public int size() {
+                return liveCount;
+            }
+        };
+    }
+
+    /**
+     * @return the partial matches holding the given key and the ones without a key in their arrival order,
+     *         or all partial matches if the store is not indexed or the key is null
+     */
+    public Collection<StateEvent> getCollection(Object key) {
+        key = toKey(key);
+        if (keyExecutor == null || key == null) {
+            return getCollection();
+        }
+        Bucket bucket = buckets.get(key);
+        if (bucket != null && bucket.purge()) {
+            buckets.remove(key);
+            bucket = null;
+        }
+        unkeyedBucket.purge();
+        final Bucket keyedBucket = bucket;
+        return new AbstractCollection<StateEvent>() {
+            @Override
+            public Iterator<StateEvent> iterator() {
+                return new BucketIterator(keyedBucket, unkeyedBucket);
+            }
+
+            @Override
+            public int size() {
+                return (keyedBucket == null ? 0 : keyedBucket.size()) + unkeyedBucket.size();
+            }
+        };
+    }
+
+    @Override
+    public synchronized void clear() {
+        Arrays.fill(entries, head, tail, null);
+        head = 0;
+        tail = 0;
+        liveCount = 0;
+        if (keyExecutor != null) {
+            buckets.clear();
+            unkeyedBucket = new Bucket();
+        }
+    }
+
+    @Override
+    public synchronized void addAll(Object all) {
+        for (StateEvent stateEvent : (Collection<StateEvent>) all) {
+            put(stateEvent);
+        }
+    }
+
+    @Override
+    public synchronized Object getAll() {
+        List<StateEvent> stateEvents = new ArrayList<StateEvent>(liveCount);
+        for (int i = head; i < tail; i++) {
+            if (!entries[i].removed) {
+                stateEvents.add(entries[i].stateEvent);
+            }
+        }
+        return stateEvents;
+    }
+
+    @Override
+    public synchronized void moveTo(StateList<StateEvent> stateList) {
+        if (liveCount == 0) {
+            return;
+        }
+        if (!(stateList instanceof PartialMatchStore)) {
+            super.moveTo(stateList);
+            return;
+        }
+        PartialMatchStore partialMatchStore = (PartialMatchStore) stateList;
+        for (int i = head; i < tail; i++) {
+            if (!entries[i].removed) {
+                partialMatchStore.put(entries[i].stateEvent);
+            }
+        }
+        clear();
+    }
+
+    @Override
+    public Object[] currentState() {
+        return new Object[]{getAll()};
+    }
+
+    @Override
+    public void restoreState(Object[] objects) {
+        clear();
+        addAll(objects[0]);
+    }
+
+    @Override
+    public String toString() {
+        return getAll().toString();
+    }
+
+    /**
+     * Normalizes integral values to Long, as int and long attributes are compared by their values
+     */
+    private static Object toKey(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    /**
+     * Entries before the head of an array are cleared when the head advances while iterating
+     */
+    private static boolean isRemoved(Entry entry) {
+        return entry == null || entry.removed;
+    }
+
+    private static final class Entry {
+
+        private final StateEvent stateEvent;
+        private final long sequence;
+        private Object key;
+        private Bucket bucket;
+        private boolean removed;
+
+        private Entry(StateEvent stateEvent, long sequence) {
+            this.stateEvent = stateEvent;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Entries of a key in their arrival order
+     */
+    private static final class Bucket {
+
+        private Entry[] entries = new Entry[4];
+        private int head;
+        private int tail;
+
+        private void add(Entry entry) {
+            if (tail == entries.length) {
+                int size = tail - head;
+                Entry[] target = size * 2 <= entries.length ? entries : new Entry[entries.length * 2];
+                System.arraycopy(entries, head, target, 0, size);
+                if (target == entries) {
+                    Arrays.fill(entries, size, tail, null);
+                }
+                entries = target;
+                head = 0;
+                tail = size;
+            }
+            entries[tail++] = entry;
+        }
+
+        /**
+         * @return true if the bucket got empty
+         */
+        private boolean trimHead() {
+            while (head < tail && entries[head].removed) {
+                entries[head++] = null;
+            }
+            return head == tail;
+        }
+
+        /**
+         * @return true if the bucket got empty
+         */
+        private boolean purge() {
+            int size = head;
+            for (int i = head; i < tail; i++) {
+                if (!entries[i].removed) {
+                    entries[size++] = entries[i];
+                }
+            }
+            Arrays.fill(entries, size, tail, null);
+            tail = size;
+            return head == tail;
+        }
+
+        private int size() {
+            return tail - head;
+        }
+    }
+
+    private class StoreIterator implements Iterator<StateEvent> {
+
+        private int index = head;
+        private Entry current;
+
+        @Override
+        public boolean hasNext() {
+            while (index < tail && isRemoved(entries[index])) {
+                index++;
+            }
+            return index < tail;
+        }
+
+        @Override
+        public StateEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = entries[index++];
+            return current.stateEvent;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null || current.removed) {
+                throw new IllegalStateException();
+            }
+            PartialMatchStore.this.remove(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Merges the entries of a key bucket and the unkeyed bucket in their arrival order
+     */
+    private class BucketIterator implements Iterator<StateEvent> {
+
+        private final Bucket keyedBucket;
+        private final Bucket unkeyedBucket;
+        private int keyedIndex;
+        private int unkeyedIndex;
+        private Entry current;
+
+        private BucketIterator(Bucket keyedBucket, Bucket unkeyedBucket) {
+            this.keyedBucket = keyedBucket;
+            this.unkeyedBucket = unkeyedBucket;
+            this.keyedIndex = keyedBucket == null ? 0 : keyedBucket.head;
+            this.unkeyedIndex = unkeyedBucket.head;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry(false) != null;
+        }
+
+        @Override
+        public StateEvent next() {
+            Entry entry = nextEntry(true);
+            if (entry == null) {
+                throw new NoSuchElementException();
+            }
+            current = entry;
+            return entry.stateEvent;
+        }
+
+        private Entry nextEntry(boolean consume) {
+            if (keyedBucket != null) {
+                while (keyedIndex < keyedBucket.tail && isRemoved(keyedBucket.entries[keyedIndex])) {
+                    keyedIndex++;
+                }
+            }
+            while (unkeyedIndex < unkeyedBucket.tail && isRemoved(unkeyedBucket.entries[unkeyedIndex])) {
+                unkeyedIndex++;
+            }
+            Entry keyed = keyedBucket != null && keyedIndex < keyedBucket.tail ? keyedBucket.entries[keyedIndex] : null;
+            Entry unkeyed = unkeyedIndex < unkeyedBucket.tail ? unkeyedBucket.entries[unkeyedIndex] : null;
+            if (keyed != null && (unkeyed == null || keyed.sequence < unkeyed.sequence)) {
+                if (consume) {
+                    keyedIndex++;
+                }
+                return keyed;
+            } else if (unkeyed != null && consume) {
+                unkeyedIndex++;
+            }
+            return unkeyed;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null || current.removed) {
+                throw new IllegalStateException();
+            }
+            PartialMatchStore.this.remove(current);
+            current = null;
+        }
+    }
+}
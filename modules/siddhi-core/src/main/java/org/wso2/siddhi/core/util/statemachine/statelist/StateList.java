@@ -91,6 +91,14 @@ public class StateList<T> {
         return queue;
     }
 
+    /**
+     * Adds the elements to the end of the given list and clears this list
+     */
+    public void moveTo(StateList<T> stateList) {
+        stateList.addAll(getAll());
+        clear();
+    }
+
     @Override
     public String toString() {
         return  queue.toString() ;
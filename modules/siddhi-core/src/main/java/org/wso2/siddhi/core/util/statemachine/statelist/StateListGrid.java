@@ -28,7 +28,7 @@ import java.util.*;
 
 public class StateListGrid extends StateList<StateEvent> {
     static final Logger log = Logger.getLogger(StateListGrid.class);
-    private IMap<String, StateEvent> map;
+    private IMap<Long, StateEvent> map;
     private SiddhiContext siddhiContext;
     private IAtomicLong inited;
     private ValueComparator valueComparator = new ValueComparator();
@@ -126,8 +126,8 @@ public class StateListGrid extends StateList<StateEvent> {
 
 
     public Object[] currentState() {
-        Map<String, StateEvent> tempMap = new HashMap<String, StateEvent>();
-        for (Map.Entry<String, StateEvent> entry : map.entrySet()) {
+        Map<Long, StateEvent> tempMap = new HashMap<Long, StateEvent>();
+        for (Map.Entry<Long, StateEvent> entry : map.entrySet()) {
             tempMap.put(entry.getKey(), entry.getValue());
         }
         return new Object[]{map.getName(), tempMap};
@@ -137,7 +137,7 @@ public class StateListGrid extends StateList<StateEvent> {
 //        firstIndex= (Long)objects[0];
 //        lastIndex= (Long)objects[1];
         map = siddhiContext.getHazelcastInstance().getMap((String) objects[0]);
-        map.putAll((Map<String, StateEvent>) objects[1]);
+        map.putAll((Map<Long, StateEvent>) objects[1]);
     }
 
 
@@ -149,7 +149,7 @@ public class StateListGrid extends StateList<StateEvent> {
     }
 
     public void addAll(Object all) {
-        map.putAll((Map<String, StateEvent>) all);
+        map.putAll((Map<Long, StateEvent>) all);
     }
 
     public Collection<StateEvent> getCollection() {
@@ -200,7 +200,9 @@ public class StateListGrid extends StateList<StateEvent> {
 
         @Override
         public int compare(StateEvent o1, StateEvent o2) {
-            return o1.getEventId().compareTo(o2.getEventId());
+            long eventId1 = o1.getEventId();
+            long eventId2 = o2.getEventId();
+            return eventId1 < eventId2 ? -1 : (eventId1 == eventId2 ? 0 : 1);
 //            if ( > o2.getFirstEventTimeStamp()) {
 //                return 1;
 //            } else if (o1.getTimeStamp() == o2.getTimeStamp()) {
@@ -0,0 +1,177 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.timer;
+
+import org.apache.log4j.Logger;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clock of a Siddhi instance in event time processing. Time only advances with the timestamps of
+ * the events and the watermarks sent through the InputHandlers, and the timeouts due by then are run
+ * on the sending thread before the event is processed, hence replaying recorded events gives the
+ * same results regardless of the wall clock.
+ */
+public class EventTimeClock implements SiddhiClock {
+
+    static final Logger log = Logger.getLogger(EventTimeClock.class);
+    private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    private final PriorityQueue<EventTimeout> timeouts = new PriorityQueue<EventTimeout>();
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private volatile long currentTime = 0;
+    private boolean started = false;
+    private long sequence = 0;
+
+    @Override
+    public long currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Moves the time forward to the given timestamp running the timeouts due by then, each seeing
+     * its deadline as the current time. Timestamps older than the current time do not move the
+     * time backwards.
+     */
+    public void advance(long timeStamp) {
+        advanceLock.lock();
+        try {
+            if (!started) {
+                start(timeStamp);
+            } else if (timeStamp <= currentTime) {
+                return;
+            }
+            while (true) {
+                EventTimeout timeout;
+                synchronized (timeouts) {
+                    timeout = timeouts.peek();
+                    if (timeout == null || timeout.deadline > timeStamp) {
+                        break;
+                    }
+                    timeouts.poll();
+                }
+                if (timeout.cancelled) {
+                    continue;
+                }
+                if (timeout.deadline > currentTime) {
+                    currentTime = timeout.deadline;
+                }
+                try {
+                    timeout.task.run();
+                } catch (Throwable t) {
+                    log.error(t.getMessage(), t);
+                }
+                if (timeout.period > 0 && !timeout.cancelled) {
+                    add(timeout, timeout.period);
+                }
+            }
+            currentTime = timeStamp;
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    /**
+     * Time starts at the first timestamp, timeouts scheduled before then are moved relative to it.
+     */
+    private void start(long timeStamp) {
+        synchronized (timeouts) {
+            for (EventTimeout timeout : timeouts) {
+                timeout.deadline = deadline(timeStamp, timeout.deadline);
+            }
+            currentTime = timeStamp;
+            started = true;
+        }
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay) {
+        return add(new EventTimeout(task, 0), delay);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period should be positive but found " + period);
+        }
+        return add(new EventTimeout(task, period), initialDelay);
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (timeouts) {
+            timeouts.clear();
+        }
+    }
+
+    private static long deadline(long time, long delay) {
+        if (delay > Long.MAX_VALUE - time) {
+            return Long.MAX_VALUE;
+        }
+        return time + delay;
+    }
+
+    /**
+     * Periodic timeouts are re-added relative to their last deadline, hence missed runs are caught up.
+     */
+    private EventTimeout add(EventTimeout timeout, long delay) {
+        synchronized (timeouts) {
+            if (timeout.deadline == NOT_SCHEDULED) {
+                timeout.deadline = started ? deadline(currentTime, delay) : delay;
+            } else {
+                timeout.deadline = deadline(timeout.deadline, delay);
+            }
+            timeout.sequence = sequence++;
+            timeouts.add(timeout);
+        }
+        return timeout;
+    }
+
+    private static class EventTimeout implements Timeout, Comparable<EventTimeout> {
+
+        private final Runnable task;
+        private final long period;
+        private long deadline = NOT_SCHEDULED;
+        private long sequence;
+        private volatile boolean cancelled = false;
+
+        private EventTimeout(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(EventTimeout timeout) {
+            if (deadline != timeout.deadline) {
+                return deadline < timeout.deadline ? -1 : 1;
+            }
+            return sequence < timeout.sequence ? -1 : (sequence == timeout.sequence ? 0 : 1);
+        }
+    }
+}
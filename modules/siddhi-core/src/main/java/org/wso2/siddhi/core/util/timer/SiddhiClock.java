@@ -0,0 +1,41 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.timer;
+
+/**
+ * Source of the current time of a Siddhi instance, on which time windows and output rate managers
+ * schedule their work. It is either the wall clock or, in event time processing, the time given by
+ * the timestamps of the events and the watermarks sent to the instance.
+ */
+public interface SiddhiClock {
+
+    public long currentTime();
+
+    /**
+     * Runs the task once after the given delay in milliseconds
+     */
+    public Timeout schedule(Runnable task, long delay);
+
+    /**
+     * Runs the task after the initial delay and then every period, both in milliseconds
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period);
+
+    public void shutdown();
+
+}
@@ -0,0 +1,266 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.core.util.timer;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.util.SiddhiThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wall clock of a Siddhi instance, scheduling the time windows and the output rate managers on a
+ * hashed timing wheel. Scheduling and cancelling a timeout are O(1) as timeouts are only queued,
+ * a single ticker running on its own thread moves them into the wheel buckets and hands all timeouts
+ * expired since its last tick to a small pool of workers in the order of their deadlines. Timeouts fire
+ * at most one tick after their deadline, unless all the workers are busy. A slow task hence only holds
+ * up its own worker, and a periodic timeout is placed again only once its run is done, so it never runs
+ * concurrently with itself. The threads are started on the first schedule, the ticker is not run on the
+ * shared scheduler as a fixed rate task re-executed every tick grows that pool to its core size.
+ */
+public class TimingWheel implements SiddhiClock {
+
+    static final Logger log = Logger.getLogger(TimingWheel.class);
+
+    private final long tickDuration;
+    private final int workerCount;
+    private final WheelTimeout[] wheel;
+    private final int mask;
+    private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+    private final List<WheelTimeout> expiredTimeouts = new ArrayList<WheelTimeout>();
+    private final Comparator<WheelTimeout> deadlineComparator = new Comparator<WheelTimeout>() {
+        @Override
+        public int compare(WheelTimeout timeout1, WheelTimeout timeout2) {
+            return timeout1.deadline < timeout2.deadline ? -1 : (timeout1.deadline == timeout2.deadline ? 0 : 1);
+        }
+    };
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile long startTime;
+    private volatile ScheduledExecutorService tickerExecutorService;
+    private volatile ScheduledFuture<?> ticker;
+    private volatile ExecutorService workerExecutorService;
+    private long tick = 0;
+
+    public TimingWheel(long tickDuration, int ticksPerWheel, int workerCount) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration should be positive but found " + tickDuration);
+        }
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count should be positive but found " + workerCount);
+        }
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.tickDuration = tickDuration;
+        this.workerCount = workerCount;
+        this.wheel = new WheelTimeout[size];
+        this.mask = size - 1;
+    }
+
+    @Override
+    public long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay) {
+        return add(new WheelTimeout(task, deadline(delay), 0));
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period should be positive but found " + period);
+        }
+        return add(new WheelTimeout(task, deadline(initialDelay), period));
+    }
+
+    @Override
+    public void shutdown() {
+        ScheduledFuture<?> currentTicker = ticker;
+        if (currentTicker != null) {
+            currentTicker.cancel(false);
+        }
+        ScheduledExecutorService currentTickerExecutorService = tickerExecutorService;
+        if (currentTickerExecutorService != null) {
+            currentTickerExecutorService.shutdownNow();
+        }
+        ExecutorService currentWorkerExecutorService = workerExecutorService;
+        if (currentWorkerExecutorService != null) {
+            currentWorkerExecutorService.shutdownNow();
+        }
+        pendingTimeouts.clear();
+        cancelledTimeouts.clear();
+    }
+
+    private long deadline(long delay) {
+        long currentTime = System.currentTimeMillis();
+        if (delay > Long.MAX_VALUE - currentTime) {
+            //windows such as time(292471208 years) never expire
+            return Long.MAX_VALUE;
+        }
+        return currentTime + delay;
+    }
+
+    private WheelTimeout add(WheelTimeout timeout) {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            startTime = System.currentTimeMillis();
+            workerExecutorService = Executors.newFixedThreadPool(workerCount, new SiddhiThreadFactory("TimerWorker"));
+            tickerExecutorService = Executors.newSingleThreadScheduledExecutor(new SiddhiThreadFactory("Timer"));
+            ticker = tickerExecutorService.scheduleAtFixedRate(new Ticker(), tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+        }
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void place(WheelTimeout timeout) {
+        long deadlineTick = (timeout.deadline - startTime + tickDuration - 1) / tickDuration;
+        if (deadlineTick < tick) {
+            deadlineTick = tick;
+        }
+        timeout.remainingRounds = (deadlineTick - tick) >> Integer.numberOfTrailingZeros(wheel.length);
+        int index = (int) (deadlineTick & mask);
+        timeout.bucket = index;
+        timeout.next = wheel[index];
+        if (wheel[index] != null) {
+            wheel[index].previous = timeout;
+        }
+        wheel[index] = timeout;
+    }
+
+    private void unlink(WheelTimeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    private class Ticker implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                long currentTick = (System.currentTimeMillis() - startTime) / tickDuration;
+                for (WheelTimeout timeout = cancelledTimeouts.poll(); timeout != null; timeout = cancelledTimeouts.poll()) {
+                    if (timeout.bucket != -1) {
+                        unlink(timeout);
+                    }
+                }
+                for (WheelTimeout timeout = pendingTimeouts.poll(); timeout != null; timeout = pendingTimeouts.poll()) {
+                    if (!timeout.cancelled) {
+                        place(timeout);
+                    }
+                }
+                for (; tick <= currentTick; tick++) {
+                    WheelTimeout timeout = wheel[(int) (tick & mask)];
+                    while (timeout != null) {
+                        WheelTimeout next = timeout.next;
+                        if (timeout.remainingRounds <= 0) {
+                            unlink(timeout);
+                            expiredTimeouts.add(timeout);
+                        } else {
+                            timeout.remainingRounds--;
+                        }
+                        timeout = next;
+                    }
+                }
+                if (expiredTimeouts.size() > 1) {
+                    Collections.sort(expiredTimeouts, deadlineComparator);
+                }
+                for (WheelTimeout timeout : expiredTimeouts) {
+                    if (!timeout.cancelled) {
+                        workerExecutorService.execute(timeout);
+                    }
+                }
+            } catch (RejectedExecutionException e) {
+                // shut down
+            } catch (Throwable t) {
+                log.error(t.getMessage(), t);
+            } finally {
+                expiredTimeouts.clear();
+            }
+        }
+    }
+
+    private class WheelTimeout implements Timeout, Runnable {
+
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private long remainingRounds;
+        private int bucket = -1;
+        private WheelTimeout previous;
+        private WheelTimeout next;
+        private volatile boolean cancelled = false;
+
+        private WheelTimeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Runs the task on a worker, a periodic timeout is then queued to be placed by the ticker again
+         */
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error(t.getMessage(), t);
+            }
+            if (period > 0 && !cancelled && deadline <= Long.MAX_VALUE - period) {
+                deadline += period;
+                pendingTimeouts.add(this);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelledTimeouts.add(this);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
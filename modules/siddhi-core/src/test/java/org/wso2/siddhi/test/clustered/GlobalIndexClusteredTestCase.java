@@ -0,0 +1,157 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.clustered;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.NetworkConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.core.util.generator.GlobalIndexGenerator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class GlobalIndexClusteredTestCase {
+    static final Logger log = Logger.getLogger(GlobalIndexClusteredTestCase.class);
+    private int eventCount;
+
+    @Before
+    public void init() {
+        eventCount = 0;
+    }
+
+    @Test
+    public void testGlobalIndex1() throws InterruptedException {
+        log.info("testGlobalIndex1 - unique indexes leased in blocks");
+
+        String siddhiPlanId = "siddhi-index-cluster-" + System.currentTimeMillis();
+        HazelcastInstance member1 = createMember("index-node1", siddhiPlanId);
+        HazelcastInstance member2 = createMember("index-node2", siddhiPlanId);
+        SiddhiManager siddhiManager1 = createSiddhiManager("index-node1", siddhiPlanId);
+        SiddhiManager siddhiManager2 = createSiddhiManager("index-node2", siddhiPlanId);
+        try {
+            Assert.assertEquals(2, member1.getCluster().getMembers().size());
+
+            GlobalIndexGenerator generator1 = siddhiManager1.getSiddhiContext().getGlobalIndexGenerator();
+            GlobalIndexGenerator generator2 = siddhiManager2.getSiddhiContext().getGlobalIndexGenerator();
+            Set<Long> indexes = new HashSet<Long>();
+            long last1 = -1;
+            long last2 = -1;
+            for (int i = 0; i < 25; i++) {
+                long index1 = generator1.getNewIndex();
+                long index2 = generator2.getNewIndex();
+                Assert.assertTrue(index1 > last1);
+                Assert.assertTrue(index2 > last2);
+                indexes.add(index1);
+                indexes.add(index2);
+                last1 = index1;
+                last2 = index2;
+            }
+            Assert.assertEquals(50, indexes.size());
+            // each node leased three blocks of ten
+            Assert.assertTrue(last1 < 60 && last2 < 60);
+
+            try {
+                new GlobalIndexGenerator(siddhiManager1.getSiddhiContext(), 0);
+                Assert.fail("Block size of 0 accepted");
+            } catch (IllegalArgumentException expected) {
+            }
+        } finally {
+            siddhiManager1.shutdown();
+            siddhiManager2.shutdown();
+            member1.getLifecycleService().shutdown();
+            member2.getLifecycleService().shutdown();
+        }
+    }
+
+    @Test
+    public void testGlobalIndex2() throws InterruptedException {
+        log.info("testGlobalIndex2 - pattern across members - OUT 1");
+
+        String siddhiPlanId = "siddhi-index-cluster-" + System.currentTimeMillis();
+        HazelcastInstance member1 = createMember("pattern-node1", siddhiPlanId);
+        HazelcastInstance member2 = createMember("pattern-node2", siddhiPlanId);
+        SiddhiManager siddhiManager1 = createPatternQuery("pattern-node1", siddhiPlanId);
+        SiddhiManager siddhiManager2 = createPatternQuery("pattern-node2", siddhiPlanId);
+        try {
+            InputHandler stream11 = siddhiManager1.getInputHandler("Stream1");
+            InputHandler stream22 = siddhiManager2.getInputHandler("Stream2");
+
+            stream11.send(new Object[]{"WSO2", 55.6f, 100});
+            Thread.sleep(500);
+            stream22.send(new Object[]{"GOOG", 45.6f, 100});
+            Thread.sleep(500);
+            stream22.send(new Object[]{"IBM", 57.6f, 100});
+            Thread.sleep(500);
+        } finally {
+            siddhiManager1.shutdown();
+            siddhiManager2.shutdown();
+            member1.getLifecycleService().shutdown();
+            member2.getLifecycleService().shutdown();
+        }
+
+        Assert.assertEquals(1, eventCount);
+    }
+
+    private HazelcastInstance createMember(String instanceId, String planId) {
+        Config config = new Config();
+        config.setProperty("hazelcast.logging.type", "log4j");
+        config.getGroupConfig().setName(planId);
+        config.setInstanceName(instanceId);
+        NetworkConfig networkConfig = config.getNetworkConfig();
+        networkConfig.getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        JoinConfig joinConfig = networkConfig.getJoin();
+        joinConfig.getMulticastConfig().setEnabled(false);
+        joinConfig.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    private SiddhiManager createSiddhiManager(String instanceId, String planId) {
+        return new SiddhiManager(new SiddhiConfiguration().setInstanceIdentifier(instanceId).setQueryPlanIdentifier(planId)
+                                         .setDistributedProcessing(true).setGlobalIndexBlockSize(10));
+    }
+
+    private SiddhiManager createPatternQuery(String instanceId, String planId) {
+        SiddhiManager siddhiManager = createSiddhiManager(instanceId, planId);
+        siddhiManager.defineStream("define stream Stream1 (symbol string, price float, volume int) ");
+        siddhiManager.defineStream("define stream Stream2 (symbol string, price float, volume int) ");
+        String queryReference = siddhiManager.addQuery("from e1=Stream1[price > 20] -> e2=Stream2[price > e1.price] " +
+                                                       "select e1.symbol as symbol1, e2.symbol as symbol2 " +
+                                                       "insert into OutputStream ;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Assert.assertArrayEquals(new Object[]{"WSO2", "IBM"}, inEvents[0].getData());
+                eventCount++;
+            }
+        });
+        return siddhiManager;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.clustered;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.NetworkConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.event.in.InListEvent;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.core.util.collection.map.SiddhiMapGrid;
+import org.wso2.siddhi.core.util.collection.queue.SiddhiQueueGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public class GridCollectionClusteredTestCase {
+    static final Logger log = Logger.getLogger(GridCollectionClusteredTestCase.class);
+    private int inEventCount;
+    private int removeEventCount;
+
+    @Before
+    public void init() {
+        inEventCount = 0;
+        removeEventCount = 0;
+    }
+
+    @Test
+    public void testGridCollection1() throws InterruptedException {
+        log.info("testGridCollection1 - batched queue operations with near cache and partition aware placement");
+
+        String siddhiPlanId = "siddhi-grid-cluster-" + System.currentTimeMillis();
+        HazelcastInstance member1 = createMember("queue-node1", siddhiPlanId);
+        HazelcastInstance member2 = createMember("queue-node2", siddhiPlanId);
+        SiddhiManager siddhiManager1 = createSiddhiManager("queue-node1", siddhiPlanId);
+        SiddhiManager siddhiManager2 = createSiddhiManager("queue-node2", siddhiPlanId);
+        try {
+            SiddhiQueueGrid<String> queue1 = new SiddhiQueueGrid<String>("gridQueue", siddhiManager1.getSiddhiContext(), false);
+            SiddhiQueueGrid<String> queue2 = new SiddhiQueueGrid<String>("gridQueue", siddhiManager2.getSiddhiContext(), false);
+
+            queue1.putAll(Arrays.asList("a", "b", "c", "d", "e"));
+            Assert.assertEquals(5, queue1.size());
+            List<String> drained = new ArrayList<String>();
+            Assert.assertEquals(2, queue1.drainTo(drained, 2));
+            Assert.assertEquals(Arrays.asList("a", "b"), drained);
+
+            // entries live on the member that created the queue
+            Assert.assertEquals(3, member1.getMap("gridQueue-SiddhiQueueGrid").localKeySet().size());
+            Assert.assertEquals(0, member2.getMap("gridQueue-SiddhiQueueGrid").localKeySet().size());
+
+            Thread.sleep(500);
+            Assert.assertEquals("c", queue2.poll());
+            queue2.put("f");
+            Thread.sleep(500);
+            // iterated in order from the local copies, kept up to date by the events of the other member
+            Assert.assertEquals(Arrays.asList("d", "e", "f"), toList(queue1.iterator()));
+            Assert.assertEquals(Arrays.asList("d", "e", "f"), toList(queue2.iterator()));
+        } finally {
+            siddhiManager1.shutdown();
+            siddhiManager2.shutdown();
+            member1.getLifecycleService().shutdown();
+            member2.getLifecycleService().shutdown();
+        }
+    }
+
+    @Test
+    public void testGridCollection2() throws InterruptedException {
+        log.info("testGridCollection2 - time window over list events - OUT 3 IN 3 REMOVE");
+
+        String siddhiPlanId = "siddhi-grid-cluster-" + System.currentTimeMillis();
+        HazelcastInstance member1 = createMember("window-node1", siddhiPlanId);
+        HazelcastInstance member2 = createMember("window-node2", siddhiPlanId);
+        SiddhiManager siddhiManager = createSiddhiManager("window-node1", siddhiPlanId);
+        try {
+            siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+            String queryReference = siddhiManager.addQuery("from cseEventStream#window.time(500) " +
+                                                           "select symbol, price " +
+                                                           "insert into OutputStream for all-events ;");
+            siddhiManager.addCallback(queryReference, new QueryCallback() {
+                @Override
+                public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                    EventPrinter.print(timeStamp, inEvents, removeEvents);
+                    if (inEvents != null) {
+                        inEventCount += inEvents.length;
+                    }
+                    if (removeEvents != null) {
+                        removeEventCount += removeEvents.length;
+                    }
+                }
+            });
+            InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+            long timeStamp = System.currentTimeMillis();
+            inputHandler.send(new InListEvent(new InEvent[]{
+                    new InEvent("cseEventStream", timeStamp, new Object[]{"WSO2", 55.6f, 100}),
+                    new InEvent("cseEventStream", timeStamp, new Object[]{"IBM", 75.6f, 100}),
+                    new InEvent("cseEventStream", timeStamp, new Object[]{"GOOG", 57.6f, 100})}));
+            Thread.sleep(2000);
+        } finally {
+            siddhiManager.shutdown();
+            member1.getLifecycleService().shutdown();
+            member2.getLifecycleService().shutdown();
+        }
+
+        Assert.assertEquals(3, inEventCount);
+        Assert.assertEquals(3, removeEventCount);
+    }
+
+    @Test
+    public void testGridCollection3() throws InterruptedException {
+        log.info("testGridCollection3 - near cache not restoring entries removed before their remote events arrive");
+
+        String siddhiPlanId = "siddhi-grid-cluster-" + System.currentTimeMillis();
+        HazelcastInstance member1 = createMember("map-node1", siddhiPlanId);
+        HazelcastInstance member2 = createMember("map-node2", siddhiPlanId);
+        SiddhiManager siddhiManager1 = createSiddhiManager("map-node1", siddhiPlanId);
+        SiddhiManager siddhiManager2 = createSiddhiManager("map-node2", siddhiPlanId);
+        try {
+            SiddhiMapGrid<String> map1 = new SiddhiMapGrid<String>("gridMap", siddhiManager1.getSiddhiContext());
+            SiddhiMapGrid<String> map2 = new SiddhiMapGrid<String>("gridMap", siddhiManager2.getSiddhiContext());
+
+            for (int i = 0; i < 20; i++) {
+                map2.put("key" + i, "remote" + i);
+                map1.remove("key" + i);
+            }
+            map2.put("updated", "remote");
+            Thread.sleep(500);
+            map1.put("updated", "local");
+            Thread.sleep(500);
+
+            for (int i = 0; i < 20; i++) {
+                Assert.assertNull(map1.get("key" + i));
+            }
+            Assert.assertEquals("local", map1.get("updated"));
+            Assert.assertEquals("local", map2.get("updated"));
+            Assert.assertEquals(Arrays.asList("local"), toList(map1.iterator()));
+        } finally {
+            siddhiManager1.shutdown();
+            siddhiManager2.shutdown();
+            member1.getLifecycleService().shutdown();
+            member2.getLifecycleService().shutdown();
+        }
+    }
+
+    @Test
+    public void testGridCollection4() throws InterruptedException {
+        log.info("testGridCollection4 - snapshots of partition aware grids restored without partition aware placement");
+
+        String siddhiPlanId = "siddhi-grid-cluster-" + System.currentTimeMillis();
+        HazelcastInstance member = createMember("restore-node1", siddhiPlanId);
+        SiddhiManager siddhiManager1 = createSiddhiManager("restore-node1", siddhiPlanId);
+        SiddhiManager siddhiManager2 = new SiddhiManager(new SiddhiConfiguration().setInstanceIdentifier("restore-node1")
+                                                                 .setQueryPlanIdentifier(siddhiPlanId + "-restored")
+                                                                 .setDistributedProcessing(true).setGridNearCache(true));
+        try {
+            SiddhiMapGrid<String> map1 = new SiddhiMapGrid<String>("restoreMap", siddhiManager1.getSiddhiContext());
+            SiddhiQueueGrid<String> queue1 = new SiddhiQueueGrid<String>("restoreQueue", siddhiManager1.getSiddhiContext(), false);
+            map1.put("key1", "value1");
+            queue1.putAll(Arrays.asList("a", "b", "c"));
+            Object[] mapState = map1.currentState();
+            Object[] queueState = queue1.currentState();
+
+            SiddhiMapGrid<String> map2 = new SiddhiMapGrid<String>("restoredMap", siddhiManager2.getSiddhiContext());
+            SiddhiQueueGrid<String> queue2 = new SiddhiQueueGrid<String>("restoredQueue", siddhiManager2.getSiddhiContext(), false);
+            map2.restoreState(mapState);
+            queue2.restoreState(queueState);
+
+            Assert.assertEquals("value1", map2.get("key1"));
+            Assert.assertEquals("value1", map2.remove("key1"));
+            Assert.assertEquals(0, map2.size());
+            Assert.assertEquals("a", queue2.poll());
+            Assert.assertEquals("b", queue2.poll());
+            Assert.assertEquals("c", queue2.poll());
+            Assert.assertEquals(0, queue2.size());
+        } finally {
+            siddhiManager1.shutdown();
+            siddhiManager2.shutdown();
+            member.getLifecycleService().shutdown();
+        }
+    }
+
+    private List<String> toList(Iterator<String> iterator) {
+        List<String> list = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    private HazelcastInstance createMember(String instanceId, String planId) {
+        Config config = new Config();
+        config.setProperty("hazelcast.logging.type", "log4j");
+        config.getGroupConfig().setName(planId);
+        config.setInstanceName(instanceId);
+        NetworkConfig networkConfig = config.getNetworkConfig();
+        networkConfig.getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        JoinConfig joinConfig = networkConfig.getJoin();
+        joinConfig.getMulticastConfig().setEnabled(false);
+        joinConfig.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    private SiddhiManager createSiddhiManager(String instanceId, String planId) {
+        return new SiddhiManager(new SiddhiConfiguration().setInstanceIdentifier(instanceId).setQueryPlanIdentifier(planId)
+                                         .setDistributedProcessing(true).setGridNearCache(true).setGridPartitionAware(true));
+    }
+}
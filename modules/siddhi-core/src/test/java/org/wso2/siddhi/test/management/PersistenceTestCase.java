@@ -367,6 +367,68 @@ public class PersistenceTestCase {
 
     }
 
+    @Test
+    public void persistNullGroupRestartTestQuery() throws InterruptedException {
+        log.info("Persistence test on Restart of the group of null values");
+
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore();
+
+        String streamDefinition = "define stream cseStream ( symbol string, price float, volume int )";
+        String query = "from cseStream " +
+                       "select symbol, sum(volume) as totalVol " +
+                       "group by symbol " +
+                       "insert into outStream";
+        QueryCallback callback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                lastValue = (Long) inEvents[0].getData(1);
+                count++;
+                eventArrived = true;
+            }
+        };
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        InputHandler inputHandler = siddhiManager.defineStream(streamDefinition);
+        String queryReference1 = siddhiManager.addQuery(query);
+        siddhiManager.addCallback(queryReference1, callback);
+
+        inputHandler.send(new Object[]{null, 75.6f, 100});
+        inputHandler.send(new Object[]{"IBM", 76.6f, 100});
+        inputHandler.send(new Object[]{null, 77.6f, 100});
+
+        //persisting
+        siddhiManager.persist();
+
+        //restarting Siddhi
+        siddhiManager.shutdown();
+        configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        inputHandler = siddhiManager.defineStream(streamDefinition);
+        String queryReference2 = siddhiManager.addQuery(query);
+        siddhiManager.addCallback(queryReference2, callback);
+
+        //loading
+        siddhiManager.restoreLastRevision();
+
+        inputHandler.send(new Object[]{null, 78.6f, 100});
+        Thread.sleep(100);
+        siddhiManager.shutdown();
+        //Because of the use of in memory persistence store
+        Hazelcast.shutdownAll();
+
+        Assert.assertEquals(4, count);
+        Assert.assertEquals(300, lastValue);
+        Assert.assertEquals(true, eventArrived);
+    }
+
     @Test
     public void persistDistributedWindowRestartTestQuery()
             throws InterruptedException, SiddhiParserException {
@@ -444,5 +506,340 @@ public class PersistenceTestCase {
 
     }
 
+    @Test
+    public void snapshotWhileSendingTestQuery() throws InterruptedException {
+        log.info("snapshot while sending from many threads test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        final InputHandler inputHandler = siddhiManager.defineStream("define stream StockStream ( symbol string, price float, volume int )");
+        String queryReference = siddhiManager.addQuery("from StockStream " +
+                                                       "select symbol, count(symbol) as totalCount " +
+                                                       "insert into OutStream ");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                synchronized (PersistenceTestCase.this) {
+                    count += inEvents.length;
+                    lastValue = Math.max(lastValue, (Long) inEvents[inEvents.length - 1].getData(1));
+                }
+            }
+        });
+
+        Thread[] senders = new Thread[4];
+        for (int i = 0; i < senders.length; i++) {
+            senders[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 2500; j++) {
+                            inputHandler.send(new Object[]{"IBM", 75.6f, j});
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            senders[i].start();
+        }
+        for (int i = 0; i < 20; i++) {
+            Assert.assertNotNull(siddhiManager.snapshot());
+            Thread.sleep(5);
+        }
+        for (Thread sender : senders) {
+            sender.join(10000);
+            Assert.assertFalse(sender.isAlive());
+        }
+
+        Assert.assertEquals(10000, count);
+        Assert.assertEquals(10000, lastValue);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void persistIncrementalWindowRestartTestQuery() throws InterruptedException {
+        log.info("Persistence test on Restart of Windows persisted incrementally");
+
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore();
+
+        String streamDefinition = "define stream cseStream ( symbol string, price float, volume int )";
+        String lengthQuery = "from cseStream#window.length(3) " +
+                             "select symbol, sum(volume) as totalVol " +
+                             "insert into lengthOutStream";
+        String timeQuery = "from cseStream#window.time(1 min) " +
+                           "select symbol, sum(volume) as totalVol " +
+                           "insert into timeOutStream";
+        QueryCallback lengthCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                lastValue = (Long) inEvents[inEvents.length - 1].getData(1);
+            }
+        };
+        QueryCallback timeCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                firstValue = (Long) inEvents[inEvents.length - 1].getData(1);
+                count++;
+            }
+        };
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        configuration.setFullSnapshotInterval(3);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        InputHandler inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(lengthQuery), lengthCallback);
+        siddhiManager.addCallback(siddhiManager.addQuery(timeQuery), timeCallback);
+
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"WSO2", 76.6f, 200});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"IBM", 77.6f, 300});
+        inputHandler.send(new Object[]{"WSO2", 78.6f, 400});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"IBM", 79.6f, 500});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"WSO2", 80.6f, 600});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"IBM", 81.6f, 700});
+        Assert.assertEquals(1800, lastValue);
+        Assert.assertEquals(2800, firstValue);
+
+        //restarting Siddhi
+        siddhiManager.shutdown();
+        configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(lengthQuery), lengthCallback);
+        siddhiManager.addCallback(siddhiManager.addQuery(timeQuery), timeCallback);
+
+        //loading
+        siddhiManager.restoreLastRevision();
+        inputHandler.send(new Object[]{"WSO2", 82.6f, 1000});
+        inputHandler.send(new Object[]{"IBM", 83.6f, 2000});
+
+        siddhiManager.shutdown();
+        //Because of the use of in memory persistence store
+        Hazelcast.shutdownAll();
+
+        Assert.assertEquals(9, count);
+        Assert.assertEquals(3600, lastValue);
+        Assert.assertEquals(5100, firstValue);
+    }
+
+    @Test
+    public void persistIncrementalTimeWindowPartialExpiryTestQuery() throws InterruptedException {
+        log.info("Persistence test on Restart of a time Window persisted incrementally after a burst partially expired");
+
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore();
 
+        String streamDefinition = "define stream cseStream ( symbol string, price float, volume int )";
+        String query = "from cseStream#window.time(1 sec) " +
+                       "select symbol, sum(volume) as totalVol " +
+                       "insert into outStream for all-events";
+        QueryCallback callback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    lastValue = (Long) inEvents[inEvents.length - 1].getData(1);
+                }
+                if (removeEvents != null) {
+                    count += removeEvents.length;
+                }
+            }
+        };
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        configuration.setEventTimeProcessing(true);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        InputHandler inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(query), callback);
+
+        inputHandler.send(1000000, new Object[]{"IBM", 75.6f, 100});
+        inputHandler.send(1000000, new Object[]{"WSO2", 76.6f, 100});
+        siddhiManager.persist();
+        //increments are only built on saved revisions
+        Thread.sleep(500);
+        inputHandler.send(1000500, new Object[]{"IBM", 77.6f, 100});
+        for (int i = 0; i < 9; i++) {
+            inputHandler.send(1000900, new Object[]{"WSO2", 78.6f, 100});
+        }
+        //expiring the two events of the base and the first of the burst
+        inputHandler.sendWatermark(1001600);
+        Assert.assertEquals(3, count);
+        siddhiManager.persist();
+
+        //restarting Siddhi
+        siddhiManager.shutdown();
+        configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        configuration.setEventTimeProcessing(true);
+        siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(query), callback);
+
+        //loading
+        count = 0;
+        siddhiManager.restoreLastRevision();
+        inputHandler.send(1001600, new Object[]{"IBM", 79.6f, 1000});
+        Assert.assertEquals(0, count);
+        Assert.assertEquals(1900, lastValue);
+        inputHandler.sendWatermark(1002000);
+        Assert.assertEquals(9, count);
+
+        siddhiManager.shutdown();
+        //Because of the use of in memory persistence store
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void persistIncrementalFailedSaveTestQuery() throws InterruptedException {
+        log.info("Persistence test on Restart of Windows when the save of a revision fails");
+
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore() {
+            private boolean failed = false;
+
+            @Override
+            public void save(String queryPlanIdentifier, String revision, byte[] data) {
+                if (!failed) {
+                    failed = true;
+                    throw new RuntimeException("Save failed");
+                }
+                super.save(queryPlanIdentifier, revision, data);
+            }
+        };
+
+        String streamDefinition = "define stream cseStream ( symbol string, price float, volume int )";
+        String lengthQuery = "from cseStream#window.length(3) " +
+                             "select symbol, sum(volume) as totalVol " +
+                             "insert into lengthOutStream";
+        QueryCallback lengthCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                lastValue = (Long) inEvents[inEvents.length - 1].getData(1);
+            }
+        };
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("TestFailedSave");
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        InputHandler inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(lengthQuery), lengthCallback);
+
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"WSO2", 76.6f, 200});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"IBM", 77.6f, 300});
+        siddhiManager.persist();
+        Assert.assertEquals(600, lastValue);
+
+        //restarting Siddhi
+        siddhiManager.shutdown();
+        configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("TestFailedSave");
+        siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(lengthQuery), lengthCallback);
+
+        //loading, the revisions after the failed one must not depend on it
+        siddhiManager.restoreLastRevision();
+        inputHandler.send(new Object[]{"WSO2", 82.6f, 1000});
+
+        siddhiManager.shutdown();
+        //Because of the use of in memory persistence store
+        Hazelcast.shutdownAll();
+
+        Assert.assertEquals(1500, lastValue);
+    }
+
+    @Test
+    public void persistCompressedWindowRestartTestQuery() throws InterruptedException {
+        log.info("Persistence test on Restart of Windows persisted compressed");
+
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore();
+
+        String streamDefinition = "define stream cseStream ( symbol string, price float, volume long, active bool )";
+        String windowQuery = "from cseStream#window.length(4) " +
+                             "select symbol, sum(volume) as totalVol " +
+                             "insert into windowOutStream";
+        String patternQuery = "from e1=cseStream[price > 70] -> e2=cseStream[price > e1.price] " +
+                              "select e1.symbol as symbol1, e2.volume as volume2 " +
+                              "insert into patternOutStream";
+        QueryCallback windowCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                lastValue = (Long) inEvents[inEvents.length - 1].getData(1);
+            }
+        };
+        QueryCallback patternCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                firstValue = (Long) inEvents[0].getData(1);
+                count++;
+            }
+        };
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        configuration.setSnapshotCompression(true);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        InputHandler inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(windowQuery), windowCallback);
+        siddhiManager.addCallback(siddhiManager.addQuery(patternQuery), patternCallback);
+
+        inputHandler.send(new Object[]{"IBM", 65.6f, 100l, true});
+        inputHandler.send(new Object[]{null, 75.6f, 200l, null});
+        siddhiManager.persist();
+        inputHandler.send(new Object[]{"WSO2", 60.6f, 300l, false});
+        siddhiManager.persist();
+        Assert.assertEquals(600, lastValue);
+        Assert.assertEquals(0, count);
+
+        //restarting Siddhi without compression, the revisions stay readable
+        siddhiManager.shutdown();
+        configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("Test");
+        siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.setPersistStore(persistenceStore);
+
+        inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(windowQuery), windowCallback);
+        siddhiManager.addCallback(siddhiManager.addQuery(patternQuery), patternCallback);
+
+        //loading
+        siddhiManager.restoreLastRevision();
+        inputHandler.send(new Object[]{"ORACLE", 80.6f, 400l, true});
+        inputHandler.send(new Object[]{"GOOG", 81.6f, 500l, true});
+
+        siddhiManager.shutdown();
+        //Because of the use of in memory persistence store
+        Hazelcast.shutdownAll();
+
+        Assert.assertEquals(1400, lastValue);
+        Assert.assertEquals(1, count);
+        Assert.assertEquals(400, firstValue);
+    }
 }
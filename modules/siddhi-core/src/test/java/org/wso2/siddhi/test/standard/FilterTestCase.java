@@ -22,7 +22,9 @@ import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.in.InPrimitiveEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
@@ -36,6 +38,10 @@ import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.query.Query;
 import org.wso2.siddhi.query.compiler.exception.SiddhiParserException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class FilterTestCase {
     static final Logger log = Logger.getLogger(FilterTestCase.class);
 
@@ -3425,7 +3431,133 @@ public class FilterTestCase {
 
     }
 
+    @Test
+    public void testFilterQuery120() throws InterruptedException {
+        log.info("Filter test120 compiled executors give the results of the interpreted ones");
+        String[] queries = new String[]{
+                "from cseEventStream[price > 70 and volume >= 100l or not (quantity < 5)] " +
+                "select symbol, price, volume * 2 as doubleVolume, volume + quantity as total insert into outputStream ;",
+                "from cseEventStream[symbol == 'IBM' or (volume - 10 >= quantity and volume % 3l != 0l)] " +
+                "select symbol, volume / 2 as half, quantity insert into outputStream ;",
+                "from cseEventStream[not (symbol != 'WSO2') or price <= 55.6] " +
+                "select symbol, quantity * 1.5 as weighted insert into outputStream ;",
+                "from cseEventStream[not (price < 60)] select symbol, price insert into outputStream ;",
+                "from cseEventStream[symbol != 'GOOG' and isMatch('W.*', symbol)] select symbol, 'matched' as status insert into outputStream ;"
+        };
+        for (String query : queries) {
+            List<List<Object>> interpreted = runFilterQuery(query, false);
+            List<List<Object>> compiled = runFilterQuery(query, true);
+            Assert.assertFalse(query, interpreted.isEmpty());
+            Assert.assertEquals(query, interpreted, compiled);
+        }
+    }
+
+    @Test
+    public void testFilterQuery121() throws InterruptedException {
+        log.info("Filter test121 many filtered queries on a stream");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long, quantity int) ");
+        String[] filters = new String[]{
+                "symbol == 'IBM'",
+                "symbol == 'WSO2' and price > 50",
+                "price > 70",
+                "volume <= 100l",
+                "70 < price",
+                "quantity == 5",
+                "symbol != 'IBM'",
+                "price >= 75.6"
+        };
+        final int[] counts = new int[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            final int query = i;
+            String queryReference = siddhiManager.addQuery("from cseEventStream[" + filters[i] + "] select symbol, price insert into outputStream" + i + " ;");
+            siddhiManager.addCallback(queryReference, new QueryCallback() {
+                @Override
+                public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                    counts[query] += inEvents.length;
+                }
+            });
+        }
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100l, 5});
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 200l, 3});
+        inputHandler.send(new Object[]{"WSO2", 45f, 50l, 5});
+        inputHandler.send(new Object[]{"ORACLE", 80f, 300l, 2});
+        inputHandler.send(new Object[]{null, null, 100l, 5});
+        Thread.sleep(100);
+        Assert.assertEquals("[1, 1, 2, 3, 2, 3, 3, 1]", Arrays.toString(counts));
+        siddhiManager.shutdown();
+    }
 
+    @Test
+    public void testFilterQueryCompiledPartitions() throws InterruptedException {
+        log.info("Filter test compiled once for all partitions");
 
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setExecutorCompilation(true));
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long, quantity int) ");
+        siddhiManager.definePartition("define partition symbolPartition by symbol ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream[price > 70 and volume < 200] " +
+                                                       "select symbol, price * 2 as doublePrice " +
+                                                       "insert into outputStream " +
+                                                       "partition by symbolPartition;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                count += inEvents.length;
+            }
+        });
+        for (int i = 0; i < 50; i++) {
+            inputHandler.send(new Object[]{"SYMBOL" + i, 75.6f, 100l, 5});
+            inputHandler.send(new Object[]{"SYMBOL" + i, 55.6f, 100l, 5});
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(50, count);
+        int classCount = siddhiManager.getSiddhiContext().getExecutorCompiler().getClassCount();
+        Assert.assertTrue("Classes generated for each partition: " + classCount, classCount > 0 && classCount <= 2);
+        siddhiManager.shutdown();
+    }
+
+    private List<List<Object>> runFilterQuery(String query, boolean executorCompilation) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setExecutorCompilation(executorCompilation));
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long, quantity int) ");
+        String queryReference = siddhiManager.addQuery(query);
+        final List<List<Object>> results = new ArrayList<List<Object>>();
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    results.add(Arrays.asList(event.getData()));
+                }
+            }
+        });
+        Object[][] events = new Object[][]{
+                {"IBM", 75.6f, 100l, 5},
+                {"WSO2", 55.6f, 200l, 3},
+                {null, 80f, 150l, 7},
+                {"ORACLE", null, 99l, 2},
+                {"GOOG", 60f, 301l, 10},
+                {"MSFT", Float.NaN, 302l, 4},
+                {"WSO2", 95f, 5l, 6}
+        };
+        for (Object[] data : events) {
+            inputHandler.send(data.clone());
+            InPrimitiveEvent primitiveEvent = inputHandler.createEvent();
+            if (data[0] == null) {
+                primitiveEvent.setNull(0);
+            } else {
+                primitiveEvent.setObject(0, data[0]);
+            }
+            if (data[1] == null) {
+                primitiveEvent.setNull(1);
+            } else {
+                primitiveEvent.setFloat(1, (Float) data[1]);
+            }
+            primitiveEvent.setLong(2, (Long) data[2]).setInt(3, (Integer) data[3]);
+            inputHandler.send(primitiveEvent);
+        }
+        Thread.sleep(100);
+        siddhiManager.shutdown();
+        return results;
+    }
 
 }
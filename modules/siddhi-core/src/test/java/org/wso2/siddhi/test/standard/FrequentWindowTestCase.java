@@ -129,5 +129,43 @@ public class FrequentWindowTestCase {
         siddhiManager.shutdown();
     }
 
+    @Test
+    public void testSpaceSavingWindowQueryDefinedAttributes() throws InterruptedException {
+        log.info("Space-Saving Frequent Event Count Test Running");
+        siddhiManager.defineStream("define stream purchase (cardNo string, price float) ");
+        String queryReference = siddhiManager.addQuery("from purchase[price >= 30]#window.spaceSavingFrequent(2,cardNo)" +
+                "select cardNo, price " +
+                "insert into PotentialFraud for  all-events ;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                if (inEvents != null) {
+                    inEventCount += inEvents.length;
+                }
+                if (removeEvents != null) {
+                    removeEventCount += removeEvents.length;
+                }
+            }
+
+        });
+        inEventCount = 0;
+        removeEventCount = 0;
+        InputHandler loginSucceedEvents = siddhiManager.getInputHandler("purchase");
 
+        for (int i = 0; i < 2; i++) {
+            loginSucceedEvents.send(new Object[]{"3234-3244-2432-4124", 73.36f});
+            loginSucceedEvents.send(new Object[]{"1234-3244-2432-123", 46.36f});
+            loginSucceedEvents.send(new Object[]{"3234-3244-2432-4124", 78.36f});
+            loginSucceedEvents.send(new Object[]{"1234-3244-2432-123", 86.36f});
+            loginSucceedEvents.send(new Object[]{"5768-3244-2432-5646", 48.36f});   // takes over the least frequent card
+        }
+        Thread.sleep(1000);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        Assert.assertEquals("In Event count", 10, inEventCount);
+        Assert.assertEquals("Out Event count", 4, removeEventCount);
+        siddhiManager.shutdown();
+    }
 }
@@ -22,6 +22,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
@@ -35,6 +36,9 @@ import org.wso2.siddhi.query.api.query.Query;
 import org.wso2.siddhi.query.api.query.input.JoinStream;
 import org.wso2.siddhi.query.api.query.output.stream.OutStream;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class JoinTestCase {
     static final Logger log = Logger.getLogger(JoinTestCase.class);
     private int eventCount;
@@ -318,4 +322,146 @@ public class JoinTestCase {
         Assert.assertEquals("Event arrived", true, eventArrived);
         siddhiManager.shutdown();
     }
+
+    @Test
+    public void testJoinQuery7() throws InterruptedException {
+        log.info("Join test7 indexed equi join with expired events");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        siddhiManager.defineStream("define stream twitterStream (user string, tweet string, company string, volume int) ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.length(2) join twitterStream#window.length(2) " +
+                                                       "on cseEventStream.symbol==twitterStream.company and twitterStream.volume==cseEventStream.volume " +
+                                                       "select cseEventStream.symbol as symbol, twitterStream.tweet, cseEventStream.price " +
+                                                       "insert into joinOutputStream for all-events;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        Assert.assertEquals("WSO2", event.getData(0));
+                        eventCount++;
+                    }
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        Assert.assertEquals("WSO2", event.getData(0));
+                        eventCount--;
+                    }
+                }
+                eventArrived = true;
+            }
+        });
+        InputHandler cseEventStreamHandler = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = siddhiManager.getInputHandler("twitterStream");
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 100});
+        twitterStreamHandler.send(new Object[]{"User1", "Hello World", "WSO2", 100});
+        twitterStreamHandler.send(new Object[]{"User2", "Hello World", "WSO2", 200});
+        twitterStreamHandler.send(new Object[]{"User3", "Hello World", "IBM", 200});
+        cseEventStreamHandler.send(new Object[]{"WSO2", 57.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"ORACLE", 57.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"GOOG", 57.6f, 100});
+        Thread.sleep(500);
+
+        Assert.assertEquals("Number of success events", 0, eventCount);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testJoinQuery8() throws InterruptedException {
+        log.info("Join test8 length window remove events in event time");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setEventTimeProcessing(true);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        siddhiManager.defineStream("define stream twitterStream (user string, tweet string, symbol string) ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.length(1) join twitterStream#window.length(1) " +
+                                                       "on cseEventStream.symbol == twitterStream.symbol " +
+                                                       "within 1000 " +
+                                                       "select cseEventStream.symbol as symbol, twitterStream.tweet as tweet " +
+                                                       "insert into StockQuote for all-events;");
+        final List<Long> removeTimeStamps = new ArrayList<Long>();
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    eventCount += inEvents.length;
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        removeTimeStamps.add(event.getTimeStamp());
+                    }
+                }
+                eventArrived = true;
+            }
+        });
+        InputHandler cseEventStreamHandler = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = siddhiManager.getInputHandler("twitterStream");
+        cseEventStreamHandler.send(1000000, new Object[]{"WSO2", 55.6f, 100});
+        twitterStreamHandler.send(1000200, new Object[]{"User1", "Hello World", "WSO2"});
+        // expires WSO2 at the event time rather than the wall clock time
+        cseEventStreamHandler.send(1000500, new Object[]{"IBM", 75.6f, 100});
+
+        Assert.assertEquals("Number of success events", 1, eventCount);
+        Assert.assertEquals(1, removeTimeStamps.size());
+        Assert.assertEquals(Long.valueOf(1000500), removeTimeStamps.get(0));
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testJoinQuery9() throws InterruptedException {
+        log.info("Join test9 filtered join inputs dispatched through the predicate index");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        siddhiManager.defineStream("define stream twitterStream (user string, tweet string, company string) ");
+        final String[] filters = new String[]{"symbol == 'WSO2'", "symbol == 'IBM'", "symbol == 'ORACLE'", "price > 80"};
+        final StringBuilder[] arrivals = new StringBuilder[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            final StringBuilder queryArrivals = new StringBuilder();
+            arrivals[i] = queryArrivals;
+            String queryReference = siddhiManager.addQuery("from cseEventStream[" + filters[i] + "]#window.length(5) join twitterStream#window.length(5) " +
+                                                           "on cseEventStream.symbol == twitterStream.company " +
+                                                           "select cseEventStream.symbol as symbol, twitterStream.user as user " +
+                                                           "insert into joinOutputStream" + i + " ;");
+            siddhiManager.addCallback(queryReference, new QueryCallback() {
+                @Override
+                public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                    EventPrinter.print(timeStamp, inEvents, removeEvents);
+                    if (inEvents != null) {
+                        for (Event event : inEvents) {
+                            queryArrivals.append(event.getData(0)).append(":").append(event.getData(1)).append(" ");
+                            eventCount++;
+                        }
+                    }
+                    eventArrived = true;
+                }
+            });
+        }
+        InputHandler cseEventStreamHandler = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = siddhiManager.getInputHandler("twitterStream");
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"GOOG", 95.6f, 100});
+        twitterStreamHandler.send(new Object[]{"User1", "Hello World", "WSO2"});
+        twitterStreamHandler.send(new Object[]{"User2", "Hello World", "IBM"});
+        twitterStreamHandler.send(new Object[]{"User3", "Hello World", "GOOG"});
+        cseEventStreamHandler.send(new Object[]{"ORACLE", 85.6f, 100});
+        twitterStreamHandler.send(new Object[]{"User4", "Hello World", "ORACLE"});
+        Thread.sleep(100);
+
+        Assert.assertEquals("WSO2:User1 ", arrivals[0].toString());
+        Assert.assertEquals("IBM:User2 ", arrivals[1].toString());
+        Assert.assertEquals("ORACLE:User4 ", arrivals[2].toString());
+        Assert.assertEquals("GOOG:User3 ORACLE:User4 ", arrivals[3].toString());
+        Assert.assertEquals("Number of success events", 5, eventCount);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
 }
@@ -0,0 +1,157 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.standard;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventLayout;
+import org.wso2.siddhi.core.event.in.InPrimitiveEvent;
+import org.wso2.siddhi.core.event.in.InPrimitiveListEvent;
+import org.wso2.siddhi.core.event.remove.RemoveEvent;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.snapshot.codec.SnapshotCodec;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.query.api.QueryFactory;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PrimitiveEventTestCase {
+    static final Logger log = Logger.getLogger(PrimitiveEventTestCase.class);
+
+    private int count;
+    private long lastVolume;
+
+    @Before
+    public void init() {
+        count = 0;
+        lastVolume = 0;
+    }
+
+    @Test
+    public void testPrimitiveEventQuery1() throws InterruptedException {
+        log.info("PrimitiveEvent test1 filter on primitive events");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long, quantity int) ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream[price > 70 and volume >= 100l and quantity < 5.5] " +
+                                                       "select symbol, price, volume " +
+                                                       "insert into outputStream ;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Assert.assertEquals("IBM", inEvents[0].getData(0));
+                Assert.assertEquals(75.6f, inEvents[0].getData(1));
+                Assert.assertEquals(100l, inEvents[0].getData(2));
+                count++;
+            }
+        });
+
+        inputHandler.send(inputHandler.createEvent().setObject(0, "IBM").setFloat(1, 75.6f).setLong(2, 100).setInt(3, 5));
+        inputHandler.send(inputHandler.createEvent().setObject(0, "WSO2").setFloat(1, 55.6f).setLong(2, 100).setInt(3, 5));
+        inputHandler.send(inputHandler.createEvent().setObject(0, "ORACLE").setFloat(1, 75.6f).setLong(2, 100).setInt(3, 6));
+        inputHandler.send(inputHandler.createEvent().setObject(0, "GOOG").setFloat(1, 75.6f).setNull(2).setInt(3, 5));
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100l, 5});
+        Thread.sleep(100);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(inputHandler.createEvent().setObject(0, null).isNull(0));
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testPrimitiveEventQuery2() throws InterruptedException {
+        log.info("PrimitiveEvent test2 columnar list events through a window");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream[volume > 150]#window.length(2) " +
+                                                       "select symbol, sum(volume) as totalVolume " +
+                                                       "insert into outputStream ;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    count += inEvents.length;
+                    lastVolume = (Long) inEvents[inEvents.length - 1].getData(1);
+                }
+            }
+        });
+
+        InPrimitiveListEvent listEvent = inputHandler.createListEvent(2);
+        String[] symbols = new String[]{"IBM", "WSO2", "ORACLE", "GOOG", "MSFT"};
+        for (int i = 0; i < symbols.length; i++) {
+            int row = listEvent.addRow(System.currentTimeMillis());
+            listEvent.setObject(row, 0, symbols[i]).setFloat(row, 1, 50f + i).setLong(row, 2, 100l * (i + 1));
+        }
+        Assert.assertEquals(5, listEvent.getActiveEvents());
+        Assert.assertEquals(300l, listEvent.getLongColumn(2)[2]);
+        inputHandler.send(listEvent);
+        Thread.sleep(100);
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(900l, lastVolume);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testPrimitiveEventSnapshot() {
+        log.info("PrimitiveEvent test3 snapshot codec");
+        StreamDefinition definition = QueryFactory.createStreamDefinition().name("cseEventStream").
+                attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.LONG);
+        Map<String, AbstractDefinition> definitionMap = new HashMap<String, AbstractDefinition>();
+        definitionMap.put("cseEventStream", definition);
+        SnapshotCodec codec = new SnapshotCodec(false);
+        codec.setDefinitionMap(definitionMap);
+        EventLayout eventLayout = new EventLayout(definition);
+
+        InPrimitiveEvent event = new InPrimitiveEvent(eventLayout, 1000).setObject(0, "IBM").setFloat(1, 75.6f).setNull(2);
+        RemoveEvent removeEvent = new RemoveEvent(event, 2000);
+        Object[] decoded = (Object[]) codec.decode(codec.encode(new Object[]{event, removeEvent}));
+        Assert.assertTrue(decoded[0] instanceof InPrimitiveEvent);
+        InPrimitiveEvent decodedEvent = (InPrimitiveEvent) decoded[0];
+        Assert.assertEquals(1000, decodedEvent.getTimeStamp());
+        Assert.assertEquals("IBM", decodedEvent.getObject(0));
+        Assert.assertEquals(75.6f, decodedEvent.getFloat(1));
+        Assert.assertTrue(decodedEvent.isNull(2));
+        Assert.assertSame(decodedEvent.getData(), ((RemoveEvent) decoded[1]).getData());
+
+        InPrimitiveListEvent listEvent = new InPrimitiveListEvent(eventLayout, 1);
+        for (int i = 0; i < 3; i++) {
+            int row = listEvent.addRow(1000 + i);
+            listEvent.setObject(row, 0, "WSO2").setFloat(row, 1, 55.6f).setLong(row, 2, 100l * (i + 1));
+        }
+        Object decodedList = codec.decode(codec.encode(listEvent));
+        Assert.assertTrue(decodedList instanceof InPrimitiveListEvent);
+        InPrimitiveListEvent decodedListEvent = (InPrimitiveListEvent) decodedList;
+        Assert.assertEquals(3, decodedListEvent.getActiveEvents());
+        Assert.assertEquals(300l, decodedListEvent.getLongColumn(2)[2]);
+        Assert.assertEquals(1002, decodedListEvent.getEvent(2).getTimeStamp());
+        Assert.assertEquals("WSO2", decodedListEvent.getEvent(2).getData(0));
+    }
+}
@@ -0,0 +1,207 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.standard;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.core.util.collection.ringbuffer.WaitStrategy;
+import org.wso2.siddhi.query.compiler.exception.SiddhiParserException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RingBufferJunctionTestCase {
+    static final Logger log = Logger.getLogger(RingBufferJunctionTestCase.class);
+
+    private AtomicInteger count;
+    private AtomicInteger outputCount;
+
+    @Before
+    public void init() {
+        count = new AtomicInteger(0);
+        outputCount = new AtomicInteger(0);
+    }
+
+    @Test
+    public void testRingBufferQuery1() throws InterruptedException, SiddhiParserException {
+        log.info("RingBuffer test1");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setRingBufferProcessing(true).setRingBufferSize(16).setRingBufferWaitStrategy(WaitStrategy.Type.BLOCKING);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream ( symbol string, price float, volume int )");
+        String queryReference = siddhiManager.addQuery("from cseEventStream[price > 70] " +
+                                                       "select symbol, price " +
+                                                       "insert into StockQuote ;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Assert.assertTrue("IBM".equals(inEvents[0].getData(0)));
+                count.incrementAndGet();
+            }
+        });
+
+        //more events than slots, hence the producer has to wait on the receivers
+        for (int i = 0; i < 100; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f, i});
+            inputHandler.send(new Object[]{"WSO2", 55.6f, i});
+        }
+        Thread.sleep(500);
+        Assert.assertEquals(100, count.get());
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testRingBufferQuery2() throws InterruptedException, SiddhiParserException {
+        log.info("RingBuffer test2");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setRingBufferProcessing(true).setRingBufferWaitStrategy(WaitStrategy.Type.YIELDING);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream ( symbol string, price float, volume int )");
+        siddhiManager.addQuery("from cseEventStream[symbol == 'IBM'] " +
+                               "select symbol, price " +
+                               "insert into OutStream ;");
+        siddhiManager.addQuery("from cseEventStream[symbol == 'WSO2'] " +
+                               "select symbol, price " +
+                               "insert into OutStream ;");
+        siddhiManager.addCallback("OutStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                outputCount.addAndGet(events.length);
+            }
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f, i});
+            inputHandler.send(new Object[]{"WSO2", 57.6f, i});
+            inputHandler.send(new Object[]{"ORACLE", 57.6f, i});
+        }
+        Thread.sleep(500);
+        Assert.assertEquals(2000, outputCount.get());
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testRingBufferSnapshot() throws InterruptedException, SiddhiParserException {
+        log.info("RingBuffer snapshot test");
+
+        String streamDefinition = "define stream cseEventStream ( symbol string, price float, volume int )";
+        String query = "from cseEventStream#window.length(20000) " +
+                       "select symbol, sum(volume) as totalVol " +
+                       "insert into OutStream ;";
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("RingBufferSnapshot");
+        configuration.setRingBufferProcessing(true).setRingBufferSize(16384).setRingBufferWaitStrategy(WaitStrategy.Type.BLOCKING);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        InputHandler inputHandler = siddhiManager.defineStream(streamDefinition);
+        siddhiManager.addQuery(query);
+        for (int i = 0; i < 10000; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f, 1});
+        }
+        //taken without waiting, the events still in the ring buffer have to be consumed first
+        byte[] snapshot = siddhiManager.snapshot();
+        siddhiManager.shutdown();
+
+        configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("RingBufferSnapshot");
+        siddhiManager = new SiddhiManager(configuration);
+        inputHandler = siddhiManager.defineStream(streamDefinition);
+        String queryReference = siddhiManager.addQuery(query);
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                outputCount.set(((Long) inEvents[inEvents.length - 1].getData(1)).intValue());
+            }
+        });
+        siddhiManager.restore(snapshot);
+
+        inputHandler.send(new Object[]{"IBM", 75.6f, 1});
+        Thread.sleep(100);
+        Assert.assertEquals(10001, outputCount.get());
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testRingBufferSnapshotWhenFull() throws InterruptedException, SiddhiParserException {
+        log.info("RingBuffer snapshot when full test");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setQueryPlanIdentifier("RingBufferSnapshotWhenFull");
+        configuration.setRingBufferProcessing(true).setRingBufferSize(4).setRingBufferWaitStrategy(WaitStrategy.Type.BLOCKING);
+        final SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        final InputHandler inputHandler = siddhiManager.defineStream("define stream cseEventStream ( symbol string, price float, volume int )");
+        siddhiManager.addQuery("from cseEventStream " +
+                               "select symbol, volume " +
+                               "insert into StockQuote ;");
+        siddhiManager.addQuery("from StockQuote " +
+                               "select symbol, volume " +
+                               "insert into OutStream ;");
+        siddhiManager.addCallback("OutStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                try {
+                    //slower than the producer, hence the ring buffers of all the streams fill up
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (outputCount.addAndGet(events.length) == 100) {
+                    //taken while the consumer of StockQuote waits to publish into the full OutStream
+                    siddhiManager.snapshot();
+                    count.incrementAndGet();
+                }
+            }
+        });
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        inputHandler.send(new Object[]{"IBM", 75.6f, i});
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        producer.start();
+        producer.join(10000);
+        Thread.sleep(500);
+        Assert.assertEquals("Snapshots taken", 1, count.get());
+        Assert.assertEquals(500, outputCount.get());
+        siddhiManager.shutdown();
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
@@ -347,4 +348,189 @@ public class TimeWindowTestCase {
         Assert.assertEquals("No Event arrived", false, eventArrived);
         siddhiManager.shutdown();
     }
+
+    @Test
+    public void testTimeWindowQuery8() throws InterruptedException {
+        log.info("Time Window test8 - many time windows sharing the timing wheel");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setTimerTickDuration(5);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                synchronized (TimeWindowTestCase.this) {
+                    if (inEvents != null) {
+                        count += inEvents.length;
+                    }
+                    if (removeEvents != null) {
+                        count -= removeEvents.length;
+                    }
+                    eventArrived = true;
+                }
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            String queryReference = siddhiManager.addQuery("from cseEventStream#window.time(" + (200 + i * 5) + ") " +
+                                                           "select symbol, price " +
+                                                           "insert into StockQuote" + i + " for all-events;");
+            siddhiManager.addCallback(queryReference, queryCallback);
+        }
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100});
+        Thread.sleep(100);
+        synchronized (this) {
+            Assert.assertEquals("Events not yet expired", 200, count);
+        }
+        Thread.sleep(1500);
+        synchronized (this) {
+            Assert.assertEquals("In and Remove events has to be equal", 0, count);
+        }
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testTimeWindowQuery9() throws InterruptedException {
+        log.info("Time Window test9 - event time processing");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setEventTimeProcessing(true);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.time(1 sec) " +
+                                                       "select symbol, price " +
+                                                       "insert into StockQuote for all-events;");
+        final StringBuilder arrivals = new StringBuilder();
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        arrivals.append("+").append(event.getData(0));
+                        count++;
+                    }
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        arrivals.append("-").append(event.getData(0));
+                        count--;
+                    }
+                }
+                eventArrived = true;
+            }
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(1000000, new Object[]{"WSO2", 55.6f, 100});
+        inputHandler.send(1000500, new Object[]{"IBM", 75.6f, 100});
+        inputHandler.send(1001200, new Object[]{"ORACLE", 57.6f, 100});
+        Assert.assertEquals("+WSO2+IBM-WSO2+ORACLE", arrivals.toString());
+        inputHandler.sendWatermark(1001600);
+        Assert.assertEquals("+WSO2+IBM-WSO2+ORACLE-IBM", arrivals.toString());
+        inputHandler.sendWatermark(1002200);
+        Assert.assertEquals("+WSO2+IBM-WSO2+ORACLE-IBM-ORACLE", arrivals.toString());
+        Assert.assertEquals("In and Remove events has to be equal", 0, count);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testTimeWindowQuery10() throws InterruptedException {
+        log.info("Time Window test10");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.defineStream("define stream slowStream (symbol string, price float) ");
+        siddhiManager.defineStream("define stream fastStream (symbol string, price float) ");
+        String slowQueryReference = siddhiManager.addQuery("from slowStream#window.time(100) " +
+                                                           "select symbol, price " +
+                                                           "insert into SlowQuote for all-events;");
+        String fastQueryReference = siddhiManager.addQuery("from fastStream#window.time(100) " +
+                                                           "select symbol, price " +
+                                                           "insert into FastQuote for all-events;");
+        siddhiManager.addCallback(slowQueryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (removeEvents != null) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        siddhiManager.addCallback(fastQueryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (removeEvents != null) {
+                    count += removeEvents.length;
+                    eventArrived = true;
+                }
+            }
+        });
+        siddhiManager.getInputHandler("slowStream").send(new Object[]{"IBM", 75.6f});
+        siddhiManager.getInputHandler("fastStream").send(new Object[]{"WSO2", 55.6f});
+        Thread.sleep(500);
+        Assert.assertEquals("Expired while the slow window callback runs", true, eventArrived);
+        Assert.assertEquals("Remove events", 1, count);
+        siddhiManager.snapshot();
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testTimeBatchWindowEventTimeQuery() throws InterruptedException {
+        log.info("TimeBatchWindow event time test");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setEventTimeProcessing(true);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.timeBatch(1 sec) " +
+                                                       "select symbol, price " +
+                                                       "insert into StockQuote for all-events;");
+        final StringBuilder arrivals = new StringBuilder();
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        arrivals.append("+").append(event.getData(0));
+                        count++;
+                    }
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        arrivals.append("-").append(event.getData(0));
+                        count--;
+                    }
+                }
+                eventArrived = true;
+            }
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(1000000, new Object[]{"WSO2", 55.6f, 100});
+        inputHandler.send(1000300, new Object[]{"IBM", 75.6f, 100});
+        Assert.assertEquals("", arrivals.toString());
+        inputHandler.send(1001200, new Object[]{"ORACLE", 57.6f, 100});
+        Assert.assertEquals("+WSO2+IBM", arrivals.toString());
+        inputHandler.sendWatermark(1001900);
+        Assert.assertEquals("+WSO2+IBM", arrivals.toString());
+        inputHandler.sendWatermark(1002000);
+        Assert.assertEquals("+WSO2+IBM-WSO2-IBM+ORACLE", arrivals.toString());
+        inputHandler.sendWatermark(1003000);
+        Assert.assertEquals("+WSO2+IBM-WSO2-IBM+ORACLE-ORACLE", arrivals.toString());
+        Assert.assertEquals("In and Remove events has to be equal", 0, count);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
 }
@@ -772,4 +772,127 @@ public class WindowTestCase {
         Assert.assertEquals("Event arrived", true, eventArrived);
         siddhiManager.shutdown();
     }
+
+    @Test
+    public void testWindowQuery16() throws InterruptedException {
+        log.info("Window test16 - max and min over a length window");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.length(3) " +
+                                                       "select max(volume) as maxVolume, min(volume) as minVolume " +
+                                                       "insert into StockQuote for all-events;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Event event = inEvents != null ? inEvents[inEvents.length - 1] : removeEvents[removeEvents.length - 1];
+                value = (Integer) event.getData(0) * 1000 + (Integer) event.getData(1);
+                eventArrived = true;
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 10});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 30});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 20});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 5});
+        Thread.sleep(100);
+        Assert.assertEquals("Max and min", 30005, value);
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 4});
+        Thread.sleep(100);
+        Assert.assertEquals("Max and min", 20004, value);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testWindowQuery17() throws InterruptedException {
+        log.info("Window test17 - max over a sort window expiring events out of order");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.sort(2, price, 'asc') " +
+                                                       "select max(price) as maxPrice " +
+                                                       "insert into StockQuote for all-events;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Event event = inEvents != null ? inEvents[inEvents.length - 1] : removeEvents[removeEvents.length - 1];
+                value = ((Float) event.getData(0)).longValue();
+                eventArrived = true;
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 50f, 100l});
+        inputHandler.send(new Object[]{"IBM", 80f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 60f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals("Max price", 60, value);
+        inputHandler.send(new Object[]{"IBM", 40f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals("Max price", 50, value);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testWindowQuery18() throws InterruptedException {
+        log.info("Window test18 - aggregators of long and composite group-by keys");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+
+        String longKeyReference = siddhiManager.addQuery("from cseEventStream#window.length(4) " +
+                                                         "select volume, sum(price) as totalPrice, count(symbol) as symbols " +
+                                                         "group by volume " +
+                                                         "insert into VolumeQuote;");
+        String compositeKeyReference = siddhiManager.addQuery("from cseEventStream#window.length(4) " +
+                                                              "select symbol, volume, count(price) as prices " +
+                                                              "group by symbol, volume " +
+                                                              "insert into SymbolQuote;");
+        siddhiManager.addCallback(longKeyReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Event event = inEvents[inEvents.length - 1];
+                value = ((Double) event.getData(1)).longValue() * 100 + (Long) event.getData(2);
+            }
+
+        });
+        siddhiManager.addCallback(compositeKeyReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count = ((Long) inEvents[inEvents.length - 1].getData(2)).intValue();
+                eventArrived = true;
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 10f, 100l});
+        inputHandler.send(new Object[]{"IBM", 20f, 200l});
+        inputHandler.send(new Object[]{"WSO2", 30f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals("Sum and count of volume 100", 4002, value);
+        Assert.assertEquals("Count of WSO2 and 100", 2, count);
+        inputHandler.send(new Object[]{null, 40f, null});
+        inputHandler.send(new Object[]{null, 50f, null});
+        Thread.sleep(100);
+        Assert.assertEquals("Sum and count of null volume", 9002, value);
+        Assert.assertEquals("Count of null symbol and volume", 2, count);
+        inputHandler.send(new Object[]{"IBM", 70f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals("Sum and count of volume 100 after expiry", 10002, value);
+        Assert.assertEquals("Count of IBM and 100", 1, count);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
 }
@@ -22,11 +22,18 @@ import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.persistence.InMemoryPersistenceStore;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.util.EventPrinter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class PartitionWindowTestCase {
     static final Logger log = Logger.getLogger(PartitionWindowTestCase.class);
 
@@ -115,4 +122,266 @@ public class PartitionWindowTestCase {
         Assert.assertEquals("Event arrived", true, eventArrived);
         siddhiManager.shutdown();
     }
+
+    @Test
+    public void testPartitionWindowQuery3() throws InterruptedException {
+        log.info("Partition Window test3 partitions on worker threads");
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setPartitionWorkers(4));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        siddhiManager.definePartition("define partition streamPartition by symbol ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.length(1000) " +
+                                                       "select symbol , volume, sum(volume) as totalVolume " +
+                                                       "insert into StockQuote " +
+                                                       "partition by streamPartition;");
+        final Map<String, Integer> lastVolumes = new HashMap<String, Integer>();
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                for (Event event : inEvents) {
+                    String symbol = (String) event.getData0();
+                    int volume = (Integer) event.getData1();
+                    Integer lastVolume = lastVolumes.get(symbol);
+                    if ((lastVolume == null ? 0 : lastVolume) + 1 == volume &&
+                        (long) volume * (volume + 1) / 2 == (Long) event.getData2() &&
+                        Thread.currentThread().getName().contains("PartitionWorker")) {
+                        count++;
+                    }
+                    lastVolumes.put(symbol, volume);
+                }
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        for (int volume = 1; volume <= 100; volume++) {
+            for (int i = 0; i < 10; i++) {
+                inputHandler.send(new Object[]{"SYMBOL" + i, 50f, volume});
+            }
+        }
+        Thread.sleep(1000);
+        siddhiManager.shutdown();
+        Assert.assertEquals("Events in order per partition", 1000, count);
+        Assert.assertEquals("Partitions", 10, lastVolumes.size());
+    }
+
+    @Test
+    public void testPartitionWindowQuery4() throws InterruptedException {
+        log.info("Partition Window test4 evicting partitions over the maximum and restoring their spilled states");
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setMaxPartitions(2).setPartitionSpilling(true));
+        final List<String> deletedIdentifiers = new ArrayList<String>();
+        InMemoryPersistenceStore persistenceStore = new InMemoryPersistenceStore() {
+            @Override
+            public void delete(String queryPlanIdentifier, String revision) {
+                deletedIdentifiers.add(queryPlanIdentifier);
+                super.delete(queryPlanIdentifier, revision);
+            }
+        };
+        siddhiManager.setPersistStore(persistenceStore);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.definePartition("define partition streamPartition by symbol ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.length(10) " +
+                                                       "select symbol , sum(volume) as totalVolume " +
+                                                       "insert into StockQuote " +
+                                                       "partition by streamPartition;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count++;
+                value = (Long) inEvents[inEvents.length - 1].getData1();
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 200l});
+        inputHandler.send(new Object[]{"ORACLE", 45.6f, 300l});
+        inputHandler.send(new Object[]{"GOOG", 65.6f, 400l});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 10l});
+        Thread.sleep(100);
+        Assert.assertEquals("5 events are expected", 5, count);
+        Assert.assertEquals("Restored sum", 110l, value);
+        Assert.assertEquals("Restored state deleted", 1, deletedIdentifiers.size());
+        Assert.assertTrue("Restored state deleted", deletedIdentifiers.get(0).endsWith("-partition-WSO2"));
+        siddhiManager.shutdown();
+        persistenceStore.shutdown();
+    }
+
+    @Test
+    public void testPartitionWindowQuery5() throws InterruptedException {
+        log.info("Partition Window test5 evicting idle partitions");
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setPartitionIdleTimeout(200));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.definePartition("define partition streamPartition by symbol ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.time(10000) " +
+                                                       "select symbol , sum(volume) as totalVolume " +
+                                                       "insert into StockQuote for all-events " +
+                                                       "partition by streamPartition;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count++;
+                if (inEvents != null) {
+                    value = (Long) inEvents[inEvents.length - 1].getData1();
+                }
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 10l});
+        Thread.sleep(100);
+        Assert.assertEquals("Sum before eviction", 110l, value);
+        Thread.sleep(600);
+        inputHandler.send(new Object[]{"WSO2", 58.6f, 1l});
+        Thread.sleep(100);
+        Assert.assertEquals("3 events are expected", 3, count);
+        Assert.assertEquals("Sum after eviction", 1l, value);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testPartitionWindowQuery6() throws InterruptedException {
+        log.info("Partition Window test6 queued partition events processed before shutdown returns");
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setPartitionWorkers(2));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume int) ");
+        siddhiManager.definePartition("define partition streamPartition by symbol ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream " +
+                                                       "select symbol, volume " +
+                                                       "insert into StockQuote " +
+                                                       "partition by streamPartition;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += inEvents.length;
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        for (int volume = 1; volume <= 100; volume++) {
+            inputHandler.send(new Object[]{"WSO2", 50f, volume});
+        }
+        siddhiManager.shutdown();
+        Assert.assertEquals("Events processed before shutdown", 100, count);
+    }
+
+    @Test
+    public void testPartitionWindowQuery7() throws InterruptedException {
+        log.info("Partition Window test7 queued partition events in the snapshot");
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setPartitionWorkers(2).setPartitionWorkerQueueSize(8));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.definePartition("define partition streamPartition by symbol ");
+
+        String queryReference = siddhiManager.addQuery("from cseEventStream#window.length(1000) " +
+                                                       "select symbol , sum(volume) as totalVolume " +
+                                                       "insert into StockQuote " +
+                                                       "partition by streamPartition;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                try {
+                    //slower than the producer, hence the worker queues fill up
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if ("WSO2".equals(inEvents[inEvents.length - 1].getData0())) {
+                    value = (Long) inEvents[inEvents.length - 1].getData1();
+                }
+            }
+
+        });
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        for (int i = 0; i < 100; i++) {
+            inputHandler.send(new Object[]{"WSO2", 55.6f, 1l});
+            inputHandler.send(new Object[]{"IBM", 75.6f, 1l});
+        }
+        //taken without waiting, the events still queued on the workers have to be processed first
+        byte[] snapshot = siddhiManager.snapshot();
+        for (int i = 0; i < 10; i++) {
+            inputHandler.send(new Object[]{"WSO2", 55.6f, 1l});
+        }
+        Thread.sleep(500);
+        Assert.assertEquals("Sum before restore", 110l, value);
+
+        siddhiManager.restore(snapshot);
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 1l});
+        Thread.sleep(100);
+        Assert.assertEquals("Restored sum", 101l, value);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testPartitionWindowQuery8() throws InterruptedException {
+        log.info("Partition Window test8 spilled partitions in the snapshot");
+
+        String streamDefinition = "define stream cseEventStream (symbol string, price float, volume long) ";
+        String partitionDefinition = "define partition streamPartition by symbol ";
+        String query = "from cseEventStream#window.length(10) " +
+                       "select symbol , sum(volume) as totalVolume " +
+                       "insert into StockQuote " +
+                       "partition by streamPartition;";
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                value = (Long) inEvents[inEvents.length - 1].getData1();
+            }
+
+        };
+        InMemoryPersistenceStore persistenceStore = new InMemoryPersistenceStore();
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setQueryPlanIdentifier("PartitionSpillSnapshot")
+                                                                .setMaxPartitions(2).setPartitionSpilling(true));
+        siddhiManager.setPersistStore(persistenceStore);
+        siddhiManager.defineStream(streamDefinition);
+        siddhiManager.definePartition(partitionDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(query), queryCallback);
+        InputHandler inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 200l});
+        inputHandler.send(new Object[]{"ORACLE", 45.6f, 300l});
+        //WSO2 and IBM are spilled while the snapshot is taken
+        byte[] snapshot = siddhiManager.snapshot();
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 10l});
+        Thread.sleep(100);
+        Assert.assertEquals("Sum before restore", 110l, value);
+        siddhiManager.shutdown();
+
+        siddhiManager = new SiddhiManager(new SiddhiConfiguration().setQueryPlanIdentifier("PartitionSpillSnapshot")
+                                                  .setMaxPartitions(2).setPartitionSpilling(true));
+        siddhiManager.setPersistStore(persistenceStore);
+        siddhiManager.defineStream(streamDefinition);
+        siddhiManager.definePartition(partitionDefinition);
+        siddhiManager.addCallback(siddhiManager.addQuery(query), queryCallback);
+        siddhiManager.restore(snapshot);
+        inputHandler = siddhiManager.getInputHandler("cseEventStream");
+        inputHandler.send(new Object[]{"WSO2", 58.6f, 1l});
+        Thread.sleep(100);
+        Assert.assertEquals("Restored spilled sum", 101l, value);
+        inputHandler.send(new Object[]{"ORACLE", 45.6f, 1l});
+        Thread.sleep(100);
+        Assert.assertEquals("Restored sum", 301l, value);
+        siddhiManager.shutdown();
+        persistenceStore.shutdown();
+    }
 }
@@ -22,6 +22,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
@@ -32,6 +33,7 @@ import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.query.Query;
 import org.wso2.siddhi.query.api.query.input.pattern.Pattern;
+import org.wso2.siddhi.query.compiler.exception.SiddhiParserException;
 
 public class PatternWithinTestCase {
     static final Logger log = Logger.getLogger(PatternWithinTestCase.class);
@@ -181,5 +183,87 @@ public class PatternWithinTestCase {
 
     }
 
+    @Test
+    public void testPatternWithinQuery3() throws InterruptedException, SiddhiParserException {
+        log.info("testPatternWithin3 - OUT 2 keyed partial matches");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.defineStream("define stream Stream1 ( symbol string, price float, volume int )");
+        siddhiManager.defineStream("define stream Stream2 ( symbol string, price float, volume int )");
+        String queryReference = siddhiManager.addQuery("from every e1 = Stream1 [ price > 20 ] -> e2 = Stream2 [ symbol == e1.symbol and price > e1.price ] " +
+                                                       "within 1000 " +
+                                                       "select e1.symbol as symbol, e1.price as price1, e2.price as price2 " +
+                                                       "insert into OutStream;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (eventCount == 0) {
+                    Assert.assertArrayEquals(new Object[]{"WSO2", 55.6f, 56f}, inEvents[0].getData());
+                } else if (eventCount == 1) {
+                    Assert.assertArrayEquals(new Object[]{"WSO2", 57f, 58f}, inEvents[0].getData());
+                } else {
+                    Assert.fail();
+                }
+                eventCount++;
+            }
+        });
+        InputHandler stream1 = siddhiManager.getInputHandler("Stream1");
+        InputHandler stream2 = siddhiManager.getInputHandler("Stream2");
+        stream1.send(1000, new Object[]{"WSO2", 55.6f, 100});
+        stream1.send(1100, new Object[]{"IBM", 60f, 100});
+        stream1.send(1200, new Object[]{"WSO2", 57f, 100});
+        stream2.send(1300, new Object[]{"GOOG", 100f, 100});
+        stream2.send(1400, new Object[]{"WSO2", 56f, 100});
+        stream2.send(2150, new Object[]{"IBM", 70f, 100});
+        stream2.send(2150, new Object[]{"WSO2", 58f, 100});
+        Thread.sleep(500);
+
+        siddhiManager.shutdown();
+
+        Assert.assertEquals("Number of success events", 2, eventCount);
+    }
+
+    @Test
+    public void testPatternWithinQuery4() throws InterruptedException, SiddhiParserException {
+        log.info("testPatternWithin4 - OUT 1 event time");
+
+        SiddhiConfiguration configuration = new SiddhiConfiguration();
+        configuration.setEventTimeProcessing(true);
+        SiddhiManager siddhiManager = new SiddhiManager(configuration);
+        siddhiManager.defineStream("define stream Stream1 ( symbol string, price float, volume int )");
+        siddhiManager.defineStream("define stream Stream2 ( symbol string, price float, volume int )");
+        String queryReference = siddhiManager.addQuery("from every e1 = Stream1 [ price > 20 ] -> e2 = Stream2 [ price > e1.price ] " +
+                                                       "within 1000 " +
+                                                       "select e1.symbol as symbol1, e2.symbol as symbol2 " +
+                                                       "insert into OutStream;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (eventCount == 0) {
+                    Assert.assertArrayEquals(new Object[]{"GOOG", "IBM"}, inEvents[0].getData());
+                } else {
+                    Assert.fail();
+                }
+                eventCount++;
+                eventArrived = true;
+            }
+        });
+        InputHandler stream1 = siddhiManager.getInputHandler("Stream1");
+        InputHandler stream2 = siddhiManager.getInputHandler("Stream2");
+        stream1.send(1000000, new Object[]{"WSO2", 55.6f, 100});
+        stream1.send(1001500, new Object[]{"GOOG", 54f, 100});
+        stream2.send(1002000, new Object[]{"IBM", 55.7f, 100});
+        Assert.assertEquals("Number of success events", 1, eventCount);
+        stream1.send(1003000, new Object[]{"ORACLE", 50f, 100});
+        stream1.sendWatermark(1004100);
+        stream2.send(1004100, new Object[]{"MSFT", 60f, 100});
+
+        siddhiManager.shutdown();
+
+        Assert.assertEquals("Number of success events", 1, eventCount);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+    }
 
 }
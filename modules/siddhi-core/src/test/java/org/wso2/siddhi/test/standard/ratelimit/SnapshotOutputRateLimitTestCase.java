@@ -948,4 +948,46 @@ public class SnapshotOutputRateLimitTestCase {
         Assert.assertEquals("Number of output event value", 6, value);
         siddhiManager.shutdown();
     }
+
+    @Test
+    public void testSnapshotOutputRateLimitQuery22() throws InterruptedException {
+        log.info("SnapshotOutputRateLimit test22 length window with repeated events");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        siddhiManager.defineStream("define stream LoginEvents (timeStamp long, ip string, calls int) ");
+
+        String queryReference = siddhiManager.addQuery("from LoginEvents#window.length(3) " +
+                                                       "select ip, calls " +
+                                                       "output snapshot every 1 sec " +
+                                                       "insert into uniqueIps for all-events ;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    count++;
+                    Assert.assertEquals(3, inEvents.length);
+                    Assert.assertEquals("192.10.1.1", inEvents[0].getData0());
+                    Assert.assertEquals("192.10.1.2", inEvents[1].getData0());
+                    Assert.assertEquals(0, inEvents[1].getData1());
+                    Assert.assertEquals("192.10.1.3", inEvents[2].getData0());
+                    value += inEvents.length;
+                }
+                eventArrived = true;
+            }
+
+        });
+        InputHandler loginSucceedEvents = siddhiManager.getInputHandler("LoginEvents");
+
+        for (int i = 0; i < 1000; i++) {
+            loginSucceedEvents.send(new Object[]{1l, "192.10.1." + (i % 4), i % 2});
+        }
+        Thread.sleep(2100);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        Assert.assertEquals("Number of output event bundles", 2, count);
+        Assert.assertEquals("Number of output events", 6, value);
+        siddhiManager.shutdown();
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.SiddhiConfiguration;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
@@ -356,4 +357,48 @@ public class TimeOutputRateLimitTestCase {
         Assert.assertEquals("Number of output event value", 8, count);
         siddhiManager.shutdown();
     }
+
+    @Test
+    public void testTimeOutputRateLimitQuery8() throws InterruptedException {
+        log.info("TimeOutputRateLimit test8 - event time processing");
+
+        SiddhiManager siddhiManager = new SiddhiManager(new SiddhiConfiguration().setEventTimeProcessing(true));
+
+        siddhiManager.defineStream("define stream LoginEvents (timeStamp long, ip string) ");
+
+        String queryReference = siddhiManager.addQuery("from LoginEvents " +
+                                                       "select  ip " +
+                                                       "output last every 1 sec " +
+                                                       "insert into uniqueIps for all-events ;");
+
+        final StringBuilder outputs = new StringBuilder();
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    count += inEvents.length;
+                    outputs.append(inEvents[inEvents.length - 1].getData0()).append(" ");
+                } else {
+                    Assert.fail("Remove events emitted");
+                }
+                eventArrived = true;
+            }
+
+        });
+        InputHandler loginSucceedEvents = siddhiManager.getInputHandler("LoginEvents");
+
+        long start = 1000000;
+        loginSucceedEvents.send(start, new Object[]{start, "192.10.1.5"});
+        loginSucceedEvents.send(start + 300, new Object[]{start + 300, "192.10.1.3"});
+        loginSucceedEvents.send(start + 1200, new Object[]{start + 1200, "192.10.1.9"});
+        Assert.assertEquals("192.10.1.3 ", outputs.toString());
+        loginSucceedEvents.send(start + 1500, new Object[]{start + 1500, "192.10.1.4"});
+        loginSucceedEvents.sendWatermark(start + 5000);
+
+        Assert.assertEquals("192.10.1.3 192.10.1.4 ", outputs.toString());
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        Assert.assertEquals("Number of output event value", 2, count);
+        siddhiManager.shutdown();
+    }
 }
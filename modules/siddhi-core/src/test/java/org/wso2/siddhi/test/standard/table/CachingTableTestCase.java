@@ -0,0 +1,174 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.standard.table;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.AtomicEvent;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.StateEvent;
+import org.wso2.siddhi.core.event.StreamEvent;
+import org.wso2.siddhi.core.event.in.InEvent;
+import org.wso2.siddhi.core.executor.conditon.ConditionExecutor;
+import org.wso2.siddhi.core.table.cache.BasicCacheManager;
+import org.wso2.siddhi.core.table.cache.CacheManager;
+import org.wso2.siddhi.core.table.cache.CachingTable;
+import org.wso2.siddhi.core.table.cache.LFUCacheManager;
+import org.wso2.siddhi.core.table.cache.LRUCacheManager;
+import org.wso2.siddhi.core.table.cache.TinyLFUCacheManager;
+import org.wso2.siddhi.core.table.predicate.PredicateBuilder;
+import org.wso2.siddhi.core.table.predicate.PredicateTreeNode;
+import org.wso2.siddhi.query.api.definition.TableDefinition;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class CachingTableTestCase {
+    static final Logger log = Logger.getLogger(CachingTableTestCase.class);
+
+    @Test
+    public void testCacheManager1() {
+        log.info("CacheManager test1 basic, lru and lfu evictions");
+
+        Event a = createEvent("A");
+        Event b = createEvent("B");
+        Event c = createEvent("C");
+        Event d = createEvent("D");
+        Event e = createEvent("E");
+
+        CacheManager cacheManager = new BasicCacheManager();
+        cacheManager.init(3);
+        addAll(cacheManager, a, b, c);
+        cacheManager.read(a);
+        Assert.assertSame(a, cacheManager.add(d));
+
+        cacheManager = new LRUCacheManager();
+        cacheManager.init(3);
+        addAll(cacheManager, a, b, c);
+        cacheManager.read(a);
+        Assert.assertSame(b, cacheManager.add(d));
+        cacheManager.delete(c);
+        Assert.assertNull(cacheManager.add(e));
+        Assert.assertSame(a, cacheManager.add(b));
+
+        cacheManager = new LFUCacheManager();
+        cacheManager.init(3);
+        addAll(cacheManager, a, b, c);
+        cacheManager.read(a);
+        cacheManager.read(a);
+        cacheManager.read(b);
+        Assert.assertSame(c, cacheManager.add(d));
+        Assert.assertSame(d, cacheManager.add(e));
+        cacheManager.read(e);
+        cacheManager.read(e);
+        Assert.assertSame(b, cacheManager.add(c));
+    }
+
+    @Test
+    public void testCacheManager2() {
+        log.info("CacheManager test2 tinylfu keeping frequently read events over a scan");
+
+        CacheManager cacheManager = new TinyLFUCacheManager();
+        cacheManager.init(100);
+        Event[] hotEvents = new Event[50];
+        for (int i = 0; i < hotEvents.length; i++) {
+            hotEvents[i] = createEvent("HOT" + i);
+            Assert.assertNull(cacheManager.add(hotEvents[i]));
+        }
+        readAll(cacheManager, hotEvents);
+        readAll(cacheManager, hotEvents);
+
+        Set<StreamEvent> evicted = new HashSet<StreamEvent>();
+        for (int i = 0; i < 2000; i++) {
+            StreamEvent evictedEvent = cacheManager.add(createEvent("SCAN" + i));
+            if (evictedEvent != null) {
+                evicted.add(evictedEvent);
+            }
+            if (i % 100 == 0) {
+                readAll(cacheManager, hotEvents);
+            }
+        }
+        for (Event hotEvent : hotEvents) {
+            Assert.assertFalse(evicted.contains(hotEvent));
+        }
+        Assert.assertEquals(2000 - 50, evicted.size());
+    }
+
+    @Test
+    public void testCachingTable1() {
+        log.info("CachingTable test1 hit, miss and eviction counts");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        CachingTable cachingTable = new CachingTable("cseEventTable", CachingTable.CACHING_ALGO_LRU, "2", siddhiManager.getSiddhiContext());
+        ConditionExecutor symbolCondition = new SymbolConditionExecutor();
+
+        cachingTable.add(createEvent("WSO2"));
+        cachingTable.add(createEvent("IBM"));
+        Assert.assertTrue(cachingTable.contains(createEvent("WSO2"), symbolCondition));
+        cachingTable.add(createEvent("ORACLE"));
+        Assert.assertFalse(cachingTable.contains(createEvent("IBM"), symbolCondition));
+        Assert.assertTrue(cachingTable.contains(createEvent("WSO2"), symbolCondition));
+        Assert.assertTrue(cachingTable.contains(createEvent("ORACLE"), symbolCondition));
+
+        Assert.assertEquals(3, cachingTable.getHitCount());
+        Assert.assertEquals(1, cachingTable.getMissCount());
+        Assert.assertEquals(1, cachingTable.getEvictionCount());
+        Assert.assertEquals(2, cachingTable.getEvents().size());
+
+        cachingTable.delete(createEvent("WSO2"), symbolCondition);
+        Assert.assertEquals(1, cachingTable.getEvents().size());
+        siddhiManager.shutdown();
+    }
+
+    private Event createEvent(String symbol) {
+        return new InEvent("cseEventStream", System.currentTimeMillis(), new Object[]{symbol, 55.6f, 100l});
+    }
+
+    private void addAll(CacheManager cacheManager, Event... events) {
+        for (Event event : events) {
+            Assert.assertNull(cacheManager.add(event));
+        }
+    }
+
+    private void readAll(CacheManager cacheManager, Event... events) {
+        for (Event event : events) {
+            cacheManager.read(event);
+        }
+    }
+
+    private static class SymbolConditionExecutor implements ConditionExecutor {
+
+        @Override
+        public boolean execute(AtomicEvent event) {
+            StateEvent stateEvent = (StateEvent) event;
+            return ((Event) stateEvent.getStreamEvent(0)).getData(0).equals(((Event) stateEvent.getStreamEvent(1)).getData(0));
+        }
+
+        @Override
+        public String constructFilterQuery(AtomicEvent newEvent, int level) {
+            return null;
+        }
+
+        @Override
+        public PredicateTreeNode constructPredicate(AtomicEvent newEvent, TableDefinition tableDefinition, PredicateBuilder predicateBuilder) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.standard.table;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.query.api.QueryFactory;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+public class IndexedTableTestCase {
+    static final Logger log = Logger.getLogger(IndexedTableTestCase.class);
+
+    private int count;
+    private boolean eventArrived;
+
+    @Before
+    public void init() {
+        count = 0;
+        eventArrived = false;
+    }
+
+    @Test
+    public void testQuery1() throws InterruptedException {
+        log.info("IndexedTableTestCase test1 hash index update and contains");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseCheckEventStream (symbol string, volume long) ");
+        siddhiManager.defineStream("define stream cseUpdateEventStream (comp string, vol long) ");
+        siddhiManager.defineTable(QueryFactory.createTableDefinition().name("cseEventTable").
+                attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).
+                attribute("volume", Attribute.Type.LONG).hashIndex("symbol"));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        siddhiManager.addQuery("from cseUpdateEventStream " +
+                               "select comp as symbol, vol as volume " +
+                               "update cseEventTable" +
+                               "    on cseEventTable.symbol==symbol;");
+
+        String queryReference = siddhiManager.addQuery("from cseCheckEventStream[(symbol==cseEventTable.symbol and volume==cseEventTable.volume ) in cseEventTable] " +
+                                                       "insert into outStream;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count++;
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler cseEventCheckStream = siddhiManager.getInputHandler("cseCheckEventStream");
+        InputHandler cseUpdateEventStream = siddhiManager.getInputHandler("cseUpdateEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 155.6f, 100l});
+        cseEventCheckStream.send(new Object[]{"IBM", 100l});
+        cseEventCheckStream.send(new Object[]{"WSO2", 100l});
+        cseUpdateEventStream.send(new Object[]{"IBM", 200l});
+        cseEventCheckStream.send(new Object[]{"IBM", 100l});
+        cseEventCheckStream.send(new Object[]{"WSO2", 100l});
+        cseEventCheckStream.send(new Object[]{"IBM", 200l});
+
+        Thread.sleep(500);
+        Assert.assertEquals(4, count);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testQuery2() throws InterruptedException {
+        log.info("IndexedTableTestCase test2 range index delete");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseCheckEventStream (symbol string) ");
+        siddhiManager.defineStream("define stream cseDeleteEventStream (minVolume long, maxVolume long) ");
+        siddhiManager.defineTable(QueryFactory.createTableDefinition().name("cseEventTable").
+                attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).
+                attribute("volume", Attribute.Type.LONG).hashIndex("symbol").rangeIndex("volume"));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        siddhiManager.addQuery("from cseDeleteEventStream " +
+                               "delete cseEventTable" +
+                               "    on cseEventTable.volume >= minVolume and maxVolume > cseEventTable.volume;");
+
+        String queryReference = siddhiManager.addQuery("from cseCheckEventStream[(symbol==cseEventTable.symbol) in cseEventTable] " +
+                                                       "insert into outStream;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count++;
+            }
+
+        });
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler cseEventCheckStream = siddhiManager.getInputHandler("cseCheckEventStream");
+        InputHandler cseDeleteEventStream = siddhiManager.getInputHandler("cseDeleteEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 155.6f, 200l});
+        cseEventStream.send(new Object[]{"ORACLE", 45.6f, 300l});
+        cseDeleteEventStream.send(new Object[]{100l, 300l});
+        cseEventCheckStream.send(new Object[]{"WSO2"});
+        cseEventCheckStream.send(new Object[]{"IBM"});
+        cseEventCheckStream.send(new Object[]{"ORACLE"});
+
+        Thread.sleep(500);
+        Assert.assertEquals(1, count);
+        siddhiManager.shutdown();
+    }
+
+}
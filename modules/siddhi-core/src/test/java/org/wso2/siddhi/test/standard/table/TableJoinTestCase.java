@@ -26,6 +26,8 @@ import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.query.api.QueryFactory;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
 public class TableJoinTestCase {
     static final Logger log = Logger.getLogger(org.wso2.siddhi.test.standard.table.TableJoinTestCase.class);
@@ -264,4 +266,52 @@ public class TableJoinTestCase {
 
     }
 
+    @Test
+    public void testTableJoinQuery6() throws InterruptedException {
+        log.info("Table Join test6 indexed table");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseEventCheckStream (symbol string) ");
+        siddhiManager.defineTable(QueryFactory.createTableDefinition().name("cseEventTable").
+                attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).
+                attribute("volume", Attribute.Type.LONG).hashIndex("symbol"));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        String queryReference = siddhiManager.addQuery("from cseEventTable join cseEventCheckStream#window.length(1) " +
+                                                       "on cseEventTable.symbol==cseEventCheckStream.symbol " +
+                                                       "select cseEventCheckStream.symbol as checkSymbol, cseEventTable.symbol as symbol, cseEventTable.volume as volume " +
+                                                       "insert into joinOutputStream;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        Assert.assertEquals("WSO2", event.getData(1));
+                    }
+                    eventCount += inEvents.length;
+                }
+            }
+
+        });
+        InputHandler cseEventStreamHandler = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = siddhiManager.getInputHandler("cseEventCheckStream");
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 100l});
+        cseEventStreamHandler.send(new Object[]{"WSO2", 57.6f, 200l});
+        twitterStreamHandler.send(new Object[]{"WSO2"});
+        Thread.sleep(500);
+
+        Assert.assertEquals("Number of success events", 2, eventCount);
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        siddhiManager.shutdown();
+    }
+
 }
@@ -0,0 +1,229 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.standard.table.rdbms.h2;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.table.RDBMSEventTable;
+import org.wso2.siddhi.core.util.EventPrinter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RDBMSBloomFilterTestCase {
+    static final Logger log = Logger.getLogger(RDBMSBloomFilterTestCase.class);
+
+    private static String dataSourceName = "cepDataSource";
+
+    private int eventCount;
+
+    @Before
+    public void init() {
+        eventCount = 0;
+    }
+
+    @Test
+    public void testBloomFilterQuery1() throws InterruptedException, SQLException {
+        log.info("BloomFilter test1 composite filters and observed false positives");
+
+        DataSource dataSource = new H2DataSource("cepdb5");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, dataSource);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseEventCheckStream (symbol string, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepBloomEventTable"));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+        String queryReference = siddhiManager.addQuery("from cseEventCheckStream[(symbol == cseEventTable.symbol and volume == cseEventTable.volume) in cseEventTable] " +
+                                                       "insert into outputStream;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventCount += inEvents.length;
+            }
+        });
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 200l});
+
+        InputHandler cseEventCheckStream = siddhiManager.getInputHandler("cseEventCheckStream");
+        cseEventCheckStream.send(new Object[]{"WSO2", 100l});
+        cseEventCheckStream.send(new Object[]{"WSO2", 200l});
+        cseEventCheckStream.send(new Object[]{"IBM", 200l});
+        cseEventCheckStream.send(new Object[]{"ORACLE", 100l});
+        Thread.sleep(100);
+        Assert.assertEquals(2, eventCount);
+
+        RDBMSEventTable eventTable = (RDBMSEventTable) siddhiManager.getEventTable("cseEventTable");
+        Assert.assertEquals(0.0, eventTable.getObservedBloomFilterFalsePositiveRate());
+
+        // rows deleted outside are still in the filters
+        execute(dataSource, "DELETE FROM cepBloomEventTable WHERE symbol = 'WSO2'");
+        cseEventCheckStream.send(new Object[]{"WSO2", 100l});
+        Thread.sleep(100);
+        Assert.assertEquals(2, eventCount);
+        Assert.assertEquals(1.0 / 3, eventTable.getObservedBloomFilterFalsePositiveRate(), 0.0001);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testBloomFilterQuery2() throws InterruptedException, SQLException {
+        log.info("BloomFilter test2 filters rebuilt after deletes and updates");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, new H2DataSource("cepdb6"));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseDeleteStream (symbol string) ");
+        siddhiManager.defineStream("define stream cseUpdateStream (symbol string, volume long) ");
+        siddhiManager.defineStream("define stream cseEventCheckStream (symbol string, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepBloomEventTable"));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+        siddhiManager.addQuery("from cseDeleteStream " +
+                               "delete cseEventTable " +
+                               "    on symbol == cseEventTable.symbol;");
+        siddhiManager.addQuery("from cseUpdateStream " +
+                               "update cseEventTable " +
+                               "    on symbol == cseEventTable.symbol;");
+        String queryReference = siddhiManager.addQuery("from cseEventCheckStream[(symbol == cseEventTable.symbol and volume == cseEventTable.volume) in cseEventTable] " +
+                                                       "insert into outputStream;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventCount += inEvents.length;
+            }
+        });
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 200l});
+        cseEventStream.send(new Object[]{"ORACLE", 45.6f, 300l});
+        cseEventStream.send(new Object[]{"GOOG", 65.6f, 400l});
+
+        InputHandler cseDeleteStream = siddhiManager.getInputHandler("cseDeleteStream");
+        cseDeleteStream.send(new Object[]{"WSO2"});
+        cseDeleteStream.send(new Object[]{"ORACLE"});
+        cseDeleteStream.send(new Object[]{"GOOG"});
+
+        InputHandler cseUpdateStream = siddhiManager.getInputHandler("cseUpdateStream");
+        cseUpdateStream.send(new Object[]{"IBM", 250l});
+
+        InputHandler cseEventCheckStream = siddhiManager.getInputHandler("cseEventCheckStream");
+        cseEventCheckStream.send(new Object[]{"WSO2", 100l});
+        cseEventCheckStream.send(new Object[]{"GOOG", 400l});
+        cseEventCheckStream.send(new Object[]{"IBM", 200l});
+        cseEventCheckStream.send(new Object[]{"IBM", 250l});
+        Thread.sleep(100);
+        Assert.assertEquals(1, eventCount);
+
+        RDBMSEventTable eventTable = (RDBMSEventTable) siddhiManager.getEventTable("cseEventTable");
+        Assert.assertEquals(0.0, eventTable.getObservedBloomFilterFalsePositiveRate());
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testBloomFilterQuery3() throws InterruptedException, SQLException {
+        log.info("BloomFilter test3 rows inserted while the filters are rebuilt");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, new H2DataSource("cepdb7"));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseDeleteStream (symbol string) ");
+        siddhiManager.defineStream("define stream cseEventCheckStream (symbol string, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepBloomEventTable"));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+        siddhiManager.addQuery("from cseDeleteStream " +
+                               "delete cseEventTable " +
+                               "    on symbol == cseEventTable.symbol;");
+        String queryReference = siddhiManager.addQuery("from cseEventCheckStream[(symbol == cseEventTable.symbol and volume == cseEventTable.volume) in cseEventTable] " +
+                                                       "insert into outputStream;");
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                eventCount += inEvents.length;
+            }
+        });
+
+        // deletes of missing rows make the filters stale, rebuilding them while the rows are inserted
+        final InputHandler cseDeleteStream = siddhiManager.getInputHandler("cseDeleteStream");
+        final AtomicBoolean inserting = new AtomicBoolean(true);
+        Thread deleteThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (inserting.get()) {
+                        cseDeleteStream.send(new Object[]{"ORACLE"});
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        deleteThread.start();
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        for (long i = 0; i < 200; i++) {
+            cseEventStream.send(new Object[]{"WSO2", 55.6f, i});
+        }
+        inserting.set(false);
+        deleteThread.join();
+
+        InputHandler cseEventCheckStream = siddhiManager.getInputHandler("cseEventCheckStream");
+        for (long i = 0; i < 200; i++) {
+            cseEventCheckStream.send(new Object[]{"WSO2", i});
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(200, eventCount);
+        siddhiManager.shutdown();
+    }
+
+    private void execute(DataSource dataSource, String query) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            statement.executeUpdate(query);
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private String createFromClause(String tableName) {
+        return "from ('datasource.name'='" + dataSourceName + "', 'table.name'='" + tableName + "', 'bloom.filters'='enabled', " +
+               "'bloom.filters.composite'='symbol,volume')";
+    }
+}
@@ -0,0 +1,144 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.siddhi.test.standard.table.rdbms.h2;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.in.InPrimitiveListEvent;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+
+public class RDBMSJoinCursorTestCase {
+    static final Logger log = Logger.getLogger(RDBMSJoinCursorTestCase.class);
+
+    private static String dataSourceName = "cepDataSource";
+
+    private int eventCount;
+    private long volumeSum;
+
+    @Before
+    public void init() {
+        eventCount = 0;
+        volumeSum = 0;
+    }
+
+    @Test
+    public void testJoinCursorQuery1() throws InterruptedException {
+        log.info("JoinCursor test1 join condition selected from the database");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, new H2DataSource("cepdb3"));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseEventCheckStream (symbol string) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepJoinEventTable", 1000));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        String queryReference = siddhiManager.addQuery("from cseEventCheckStream join cseEventTable " +
+                                                       "    on cseEventCheckStream.symbol == cseEventTable.symbol " +
+                                                       "select cseEventCheckStream.symbol as checkSymbol, cseEventTable.symbol as symbol, cseEventTable.volume as volume " +
+                                                       "insert into joinOutputStream;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        Assert.assertEquals("WSO2", event.getData(1));
+                        volumeSum += (Long) event.getData(2);
+                    }
+                    eventCount += inEvents.length;
+                }
+            }
+        });
+        InputHandler cseEventStreamHandler = siddhiManager.getInputHandler("cseEventStream");
+        InputHandler checkStreamHandler = siddhiManager.getInputHandler("cseEventCheckStream");
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 200l});
+        cseEventStreamHandler.send(new Object[]{"WSO2", 57.6f, 300l});
+        checkStreamHandler.send(new Object[]{"WSO2"});
+        checkStreamHandler.send(new Object[]{"ORACLE"});
+        Thread.sleep(500);
+
+        Assert.assertEquals("Number of success events", 2, eventCount);
+        Assert.assertEquals(400l, volumeSum);
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void testJoinCursorQuery2() throws InterruptedException {
+        log.info("JoinCursor test2 list events joined with rows fetched in several round trips");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, new H2DataSource("cepdb4"));
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseEventCheckStream (symbol string, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepJoinEventTable", 10));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        String queryReference = siddhiManager.addQuery("from cseEventCheckStream join cseEventTable " +
+                                                       "    on cseEventCheckStream.symbol == cseEventTable.symbol and cseEventTable.volume < cseEventCheckStream.volume " +
+                                                       "select cseEventTable.symbol as symbol, cseEventTable.volume as volume " +
+                                                       "insert into joinOutputStream;");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        volumeSum += (Long) event.getData(1);
+                    }
+                    eventCount += inEvents.length;
+                }
+            }
+        });
+        InputHandler cseEventStreamHandler = siddhiManager.getInputHandler("cseEventStream");
+        for (long i = 0; i < 100; i++) {
+            cseEventStreamHandler.send(new Object[]{(i % 2 == 0) ? "WSO2" : "IBM", 55.6f, i});
+        }
+
+        InputHandler checkStreamHandler = siddhiManager.getInputHandler("cseEventCheckStream");
+        InPrimitiveListEvent listEvent = checkStreamHandler.createListEvent(2);
+        int row = listEvent.addRow(System.currentTimeMillis());
+        listEvent.setObject(row, 0, "WSO2").setLong(row, 1, 50);
+        row = listEvent.addRow(System.currentTimeMillis());
+        listEvent.setObject(row, 0, "IBM").setLong(row, 1, 100);
+        checkStreamHandler.send(listEvent);
+        Thread.sleep(500);
+
+        // WSO2 rows with volume 0, 2 .. 48 and all the 50 IBM rows
+        Assert.assertEquals("Number of success events", 75, eventCount);
+        Assert.assertEquals(600l + 2500l, volumeSum);
+        siddhiManager.shutdown();
+    }
+
+    private String createFromClause(String tableName, int fetchSize) {
+        return "from ('datasource.name'='" + dataSourceName + "', 'table.name'='" + tableName + "', 'fetch.size'='" + fetchSize + "')";
+    }
+}
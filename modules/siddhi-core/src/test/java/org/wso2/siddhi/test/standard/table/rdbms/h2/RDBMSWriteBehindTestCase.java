@@ -0,0 +1,239 @@
+/*
+*  Copyright (c) 2005-2014, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.siddhi.test.standard.table.rdbms.h2;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class RDBMSWriteBehindTestCase {
+    static final Logger log = Logger.getLogger(RDBMSWriteBehindTestCase.class);
+
+    private static String dataSourceName = "cepDataSource";
+
+    @Test
+    public void testWriteBehindQuery1() throws InterruptedException, SQLException {
+        log.info("WriteBehind test1 buffered inserts written on snapshot");
+
+        DataSource dataSource = new H2DataSource("cepdb1");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, dataSource);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepEventTable", "CREATE TABLE cepEventTable (symbol VARCHAR(50), price FLOAT, volume BIGINT) ", 100, 60000));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 100l});
+        cseEventStream.send(new Object[]{"WSO2", 57.6f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals(0, count(dataSource, "cepEventTable"));
+
+        siddhiManager.snapshot();
+        Assert.assertEquals(3, count(dataSource, "cepEventTable"));
+
+        cseEventStream.send(new Object[]{"ORACLE", 45.6f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals(3, count(dataSource, "cepEventTable"));
+        siddhiManager.shutdown();
+        Assert.assertEquals(4, count(dataSource, "cepEventTable"));
+    }
+
+    @Test
+    public void testWriteBehindQuery2() throws InterruptedException, SQLException {
+        log.info("WriteBehind test2 batches written when full and reads seeing buffered deletes");
+
+        DataSource dataSource = new H2DataSource("cepdb2");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, dataSource);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineStream("define stream cseDeleteStream (symbol string) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepEventTable", "CREATE TABLE cepEventTable (symbol VARCHAR(50), price FLOAT, volume BIGINT) ", 2, 60000));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+        siddhiManager.addQuery("from cseDeleteStream " +
+                               "delete cseEventTable " +
+                               "    on symbol == cseEventTable.symbol ;");
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 100l});
+        cseEventStream.send(new Object[]{"WSO2", 57.6f, 100l});
+        cseEventStream.send(new Object[]{"GOOG", 50.6f, 100l});
+        Thread.sleep(500);
+        Assert.assertEquals(4, count(dataSource, "cepEventTable"));
+
+        InputHandler cseDeleteStream = siddhiManager.getInputHandler("cseDeleteStream");
+        cseDeleteStream.send(new Object[]{"WSO2"});
+        Thread.sleep(100);
+        siddhiManager.shutdown();
+        Assert.assertEquals(2, count(dataSource, "cepEventTable"));
+    }
+
+    @Test
+    public void testWriteBehindQuery3() throws InterruptedException, SQLException {
+        log.info("WriteBehind test3 failed batch failing the snapshot and retried after the interval");
+
+        FailingH2DataSource dataSource = new FailingH2DataSource("cepdb3");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, dataSource);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepEventTable", "CREATE TABLE cepEventTable (symbol VARCHAR(50), price FLOAT, volume BIGINT) ", 100, 1000));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 100l});
+        cseEventStream.send(new Object[]{"WSO2", 57.6f, 100l});
+
+        dataSource.failures = 1;
+        try {
+            siddhiManager.snapshot();
+            Assert.fail("Snapshot taken without the buffered changes");
+        } catch (RuntimeException e) {
+            log.info("Snapshot failed as expected: " + e.getMessage());
+        }
+        Assert.assertEquals(0, count(dataSource, "cepEventTable"));
+
+        //retried by the writer once the interval has elapsed
+        Thread.sleep(2500);
+        Assert.assertEquals(3, count(dataSource, "cepEventTable"));
+        siddhiManager.snapshot();
+        siddhiManager.shutdown();
+        Assert.assertEquals(3, count(dataSource, "cepEventTable"));
+    }
+
+    @Test
+    public void testWriteBehindQuery4() throws InterruptedException, SQLException {
+        log.info("WriteBehind test4 failed batch dropped after the retries");
+
+        FailingH2DataSource dataSource = new FailingH2DataSource("cepdb4");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, dataSource);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepEventTable", "CREATE TABLE cepEventTable (symbol VARCHAR(50), price FLOAT, volume BIGINT) ", 100, 100));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        dataSource.failures = 4;
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 100l});
+        while (dataSource.failures > 0) {
+            try {
+                siddhiManager.snapshot();
+            } catch (RuntimeException e) {
+                log.info("Snapshot failed as expected: " + e.getMessage());
+            }
+            Thread.sleep(150);
+        }
+        //the batch is dropped on its fourth failure, nothing is left to be written
+        siddhiManager.snapshot();
+        Assert.assertEquals(0, count(dataSource, "cepEventTable"));
+
+        cseEventStream.send(new Object[]{"ORACLE", 45.6f, 100l});
+        Thread.sleep(100);
+        siddhiManager.shutdown();
+        Assert.assertEquals(1, count(dataSource, "cepEventTable"));
+    }
+
+    @Test
+    public void testWriteBehindQuery5() throws InterruptedException, SQLException {
+        log.info("WriteBehind test5 buffered changes retried with a backoff on shutdown");
+
+        FailingH2DataSource dataSource = new FailingH2DataSource("cepdb5");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.getSiddhiContext().addDataSource(dataSourceName, dataSource);
+
+        siddhiManager.defineStream("define stream cseEventStream (symbol string, price float, volume long) ");
+        siddhiManager.defineTable("define table cseEventTable (symbol string, price float, volume long) " + createFromClause("cepEventTable", "CREATE TABLE cepEventTable (symbol VARCHAR(50), price FLOAT, volume BIGINT) ", 100, 200));
+
+        siddhiManager.addQuery("from cseEventStream " +
+                               "insert into cseEventTable;");
+
+        InputHandler cseEventStream = siddhiManager.getInputHandler("cseEventStream");
+        cseEventStream.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStream.send(new Object[]{"IBM", 75.6f, 100l});
+
+        //shorter than the retries of a batch, hence nothing is dropped
+        dataSource.unavailableUntil = System.currentTimeMillis() + 300;
+        siddhiManager.shutdown();
+        Assert.assertEquals(2, count(dataSource, "cepEventTable"));
+    }
+
+    private int count(DataSource dataSource, String tableName) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + tableName);
+            resultSet.next();
+            return resultSet.getInt(1);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private String createFromClause(String tableName, String createQuery, int batchSize, int interval) {
+        return "from ('datasource.name'='" + dataSourceName + "', 'table.name'='" + tableName + "', 'create.query'='" + createQuery +
+               "', 'write.behind'='enabled', 'write.behind.batch.size'='" + batchSize + "', 'write.behind.interval'='" + interval + "')";
+    }
+
+    /**
+     * Fails the given number of connection requests, and all of them till the given time
+     */
+    private static class FailingH2DataSource extends H2DataSource {
+
+        private volatile int failures = 0;
+        private volatile long unavailableUntil = 0;
+
+        public FailingH2DataSource(String databaseName) {
+            super(databaseName);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failures > 0) {
+                failures--;
+                throw new SQLException("Database unavailable");
+            }
+            if (System.currentTimeMillis() < unavailableUntil) {
+                throw new SQLException("Database unavailable");
+            }
+            return super.getConnection();
+        }
+    }
+}
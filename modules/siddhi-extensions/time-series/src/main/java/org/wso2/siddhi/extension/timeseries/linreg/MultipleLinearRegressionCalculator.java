@@ -5,8 +5,6 @@ import org.apache.commons.math3.distribution.TDistribution;
 import org.wso2.siddhi.core.event.in.InEvent;
 
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -15,83 +13,94 @@ import java.util.Map;
 public class MultipleLinearRegressionCalculator extends RegressionCalculator
 {
 
-    private List<double[]> yValueList = new LinkedList<double[]>();
-    private List<double[]> xValueList = new LinkedList<double[]>();
+    private final RegressionStatistics statistics;   // x values from 0 and y at xParameterCount
+    private final double[] row;
 
     public MultipleLinearRegressionCalculator(int paramCount, int calcInt, int limit, double ci)
     {
         super(paramCount, calcInt, limit, ci);
+        statistics = new RegressionStatistics(paramCount, limit);
+        row = new double[paramCount];
     }
 
     public void addEvent (InEvent inEvent, Map<Integer, String> paramPositions, int paramCount) {
 
         incCounter++;
         eventCount++;
-        double[] dataX = new double[paramCount];
-        double[] dataY = new double[1];
-        dataX[0] = 1.0;
 
         Iterator<Map.Entry<Integer, String>> it = paramPositions.entrySet().iterator();
-        dataY[0] = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
+        row[xParameterCount] = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
 
-        for(int i=1; i<paramCount; i++) {
-            dataX[i] = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
+        for(int i=0; i<xParameterCount; i++) {
+            row[i] = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
         }
-
-        xValueList.add(dataX);
-        yValueList.add(dataY);
+        statistics.add(row);
     }
 
     public void removeEvent(){
 
-        xValueList.remove(0);
-        yValueList.remove(0);
+        statistics.removeOldest();
     }
 
     public Object[] processData() {
 
-        double[][] xArray = xValueList.toArray(new double[eventCount][xParameterCount +1]);
-        double[][] yArray = yValueList.toArray(new double[eventCount][1]);
+        double [] betas = new double[xParameterCount +1];
         double [] betaErrors = new double[xParameterCount +1];
         double [] tStats = new double[xParameterCount +1];
-        double sse = 0.0;                               // sum of square error
         double df = eventCount - xParameterCount - 1;   // Degrees of Freedom for Confidence Interval
         double p = 1- confidenceInterval;               // P value of specified confidence interval
         double pValue;
         Object[] regResults = new Object[xParameterCount + 2];
 
-        // Calculate Betas
+        // Calculate Betas from the centered normal equations, the intercept is fitted by the means
         try{
 
-            Matrix matY = new Matrix(yArray);
-            Matrix matX = new Matrix(xArray);
-            Matrix matXTranspose = matX.transpose();
-            Matrix matXTXInverse = matXTranspose.times(matX).inverse();
-            Matrix matBetas = matXTXInverse.times(matXTranspose).times(matY);
-
-            Matrix yHat = matX.times(matBetas);
+            double[][] comoments = new double[xParameterCount][xParameterCount];
+            for (int i = 0; i < xParameterCount; i++) {
+                for (int j = 0; j < xParameterCount; j++) {
+                    comoments[i][j] = statistics.getComoment(i, j);
+                }
+            }
+            Matrix matCxxInverse = new Matrix(comoments).inverse();
 
-            // Calculate Sum of Squares
-            for (int i = 0; i < eventCount; i++) {
-                sse += (yHat.get(i,0) - yArray[i][0]) * (yHat.get(i,0) - yArray[i][0]);
+            double sse = statistics.getComoment(xParameterCount, xParameterCount);   // sum of square error
+            betas[0] = statistics.getMean(xParameterCount);
+            for (int i = 0; i < xParameterCount; i++) {
+                for (int j = 0; j < xParameterCount; j++) {
+                    betas[i + 1] += matCxxInverse.get(i, j) * statistics.getComoment(j, xParameterCount);
+                }
+                betas[0] -= betas[i + 1] * statistics.getMean(i);
+                sse -= betas[i + 1] * statistics.getComoment(i, xParameterCount);
             }
+            sse = Math.max(sse, 0.0);
 
             // Calculating Errors
             double mse = sse/df;
             regResults[0] = Math.sqrt(mse);      // Standard Error of Regression
             TDistribution t = new TDistribution(df);
 
-            // Calculating beta errors and tstats
+            // variance of the intercept is mse * (1/n + mean(x)' * inverse(Cxx) * mean(x))
+            double interceptVariance = 1.0 / eventCount;
+            for (int i = 0; i < xParameterCount; i++) {
+                for (int j = 0; j < xParameterCount; j++) {
+                    interceptVariance += statistics.getMean(i) * matCxxInverse.get(i, j) * statistics.getMean(j);
+                }
+            }
+            betaErrors[0] = Math.sqrt(interceptVariance * mse);
+            for (int j = 1; j <= xParameterCount; j++) {
+                betaErrors[j] = Math.sqrt(matCxxInverse.get(j - 1, j - 1) * mse);
+            }
+
+            // Calculating tstats
             for(int j=0; j <= xParameterCount; j++) {
-                betaErrors[j] = Math.sqrt(matXTXInverse.get(j,j) * mse);
-                tStats[j] = matBetas.get(j,0)/betaErrors[j];
+                tStats[j] = betas[j]/betaErrors[j];
 
                 // Eliminating statistically weak coefficients
                 pValue = 2 * (1 - t.cumulativeProbability(Math.abs(tStats[j])));
                 if ( pValue > p) {
                     regResults[j+1] = 0.0;
                 }else {
-                    regResults[j+1] = matBetas.get(j,0);
+                    regResults[j+1] = betas[j];
                 }
             }
         }
@@ -104,4 +113,4 @@ public class MultipleLinearRegressionCalculator extends RegressionCalculator
         }
         return regResults;
     }
-}
\ No newline at end of file
+}
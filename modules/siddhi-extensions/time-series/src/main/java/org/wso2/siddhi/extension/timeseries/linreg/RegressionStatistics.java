@@ -0,0 +1,135 @@
+package org.wso2.siddhi.extension.timeseries.linreg;
+
+/**
+ * Sufficient statistics of a regression over a sliding batch of events, the count, the means and the
+ * co-moments of the variables. An added row is a rank-1 update and the removal of the oldest row a rank-1
+ * downdate of the co-moments, both centered on the means for numerical stability, hence an update costs
+ * O(p^2) for p variables regardless of the batch size. Rows are kept in a primitive ring buffer for the
+ * downdates, the statistics are accumulated again from the buffer once as many rows as it holds are removed
+ * so the rounding errors of the downdates do not build up, which is amortized O(p^2) per row.
+ */
+public class RegressionStatistics {
+
+    private final int variableCount;
+    private final int limit;
+    private int count = 0;
+    private final double[] means;
+    private final double[][] comoments;
+    private final double[] deltas;
+
+    private double[] rows;
+    private int head = 0;
+    private int removalCount = 0;
+
+    /**
+     * @param limit the maximum number of rows held before the oldest is removed
+     */
+    public RegressionStatistics(int variableCount, int limit) {
+        this.variableCount = variableCount;
+        this.limit = limit;
+        means = new double[variableCount];
+        comoments = new double[variableCount][variableCount];
+        deltas = new double[variableCount];
+        rows = new double[variableCount * Math.min(limit, 16)];
+    }
+
+    public void add(double[] row) {
+        if (count * variableCount == rows.length) {
+            grow();
+        }
+        int offset = ((head + count) % capacity()) * variableCount;
+        System.arraycopy(row, 0, rows, offset, variableCount);
+        update(rows, offset);
+    }
+
+    private void update(double[] row, int offset) {
+        count++;
+        for (int i = 0; i < variableCount; i++) {
+            deltas[i] = row[offset + i] - means[i];
+            means[i] += deltas[i] / count;
+        }
+        for (int i = 0; i < variableCount; i++) {
+            for (int j = i; j < variableCount; j++) {
+                comoments[i][j] += deltas[i] * (row[offset + j] - means[j]);
+            }
+        }
+    }
+
+    public void removeOldest() {
+        if (count == 0) {
+            return;
+        }
+        int offset = head * variableCount;
+        head = (head + 1) % capacity();
+        count--;
+        removalCount++;
+        if (removalCount >= count) {
+            rebuild();
+            return;
+        }
+        // deltas hold the row from the means without it
+        for (int i = 0; i < variableCount; i++) {
+            double value = rows[offset + i];
+            double mean = means[i] - (value - means[i]) / count;
+            deltas[i] = value - mean;
+        }
+        for (int i = 0; i < variableCount; i++) {
+            for (int j = i; j < variableCount; j++) {
+                comoments[i][j] -= deltas[i] * (rows[offset + j] - means[j]);
+            }
+        }
+        for (int i = 0; i < variableCount; i++) {
+            means[i] = rows[offset + i] - deltas[i];
+        }
+    }
+
+    private void rebuild() {
+        int rowCount = count;
+        count = 0;
+        removalCount = 0;
+        for (int i = 0; i < variableCount; i++) {
+            means[i] = 0;
+            for (int j = i; j < variableCount; j++) {
+                comoments[i][j] = 0;
+            }
+        }
+        int capacity = capacity();
+        for (int k = 0; k < rowCount; k++) {
+            update(rows, ((head + k) % capacity) * variableCount);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean(int variable) {
+        return means[variable];
+    }
+
+    /**
+     * @return sum of the products of the deviations of the two variables from their means
+     */
+    public double getComoment(int variable1, int variable2) {
+        return variable1 <= variable2 ? comoments[variable1][variable2] : comoments[variable2][variable1];
+    }
+
+    private int capacity() {
+        return rows.length / variableCount;
+    }
+
+    private void grow() {
+        int capacity = capacity();
+        // one more than the limit is held before the oldest row is removed
+        int newCapacity = (int) Math.min((long) capacity * 2, (long) limit + 1);
+        if (newCapacity <= capacity) {
+            newCapacity = capacity + 1;
+        }
+        double[] newRows = new double[newCapacity * variableCount];
+        int firstPart = Math.min(count, capacity - head);
+        System.arraycopy(rows, head * variableCount, newRows, 0, firstPart * variableCount);
+        System.arraycopy(rows, 0, newRows, firstPart * variableCount, (count - firstPart) * variableCount);
+        rows = newRows;
+        head = 0;
+    }
+}
@@ -5,8 +5,6 @@ import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.event.in.InEvent;
 
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,14 +14,14 @@ public class SimpleLinearRegressionCalculator extends RegressionCalculator
 {
 
     static final Logger log = Logger.getLogger(SimpleLinearRegressionCalculator.class);
-    private List<Double> xValueList = new LinkedList<Double>();
-    private List<Double> yValueList = new LinkedList<Double>();
-    private double sumX = 0.0, sumY = 0.0, sumXsquared = 0.0, xValue, yValue;
+    private final RegressionStatistics statistics;   // x at 0 and y at 1
+    private final double[] row = new double[2];
 
 
     public SimpleLinearRegressionCalculator(int paramCount, int calcInt, int limit, double ci)
     {
         super(paramCount, calcInt, limit, ci);
+        statistics = new RegressionStatistics(2, limit);
     }
 
 
@@ -33,68 +31,42 @@ public class SimpleLinearRegressionCalculator extends RegressionCalculator
         incCounter++;
 
         Iterator<Map.Entry<Integer, String>> it = paramPositions.entrySet().iterator();
-        yValue = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
-        yValueList.add(yValue);
-
-        xValue = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
-        xValueList.add(xValue);
-
-        sumX += xValue;
-        sumXsquared += (xValue*xValue);
-        sumY  += yValue;
+        row[1] = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
+        row[0] = ((Number) inEvent.getData(it.next().getKey())).doubleValue();
+        statistics.add(row);
     }
 
     public void removeEvent(){
 
-        double xValue = xValueList.remove(0);
-
-        sumX -= xValue;
-        sumXsquared += xValue * xValue;
-        sumY  -= yValueList.remove(0);
+        statistics.removeOldest();
     }
 
     public Object[] processData () {
 
         Object[] regResult;
         try {
-            Double[] xArray = xValueList.toArray(new Double[eventCount]);
-            Double[] yArray = yValueList.toArray(new Double[eventCount]);
-
-            double meanX, meanY, varianceX = 0.0, varianceY = 0.0, covarXY = 0.0, beta1, beta0, R2, stderr, beta1err, beta0err, t_beta0, t_beta1, fit;
+            double meanX, meanY, varianceX, covarXY, beta1, beta0, stderr, beta1err, beta0err, t_beta0, t_beta1;
 
-            double resss = 0.0;      // residual sum of squares
-            // double regss = 0.0;      // regression sum of squares [Required to calculate R2]
             int df = eventCount - 2; // degrees of freedom (n-k-1)
             TDistribution t = new TDistribution(df);
 
-            //  compute meanX and meanY
-            meanX = sumX / eventCount;
-            meanY = sumY / eventCount;
-
-            // compute summary statistics
-            for (int i = 0; i < eventCount; i++) {
-                varianceX += (xArray[i] - meanX) * (xArray[i] - meanX);
-                // varianceY += (yArray[i] - meanY) * (yArray[i] - meanY);  // Required to calculate R2
-                covarXY += (xArray[i] - meanX) * (yArray[i] - meanY);
-            }
-
+            // summary statistics maintained as the events arrive and expire
+            meanX = statistics.getMean(0);
+            meanY = statistics.getMean(1);
+            varianceX = statistics.getComoment(0, 0);
+            covarXY = statistics.getComoment(0, 1);
 
             //compute coefficients
             beta1 = covarXY / varianceX;
             beta0 = meanY - beta1 * meanX;
 
-            // analyze results
-            for (int i = 0; i < eventCount; i++) {
-                fit = beta1 * xArray[i] + beta0;
-                resss += (fit - yArray[i]) * (fit - yArray[i]);
-                // regss += (fit - meanY) * (fit - meanY);  // Required to calculate R2
-            }
+            // residual sum of squares
+            double resss = Math.max(statistics.getComoment(1, 1) - beta1 * covarXY, 0.0);
 
-            // R2 = regss / varianceY;  // Will calculate only if a customer asks for it
             //calculating standard errors
             stderr = Math.sqrt(resss / df);
             beta1err = stderr / Math.sqrt(varianceX);
-            beta0err = stderr * Math.sqrt(sumXsquared / (eventCount * varianceX));
+            beta0err = stderr * Math.sqrt(1.0 / eventCount + meanX * meanX / varianceX);
 
             //calculating tstats
             t_beta0 = beta0 / beta0err;
@@ -89,6 +89,6 @@ public class ContinuousSeasonalityTestCase
 
         siddhiManager.shutdown();
         Assert.assertEquals("No of events: ", 21, count);
-        Assert.assertEquals("Beta0: ",  5.661764084669217, betaZero);
+        Assert.assertEquals("Beta0: ",  5.661764084669217, betaZero, 1e-9);
     }
 }
@@ -34,6 +34,8 @@ public class MultiRegressionTestCase
 
         List<Class> list = new ArrayList<Class>();
         list.add(org.wso2.siddhi.extension.timeseries.LinearRegressionTransformProcessor.class);
+        list.add(org.wso2.siddhi.extension.timeseries.LinearRegressionForecastTransformProcessor.class);
+        list.add(org.wso2.siddhi.extension.timeseries.LinearRegressionOutlierTransformProcessor.class);
 
         siddhiConfiguration.setSiddhiExtensions(list);
 
@@ -113,7 +115,7 @@ public class MultiRegressionTestCase
         siddhiManager.shutdown();
 
         Assert.assertEquals("No of events: ", 50, count);
-        Assert.assertEquals("Beta0: ", 34.42398117538763, betaOne);
+        Assert.assertEquals("Beta0: ", 34.42398117538763, betaOne, 1e-9);
 
     }
 
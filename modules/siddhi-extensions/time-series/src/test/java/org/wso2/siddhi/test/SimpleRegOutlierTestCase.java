@@ -120,7 +120,7 @@ public class SimpleRegOutlierTestCase
         Thread.sleep(1000);
         siddhiManager.shutdown();
 
-        double delta=0.0;
+        double delta=1e-9;
         Assert.assertEquals("No of events: ", 50, count);
         Assert.assertEquals(573.1418421169493, betaZero, delta);
 
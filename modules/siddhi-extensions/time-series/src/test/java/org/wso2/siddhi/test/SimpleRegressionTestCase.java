@@ -1,5 +1,6 @@
 package org.wso2.siddhi.test;
 
+import junit.framework.Assert;
 import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
@@ -22,6 +23,8 @@ public class SimpleRegressionTestCase
 
     private int count;
     private double betaZero;
+    private Object[] batchResult;
+    private Object[] recentResult;
 
     @Before
     public void init() {
@@ -120,6 +123,63 @@ public class SimpleRegressionTestCase
 //        Assert.assertEquals("Beta0: ", 573.1418421169498, betaZero);
 
     }
-}
 
+    @Test
+    public void testRegressionBatch() throws InterruptedException {
+        log.info("Regression Test 2 - Simple Linear over a batch of events");
+
+        SiddhiConfiguration siddhiConfiguration = new SiddhiConfiguration();
+
+        List<Class> list = new ArrayList<Class>();
+        list.add(org.wso2.siddhi.extension.timeseries.LinearRegressionTransformProcessor.class);
+
+        siddhiConfiguration.setSiddhiExtensions(list);
+
+        SiddhiManager siddhiManager = new SiddhiManager(siddhiConfiguration);
 
+        InputHandler inputHandler = siddhiManager.defineStream("define stream DataStream ( y double, x double )");
+        InputHandler recentInputHandler = siddhiManager.defineStream("define stream RecentDataStream ( y double, x double )");
+
+        String queryReference = siddhiManager.addQuery("from DataStream#transform.timeseries:regress( 1, 10, 0.95,  y, x) \n" +
+                "        select *  \n" +
+                "        insert into RegressionResult;\n");
+        String recentQueryReference = siddhiManager.addQuery("from RecentDataStream#transform.timeseries:regress( 1, 1000000, 0.95,  y, x) \n" +
+                "        select *  \n" +
+                "        insert into RecentRegressionResult;\n");
+
+        siddhiManager.addCallback(queryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                batchResult = inEvents[inEvents.length - 1].getData();
+                count++;
+            }
+        });
+        siddhiManager.addCallback(recentQueryReference, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                recentResult = inEvents[inEvents.length - 1].getData();
+            }
+        });
+
+        double[][] data = {{3300.00, 31.00}, {2600.00, 18.00}, {2500.00, 17.00}, {2475.00, 12.00}, {2313.00, 8.00},
+                           {2175.00, 26.00}, {629.00, 1.00}, {275.00, 6.00}, {120.00, 0.00}, {2567.00, 12.00},
+                           {2500.00, 28.00}, {2350.00, 21.00}, {2317.00, 3.00}, {2000.00, 12.00}, {715.00, 1.00},
+                           {660.00, 9.00}, {650.00, 0.00}, {260.00, 0.00}, {250.00, 1.00}, {200.00, 13.00},
+                           {180.00, 6.00}, {3300.00, 31.00}, {2600.00, 18.00}, {2500.00, 17.00}, {2475.00, 12.00},
+                           {2313.00, 8.00}, {2175.00, 26.00}, {629.00, 1.00}, {275.00, 6.00}, {2567.00, 12.00}};
+        for (int i = 0; i < data.length; i++) {
+            inputHandler.send(new Object[]{data[i][0], data[i][1]});
+            if (i >= data.length - 10) {
+                recentInputHandler.send(new Object[]{data[i][0], data[i][1]});
+            }
+        }
+
+        Thread.sleep(1000);
+        siddhiManager.shutdown();
+
+        Assert.assertEquals("No of events: ", 30, count);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals((Double) recentResult[i], (Double) batchResult[i], 1e-6);
+        }
+    }
+}